@@ -0,0 +1,381 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays registered AI policies on a fixed suite of seeded headless games and reports
+ * how fast and how well each one plays.
+ * <p>
+ * Game {@code i} of the suite uses the brick sequence of seed {@code firstSeed + i} for
+ * every policy, so policies are compared on identical games and a run is repeatable:
+ * apart from the timings, the same policies and suite always give the same table,
+ * whatever the thread count. Games are capped at {@code maxPieces} pieces.
+ * </p>
+ * <p>
+ * Games run on a fixed pool of worker threads, like {@link WeightTuner}. Each worker
+ * builds its own board, {@link HeadlessGame} and policy instance per policy and restarts
+ * them for every game, takes games from a shared counter and writes its results to the
+ * game's own slot.
+ * </p>
+ * <p>
+ * {@link #writeTable} prints the standings as tab-separated values with a header line,
+ * for diffing runs and loading into a spreadsheet. Pieces per second is per thread
+ * (pieces over the summed time of the games), so it measures the engine rather than
+ * the machine's core count.
+ * </p>
+ */
+public final class AiLeague implements AutoCloseable {
+
+    /** Header line of {@link #writeTable}. */
+    public static final String TABLE_HEADER = "policy\tgames\tpieces_per_s\tscore_mean\tscore_p10\tscore_p50"
+            + "\tscore_p90\tlines_per_game\tpieces_per_game\ttopped_out";
+
+    /** Board size of the league games (the game's own size). */
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    /**
+     * Plays a game one piece at a time.
+     */
+    @FunctionalInterface
+    public interface Policy {
+
+        /**
+         * Places the current brick, sending its inputs to the game.
+         */
+        void playPiece();
+    }
+
+    /**
+     * Creates a policy instance for one worker thread.
+     */
+    @FunctionalInterface
+    public interface PolicyFactory {
+
+        /**
+         * @param board the worker's board
+         * @param game  the worker's game, the listener the inputs go to
+         * @return a policy playing on {@code board}
+         */
+        Policy create(GameBoard board, HeadlessGame game);
+    }
+
+    private final long firstSeed;
+    private final int games;
+    private final int maxPieces;
+    private final int threads;
+    private final ExecutorService pool;
+    private final Map<String, PolicyFactory> policies = new LinkedHashMap<>();
+
+    /**
+     * Creates a league.
+     *
+     * @param firstSeed seed of the first game of the suite
+     * @param games     games in the suite
+     * @param maxPieces piece limit per game
+     * @param threads   worker threads
+     */
+    public AiLeague(long firstSeed, int games, int maxPieces, int threads) {
+        if (games < 1 || maxPieces < 1 || threads < 1) {
+            throw new IllegalArgumentException("Games, pieces and threads must be positive");
+        }
+        this.firstSeed = firstSeed;
+        this.games = games;
+        this.maxPieces = maxPieces;
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "ai-league");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Registers a policy; policies are played and listed in registration order.
+     *
+     * @param name    name shown in the table, without tabs or line breaks
+     * @param factory creates one instance per worker thread
+     */
+    public void register(String name, PolicyFactory factory) {
+        if (name.isEmpty() || name.chars().anyMatch(ch -> ch == '\t' || ch == '\n' || ch == '\r')) {
+            throw new IllegalArgumentException("Bad policy name: '" + name + "'");
+        }
+        if (policies.putIfAbsent(name, factory) != null) {
+            throw new IllegalArgumentException("Policy already registered: " + name);
+        }
+    }
+
+    /**
+     * Registers an {@link AiPlayer} policy.
+     *
+     * @param name       name shown in the table
+     * @param heuristic  the evaluation
+     * @param beamWidth  beam width, or {@code 0} for the one-brick greedy search
+     * @param depth      beam depth in bricks (ignored without a beam)
+     */
+    public void registerAiPlayer(String name, Heuristic heuristic, int beamWidth, int depth) {
+        register(name, (board, game) -> {
+            AiPlayer player = new AiPlayer(board);
+            player.setEventListener(game);
+            player.setHeuristic(heuristic);
+            if (beamWidth > 0) {
+                player.setBeamSearch(new BeamSearch(beamWidth, depth));
+            }
+            return player::playPiece;
+        });
+    }
+
+    /** @return names of the registered policies, in order */
+    public List<String> getPolicies() {
+        return List.copyOf(policies.keySet());
+    }
+
+    /**
+     * Plays the whole suite with every registered policy.
+     *
+     * @return one standing per policy, in registration order
+     */
+    public List<Standing> run() {
+        List<Standing> standings = new ArrayList<>();
+        for (Map.Entry<String, PolicyFactory> policy : policies.entrySet()) {
+            standings.add(play(policy.getKey(), policy.getValue()));
+        }
+        return standings;
+    }
+
+    private Standing play(String name, PolicyFactory factory) {
+        int[] scores = new int[games];
+        int[] lines = new int[games];
+        int[] pieces = new int[games];
+        long[] nanos = new long[games];
+        AtomicInteger next = new AtomicInteger();
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(new Worker(factory, next, scores, lines, pieces, nanos)));
+        }
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while playing " + name, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Policy " + name + " failed", e.getCause());
+        }
+        return new Standing(name, scores, lines, pieces, nanos, maxPieces);
+    }
+
+    /**
+     * Plays games of one policy for one worker thread until the suite is used up.
+     */
+    private final class Worker implements Callable<Void> {
+        private final PolicyFactory factory;
+        private final AtomicInteger next;
+        private final int[] scores;
+        private final int[] lines;
+        private final int[] pieces;
+        private final long[] nanos;
+
+        Worker(PolicyFactory factory, AtomicInteger next, int[] scores, int[] lines, int[] pieces, long[] nanos) {
+            this.factory = factory;
+            this.next = next;
+            this.scores = scores;
+            this.lines = lines;
+            this.pieces = pieces;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public Void call() {
+            GameBoard board = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+            HeadlessGame game = new HeadlessGame(board);
+            board.newGame(firstSeed);
+            Policy policy = factory.create(board, game);
+            for (int i = next.getAndIncrement(); i < games; i = next.getAndIncrement()) {
+                game.newGame(firstSeed + i);
+                long start = System.nanoTime();
+                while (!game.isGameOver() && game.getPieces() < maxPieces) {
+                    policy.playPiece();
+                }
+                nanos[i] = System.nanoTime() - start;
+                scores[i] = board.getScore().scoreProperty().get();
+                lines[i] = game.getLines();
+                pieces[i] = game.getPieces();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Writes standings as a tab-separated table, {@link #TABLE_HEADER} first.
+     *
+     * @param standings the standings
+     * @param out       where to write
+     * @throws UncheckedIOException if writing fails
+     */
+    public static void writeTable(List<Standing> standings, Appendable out) {
+        try {
+            out.append(TABLE_HEADER).append('\n');
+            for (Standing s : standings) {
+                out.append(String.format(Locale.ROOT, "%s\t%d\t%.0f\t%.1f\t%d\t%d\t%d\t%.2f\t%.1f\t%d%n",
+                        s.getPolicy(), s.getGames(), s.getPiecesPerSecond(), s.getMeanScore(),
+                        s.getScorePercentile(10), s.getScorePercentile(50), s.getScorePercentile(90),
+                        s.getLinesPerGame(), s.getPiecesPerGame(), s.getToppedOut()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Results of one policy over the suite.
+     */
+    public static final class Standing {
+
+        private final String policy;
+        private final int[] scores;
+        private final int[] sortedScores;
+        private final int[] lines;
+        private final int[] pieces;
+        private final long totalPieces;
+        private final long totalNanos;
+        private final int toppedOut;
+
+        Standing(String policy, int[] scores, int[] lines, int[] pieces, long[] nanos, int maxPieces) {
+            this.policy = policy;
+            this.scores = scores;
+            this.sortedScores = scores.clone();
+            Arrays.sort(sortedScores);
+            this.lines = lines;
+            this.pieces = pieces;
+            this.totalPieces = Arrays.stream(pieces).asLongStream().sum();
+            this.totalNanos = Arrays.stream(nanos).sum();
+            this.toppedOut = (int) Arrays.stream(pieces).filter(p -> p < maxPieces).count();
+        }
+
+        /** @return the policy's name */
+        public String getPolicy() {
+            return policy;
+        }
+
+        /** @return games played */
+        public int getGames() {
+            return scores.length;
+        }
+
+        /**
+         * @param game index in the suite
+         * @return final score of the game
+         */
+        public int getScore(int game) {
+            return scores[game];
+        }
+
+        /**
+         * @param game index in the suite
+         * @return rows cleared in the game
+         */
+        public int getLines(int game) {
+            return lines[game];
+        }
+
+        /**
+         * @param game index in the suite
+         * @return pieces placed before the game ended or hit the cap
+         */
+        public int getPieces(int game) {
+            return pieces[game];
+        }
+
+        /** @return pieces placed per second of game time, per thread */
+        public double getPiecesPerSecond() {
+            return totalNanos == 0 ? 0 : totalPieces * 1e9 / totalNanos;
+        }
+
+        /** @return mean final score */
+        public double getMeanScore() {
+            return Arrays.stream(scores).average().orElse(0);
+        }
+
+        /**
+         * @param percentile in {@code [0, 100]}
+         * @return the nearest-rank percentile of the final scores
+         */
+        public int getScorePercentile(int percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be in [0, 100]: " + percentile);
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sortedScores.length);
+            return sortedScores[Math.max(rank, 1) - 1];
+        }
+
+        /** @return mean rows cleared per game */
+        public double getLinesPerGame() {
+            return Arrays.stream(lines).average().orElse(0);
+        }
+
+        /** @return mean pieces placed per game: how long the policy survives */
+        public double getPiecesPerGame() {
+            return (double) totalPieces / pieces.length;
+        }
+
+        /** @return games that ended by topping out before the piece cap */
+        public int getToppedOut() {
+            return toppedOut;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %.1f score, %.1f lines, %.1f pieces/game, %.0f pieces/s",
+                    policy, getMeanScore(), getLinesPerGame(), getPiecesPerGame(), getPiecesPerSecond());
+        }
+    }
+
+    /**
+     * Runs the league from the command line and prints the table to stdout.
+     * <p>
+     * Usage: {@code AiLeague [games] [maxPieces] [firstSeed]}; plays the greedy player and
+     * two beam searches.
+     * </p>
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int pieces = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long firstSeed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try (AiLeague league = new AiLeague(firstSeed, games, pieces, threads)) {
+            league.registerAiPlayer("greedy", Heuristic.DEFAULT, 0, 1);
+            league.registerAiPlayer("beam-16x2", Heuristic.DEFAULT, 16, 2);
+            league.registerAiPlayer("beam-32x3", Heuristic.DEFAULT, 32, 3);
+            writeTable(league.run(), System.out);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.InputEventListener;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+
+/**
+ * Computer player that drives a game through {@link InputEventListener}, the same way
+ * {@link com.comp2042.tetris.controller.GuiController} forwards key presses.
+ * <p>
+ * For each new brick it loads the board into a {@link SearchBoard}, runs a
+ * {@link PlacementSearch} over every reachable placement and plans the inputs for the best
+ * one: rotate presses, then left/right presses, then a hard drop. With a
+ * {@link BeamSearch} set, it plans over the hold slot and the preview queue instead and may
+ * start with a hold. All inputs are {@link EventSource#USER} events, so they are scored like
+ * a human player's.
+ * </p>
+ * <p>
+ * A beam search can be given a time budget per brick, e.g. a share of the current gravity
+ * interval ({@link #setGravityMs(int)}), so the player never thinks longer than the brick
+ * takes to fall: the search then answers from the deepest layer it completed in time.
+ * </p>
+ * <ul>
+ *   <li>{@link #playPiece()} plans and sends all inputs for the current brick at once
+ *       (headless play).</li>
+ *   <li>{@link #nextMove()} hands out one planned input per call, for pacing the AI in the
+ *       GUI; it re-plans by itself once the brick has been locked.</li>
+ * </ul>
+ */
+public final class AiPlayer {
+
+    private static final MoveEvent ROTATE = new MoveEvent(EventType.ROTATE, EventSource.USER);
+    private static final MoveEvent LEFT = new MoveEvent(EventType.LEFT, EventSource.USER);
+    private static final MoveEvent RIGHT = new MoveEvent(EventType.RIGHT, EventSource.USER);
+    private static final MoveEvent HARD_DROP = new MoveEvent(EventType.HARD_DROP, EventSource.USER);
+    private static final MoveEvent HOLD = new MoveEvent(EventType.HOLD, EventSource.USER);
+
+    /** Share of the gravity interval a plan may take, see {@link #setGravityMs(int)}. */
+    public static final double THINK_SHARE = 0.25;
+
+    private final GameBoard board;
+    private final SearchBoard searchBoard;
+    private final PlacementSearch search = new PlacementSearch();
+    private final Placement plan = new Placement();
+    private Heuristic heuristic = Heuristic.DEFAULT;
+    private InputEventListener eventListener;
+
+    /** Multi-piece planner, or {@code null} to plan the current brick alone. */
+    private BeamSearch beamSearch;
+
+    /** Time a beam search plan may take, in nanoseconds; {@code 0} for no limit. */
+    private long planBudgetNanos;
+
+    /** Current brick id followed by the previews, handed to the beam search. */
+    private final int[] pieces = new int[GameState.QUEUE_CAPACITY + 1];
+    private final int[] previews = new int[GameState.QUEUE_CAPACITY];
+
+    //remaining inputs of the current plan
+    private boolean holdPending;
+    private int rotationsLeft;
+    private int shiftLeft;
+    private boolean dropPending;
+
+    /** Board generation the plan was made on (see {@link GameBoard#getBoardGeneration()}). */
+    private long plannedOn;
+
+    /** Row of the brick after the last input handed out by {@link #nextMove()}. */
+    private int lastY;
+
+    /**
+     * Creates a player for {@code board}.
+     *
+     * @param board the board to read positions from
+     */
+    public AiPlayer(GameBoard board) {
+        this.board = board;
+        int[][] matrix = board.getBoardMatrix();
+        this.searchBoard = new SearchBoard(matrix.length, matrix[0].length);
+    }
+
+    /**
+     * Sets the listener that {@link #playPiece()} sends its inputs to.
+     *
+     * @param eventListener the game logic listener
+     */
+    public void setEventListener(InputEventListener eventListener) {
+        this.eventListener = eventListener;
+    }
+
+    /**
+     * Replaces the evaluation used for the following plans.
+     *
+     * @param heuristic the evaluation
+     */
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Plans with a beam search over the hold slot and {@code depth - 1} preview bricks
+     * (one more when the hold slot is empty, since holding then brings in the next brick).
+     *
+     * @param beamSearch the planner, or {@code null} to plan the current brick alone
+     */
+    public void setBeamSearch(BeamSearch beamSearch) {
+        this.beamSearch = beamSearch;
+    }
+
+    /**
+     * Limits how long each beam search plan may take.
+     *
+     * @param nanos the budget in nanoseconds, or {@code 0} to always search the full depth
+     */
+    public void setPlanBudgetNanos(long nanos) {
+        this.planBudgetNanos = Math.max(0, nanos);
+    }
+
+    /**
+     * Sets the plan budget to {@link #THINK_SHARE} of the gravity interval, e.g. from
+     * {@link com.comp2042.tetris.model.LevelService#gravityMsForScore(int)}, so the plan is
+     * ready well before gravity moves the brick.
+     *
+     * @param gravityMs milliseconds between automatic drops
+     */
+    public void setGravityMs(int gravityMs) {
+        setPlanBudgetNanos((long) (gravityMs * THINK_SHARE * 1_000_000));
+    }
+
+    /** @return the plan budget in nanoseconds, {@code 0} if unlimited */
+    public long getPlanBudgetNanos() {
+        return planBudgetNanos;
+    }
+
+    /** @return beam searches run by {@link #plan()}, {@code 0} without a beam search */
+    public long getBeamSearches() {
+        return beamSearch == null ? 0 : beamSearch.getSearches();
+    }
+
+    /**
+     * @return beam searches stopped before the full depth by the plan budget, {@code 0}
+     *         without a beam search
+     */
+    public long getBeamCutoffs() {
+        return beamSearch == null ? 0 : beamSearch.getCutoffs();
+    }
+
+    /** @return the current evaluation */
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    /** @return the placement of the most recent plan */
+    public Placement getPlan() {
+        return plan;
+    }
+
+    /**
+     * Plans the inputs for the current brick.
+     *
+     * @return {@code false} if there is no active brick or no legal placement; the plan is
+     *         then just a hard drop
+     */
+    public boolean plan() {
+        int[][] matrix = board.getBoardMatrix();
+        plannedOn = board.getBoardGeneration();
+        lastY = board.getCurrentY();
+        holdPending = false;
+        rotationsLeft = 0;
+        shiftLeft = 0;
+        dropPending = true;
+        int id = board.getCurrentBrickId();
+        if (id == 0) {
+            return false;
+        }
+        searchBoard.load(matrix);
+        boolean found;
+        if (beamSearch == null) {
+            found = search.best(searchBoard, id, board.getCurrentRotation(), board.getCurrentX(), lastY,
+                    heuristic, plan);
+        } else {
+            pieces[0] = id;
+            int count = board.getPreviewIds(previews, beamSearch.getDepth());
+            System.arraycopy(previews, 0, pieces, 1, count);
+            if (planBudgetNanos > 0) {
+                long deadline = System.nanoTime() + planBudgetNanos;
+                found = beamSearch.search(searchBoard, pieces, count + 1, board.getCurrentRotation(),
+                        board.getCurrentX(), lastY, board.getHeldBrickId(), board.isHoldUsed(), heuristic, plan,
+                        deadline);
+            } else {
+                found = beamSearch.search(searchBoard, pieces, count + 1, board.getCurrentRotation(),
+                        board.getCurrentX(), lastY, board.getHeldBrickId(), board.isHoldUsed(), heuristic, plan);
+            }
+        }
+        if (!found) {
+            return false;
+        }
+        holdPending = plan.isHold();
+        rotationsLeft = plan.getRotations();
+        //a hold brings the brick in at the spawn column
+        shiftLeft = plan.getX() - (holdPending ? GameBoard.SPAWN_X : board.getCurrentX());
+        return true;
+    }
+
+    /**
+     * Returns the next planned input for the current brick, planning first if the previous
+     * plan is used up or the board has changed since (a lock by gravity, garbage, a restore).
+     *
+     * @return the input to apply next
+     */
+    public MoveEvent nextMove() {
+        if (!dropPending || board.getBoardGeneration() != plannedOn || board.getCurrentY() < lastY) {
+            plan();
+        }
+        if (holdPending) {
+            holdPending = false;
+            lastY = GameBoard.SPAWN_Y;
+            return HOLD;
+        }
+        lastY = board.getCurrentY();
+        if (rotationsLeft > 0) {
+            rotationsLeft--;
+            return ROTATE;
+        }
+        if (shiftLeft != 0) {
+            MoveEvent move = shiftLeft < 0 ? LEFT : RIGHT;
+            shiftLeft -= Integer.signum(shiftLeft);
+            return move;
+        }
+        dropPending = false;
+        return HARD_DROP;
+    }
+
+    /**
+     * Plans the current brick and sends all of its inputs to the event listener.
+     *
+     * @return {@code true} if a placement was found (the brick is dropped either way)
+     * @throws IllegalStateException if no event listener is set
+     */
+    public boolean playPiece() {
+        if (eventListener == null) {
+            throw new IllegalStateException("No event listener set");
+        }
+        boolean found = plan();
+        if (holdPending) {
+            holdPending = false;
+            eventListener.onHoldEvent(HOLD);
+        }
+        for (; rotationsLeft > 0; rotationsLeft--) {
+            eventListener.onRotateEvent(ROTATE);
+        }
+        for (; shiftLeft < 0; shiftLeft++) {
+            eventListener.onLeftEvent(LEFT);
+        }
+        for (; shiftLeft > 0; shiftLeft--) {
+            eventListener.onRightEvent(RIGHT);
+        }
+        dropPending = false;
+        eventListener.onHardDropEvent(HARD_DROP);
+        return found;
+    }
+}
@@ -0,0 +1,929 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import com.comp2042.tetris.model.rules.GarbageRules;
+import com.comp2042.tetris.util.SplitMix64;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Plays AI policies against each other in head-to-head garbage matches and rates them.
+ * <p>
+ * In a game, the two sides play the same brick sequence on their own headless boards and
+ * take turns placing bricks; the side that starts alternates between the games of a
+ * pairing. Cleared rows send garbage to the opponent ({@link GarbageRules}), with hole
+ * columns from the game's own seed. Whoever tops out first loses; a game that reaches the
+ * brick cap on both sides is a draw.
+ * </p>
+ * <p>
+ * A {@link Format#ROUND_ROBIN} tournament pairs everyone with everyone once per cycle
+ * (circle method, sides swapped in odd cycles). A {@link Format#SWISS} tournament pairs
+ * players with equal or close points each round, avoiding rematches where it can; with
+ * an odd field the lowest-ranked player without a bye sits out and scores a full point.
+ * Every pairing plays {@code gamesPerPairing} games.
+ * </p>
+ * <p>
+ * Games run on a fixed pool of worker threads, like {@link AiLeague}: each worker owns
+ * two boards and an instance of every policy per side. Results are applied in schedule
+ * order as they come in (a finished game waits for earlier ones), which updates Elo after
+ * every game and closes a Glicko rating period after every round. Game seeds come from
+ * the tournament seed and the game's place in the schedule, and Swiss pairings only depend
+ * on earlier results, so a tournament gives the same table whatever the thread count.
+ * </p>
+ * <p>
+ * With a checkpoint file, the applied results are written out every few games and after
+ * every round, replacing the file atomically; a tournament started with the same settings
+ * and an existing checkpoint replays those results and only plays the rest.
+ * </p>
+ */
+public final class AiTournament implements AutoCloseable {
+
+    /** Header line of {@link #writeTable}. */
+    public static final String TABLE_HEADER = "rank\tpolicy\tgames\twins\tdraws\tlosses\tpoints\telo\tglicko\tglicko_rd";
+
+    /** Pairing systems. */
+    public enum Format {
+        /** Everyone plays everyone once per cycle. */
+        ROUND_ROBIN,
+        /** Players with similar points meet each round. */
+        SWISS
+    }
+
+    /** Rating every player starts from. */
+    public static final double INITIAL_RATING = 1500;
+
+    /** Elo K-factor, applied per game. */
+    public static final double ELO_K = 16;
+
+    /** Glicko rating deviation every player starts from. */
+    public static final double INITIAL_RD = 350;
+
+    /** Games between two checkpoint writes unless configured otherwise. */
+    public static final int DEFAULT_CHECKPOINT_EVERY = 100;
+
+    /** Checkpoint file magic ("CWAT"). */
+    private static final int MAGIC = 0x43574154;
+
+    private static final int VERSION = 1;
+
+    /** Board size of the tournament games (the game's own size). */
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    private static final double Q = Math.log(10) / 400;
+
+    private final Format format;
+    private final long seed;
+    private final int rounds;
+    private final int gamesPerPairing;
+    private final int maxPieces;
+    private final int threads;
+    private final ExecutorService pool;
+    private final Map<String, AiLeague.PolicyFactory> policies = new LinkedHashMap<>();
+
+    private Path checkpoint;
+    private int checkpointEvery = DEFAULT_CHECKPOINT_EVERY;
+    private Consumer<GameResult> listener;
+
+    //tournament state, guarded by this
+    private String[] names;
+    private double[] elo;
+    private double[] glicko;
+    private double[] rd;
+    private double[] points;
+    private int[] wins;
+    private int[] draws;
+    private int[] losses;
+    private boolean[][] met;
+    private boolean[] hadBye;
+    /** Applied results in schedule order: a, b, outcome (0 b won, 1 draw, 2 a won), round. */
+    private final List<int[]> applied = new ArrayList<>();
+    private int checkpointed;
+    /** Games of the current Glicko period: opponent and score of each, per player. */
+    private List<List<double[]>> period;
+    private int periodRound;
+
+    private long gamesThisRun;
+    private long nanosThisRun;
+
+    private AiTournament(Format format, long seed, int rounds, int gamesPerPairing, int maxPieces, int threads) {
+        if (rounds < 1 || gamesPerPairing < 1 || maxPieces < 1 || threads < 1) {
+            throw new IllegalArgumentException("Rounds, games, pieces and threads must be positive");
+        }
+        this.format = format;
+        this.seed = seed;
+        this.rounds = rounds;
+        this.gamesPerPairing = gamesPerPairing;
+        this.maxPieces = maxPieces;
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "ai-tournament");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Creates a round-robin tournament.
+     *
+     * @param seed            seed of the game sequence
+     * @param cycles          times every pairing meets
+     * @param gamesPerPairing games per meeting
+     * @param maxPieces       brick cap per side and game
+     * @param threads         worker threads
+     * @return the tournament
+     */
+    public static AiTournament roundRobin(long seed, int cycles, int gamesPerPairing, int maxPieces, int threads) {
+        return new AiTournament(Format.ROUND_ROBIN, seed, cycles, gamesPerPairing, maxPieces, threads);
+    }
+
+    /**
+     * Creates a Swiss tournament.
+     *
+     * @param seed            seed of the game sequence
+     * @param rounds          rounds to play
+     * @param gamesPerPairing games per pairing and round
+     * @param maxPieces       brick cap per side and game
+     * @param threads         worker threads
+     * @return the tournament
+     */
+    public static AiTournament swiss(long seed, int rounds, int gamesPerPairing, int maxPieces, int threads) {
+        return new AiTournament(Format.SWISS, seed, rounds, gamesPerPairing, maxPieces, threads);
+    }
+
+    /**
+     * Registers a policy; ties in the table keep registration order.
+     *
+     * @param name    name shown in the table, without tabs or line breaks
+     * @param factory creates one instance per worker thread and side
+     */
+    public void register(String name, AiLeague.PolicyFactory factory) {
+        if (name.isEmpty() || name.chars().anyMatch(ch -> ch == '\t' || ch == '\n' || ch == '\r')) {
+            throw new IllegalArgumentException("Bad policy name: '" + name + "'");
+        }
+        if (policies.putIfAbsent(name, factory) != null) {
+            throw new IllegalArgumentException("Policy already registered: " + name);
+        }
+    }
+
+    /**
+     * Registers an {@link AiPlayer} policy.
+     *
+     * @param name      name shown in the table
+     * @param heuristic the evaluation
+     * @param beamWidth beam width, or {@code 0} for the one-brick greedy search
+     * @param depth     beam depth in bricks (ignored without a beam)
+     */
+    public void registerAiPlayer(String name, Heuristic heuristic, int beamWidth, int depth) {
+        register(name, (board, game) -> {
+            AiPlayer player = new AiPlayer(board);
+            player.setEventListener(game);
+            player.setHeuristic(heuristic);
+            if (beamWidth > 0) {
+                player.setBeamSearch(new BeamSearch(beamWidth, depth));
+            }
+            return player::playPiece;
+        });
+    }
+
+    /**
+     * Checkpoints results to {@code file}, resuming from it if it exists when {@link #run()}
+     * starts.
+     *
+     * @param file  checkpoint file
+     * @param every games between two writes, at least 1; rounds always end with one
+     */
+    public void setCheckpoint(Path file, int every) {
+        if (every < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + every);
+        }
+        this.checkpoint = file;
+        this.checkpointEvery = every;
+    }
+
+    /**
+     * Sets who is told about every game played (not those replayed from a checkpoint), in
+     * schedule order, right after the ratings took it into account.
+     *
+     * @param listener called on a worker thread while the tournament is locked, or {@code null}
+     */
+    public void setListener(Consumer<GameResult> listener) {
+        this.listener = listener;
+    }
+
+    /** @return names of the registered policies, in order */
+    public List<String> getPolicies() {
+        return List.copyOf(policies.keySet());
+    }
+
+    /**
+     * Plays the tournament, or what a checkpoint left of it.
+     *
+     * @return the final standings, best first
+     * @throws IOException if the checkpoint cannot be read, does not match, or cannot be written
+     */
+    public List<Standing> run() throws IOException {
+        int n = policies.size();
+        if (n < 2) {
+            throw new IllegalStateException("Need at least two policies, have " + n);
+        }
+        synchronized (this) {
+            names = policies.keySet().toArray(new String[0]);
+            elo = new double[n];
+            glicko = new double[n];
+            rd = new double[n];
+            Arrays.fill(elo, INITIAL_RATING);
+            Arrays.fill(glicko, INITIAL_RATING);
+            Arrays.fill(rd, INITIAL_RD);
+            points = new double[n];
+            wins = new int[n];
+            draws = new int[n];
+            losses = new int[n];
+            met = new boolean[n][n];
+            hadBye = new boolean[n];
+            applied.clear();
+            period = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                period.add(new ArrayList<>());
+            }
+            periodRound = 0;
+        }
+        List<int[]> recorded = readCheckpoint();
+        int[][] roundRobin = format == Format.ROUND_ROBIN ? circle(n) : null;
+        int roundsTotal = format == Format.ROUND_ROBIN ? rounds * roundRobin.length : rounds;
+        int index = 0;
+        for (int round = 0; round < roundsTotal; round++) {
+            int[] pairs;
+            synchronized (this) {
+                pairs = format == Format.ROUND_ROBIN ? cycle(roundRobin[round % roundRobin.length],
+                        round / roundRobin.length) : swissPairs(round);
+            }
+            Batch batch = new Batch(round, index, pairs);
+            index += batch.size;
+            play(batch, recorded);
+        }
+        synchronized (this) {
+            writeCheckpoint();
+        }
+        return getStandings();
+    }
+
+    /** Rounds of a single round robin: pairs of player indices, -1 for the bye. */
+    private static int[][] circle(int n) {
+        int m = n + (n & 1);
+        int[] ring = new int[m];
+        for (int i = 0; i < m; i++) {
+            ring[i] = i < n ? i : -1;
+        }
+        int[][] schedule = new int[m - 1][];
+        for (int r = 0; r < m - 1; r++) {
+            List<Integer> pairs = new ArrayList<>();
+            for (int i = 0; i < m / 2; i++) {
+                int a = ring[i];
+                int b = ring[m - 1 - i];
+                if (a >= 0 && b >= 0) {
+                    //alternate sides so nobody is always first
+                    pairs.add(r % 2 == 0 ? a : b);
+                    pairs.add(r % 2 == 0 ? b : a);
+                }
+            }
+            schedule[r] = pairs.stream().mapToInt(Integer::intValue).toArray();
+            //keep ring[0] fixed and rotate the rest
+            int last = ring[m - 1];
+            System.arraycopy(ring, 1, ring, 2, m - 2);
+            ring[1] = last;
+        }
+        return schedule;
+    }
+
+    private static int[] cycle(int[] pairs, int cycle) {
+        if (cycle % 2 == 0) {
+            return pairs;
+        }
+        int[] swapped = new int[pairs.length];
+        for (int i = 0; i < pairs.length; i += 2) {
+            swapped[i] = pairs[i + 1];
+            swapped[i + 1] = pairs[i];
+        }
+        return swapped;
+    }
+
+    /** Pairs the next Swiss round from the standings so far; gives a bye first if the field is odd. */
+    private int[] swissPairs(int round) {
+        int n = names.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> -points[i]).thenComparingInt(i -> i));
+        boolean[] paired = new boolean[n];
+        if (n % 2 == 1) {
+            for (int k = n - 1; k >= 0; k--) {
+                int p = order[k];
+                if (!hadBye[p] || k == 0) {
+                    paired[p] = true;
+                    hadBye[p] = true;
+                    points[p] += gamesPerPairing;
+                    break;
+                }
+            }
+        }
+        List<Integer> pairs = new ArrayList<>();
+        for (int k = 0; k < n; k++) {
+            int a = order[k];
+            if (paired[a]) {
+                continue;
+            }
+            int b = -1;
+            for (int j = k + 1; j < n; j++) {
+                int c = order[j];
+                if (!paired[c] && (b < 0 || !met[a][c] && met[a][b])) {
+                    b = c;
+                    if (!met[a][c]) {
+                        break;
+                    }
+                }
+            }
+            paired[a] = true;
+            paired[b] = true;
+            pairs.add(round % 2 == 0 ? a : b);
+            pairs.add(round % 2 == 0 ? b : a);
+        }
+        return pairs.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void play(Batch batch, List<int[]> recorded) throws IOException {
+        //replay what the checkpoint already has, then play the rest
+        int replayed = 0;
+        for (int g = 0; g < batch.size; g++) {
+            int global = batch.first + g;
+            if (global >= recorded.size()) {
+                break;
+            }
+            int[] r = recorded.get(global);
+            if (r[0] != batch.a(g) || r[1] != batch.b(g) || r[3] != batch.round) {
+                throw new IOException("Checkpoint does not match this tournament at game " + global + ": "
+                        + checkpoint);
+            }
+            batch.outcomes[g] = r[2];
+            replayed++;
+        }
+        synchronized (this) {
+            for (int g = 0; g < replayed; g++) {
+                batch.done[g] = true;
+            }
+            publish(batch, false);
+        }
+        if (replayed == batch.size) {
+            return;
+        }
+        AtomicInteger next = new AtomicInteger(replayed);
+        long start = System.nanoTime();
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(new Worker(batch, next)));
+        }
+        //wait for every worker, so none is still applying results when a failure is thrown
+        Throwable failure = null;
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                next.set(batch.size);
+                throw new IllegalStateException("Interrupted in round " + batch.round, e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure instanceof IOException io) {
+            throw io;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Round " + batch.round + " failed", failure);
+        }
+        synchronized (this) {
+            nanosThisRun += System.nanoTime() - start;
+            gamesThisRun += batch.size - replayed;
+        }
+    }
+
+    /**
+     * Applies the finished games at the front of the batch in order; called with the lock held.
+     *
+     * @param played {@code true} for games played in this run (checkpointed and reported)
+     */
+    private void publish(Batch batch, boolean played) throws IOException {
+        while (batch.applied < batch.size && batch.done[batch.applied]) {
+            int g = batch.applied++;
+            int a = batch.a(g);
+            int b = batch.b(g);
+            int outcome = batch.outcomes[g];
+            apply(a, b, outcome, batch.round);
+            if (played) {
+                if (listener != null) {
+                    listener.accept(new GameResult(batch.first + g, batch.round, names[a], names[b], outcome / 2.0,
+                            batch.pieces[2 * g], batch.pieces[2 * g + 1]));
+                }
+                if (applied.size() - checkpointed >= checkpointEvery || batch.applied == batch.size) {
+                    writeCheckpoint();
+                }
+            }
+        }
+    }
+
+    private void apply(int a, int b, int outcome, int round) {
+        if (round != periodRound) {
+            closePeriod();
+            periodRound = round;
+        }
+        double score = outcome / 2.0;
+        applied.add(new int[]{a, b, outcome, round});
+        met[a][b] = true;
+        met[b][a] = true;
+        points[a] += score;
+        points[b] += 1 - score;
+        if (outcome == 2) {
+            wins[a]++;
+            losses[b]++;
+        } else if (outcome == 0) {
+            wins[b]++;
+            losses[a]++;
+        } else {
+            draws[a]++;
+            draws[b]++;
+        }
+        double expected = 1 / (1 + Math.pow(10, (elo[b] - elo[a]) / 400));
+        elo[a] += ELO_K * (score - expected);
+        elo[b] -= ELO_K * (score - expected);
+        period.get(a).add(new double[]{b, score});
+        period.get(b).add(new double[]{a, 1 - score});
+    }
+
+    /** Glicko-1 update over the games of the finished round, against ratings from before it. */
+    private void closePeriod() {
+        int n = names.length;
+        double[] rating = glicko.clone();
+        double[] deviation = rd.clone();
+        for (int p = 0; p < n; p++) {
+            List<double[]> games = period.get(p);
+            if (games.isEmpty()) {
+                continue;
+            }
+            double inverseD2 = 0;
+            double sum = 0;
+            for (double[] game : games) {
+                int o = (int) game[0];
+                double g = 1 / Math.sqrt(1 + 3 * Q * Q * deviation[o] * deviation[o] / (Math.PI * Math.PI));
+                double e = 1 / (1 + Math.pow(10, -g * (rating[p] - rating[o]) / 400));
+                inverseD2 += Q * Q * g * g * e * (1 - e);
+                sum += g * (game[1] - e);
+            }
+            double denominator = 1 / (deviation[p] * deviation[p]) + inverseD2;
+            glicko[p] = rating[p] + Q / denominator * sum;
+            rd[p] = Math.sqrt(1 / denominator);
+            games.clear();
+        }
+    }
+
+    /**
+     * Returns the standings so far; safe to call while the tournament runs. Glicko ratings
+     * only change when a round is complete.
+     *
+     * @return one standing per policy, by points, then Glicko rating, then registration order
+     */
+    public synchronized List<Standing> getStandings() {
+        if (names == null) {
+            return List.of();
+        }
+        //the last round has no next round to close its rating period, so close it once complete
+        if (applied.size() == scheduledGames()) {
+            closePeriod();
+        }
+        List<Standing> standings = new ArrayList<>();
+        for (int p = 0; p < names.length; p++) {
+            standings.add(new Standing(names[p], wins[p], draws[p], losses[p], points[p], elo[p], glicko[p],
+                    rd[p]));
+        }
+        standings.sort(Comparator.comparingDouble((Standing s) -> -s.points).thenComparingDouble(s -> -s.glicko));
+        return standings;
+    }
+
+    /** @return games in the whole schedule */
+    private int scheduledGames() {
+        int n = names.length;
+        int pairings = format == Format.ROUND_ROBIN ? rounds * n * (n - 1) / 2 : rounds * (n / 2);
+        return pairings * gamesPerPairing;
+    }
+
+    /** @return games applied so far, including those replayed from a checkpoint */
+    public synchronized int getGamesApplied() {
+        return applied.size();
+    }
+
+    /** @return games played (not replayed) per second of wall time in this run */
+    public synchronized double getGamesPerSecond() {
+        return nanosThisRun == 0 ? 0 : gamesThisRun * 1e9 / nanosThisRun;
+    }
+
+    private List<int[]> readCheckpoint() throws IOException {
+        List<int[]> recorded = new ArrayList<>();
+        if (checkpoint == null || !Files.isRegularFile(checkpoint)) {
+            return recorded;
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        if (in.remaining() < 8 || in.getInt() != MAGIC) {
+            throw new IOException("Not a tournament checkpoint: " + checkpoint);
+        }
+        if (in.getInt() != VERSION) {
+            throw new IOException("Unsupported tournament checkpoint version: " + checkpoint);
+        }
+        if (in.get() != format.ordinal() || in.getLong() != seed || in.getInt() != rounds
+                || in.getInt() != gamesPerPairing || in.getInt() != maxPieces || in.getInt() != names.length) {
+            throw new IOException("Checkpoint was written by a tournament with other settings: " + checkpoint);
+        }
+        for (String name : names) {
+            byte[] bytes = new byte[in.getShort()];
+            in.get(bytes);
+            if (!name.equals(new String(bytes, StandardCharsets.UTF_8))) {
+                throw new IOException("Checkpoint was written for other policies: " + checkpoint);
+            }
+        }
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            recorded.add(new int[]{in.getShort(), in.getShort(), in.get(), in.getInt()});
+        }
+        return recorded;
+    }
+
+    /** Writes every applied result; called with the lock held. */
+    private void writeCheckpoint() throws IOException {
+        if (checkpoint == null) {
+            return;
+        }
+        int size = 4 * 4 + 1 + 8 + 4 * 4 + 9 * applied.size();
+        for (String name : names) {
+            size += 2 + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC).putInt(VERSION);
+        out.put((byte) format.ordinal()).putLong(seed).putInt(rounds).putInt(gamesPerPairing).putInt(maxPieces)
+                .putInt(names.length);
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            out.putShort((short) bytes.length).put(bytes);
+        }
+        out.putInt(applied.size());
+        for (int[] r : applied) {
+            out.putShort((short) r[0]).putShort((short) r[1]).put((byte) r[2]).putInt(r[3]);
+        }
+        Path parent = checkpoint.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        //write a sibling file and rename it over the checkpoint, so a crash never leaves half a file
+        Path tmp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        Files.write(tmp, Arrays.copyOf(out.array(), out.position()));
+        Files.move(tmp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpointed = applied.size();
+    }
+
+    /**
+     * Writes standings as a tab-separated table, {@link #TABLE_HEADER} first.
+     *
+     * @param standings the standings, best first
+     * @param out       where to write
+     * @throws UncheckedIOException if writing fails
+     */
+    public static void writeTable(List<Standing> standings, Appendable out) {
+        try {
+            out.append(TABLE_HEADER).append('\n');
+            int rank = 1;
+            for (Standing s : standings) {
+                out.append(String.format(Locale.ROOT, "%d\t%s\t%d\t%d\t%d\t%d\t%.1f\t%.0f\t%.0f\t%.0f%n",
+                        rank++, s.getPolicy(), s.getGames(), s.getWins(), s.getDraws(), s.getLosses(),
+                        s.getPoints(), s.getElo(), s.getGlicko(), s.getGlickoDeviation()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * One round's games in schedule order: every pairing plays {@code gamesPerPairing}
+     * games in a row.
+     */
+    private final class Batch {
+
+        private final int round;
+        private final int first;
+        private final int[] pairs;
+        private final int size;
+        private final int[] outcomes;
+        private final int[] pieces;
+        private final boolean[] done;
+        private int applied;
+
+        Batch(int round, int first, int[] pairs) {
+            this.round = round;
+            this.first = first;
+            this.pairs = pairs;
+            this.size = pairs.length / 2 * gamesPerPairing;
+            this.outcomes = new int[size];
+            this.pieces = new int[2 * size];
+            this.done = new boolean[size];
+        }
+
+        int a(int game) {
+            return pairs[2 * (game / gamesPerPairing)];
+        }
+
+        int b(int game) {
+            return pairs[2 * (game / gamesPerPairing) + 1];
+        }
+    }
+
+    /**
+     * Plays games of one batch for one worker thread until the batch is used up.
+     */
+    private final class Worker implements Callable<Void> {
+
+        private final Batch batch;
+        private final AtomicInteger next;
+
+        Worker(Batch batch, AtomicInteger next) {
+            this.batch = batch;
+            this.next = next;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            int n = names.length;
+            HeadlessGame[] games = new HeadlessGame[2];
+            AiLeague.Policy[][] instances = new AiLeague.Policy[2][n];
+            List<AiLeague.PolicyFactory> factories = List.copyOf(policies.values());
+            for (int side = 0; side < 2; side++) {
+                GameBoard board = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+                games[side] = new HeadlessGame(board);
+                games[side].newGame(seed);
+                for (int p = 0; p < n; p++) {
+                    instances[side][p] = factories.get(p).create(board, games[side]);
+                }
+            }
+            try {
+                for (int g = next.getAndIncrement(); g < batch.size; g = next.getAndIncrement()) {
+                    long gameSeed = SplitMix64.mix(seed + (batch.first + g) * SplitMix64.GAMMA);
+                    AiLeague.Policy[] sides = {instances[0][batch.a(g)], instances[1][batch.b(g)]};
+                    int outcome = playGame(games, sides, gameSeed, g % 2);
+                    synchronized (AiTournament.this) {
+                        batch.outcomes[g] = outcome;
+                        batch.pieces[2 * g] = games[0].getPieces();
+                        batch.pieces[2 * g + 1] = games[1].getPieces();
+                        batch.done[g] = true;
+                        publish(batch, true);
+                    }
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                //stop the other workers too
+                next.set(batch.size);
+                throw e;
+            }
+            return null;
+        }
+
+        /** @return 2 if side 0 wins, 0 if side 1 wins, 1 for a draw */
+        private int playGame(HeadlessGame[] games, AiLeague.Policy[] sides, long gameSeed, int first) {
+            games[0].newGame(gameSeed);
+            games[1].newGame(gameSeed);
+            long holes = gameSeed;
+            for (int move = 0; move < 2 * maxPieces; move++) {
+                int side = (move + first) & 1;
+                HeadlessGame game = games[side];
+                int lines = game.getLines();
+                sides[side].playPiece();
+                if (game.isGameOver()) {
+                    return side == 0 ? 0 : 2;
+                }
+                int attack = GarbageRules.linesToSend(game.getLines() - lines);
+                if (attack > 0) {
+                    holes += SplitMix64.GAMMA;
+                    games[1 - side].receiveGarbage(attack, (int) Long.remainderUnsigned(SplitMix64.mix(holes), COLS));
+                }
+            }
+            return 1;
+        }
+    }
+
+    /**
+     * One game as reported to the listener. Immutable.
+     */
+    public static final class GameResult {
+
+        private final int index;
+        private final int round;
+        private final String first;
+        private final String second;
+        private final double score;
+        private final int firstPieces;
+        private final int secondPieces;
+
+        GameResult(int index, int round, String first, String second, double score, int firstPieces,
+                   int secondPieces) {
+            this.index = index;
+            this.round = round;
+            this.first = first;
+            this.second = second;
+            this.score = score;
+            this.firstPieces = firstPieces;
+            this.secondPieces = secondPieces;
+        }
+
+        /** @return place of the game in the schedule, from 0 */
+        public int getIndex() {
+            return index;
+        }
+
+        /** @return round of the game, from 0 */
+        public int getRound() {
+            return round;
+        }
+
+        /** @return policy on the first side of the pairing */
+        public String getFirst() {
+            return first;
+        }
+
+        /** @return policy on the second side of the pairing */
+        public String getSecond() {
+            return second;
+        }
+
+        /** @return the first side's score: 1 win, 0.5 draw, 0 loss */
+        public double getScore() {
+            return score;
+        }
+
+        /** @return bricks the first side placed */
+        public int getFirstPieces() {
+            return firstPieces;
+        }
+
+        /** @return bricks the second side placed */
+        public int getSecondPieces() {
+            return secondPieces;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + " " + first + " vs " + second + ": " + score;
+        }
+    }
+
+    /**
+     * Results and ratings of one policy. Immutable.
+     */
+    public static final class Standing {
+
+        private final String policy;
+        private final int wins;
+        private final int draws;
+        private final int losses;
+        private final double points;
+        private final double elo;
+        private final double glicko;
+        private final double glickoDeviation;
+
+        Standing(String policy, int wins, int draws, int losses, double points, double elo, double glicko,
+                 double glickoDeviation) {
+            this.policy = policy;
+            this.wins = wins;
+            this.draws = draws;
+            this.losses = losses;
+            this.points = points;
+            this.elo = elo;
+            this.glicko = glicko;
+            this.glickoDeviation = glickoDeviation;
+        }
+
+        /** @return the policy's name */
+        public String getPolicy() {
+            return policy;
+        }
+
+        /** @return games played, byes not included */
+        public int getGames() {
+            return wins + draws + losses;
+        }
+
+        /** @return games won */
+        public int getWins() {
+            return wins;
+        }
+
+        /** @return games drawn */
+        public int getDraws() {
+            return draws;
+        }
+
+        /** @return games lost */
+        public int getLosses() {
+            return losses;
+        }
+
+        /** @return one per win and bye game, a half per draw */
+        public double getPoints() {
+            return points;
+        }
+
+        /** @return Elo rating, updated after every game */
+        public double getElo() {
+            return elo;
+        }
+
+        /** @return Glicko rating, updated after every round */
+        public double getGlicko() {
+            return glicko;
+        }
+
+        /** @return Glicko rating deviation */
+        public double getGlickoDeviation() {
+            return glickoDeviation;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %d-%d-%d, %.1f points, elo %.0f, glicko %.0f±%.0f", policy, wins,
+                    draws, losses, points, elo, glicko, 2 * glickoDeviation);
+        }
+    }
+
+    /**
+     * Runs a tournament from the command line and prints the table to stdout.
+     * <p>
+     * Usage: {@code AiTournament [round-robin|swiss] [rounds] [gamesPerPairing] [maxPieces] [seed] [checkpoint]};
+     * plays the greedy player with the default and three perturbed heuristics, and two
+     * beam searches.
+     * </p>
+     *
+     * @param args command line arguments
+     * @throws IOException if the checkpoint cannot be used
+     */
+    public static void main(String[] args) throws IOException {
+        boolean swiss = args.length > 0 && args[0].equals("swiss");
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : swiss ? 7 : 2;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int pieces = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try (AiTournament tournament = swiss ? swiss(seed, rounds, games, pieces, threads)
+                : roundRobin(seed, rounds, games, pieces, threads)) {
+            double[] weights = Heuristic.DEFAULT.toArray();
+            tournament.registerAiPlayer("greedy", Heuristic.DEFAULT, 0, 1);
+            for (int w = 0; w < 3; w++) {
+                double[] perturbed = weights.clone();
+                perturbed[w + 1] *= 0.5;
+                tournament.registerAiPlayer("greedy-w" + (w + 1) + "/2", Heuristic.of(perturbed), 0, 1);
+            }
+            tournament.registerAiPlayer("beam-4x2", Heuristic.DEFAULT, 4, 2);
+            tournament.registerAiPlayer("beam-8x2", Heuristic.DEFAULT, 8, 2);
+            if (args.length > 5) {
+                tournament.setCheckpoint(Path.of(args[5]), DEFAULT_CHECKPOINT_EVERY);
+            }
+            List<Standing> standings = tournament.run();
+            writeTable(standings, System.out);
+            System.err.printf("%d games, %.0f games/s%n", tournament.getGamesApplied(), tournament.getGamesPerSecond());
+        }
+    }
+}
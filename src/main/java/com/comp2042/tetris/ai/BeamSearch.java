@@ -0,0 +1,565 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-piece planner: a beam search through the current brick, the hold slot and the
+ * preview queue.
+ * <p>
+ * Each layer of the search places one brick. A node is a board together with the held
+ * brick and its position in the piece sequence; it is expanded with every placement of
+ * the next brick (see {@link PlacementSearch}) and, when hold is allowed, every placement
+ * of the brick that holding would bring in. All children are scored with the
+ * {@link Heuristic} (counting the rows cleared along the whole path) and only the best
+ * {@code beamWidth} are kept for the next layer. The answer is the first move of the best
+ * node in the deepest layer reached.
+ * </p>
+ * <p>
+ * Children are generated in parallel on a {@link ForkJoinPool}: the beam is split into
+ * small groups of parents, and each task writes its children into the parents' own slots
+ * of a shared candidate array, so tasks never contend. Only scores and moves are stored
+ * per child; the boards of the survivors are rebuilt after selection. Selection breaks
+ * ties by candidate order, so the result does not depend on the number of threads.
+ * </p>
+ * <p>
+ * Different move orders often reach the same position (board, held brick, place in the
+ * sequence). Each child's {@link Zobrist} key is entered into a shared
+ * {@link TranspositionTable} together with its candidate slot, keeping the lowest slot per
+ * key; at selection only that copy survives, so duplicates do not crowd out the beam.
+ * </p>
+ * <p>
+ * An instance runs one search at a time (its buffers are reused between searches).
+ * </p>
+ */
+public final class BeamSearch {
+
+    /** Beam width used by the game's auto-play. */
+    public static final int DEFAULT_BEAM_WIDTH = 32;
+
+    /** Parents expanded by one leaf task. */
+    private static final int PARENTS_PER_TASK = 2;
+
+    private final int beamWidth;
+    private final int depth;
+    private final ForkJoinPool pool;
+
+    /** Children scored since construction, for throughput measurements. */
+    private final LongAdder nodes = new LongAdder();
+
+    //anytime statistics: searches run, searches stopped by their deadline, layers of the last one
+    private long searches;
+    private long cutoffs;
+    private int lastDepth;
+
+    private Layer current;
+    private Layer next;
+
+    //candidate children of the current layer; parent p owns slots [p * perParent, (p + 1) * perParent)
+    private int perParent;
+    private int[] candidateMoves;
+    private long[] candidateKeys;
+    private double[] candidateScores;
+    private int[] candidateCounts;
+    private int[] heap;
+
+    /** Duplicate detection shared by the expansion tasks, one generation per layer. */
+    private TranspositionTable table;
+
+    //inputs of the running search, read by the expansion tasks
+    private int[] pieces;
+    private int pieceCount;
+    private int startRotation;
+    private int startX;
+    private int startY;
+    private boolean holdUsed;
+    private Heuristic heuristic;
+    private boolean rootLayer;
+
+    //deadline of the running layer; once it passes, the tasks stop and the layer is discarded
+    private boolean layerTimed;
+    private long deadline;
+    private volatile boolean abandoned;
+
+    /**
+     * Creates a search on the common fork/join pool.
+     *
+     * @param beamWidth nodes kept per layer
+     * @param depth     bricks placed along each path (1 = current brick only)
+     */
+    public BeamSearch(int beamWidth, int depth) {
+        this(beamWidth, depth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a search running its expansions on {@code pool}.
+     *
+     * @param beamWidth nodes kept per layer
+     * @param depth     bricks placed along each path (1 = current brick only)
+     * @param pool      pool the expansion tasks run on
+     */
+    public BeamSearch(int beamWidth, int depth, ForkJoinPool pool) {
+        if (beamWidth < 1 || depth < 1) {
+            throw new IllegalArgumentException("Beam width and depth must be positive");
+        }
+        this.beamWidth = beamWidth;
+        this.depth = depth;
+        this.pool = pool;
+    }
+
+    /** @return nodes kept per layer */
+    public int getBeamWidth() {
+        return beamWidth;
+    }
+
+    /** @return bricks placed along each path */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Uses {@code table} for duplicate detection instead of a table sized for the beam.
+     *
+     * @param table the table; cleared of meaning between layers by new generations
+     */
+    public void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /** @return the table used for duplicate detection, {@code null} before the first search */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /** @return children generated and scored since this search was created */
+    public long getNodesEvaluated() {
+        return nodes.sum();
+    }
+
+    /** @return searches run since this search was created */
+    public long getSearches() {
+        return searches;
+    }
+
+    /** @return searches stopped before the full depth by their deadline (or an interrupt) */
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /** @return layers completed by the last search, i.e. the depth its answer comes from */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * Plans the current brick. If the calling thread is interrupted, the search stops after
+     * the current layer and answers from the layers completed so far (at least the first).
+     *
+     * @param board      the board without the active brick
+     * @param pieces     the current brick id followed by the preview ids, soonest first
+     * @param pieceCount number of valid entries in {@code pieces}
+     * @param rotation   current rotation of the active brick
+     * @param x          current column of the active brick
+     * @param y          current row of the active brick
+     * @param heldId     id of the held brick, {@code 0} if none
+     * @param holdUsed   {@code true} if hold was already used for the active brick
+     * @param heuristic  evaluation to maximise
+     * @param out        receives the first move of the best path
+     * @return {@code false} if the active brick has no placement
+     */
+    public boolean search(SearchBoard board, int[] pieces, int pieceCount, int rotation, int x, int y,
+                          int heldId, boolean holdUsed, Heuristic heuristic, Placement out) {
+        return search(board, pieces, pieceCount, rotation, x, y, heldId, holdUsed, heuristic, out, false, 0);
+    }
+
+    /**
+     * Plans the current brick as an anytime search: layers are searched one after another
+     * (each one a brick deeper, so the layers are the iterations of an iterative deepening)
+     * until the full depth or {@code deadline}, and the answer comes from the deepest
+     * completed layer. The first layer always completes; every later layer is abandoned as
+     * soon as the deadline passes (the expansion tasks check it before each parent), so the
+     * search returns at most one parent's expansion after {@code deadline}.
+     *
+     * @param board      the board without the active brick
+     * @param pieces     the current brick id followed by the preview ids, soonest first
+     * @param pieceCount number of valid entries in {@code pieces}
+     * @param rotation   current rotation of the active brick
+     * @param x          current column of the active brick
+     * @param y          current row of the active brick
+     * @param heldId     id of the held brick, {@code 0} if none
+     * @param holdUsed   {@code true} if hold was already used for the active brick
+     * @param heuristic  evaluation to maximise
+     * @param out        receives the first move of the best path
+     * @param deadline   {@link System#nanoTime()} value to stop at
+     * @return {@code false} if the active brick has no placement
+     */
+    public boolean search(SearchBoard board, int[] pieces, int pieceCount, int rotation, int x, int y,
+                          int heldId, boolean holdUsed, Heuristic heuristic, Placement out, long deadline) {
+        return search(board, pieces, pieceCount, rotation, x, y, heldId, holdUsed, heuristic, out, true, deadline);
+    }
+
+    private boolean search(SearchBoard board, int[] pieces, int pieceCount, int rotation, int x, int y,
+                           int heldId, boolean holdUsed, Heuristic heuristic, Placement out,
+                           boolean timed, long deadline) {
+        if (pieceCount < 1 || pieceCount > GameState.QUEUE_CAPACITY + 1) {
+            throw new IllegalArgumentException("Piece count must be in [1, " + (GameState.QUEUE_CAPACITY + 1)
+                    + "]: " + pieceCount);
+        }
+        ensureCapacity(board);
+        this.pieces = pieces;
+        this.pieceCount = pieceCount;
+        this.startRotation = rotation;
+        this.startX = x;
+        this.startY = y;
+        this.holdUsed = holdUsed;
+        this.heuristic = heuristic;
+        this.deadline = deadline;
+
+        current.size = 1;
+        current.boards[0].copyFrom(board);
+        current.held[0] = heldId;
+        current.pos[0] = 0;
+        current.lines[0] = 0;
+        current.score[0] = heuristic.evaluate(board, 0);
+
+        boolean found = false;
+        int layer = 0;
+        searches++;
+        for (; layer < depth; layer++) {
+            //an interrupt (e.g. a cancelled hint) or the deadline stops after the current layer
+            if (found && (Thread.currentThread().isInterrupted() || timed && System.nanoTime() - deadline >= 0)) {
+                cutoffs++;
+                break;
+            }
+            rootLayer = layer == 0;
+            layerTimed = timed && found;
+            abandoned = false;
+            Arrays.fill(candidateCounts, 0, current.size, 0);
+            table.newGeneration();
+            pool.invoke(new Expand(0, current.size));
+            if (abandoned) {
+                //the layer is incomplete, so answer from the last completed one
+                cutoffs++;
+                break;
+            }
+            if (!select()) {
+                break;
+            }
+            Layer swap = current;
+            current = next;
+            next = swap;
+            found = true;
+        }
+        this.pieces = null;
+        this.heuristic = null;
+        lastDepth = layer;
+        if (!found) {
+            return false;
+        }
+
+        int best = 0;
+        for (int i = 1; i < current.size; i++) {
+            if (current.score[i] > current.score[best]) {
+                best = i;
+            }
+        }
+        int move = current.firstMove[best];
+        out.set(rotationsOf(move), rotationOf(move), xOf(move), yOf(move), current.firstLines[best],
+                current.score[best]);
+        out.setHold(isHold(move));
+        return true;
+    }
+
+    private void ensureCapacity(SearchBoard board) {
+        if (current != null && current.boards[0].getRows() == board.getRows()
+                && current.boards[0].getCols() == board.getCols()) {
+            return;
+        }
+        current = new Layer(beamWidth, board.getRows(), board.getCols());
+        next = new Layer(beamWidth, board.getRows(), board.getCols());
+        //two options (play or hold) x four rotations x every column a 4-wide matrix can start at
+        perParent = 2 * PieceTable.SIZE * (board.getCols() + PieceTable.SIZE - 1);
+        if ((long) beamWidth * perParent > TranspositionTable.MAX_VALUE) {
+            throw new IllegalArgumentException("Beam width too large: " + beamWidth);
+        }
+        candidateMoves = new int[beamWidth * perParent];
+        candidateKeys = new long[beamWidth * perParent];
+        candidateScores = new double[beamWidth * perParent];
+        candidateCounts = new int[beamWidth];
+        heap = new int[beamWidth];
+        if (table == null) {
+            //eight entries per candidate of one layer keeps full buckets (dropped stores) rare
+            table = new TranspositionTable(8 * beamWidth * perParent);
+        }
+    }
+
+    /**
+     * Keeps the best {@code beamWidth} candidates (a bounded min-heap over candidate slots)
+     * and rebuilds their boards into {@link #next}.
+     *
+     * @return {@code false} if there were no candidates
+     */
+    private boolean select() {
+        int size = 0;
+        for (int p = 0; p < current.size; p++) {
+            int base = p * perParent;
+            for (int slot = base; slot < base + candidateCounts[p]; slot++) {
+                int first = table.get(candidateKeys[slot]);
+                if (first != TranspositionTable.ABSENT && first != slot) {
+                    continue; //a lower slot reached the same position
+                }
+                if (size < beamWidth) {
+                    heap[size] = slot;
+                    siftUp(size++);
+                } else if (better(slot, heap[0])) {
+                    heap[0] = slot;
+                    siftDown(size);
+                }
+            }
+        }
+        //keep survivors in candidate order, so equal scores resolve the same way as PlacementSearch
+        Arrays.sort(heap, 0, size);
+        for (int i = 0; i < size; i++) {
+            int slot = heap[i];
+            int p = slot / perParent;
+            int move = candidateMoves[slot];
+            int pos = current.pos[p];
+            int held = current.held[p];
+            int piece = pieces[pos];
+            if (isHold(move)) {
+                //swap with the held brick, or hold and take the next one from the queue
+                piece = held != 0 ? held : pieces[pos + 1];
+                held = pieces[pos];
+                pos += current.held[p] != 0 ? 1 : 2;
+            } else {
+                pos++;
+            }
+            SearchBoard board = next.boards[i];
+            board.copyFrom(current.boards[p]);
+            int lines = board.place(piece, rotationOf(move), xOf(move), yOf(move));
+            next.held[i] = held;
+            next.pos[i] = pos;
+            next.lines[i] = current.lines[p] + lines;
+            next.score[i] = candidateScores[slot];
+            next.firstMove[i] = rootLayer ? move : current.firstMove[p];
+            next.firstLines[i] = rootLayer ? lines : current.firstLines[p];
+        }
+        next.size = size;
+        return size > 0;
+    }
+
+    /** @return {@code true} once the running layer has passed its deadline */
+    private boolean expired() {
+        if (abandoned) {
+            return true;
+        }
+        if (layerTimed && System.nanoTime() - deadline >= 0) {
+            abandoned = true;
+            return true;
+        }
+        return false;
+    }
+
+    /** Candidate order: higher score first, then lower slot. */
+    private boolean better(int a, int b) {
+        double sa = candidateScores[a];
+        double sb = candidateScores[b];
+        return sa > sb || (sa == sb && a < b);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(heap[parent], heap[i])) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int size) {
+        int i = 0;
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && better(heap[worst], heap[left])) {
+                worst = left;
+            }
+            if (right < size && better(heap[worst], heap[right])) {
+                worst = right;
+            }
+            if (worst == i) {
+                return;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int t = heap[i];
+        heap[i] = heap[j];
+        heap[j] = t;
+    }
+
+    //a move is packed as hold << 24 | rotations << 20 | rotation << 16 | (x + 16) << 8 | y
+
+    private static int pack(boolean hold, int rotations, int rotation, int x, int y) {
+        return (hold ? 1 << 24 : 0) | rotations << 20 | rotation << 16 | (x + 16) << 8 | y;
+    }
+
+    private static boolean isHold(int move) {
+        return (move >>> 24 & 1) != 0;
+    }
+
+    private static int rotationsOf(int move) {
+        return move >>> 20 & 0xF;
+    }
+
+    private static int rotationOf(int move) {
+        return move >>> 16 & 0xF;
+    }
+
+    private static int xOf(int move) {
+        return (move >>> 8 & 0xFF) - 16;
+    }
+
+    private static int yOf(int move) {
+        return move & 0xFF;
+    }
+
+    /**
+     * One layer of the beam, stored column-wise.
+     */
+    private static final class Layer {
+        final SearchBoard[] boards;
+        final int[] held;
+        final int[] pos;
+        final int[] lines;
+        final double[] score;
+        final int[] firstMove;
+        final int[] firstLines;
+        int size;
+
+        Layer(int capacity, int rows, int cols) {
+            boards = new SearchBoard[capacity];
+            for (int i = 0; i < capacity; i++) {
+                boards[i] = new SearchBoard(rows, cols);
+            }
+            held = new int[capacity];
+            pos = new int[capacity];
+            lines = new int[capacity];
+            score = new double[capacity];
+            firstMove = new int[capacity];
+            firstLines = new int[capacity];
+        }
+    }
+
+    /**
+     * Expands the parents {@code [from, to)} of the current layer, splitting in halves
+     * down to {@value #PARENTS_PER_TASK} parents per task.
+     */
+    private final class Expand extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Expand(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (expired()) {
+                return;
+            }
+            if (to - from <= PARENTS_PER_TASK) {
+                Expander expander = new Expander();
+                for (int p = from; p < to && !expired(); p++) {
+                    expander.expand(p);
+                }
+                nodes.add(expander.visited);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Expand(from, mid), new Expand(mid, to));
+        }
+    }
+
+    /**
+     * Generates and scores the children of one parent at a time, with its own scratch board.
+     */
+    private final class Expander implements PlacementSearch.Visitor {
+        private final SearchBoard scratch = new SearchBoard(current.boards[0].getRows(), current.boards[0].getCols());
+        private final PlacementSearch placements = new PlacementSearch();
+        private int parent;
+        private int piece;
+        private boolean hold;
+        private long childKey;
+        private int slot;
+        private long visited;
+
+        void expand(int p) {
+            parent = p;
+            slot = p * perParent;
+            int pos = current.pos[p];
+            if (pos >= pieceCount) {
+                return;
+            }
+            SearchBoard board = current.boards[p];
+            int rotation = rootLayer ? startRotation : 0;
+            int x = rootLayer ? startX : GameBoard.SPAWN_X;
+            int y = rootLayer ? startY : GameBoard.SPAWN_Y;
+
+            piece = pieces[pos];
+            hold = false;
+            childKey = stateKey(current.held[p], pos + 1);
+            placements.enumerate(board, piece, rotation, x, y, this);
+
+            if (rootLayer && holdUsed) {
+                return;
+            }
+            int held = current.held[p];
+            int swapIn = held != 0 ? held : (pos + 1 < pieceCount ? pieces[pos + 1] : 0);
+            //swapping a brick for an identical held one changes nothing
+            if (swapIn == 0 || (held != 0 && held == piece)) {
+                return;
+            }
+            piece = swapIn;
+            hold = true;
+            childKey = stateKey(pieces[pos], held != 0 ? pos + 1 : pos + 2);
+            placements.enumerate(board, piece, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, this);
+        }
+
+        /** Key of everything in a child's position except its board. */
+        private long stateKey(int held, int pos) {
+            long key = Zobrist.held(held) ^ Zobrist.position(pos);
+            return pos < pieceCount ? key ^ Zobrist.piece(pieces[pos]) : key;
+        }
+
+        @Override
+        public void visit(int rotations, int rotation, int x, int y) {
+            scratch.copyFrom(current.boards[parent]);
+            int lines = scratch.place(piece, rotation, x, y);
+            candidateMoves[slot] = pack(hold, rotations, rotation, x, y);
+            candidateScores[slot] = heuristic.evaluate(scratch, current.lines[parent] + lines);
+            long key = scratch.hash() ^ childKey;
+            candidateKeys[slot] = key;
+            table.putIfLower(key, slot);
+            slot++;
+            candidateCounts[parent]++;
+            visited++;
+        }
+    }
+}
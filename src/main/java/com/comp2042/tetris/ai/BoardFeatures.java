@@ -0,0 +1,396 @@
+package com.comp2042.tetris.ai;
+
+import java.util.Arrays;
+
+/**
+ * Playfield that keeps its evaluation features up to date as bricks lock and rows clear,
+ * instead of recomputing them from the whole board.
+ * <p>
+ * The features, indexed by the constants of this class:
+ * </p>
+ * <ul>
+ *     <li>{@link #AGGREGATE_HEIGHT}: sum of the column heights</li>
+ *     <li>{@link #BUMPINESS}: sum of height differences between neighbouring columns</li>
+ *     <li>{@link #HOLES}: empty cells below the top of their column</li>
+ *     <li>{@link #COVERED_CELLS}: filled cells above the lowest hole of their column</li>
+ *     <li>{@link #WELL_DEPTHS}: per column, how far it lies below the lower of its two
+ *     neighbours (the side walls are as high as the board), summed</li>
+ *     <li>{@link #ROW_TRANSITIONS}: filled/empty changes along each row, the walls
+ *     counting as filled (so an empty row has two)</li>
+ *     <li>{@link #COLUMN_TRANSITIONS}: filled/empty changes down each column, the floor
+ *     counting as filled</li>
+ * </ul>
+ * <p>
+ * Besides the row masks of {@link SearchBoard}, the board keeps one {@code long} per
+ * column (bit {@code b} for the {@code b}-th row from the bottom), so a column's height,
+ * holes and transitions are a few bit operations. {@link #place} only revisits the rows
+ * and columns the brick touched (and the neighbours of those columns); a line clear
+ * compresses every column mask and revisits all columns, never the individual cells.
+ * The features are read with {@link #get(int)} or copied out as a vector with
+ * {@link #copyTo(int[], int)}.
+ * </p>
+ * <p>
+ * The tracker pays off when one board lives through many placements, e.g. a game or a
+ * rollout. The searches still score candidates with {@link Heuristic#evaluate(SearchBoard, int)}:
+ * each candidate starts from a copy of its parent, and copying the tracker costs more than
+ * rescanning the row masks of a {@link SearchBoard} ({@code BoardFeaturesBenchmark}
+ * times both).
+ * </p>
+ * <p>
+ * Not thread-safe; give each thread its own board.
+ * </p>
+ */
+public final class BoardFeatures {
+
+    /** Sum of the column heights. */
+    public static final int AGGREGATE_HEIGHT = 0;
+    /** Sum of the height differences between neighbouring columns. */
+    public static final int BUMPINESS = 1;
+    /** Empty cells below the top of their column. */
+    public static final int HOLES = 2;
+    /** Filled cells above the lowest hole of their column. */
+    public static final int COVERED_CELLS = 3;
+    /** Summed depth of the columns lying below both neighbours. */
+    public static final int WELL_DEPTHS = 4;
+    /** Filled/empty changes along the rows, walls filled. */
+    public static final int ROW_TRANSITIONS = 5;
+    /** Filled/empty changes down the columns, floor filled. */
+    public static final int COLUMN_TRANSITIONS = 6;
+    /** Length of the feature vector. */
+    public static final int COUNT = 7;
+
+    private static final String[] NAMES = {"aggregateHeight", "bumpiness", "holes", "coveredCells",
+            "wellDepths", "rowTransitions", "columnTransitions"};
+
+    private final int rows;
+    private final int cols;
+    private final int full;
+    /** Mask of the column bits that are inside the board. */
+    private final long inside;
+
+    /** Row masks, top row first, as in {@link SearchBoard}. */
+    private final int[] cells;
+    /** Column masks, bit {@code b} for row {@code rows - 1 - b}. */
+    private final long[] columns;
+
+    //per-column and per-row contributions, so an update can take out the old value
+    private final int[] heights;
+    private final int[] holes;
+    private final int[] covered;
+    private final int[] columnTransitions;
+    private final int[] wells;
+    /** Height difference of column {@code c} and {@code c + 1}. */
+    private final int[] bumps;
+    private final int[] rowTransitions;
+
+    private final int[] features = new int[COUNT];
+
+    /**
+     * Creates an empty board.
+     *
+     * @param rows number of rows, at most 64
+     * @param cols number of columns, at most 31
+     */
+    public BoardFeatures(int rows, int cols) {
+        if (cols < 1 || cols > 31) {
+            throw new IllegalArgumentException("Columns must be in [1, 31]: " + cols);
+        }
+        if (rows < 1 || rows > Long.SIZE) {
+            throw new IllegalArgumentException("Rows must be in [1, " + Long.SIZE + "]: " + rows);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.full = (1 << cols) - 1;
+        this.inside = lowBits(rows);
+        this.cells = new int[rows];
+        this.columns = new long[cols];
+        this.heights = new int[cols];
+        this.holes = new int[cols];
+        this.covered = new int[cols];
+        this.columnTransitions = new int[cols];
+        this.wells = new int[cols];
+        this.bumps = new int[cols];
+        this.rowTransitions = new int[rows];
+        clear();
+    }
+
+    /**
+     * @param feature feature index
+     * @return the feature's name, e.g. for column headers
+     */
+    public static String nameOf(int feature) {
+        return NAMES[feature];
+    }
+
+    /** Empties the board. */
+    public void clear() {
+        Arrays.fill(cells, 0);
+        Arrays.fill(columns, 0L);
+        recomputeAll();
+    }
+
+    /**
+     * Loads a board matrix ({@code [row][col]}, 0 = empty).
+     *
+     * @param matrix the matrix, e.g. {@link com.comp2042.tetris.model.GameBoard#getBoardMatrix()}
+     */
+    public void load(int[][] matrix) {
+        for (int r = 0; r < rows; r++) {
+            int mask = 0;
+            for (int c = 0; c < cols; c++) {
+                if (matrix[r][c] != 0) {
+                    mask |= 1 << c;
+                }
+            }
+            cells[r] = mask;
+        }
+        loadColumns();
+    }
+
+    /**
+     * Loads the cells of a search board of the same size.
+     *
+     * @param board the board to copy
+     */
+    public void load(SearchBoard board) {
+        for (int r = 0; r < rows; r++) {
+            cells[r] = board.rowMask(r);
+        }
+        loadColumns();
+    }
+
+    /**
+     * Copies another board of the same size, features included.
+     *
+     * @param other the board to copy
+     */
+    public void copyFrom(BoardFeatures other) {
+        System.arraycopy(other.cells, 0, cells, 0, rows);
+        System.arraycopy(other.columns, 0, columns, 0, cols);
+        System.arraycopy(other.heights, 0, heights, 0, cols);
+        System.arraycopy(other.holes, 0, holes, 0, cols);
+        System.arraycopy(other.covered, 0, covered, 0, cols);
+        System.arraycopy(other.columnTransitions, 0, columnTransitions, 0, cols);
+        System.arraycopy(other.wells, 0, wells, 0, cols);
+        System.arraycopy(other.bumps, 0, bumps, 0, cols);
+        System.arraycopy(other.rowTransitions, 0, rowTransitions, 0, rows);
+        System.arraycopy(other.features, 0, features, 0, COUNT);
+    }
+
+    private void loadColumns() {
+        Arrays.fill(columns, 0L);
+        for (int r = 0; r < rows; r++) {
+            long bit = 1L << (rows - 1 - r);
+            for (int mask = cells[r]; mask != 0; mask &= mask - 1) {
+                columns[Integer.numberOfTrailingZeros(mask)] |= bit;
+            }
+        }
+        recomputeAll();
+    }
+
+    private void recomputeAll() {
+        Arrays.fill(features, 0);
+        Arrays.fill(heights, 0);
+        Arrays.fill(holes, 0);
+        Arrays.fill(covered, 0);
+        Arrays.fill(columnTransitions, 0);
+        Arrays.fill(wells, 0);
+        Arrays.fill(bumps, 0);
+        for (int r = 0; r < rows; r++) {
+            rowTransitions[r] = transitionsOfRow(cells[r]);
+            features[ROW_TRANSITIONS] += rowTransitions[r];
+        }
+        recomputeColumns();
+    }
+
+    /** Brings every column's contributions up to date with {@link #columns}. */
+    private void recomputeColumns() {
+        for (int c = 0; c < cols; c++) {
+            updateColumn(c);
+        }
+        for (int c = 0; c < cols; c++) {
+            updateWell(c);
+        }
+        for (int c = 0; c + 1 < cols; c++) {
+            updateBump(c);
+        }
+    }
+
+    /**
+     * Locks a brick into the board and clears completed rows, exactly like
+     * {@link SearchBoard#place}, updating the features on the way.
+     *
+     * @param id       brick id
+     * @param rotation rotation index
+     * @param x        column of the brick
+     * @param y        row of the brick
+     * @return number of rows cleared
+     */
+    public int place(int id, int rotation, int x, int y) {
+        int touched = 0;
+        long completed = 0;
+        for (int j = 0; j < PieceTable.SIZE; j++) {
+            int mask = PieceTable.rowMask(id, rotation, j);
+            int row = y + j;
+            if (mask == 0 || row < 0 || row >= rows) {
+                continue;
+            }
+            int placed = (x >= 0 ? mask << x : mask >>> -x) & full;
+            cells[row] |= placed;
+            touched |= placed;
+            long bit = 1L << (rows - 1 - row);
+            for (int m = placed; m != 0; m &= m - 1) {
+                columns[Integer.numberOfTrailingZeros(m)] |= bit;
+            }
+            if (cells[row] == full) {
+                completed |= bit;
+            } else {
+                features[ROW_TRANSITIONS] += transitionsOfRow(cells[row]) - rowTransitions[row];
+                rowTransitions[row] = transitionsOfRow(cells[row]);
+            }
+        }
+        if (completed != 0) {
+            return clearRows(completed);
+        }
+        //the brick's columns change; wells and bumps also depend on their neighbours
+        for (int m = touched; m != 0; m &= m - 1) {
+            updateColumn(Integer.numberOfTrailingZeros(m));
+        }
+        int around = (touched | touched << 1 | touched >>> 1) & full;
+        for (int m = around; m != 0; m &= m - 1) {
+            updateWell(Integer.numberOfTrailingZeros(m));
+        }
+        for (int m = (touched | touched >>> 1) & (full >>> 1); m != 0; m &= m - 1) {
+            updateBump(Integer.numberOfTrailingZeros(m));
+        }
+        return 0;
+    }
+
+    private int clearRows(long completed) {
+        int cleared = Long.bitCount(completed);
+        //rows: drop the full ones (their stale counts leave the total) and add empty rows on top
+        int write = rows - 1;
+        for (int r = rows - 1; r >= 0; r--) {
+            if ((completed >>> (rows - 1 - r) & 1) != 0) {
+                features[ROW_TRANSITIONS] -= rowTransitions[r];
+            } else {
+                cells[write] = cells[r];
+                rowTransitions[write] = rowTransitions[r];
+                write--;
+            }
+        }
+        int empty = transitionsOfRow(0);
+        for (; write >= 0; write--) {
+            cells[write] = 0;
+            rowTransitions[write] = empty;
+        }
+        features[ROW_TRANSITIONS] += cleared * empty;
+        //columns: squeeze the cleared bits out of every mask
+        long keep = ~completed;
+        for (int c = 0; c < cols; c++) {
+            columns[c] = Long.compress(columns[c], keep);
+        }
+        recomputeColumns();
+        return cleared;
+    }
+
+    /** Replaces column {@code c}'s height, holes, covered cells and transitions in the totals. */
+    private void updateColumn(int c) {
+        long column = columns[c];
+        int height = Long.SIZE - Long.numberOfLeadingZeros(column);
+        int filled = Long.bitCount(column);
+        long empty = ~column & lowBits(height);
+        int cover = empty == 0 ? 0 : Long.bitCount(column >>> Long.numberOfTrailingZeros(empty));
+        int transitions = Long.bitCount((column ^ (column << 1 | 1L)) & inside);
+        features[AGGREGATE_HEIGHT] += height - heights[c];
+        features[HOLES] += height - filled - holes[c];
+        features[COVERED_CELLS] += cover - covered[c];
+        features[COLUMN_TRANSITIONS] += transitions - columnTransitions[c];
+        heights[c] = height;
+        holes[c] = height - filled;
+        covered[c] = cover;
+        columnTransitions[c] = transitions;
+    }
+
+    /** Replaces column {@code c}'s well depth in the total. */
+    private void updateWell(int c) {
+        int left = c == 0 ? rows : heights[c - 1];
+        int right = c == cols - 1 ? rows : heights[c + 1];
+        int depth = Math.max(0, Math.min(left, right) - heights[c]);
+        features[WELL_DEPTHS] += depth - wells[c];
+        wells[c] = depth;
+    }
+
+    /** Replaces the height difference of columns {@code c} and {@code c + 1} in the total. */
+    private void updateBump(int c) {
+        int bump = Math.abs(heights[c] - heights[c + 1]);
+        features[BUMPINESS] += bump - bumps[c];
+        bumps[c] = bump;
+    }
+
+    /** Transitions of one row with a filled wall cell on each side. */
+    private int transitionsOfRow(int mask) {
+        long padded = 1L | (long) mask << 1 | 1L << (cols + 1);
+        return Long.bitCount((padded ^ padded >>> 1) & lowBits(cols + 1));
+    }
+
+    private static long lowBits(int n) {
+        return n >= Long.SIZE ? -1L : (1L << n) - 1;
+    }
+
+    /**
+     * @param feature feature index, e.g. {@link #HOLES}
+     * @return the feature's current value
+     */
+    public int get(int feature) {
+        return features[feature];
+    }
+
+    /**
+     * Copies the feature vector.
+     *
+     * @param out    destination
+     * @param offset index of the first feature in {@code out}; {@link #COUNT} values are written
+     */
+    public void copyTo(int[] out, int offset) {
+        System.arraycopy(features, 0, out, offset, COUNT);
+    }
+
+    /**
+     * @param col column index
+     * @return height of the column's highest filled cell above the floor, 0 if empty
+     */
+    public int getHeight(int col) {
+        return heights[col];
+    }
+
+    /**
+     * @param row row index
+     * @return filled cells of the row, bit {@code c} for column {@code c}
+     */
+    public int rowMask(int row) {
+        return cells[row];
+    }
+
+    /** @return number of rows */
+    public int getRows() {
+        return rows;
+    }
+
+    /** @return number of columns */
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("BoardFeatures{");
+        for (int f = 0; f < COUNT; f++) {
+            if (f > 0) {
+                sb.append(", ");
+            }
+            sb.append(NAMES[f]).append('=').append(features[f]);
+        }
+        return sb.append('}').toString();
+    }
+}
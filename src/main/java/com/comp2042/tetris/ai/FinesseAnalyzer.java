@@ -0,0 +1,451 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import com.comp2042.tetris.persistence.Replay;
+import com.comp2042.tetris.persistence.ReplayArchive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures the finesse of recorded games: how many inputs a player spent on each brick
+ * compared with the fewest that reach the same lock position.
+ * <p>
+ * Each replay is played back on a {@link HeadlessGame}. For every brick the analyzer
+ * counts the player's LEFT, RIGHT and ROTATE inputs from the moment it came in (or was
+ * swapped in by a hold) until it locked, and finds the fewest such inputs that take the
+ * brick from the same start to a lock covering the same cells, under the move rules of
+ * {@link PathFinder}. Drops are not counted on either side, so soft-dropping and letting
+ * gravity work cost nothing (DOWN is free in that search, so tucks are not overcharged),
+ * and hold presses are free; inputs spent before a hold count against the brick that
+ * comes in. A brick played with more inputs than that minimum is a finesse fault.
+ * </p>
+ * <p>
+ * Archives are read on the calling thread (an archive is confined to one thread) and
+ * their replays handed through a bounded queue to a fixed pool of workers. Each worker
+ * owns its board, search buffers and per-player totals for the whole run, so replays are
+ * analysed without allocation or shared writes, and the totals are merged once at the
+ * end.
+ * </p>
+ */
+public final class FinesseAnalyzer implements AutoCloseable {
+
+    /** Header line of {@link Report#writeTable}. */
+    public static final String TABLE_HEADER = "player\tgames\tpieces\tfaults\terror_rate\textra_inputs_per_piece"
+            + "\tunmatched";
+
+    /** Board size of recorded games (the game's own size). */
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    /** Marks the end of the work queue. */
+    private static final Replay DONE = new Replay(-1, 0, 0, 0, 0, 0, new byte[0]);
+
+    //per-player counters
+    private static final int GAMES = 0;
+    private static final int PIECES = 1;
+    private static final int FAULTS = 2;
+    private static final int EXTRA = 3;
+    private static final int UNMATCHED = 4;
+    private static final int COUNTERS = 5;
+
+    private final int threads;
+    private final ExecutorService pool;
+
+    /**
+     * Creates an analyzer.
+     *
+     * @param threads worker threads
+     */
+    public FinesseAnalyzer(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "finesse");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Analyses every replay of the given archives.
+     *
+     * @param archives archive directories, see {@link ReplayArchive}
+     * @return finesse totals per player
+     * @throws IOException if an archive cannot be read
+     */
+    public Report analyze(List<Path> archives) throws IOException {
+        BlockingQueue<Replay> queue = new ArrayBlockingQueue<>(4 * threads);
+        List<Worker> workers = new ArrayList<>();
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(queue);
+            workers.add(worker);
+            futures.add(pool.submit(worker));
+        }
+        try {
+            try {
+                for (Path path : archives) {
+                    try (ReplayArchive archive = ReplayArchive.open(path)) {
+                        for (int i = 0; i < archive.size(); i++) {
+                            queue.put(archive.read(i));
+                        }
+                    }
+                }
+            } finally {
+                for (int i = 0; i < threads; i++) {
+                    queue.put(DONE);
+                }
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while analysing replays", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Finesse analysis failed", e.getCause());
+        }
+        Map<Integer, long[]> totals = new TreeMap<>();
+        for (Worker worker : workers) {
+            for (Map.Entry<Integer, long[]> entry : worker.totals.entrySet()) {
+                long[] sum = totals.computeIfAbsent(entry.getKey(), k -> new long[COUNTERS]);
+                for (int c = 0; c < COUNTERS; c++) {
+                    sum[c] += entry.getValue()[c];
+                }
+            }
+        }
+        return new Report(totals);
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Plays back replays for one worker thread until the queue is closed. After a failure
+     * it keeps draining the queue, so the reading thread never blocks on a full queue.
+     */
+    private static final class Worker implements Callable<Void> {
+        private final BlockingQueue<Replay> queue;
+        private final GameBoard board = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+        private final HeadlessGame game = new HeadlessGame(board);
+        private final SearchBoard searchBoard = new SearchBoard(ROWS, COLS);
+        private final FewestInputs fewestInputs = new FewestInputs();
+        private final Map<Integer, long[]> totals = new HashMap<>();
+
+        //the brick being played: where it came in and the inputs spent on it so far
+        private int startId;
+        private int startRotation;
+        private int startX;
+        private int startY;
+        private int used;
+
+        Worker(BlockingQueue<Replay> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public Void call() throws InterruptedException {
+            RuntimeException failure = null;
+            for (Replay replay = queue.take(); replay != DONE; replay = queue.take()) {
+                if (failure != null) {
+                    continue;
+                }
+                try {
+                    analyze(replay, totals.computeIfAbsent(replay.getPlayerId(), k -> new long[COUNTERS]));
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        }
+
+        private void analyze(Replay replay, long[] counters) {
+            counters[GAMES]++;
+            game.newGame(replay.getSeed());
+            startPiece();
+            used = 0;
+            for (int i = 0; i < replay.getInputCount() && !game.isGameOver(); i++) {
+                MoveEvent event = MoveEvent.fromCode(replay.getInput(i));
+                EventType type = event.getEventType();
+                int id = board.getCurrentBrickId();
+                int rotation = board.getCurrentRotation();
+                int x = board.getCurrentX();
+                int y = board.getCurrentY();
+                boolean holdUsed = board.isHoldUsed();
+                int pieces = game.getPieces();
+                game.dispatch(event);
+                if (type == EventType.HOLD) {
+                    if (!holdUsed && board.isHoldUsed() && !game.isGameOver()) {
+                        startPiece();
+                    }
+                    continue;
+                }
+                if (event.getEventSource() == EventSource.USER
+                        && (type == EventType.LEFT || type == EventType.RIGHT || type == EventType.ROTATE)) {
+                    used++;
+                }
+                if (game.getPieces() > pieces) {
+                    int lockY = type == EventType.HARD_DROP ? searchBoard.dropY(id, rotation, x, y) : y;
+                    int minimal = fewestInputs.search(searchBoard, startId, startRotation, startX, startY, rotation, x,
+                            lockY);
+                    counters[PIECES]++;
+                    if (minimal < 0) {
+                        counters[UNMATCHED]++;
+                    } else if (used > minimal) {
+                        counters[FAULTS]++;
+                        counters[EXTRA] += used - minimal;
+                    }
+                    if (!game.isGameOver()) {
+                        startPiece();
+                        used = 0;
+                    }
+                }
+            }
+        }
+
+        /** Remembers the board and the brick now in play; the input count carries on. */
+        private void startPiece() {
+            searchBoard.load(board.getBoardMatrix());
+            startId = board.getCurrentBrickId();
+            startRotation = board.getCurrentRotation();
+            startX = board.getCurrentX();
+            startY = board.getCurrentY();
+        }
+    }
+
+    /**
+     * Fewest LEFT, RIGHT and ROTATE inputs to a lock position, under the move rules of
+     * {@link PathFinder} but with DOWN free: a 0-1 breadth-first search settles states in
+     * order of that count, so the first state whose hard drop lands on the target answers.
+     * Buffers are kept between searches; use one instance per thread.
+     */
+    static final class FewestInputs {
+
+        /** Padding so that brick offsets left of and above the board index from 0. */
+        private static final int PAD = PieceTable.SIZE - 1;
+        private static final int WIDTH = COLS + PAD;
+        private static final int HEIGHT = ROWS + PAD;
+        private static final int STATES = 4 * WIDTH * HEIGHT;
+
+        /** Deque capacity: a power of two above the pushes of one search (at most two per state). */
+        private static final int DEQUE = Integer.highestOneBit(2 * STATES) << 1;
+
+        //one entry per (rotation, row, column) state, indexed as in PathFinder
+        private final int[] cost = new int[STATES];
+        private final boolean[] settled = new boolean[STATES];
+        private final int[] deque = new int[DEQUE];
+
+        /**
+         * Returns the fewest LEFT, RIGHT and ROTATE inputs that take a brick from its start
+         * to a lock covering the same cells as the target.
+         *
+         * @param board         the board, as large as the game's
+         * @param id            brick id
+         * @param startRotation rotation the brick came in with
+         * @param startX        column the brick came in at
+         * @param startY        row the brick came in at
+         * @param rotation      rotation of the target lock
+         * @param x             column of the target lock
+         * @param y             row of the target lock
+         * @return the input count, or {@code -1} if the target cannot be reached
+         */
+        int search(SearchBoard board, int id, int startRotation, int startX, int startY, int rotation, int x, int y) {
+            if (!board.fits(id, startRotation, startX, startY)) {
+                return -1;
+            }
+            int rotations = PieceTable.rotations(id);
+            Arrays.fill(cost, 0, rotations * HEIGHT * WIDTH, Integer.MAX_VALUE);
+            Arrays.fill(settled, 0, rotations * HEIGHT * WIDTH, false);
+            int start = state(startRotation, startX, startY);
+            cost[start] = 0;
+            //ring buffer: free moves go to the front, paid ones to the back
+            int head = 0;
+            int tail = 0;
+            deque[tail++] = start;
+            while (head != tail) {
+                int s = deque[head];
+                head = (head + 1) & (DEQUE - 1);
+                if (settled[s]) {
+                    continue;
+                }
+                settled[s] = true;
+                int sx = s % WIDTH - PAD;
+                int t = s / WIDTH;
+                int sy = t % HEIGHT - PAD;
+                int rot = t / HEIGHT;
+                if (sameCells(id, rot, sx, board.dropY(id, rot, sx, sy), rotation, x, y)) {
+                    return cost[s];
+                }
+                for (int m = 0; m < 4; m++) {
+                    int nx = m == 0 ? sx - 1 : m == 1 ? sx + 1 : sx;
+                    int ny = m == 3 ? sy + 1 : sy;
+                    int nrot = m == 2 ? (rot + 1) % rotations : rot;
+                    if (m == 2 && nrot == rot || !board.fits(id, nrot, nx, ny)) {
+                        continue;
+                    }
+                    int n = state(nrot, nx, ny);
+                    int c = cost[s] + (m == 3 ? 0 : 1);
+                    if (c >= cost[n]) {
+                        continue;
+                    }
+                    cost[n] = c;
+                    if (m == 3) {
+                        head = (head - 1) & (DEQUE - 1);
+                        deque[head] = n;
+                    } else {
+                        deque[tail] = n;
+                        tail = (tail + 1) & (DEQUE - 1);
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private static int state(int rotation, int x, int y) {
+            return (rotation * HEIGHT + y + PAD) * WIDTH + x + PAD;
+        }
+
+        /** Tells whether two positions of a brick cover the same cells (rotations can coincide). */
+        private static boolean sameCells(int id, int r1, int x1, int y1, int r2, int x2, int y2) {
+            for (int row = Math.min(y1, y2); row < Math.max(y1, y2) + PieceTable.SIZE; row++) {
+                if (rowCells(id, r1, x1, row - y1) != rowCells(id, r2, x2, row - y2)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long rowCells(int id, int rotation, int x, int shapeRow) {
+            if (shapeRow < 0 || shapeRow >= PieceTable.SIZE) {
+                return 0;
+            }
+            long mask = PieceTable.rowMask(id, rotation, shapeRow);
+            //offset by the matrix width so that negative columns stay in range
+            return mask << (x + PieceTable.SIZE);
+        }
+    }
+
+    /**
+     * Finesse totals per player.
+     */
+    public static final class Report {
+
+        private final Map<Integer, long[]> totals;
+
+        Report(Map<Integer, long[]> totals) {
+            this.totals = totals;
+        }
+
+        /** @return ids of the players seen, in ascending order */
+        public int[] getPlayers() {
+            return totals.keySet().stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /** @return games analysed for {@code player} */
+        public long getGames(int player) {
+            return counter(player, GAMES);
+        }
+
+        /** @return bricks locked by {@code player} */
+        public long getPieces(int player) {
+            return counter(player, PIECES);
+        }
+
+        /** @return bricks {@code player} played with more inputs than needed */
+        public long getFaults(int player) {
+            return counter(player, FAULTS);
+        }
+
+        /** @return inputs {@code player} spent beyond the shortest paths, summed over faults */
+        public long getExtraInputs(int player) {
+            return counter(player, EXTRA);
+        }
+
+        /** @return bricks whose lock position no path reproduced (not counted as faults) */
+        public long getUnmatched(int player) {
+            return counter(player, UNMATCHED);
+        }
+
+        /** @return share of {@code player}'s bricks that were finesse faults */
+        public double getErrorRate(int player) {
+            long pieces = getPieces(player);
+            return pieces == 0 ? 0 : (double) getFaults(player) / pieces;
+        }
+
+        private long counter(int player, int index) {
+            long[] counters = totals.get(player);
+            return counters == null ? 0 : counters[index];
+        }
+
+        /**
+         * Writes the report as a tab-separated table, {@link #TABLE_HEADER} first.
+         *
+         * @param out where to write
+         * @throws UncheckedIOException if writing fails
+         */
+        public void writeTable(Appendable out) {
+            try {
+                out.append(TABLE_HEADER).append('\n');
+                for (int player : getPlayers()) {
+                    long pieces = getPieces(player);
+                    out.append(String.format(Locale.ROOT, "%d\t%d\t%d\t%d\t%.4f\t%.3f\t%d%n", player,
+                            getGames(player), pieces, getFaults(player), getErrorRate(player),
+                            pieces == 0 ? 0.0 : (double) getExtraInputs(player) / pieces, getUnmatched(player)));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Analyses archives from the command line and prints the table to stdout.
+     * <p>
+     * Usage: {@code FinesseAnalyzer <archive-dir>...}
+     * </p>
+     *
+     * @param args archive directories
+     * @throws IOException if an archive cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: FinesseAnalyzer <archive-dir>...");
+            return;
+        }
+        List<Path> archives = Arrays.stream(args).map(Path::of).toList();
+        try (FinesseAnalyzer analyzer = new FinesseAnalyzer(Runtime.getRuntime().availableProcessors())) {
+            analyzer.analyze(archives).writeTable(System.out);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.comp2042.tetris.ai;
+
+/**
+ * Weighted linear evaluation of a board after a placement.
+ * <p>
+ * The score is {@code aggregateHeight * h + lines * l + holes * o + bumpiness * b}, where
+ * aggregate height is the sum of the column heights, holes are empty cells with a filled
+ * cell somewhere above them in the same column, and bumpiness is the sum of height
+ * differences between neighbouring columns. Higher is better. The default weights are the
+ * well-known hand-tuned values from El-Tetris style players.
+ * </p>
+ * <p>
+ * Immutable, so one instance can be shared by searches on several threads.
+ * </p>
+ */
+public final class Heuristic {
+
+    /** Number of weights, in the order of {@link #toArray()}. */
+    public static final int WEIGHT_COUNT = 4;
+
+    /** Default weights: height -0.510066, lines 0.760666, holes -0.35663, bumpiness -0.184483. */
+    public static final Heuristic DEFAULT = new Heuristic(-0.510066, 0.760666, -0.35663, -0.184483);
+
+    private final double aggregateHeight;
+    private final double lines;
+    private final double holes;
+    private final double bumpiness;
+
+    /**
+     * Creates a heuristic with the given weights.
+     *
+     * @param aggregateHeight weight of the summed column heights
+     * @param lines           weight of the rows cleared by the placement
+     * @param holes           weight of the covered empty cells
+     * @param bumpiness       weight of the summed neighbour height differences
+     */
+    public Heuristic(double aggregateHeight, double lines, double holes, double bumpiness) {
+        this.aggregateHeight = aggregateHeight;
+        this.lines = lines;
+        this.holes = holes;
+        this.bumpiness = bumpiness;
+    }
+
+    /**
+     * Creates a heuristic from a weight vector, e.g. one produced by {@link WeightTuner}.
+     *
+     * @param weights aggregate height, lines, holes and bumpiness weights, in that order
+     * @return the heuristic
+     */
+    public static Heuristic of(double[] weights) {
+        if (weights.length != WEIGHT_COUNT) {
+            throw new IllegalArgumentException("Expected " + WEIGHT_COUNT + " weights, got " + weights.length);
+        }
+        return new Heuristic(weights[0], weights[1], weights[2], weights[3]);
+    }
+
+    /** @return the weights as aggregate height, lines, holes, bumpiness */
+    public double[] toArray() {
+        return new double[]{aggregateHeight, lines, holes, bumpiness};
+    }
+
+    /**
+     * Scores a board.
+     *
+     * @param board        the board after locking and clearing
+     * @param linesCleared rows the placement cleared
+     * @return the evaluation; higher is better
+     */
+    public double evaluate(SearchBoard board, int linesCleared) {
+        //one pass from the top: "seen" holds the columns whose surface is at or above row r,
+        //so per row it adds 1 height per seen column, 1 hole per seen empty cell and
+        //1 bump per neighbour pair where exactly one column is seen
+        int pairs = (1 << (board.getCols() - 1)) - 1;
+        int seen = 0;
+        int height = 0;
+        int covered = 0;
+        int bumps = 0;
+        for (int r = 0; r < board.getRows(); r++) {
+            int row = board.rowMask(r);
+            seen |= row;
+            height += Integer.bitCount(seen);
+            covered += Integer.bitCount(seen & ~row);
+            bumps += Integer.bitCount((seen ^ (seen >>> 1)) & pairs);
+        }
+        return aggregateHeight * height + lines * linesCleared + holes * covered + bumpiness * bumps;
+    }
+
+    /**
+     * Scores a board whose features are tracked incrementally; gives the same value as
+     * {@link #evaluate(SearchBoard, int)} on the same cells.
+     *
+     * @param features     the board after locking and clearing
+     * @param linesCleared rows the placement cleared
+     * @return the evaluation; higher is better
+     */
+    public double evaluate(BoardFeatures features, int linesCleared) {
+        return aggregateHeight * features.get(BoardFeatures.AGGREGATE_HEIGHT) + lines * linesCleared
+                + holes * features.get(BoardFeatures.HOLES) + bumpiness * features.get(BoardFeatures.BUMPINESS);
+    }
+
+    /** @return weight of the summed column heights */
+    public double getAggregateHeight() {
+        return aggregateHeight;
+    }
+
+    /** @return weight of the rows cleared */
+    public double getLines() {
+        return lines;
+    }
+
+    /** @return weight of the covered empty cells */
+    public double getHoles() {
+        return holes;
+    }
+
+    /** @return weight of the summed neighbour height differences */
+    public double getBumpiness() {
+        return bumpiness;
+    }
+
+    @Override
+    public String toString() {
+        return "Heuristic{aggregateHeight=" + aggregateHeight + ", lines=" + lines + ", holes=" + holes
+                + ", bumpiness=" + bumpiness + '}';
+    }
+}
@@ -0,0 +1,70 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.brick.Bricks;
+
+/**
+ * Suggested placement published by {@link HintService}: where a brick should land, in
+ * board coordinates (the same as the active brick's offset).
+ * <p>
+ * Immutable, so it can be handed from the search thread to the UI thread as is.
+ * </p>
+ */
+public final class Hint {
+
+    private final long request;
+    private final int brickId;
+    private final int rotation;
+    private final int x;
+    private final int y;
+    private final boolean hold;
+
+    Hint(long request, int brickId, int rotation, int x, int y, boolean hold) {
+        this.request = request;
+        this.brickId = brickId;
+        this.rotation = rotation;
+        this.x = x;
+        this.y = y;
+        this.hold = hold;
+    }
+
+    /** @return number of the {@link HintService#request()} call this hint answers */
+    public long getRequest() {
+        return request;
+    }
+
+    /** @return id of the brick to place (the held or next brick when {@link #isHold()}) */
+    public int getBrickId() {
+        return brickId;
+    }
+
+    /** @return rotation index of the placement */
+    public int getRotation() {
+        return rotation;
+    }
+
+    /** @return column of the brick's matrix */
+    public int getX() {
+        return x;
+    }
+
+    /** @return row of the brick's matrix */
+    public int getY() {
+        return y;
+    }
+
+    /** @return {@code true} if the suggestion is to hold first and place the brick that comes in */
+    public boolean isHold() {
+        return hold;
+    }
+
+    /** @return a copy of the brick's matrix in the suggested rotation */
+    public int[][] getShape() {
+        return Bricks.shapesOf(brickId).get(rotation);
+    }
+
+    @Override
+    public String toString() {
+        return "Hint{#" + request + ", brick=" + brickId + ", rotation=" + rotation + ", x=" + x + ", y=" + y
+                + (hold ? ", hold" : "") + "}";
+    }
+}
@@ -0,0 +1,212 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Computes placement hints for the active brick in the background.
+ * <p>
+ * {@link #request()} runs on the caller's (UI) thread and only copies the board into a
+ * fresh {@link GameState} snapshot, with the preview queue the search needs; the snapshot
+ * is never touched again on that thread. The {@link BeamSearch} then runs on a single
+ * low-priority search thread (its expansions on a pool that leaves one core free), so the
+ * caller never waits on it. Each request supersedes the previous one: a queued search is
+ * dropped, a running one is interrupted and stops after its current layer, and results of
+ * superseded requests are never published. Use {@link #isCurrent(Hint)} on the receiving
+ * side to drop a hint that was overtaken while being handed over.
+ * </p>
+ * <p>
+ * Hints go to the listener on the search thread; wrap it (e.g. with
+ * {@code Platform.runLater}) to get them on the UI thread.
+ * </p>
+ */
+public final class HintService implements AutoCloseable {
+
+    private final GameBoard board;
+    private final BeamSearch beamSearch;
+    private final ExecutorService executor;
+    /** Expansion pool created by this service, shut down on {@link #close()}; {@code null} if supplied. */
+    private final ForkJoinPool ownPool;
+    private final int rows;
+    private final int cols;
+
+    private volatile Heuristic heuristic = Heuristic.DEFAULT;
+    private volatile Consumer<Hint> listener;
+
+    /** Number of the latest request; a hint is stale once this has moved on. */
+    private final AtomicLong latest = new AtomicLong();
+
+    //caller (UI) thread only
+    private Future<?> running;
+    private GameState lastSnapshot;
+    /** Reused for every request; copied out only when the position has changed. */
+    private final GameState scratch;
+
+    //search thread only
+    private final SearchBoard searchBoard;
+    private final Placement placement = new Placement();
+    private final int[] pieces = new int[GameState.QUEUE_CAPACITY + 1];
+
+    /**
+     * Creates a hint service for {@code board} with its own search threads.
+     *
+     * @param board the live board; only read from the thread calling {@link #request()}
+     * @param depth bricks of lookahead (1 = current brick only)
+     */
+    public HintService(GameBoard board, int depth) {
+        this(board, depth, new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)));
+    }
+
+    private HintService(GameBoard board, int depth, ForkJoinPool pool) {
+        this(board, new BeamSearch(BeamSearch.DEFAULT_BEAM_WIDTH, depth, pool), pool);
+    }
+
+    /**
+     * Creates a hint service for {@code board} using {@code beamSearch}.
+     *
+     * @param board      the live board; only read from the thread calling {@link #request()}
+     * @param beamSearch the search, used by the search thread only
+     */
+    public HintService(GameBoard board, BeamSearch beamSearch) {
+        this(board, beamSearch, null);
+    }
+
+    private HintService(GameBoard board, BeamSearch beamSearch, ForkJoinPool ownPool) {
+        int[][] matrix = board.getBoardMatrix();
+        this.board = board;
+        this.beamSearch = beamSearch;
+        this.ownPool = ownPool;
+        this.rows = matrix.length;
+        this.cols = matrix[0].length;
+        this.searchBoard = new SearchBoard(rows, cols);
+        this.scratch = new GameState(rows, cols);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "hint-search");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * Sets who receives finished hints.
+     *
+     * @param listener called on the search thread, or {@code null} to discard hints
+     */
+    public void setListener(Consumer<Hint> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the evaluation used by later requests.
+     *
+     * @param heuristic the evaluation
+     */
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Snapshots the board and starts searching a hint for it, superseding any earlier
+     * request. Does nothing if the position is unchanged since the last request.
+     *
+     * @return {@code true} if a new search was started
+     */
+    public boolean request() {
+        board.saveState(scratch);
+        if (scratch.getBrickId() == 0 || scratch.isGameOver()) {
+            cancel();
+            return false;
+        }
+        //the queue in the snapshot only holds bricks generated so far; look as far ahead as the search does
+        int previews = Math.min(beamSearch.getDepth() - 1, GameState.QUEUE_CAPACITY);
+        scratch.setQueueLength(board.getPreviewIds(scratch.queue(), previews));
+        if (scratch.equals(lastSnapshot)) {
+            return false;
+        }
+        //the search thread gets its own copy, never touched again on this thread
+        GameState snapshot = new GameState(rows, cols);
+        snapshot.copyFrom(scratch);
+        lastSnapshot = snapshot;
+        long id = latest.incrementAndGet();
+        if (running != null) {
+            running.cancel(true);
+        }
+        running = executor.submit(() -> search(id, snapshot));
+        return true;
+    }
+
+    /**
+     * Drops the pending request, if any; no hint is published until the next request.
+     */
+    public void cancel() {
+        latest.incrementAndGet();
+        lastSnapshot = null;
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+
+    /**
+     * Tells whether {@code hint} still answers the latest request.
+     *
+     * @param hint a published hint
+     * @return {@code false} if a newer request (or a cancel) has been made since
+     */
+    public boolean isCurrent(Hint hint) {
+        return hint.getRequest() == latest.get();
+    }
+
+    private void search(long id, GameState snapshot) {
+        if (id != latest.get()) {
+            return;
+        }
+        searchBoard.load(snapshot);
+        pieces[0] = snapshot.getBrickId();
+        int count = snapshot.getQueueLength();
+        System.arraycopy(snapshot.queue(), 0, pieces, 1, count);
+        boolean found;
+        while (true) {
+            found = beamSearch.search(searchBoard, pieces, count + 1, snapshot.getRotation(), snapshot.getX(),
+                    snapshot.getY(), snapshot.getHeldId(), snapshot.isHoldUsed(), heuristic, placement);
+            if (!Thread.interrupted()) {
+                break;
+            }
+            //cut short: superseded, or a late interrupt meant for the previous search
+            if (id != latest.get()) {
+                return;
+            }
+        }
+        Consumer<Hint> target = listener;
+        if (!found || target == null || id != latest.get()) {
+            return;
+        }
+        int brickId = snapshot.getBrickId();
+        if (placement.isHold()) {
+            //holding brings in the held brick, or the next one when the slot is empty
+            brickId = snapshot.getHeldId() != 0 ? snapshot.getHeldId() : pieces[1];
+        }
+        target.accept(new Hint(id, brickId, placement.getRotation(), placement.getX(), placement.getY(),
+                placement.isHold()));
+    }
+
+    /**
+     * Stops the search thread.
+     */
+    @Override
+    public void close() {
+        cancel();
+        executor.shutdownNow();
+        if (ownPool != null) {
+            ownPool.shutdownNow();
+        }
+    }
+}
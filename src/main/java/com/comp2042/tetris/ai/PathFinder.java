@@ -0,0 +1,229 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.events.EventType;
+
+import java.util.Arrays;
+
+/**
+ * Finds every lock position a brick can reach, with the shortest input sequence for each.
+ * <p>
+ * Unlike {@link PlacementSearch}, which only rotates and shifts at the top and then
+ * hard-drops, this is a breadth-first search over (rotation, column, row) states using the
+ * game's own move rules: LEFT/RIGHT/DOWN move one cell if the brick fits there, and
+ * ROTATE goes to the next rotation in place (there are no wall kicks). So it also finds
+ * tucks (sliding under an overhang after soft-dropping) and spins (rotating at the
+ * bottom). A HARD_DROP from any state ends a path; every state costs one input, so the
+ * first time BFS reaches a lock position its path is a shortest one. Gravity is not
+ * modelled: the inputs are assumed to happen before the brick falls on its own.
+ * </p>
+ * <p>
+ * The visited flags are bitsets (one bit per state) and the queue and path links are
+ * flat arrays, all kept between searches and only grown when the board gets larger, so a
+ * search allocates nothing. Results stay valid until the next search. Use one instance
+ * per thread.
+ * </p>
+ */
+public final class PathFinder {
+
+    /** Padding so that brick offsets left of and above the board index from 0. */
+    private static final int PAD = PieceTable.SIZE - 1;
+
+    private static final EventType[] MOVES = {EventType.LEFT, EventType.RIGHT, EventType.ROTATE, EventType.DOWN};
+
+    //state index = (rotation * height + y + PAD) * width + x + PAD
+    private int width;
+    private int height;
+
+    private long[] visited = new long[0];
+    /** States already covered by an earlier hard drop down their column. */
+    private long[] dropped = new long[0];
+    private int[] queue = new int[0];
+    private int[] parent = new int[0];
+    private byte[] move = new byte[0];
+    private int[] distance = new int[0];
+
+    //results: landing state and the state the hard drop starts from, in BFS order
+    private int[] lockState = new int[0];
+    private int[] lockFrom = new int[0];
+    private int lockCount;
+
+    /**
+     * Searches every lock position of a brick.
+     *
+     * @param board    the board
+     * @param id       brick id
+     * @param rotation starting rotation
+     * @param x        starting column
+     * @param y        starting row, at least {@code -(PieceTable.SIZE - 1)}
+     * @return number of lock positions found ({@code 0} if the brick does not fit at the start)
+     */
+    public int search(SearchBoard board, int id, int rotation, int x, int y) {
+        if (y < -PAD) {
+            throw new IllegalArgumentException("Start row above the search area: " + y);
+        }
+        ensureCapacity(board.getRows(), board.getCols());
+        lockCount = 0;
+        if (!board.fits(id, rotation, x, y)) {
+            return 0;
+        }
+        int rotations = PieceTable.rotations(id);
+        int words = (rotations * height * width + 63) >>> 6;
+        Arrays.fill(visited, 0, words, 0L);
+        Arrays.fill(dropped, 0, words, 0L);
+
+        int start = index(rotation, x, y);
+        set(visited, start);
+        parent[start] = -1;
+        distance[start] = 0;
+        queue[0] = start;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int s = queue[head++];
+            int sx = s % width - PAD;
+            int t = s / width;
+            int sy = t % height - PAD;
+            int rot = t / height;
+
+            //hard drop: walk down until blocked. A state an earlier (no longer) path already
+            //dropped through lands where that one did, which is recorded, so stop there
+            if (!get(dropped, s)) {
+                set(dropped, s);
+                int dy = sy;
+                boolean landed = true;
+                while (board.fits(id, rot, sx, dy + 1)) {
+                    dy++;
+                    int below = index(rot, sx, dy);
+                    if (get(dropped, below)) {
+                        landed = false;
+                        break;
+                    }
+                    set(dropped, below);
+                }
+                if (landed) {
+                    lockState[lockCount] = index(rot, sx, dy);
+                    lockFrom[lockCount] = s;
+                    lockCount++;
+                }
+            }
+
+            for (int m = 0; m < MOVES.length; m++) {
+                int nx = sx;
+                int ny = sy;
+                int nrot = rot;
+                switch (m) {
+                    case 0 -> nx--;
+                    case 1 -> nx++;
+                    case 2 -> nrot = (rot + 1) % rotations;
+                    default -> ny++;
+                }
+                if (nrot == rot && m == 2) {
+                    continue;
+                }
+                if (!board.fits(id, nrot, nx, ny)) {
+                    continue;
+                }
+                int n = index(nrot, nx, ny);
+                if (get(visited, n)) {
+                    continue;
+                }
+                set(visited, n);
+                parent[n] = s;
+                move[n] = (byte) m;
+                distance[n] = distance[s] + 1;
+                queue[tail++] = n;
+            }
+        }
+        return lockCount;
+    }
+
+    private int index(int rotation, int x, int y) {
+        return (rotation * height + y + PAD) * width + x + PAD;
+    }
+
+    private static boolean get(long[] bits, int i) {
+        return (bits[i >>> 6] & 1L << i) != 0;
+    }
+
+    private static void set(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    private void ensureCapacity(int rows, int cols) {
+        width = cols + PAD;
+        height = rows + PAD;
+        int states = 4 * width * height;
+        if (queue.length < states) {
+            visited = new long[(states + 63) >>> 6];
+            dropped = new long[visited.length];
+            queue = new int[states];
+            parent = new int[states];
+            move = new byte[states];
+            distance = new int[states];
+            lockState = new int[states];
+            lockFrom = new int[states];
+        }
+    }
+
+    /** @return lock positions found by the last search */
+    public int getLockCount() {
+        return lockCount;
+    }
+
+    /**
+     * @param lock index in {@code [0, getLockCount())}
+     * @return rotation of the lock position
+     */
+    public int getRotation(int lock) {
+        return lockState[check(lock)] / width / height;
+    }
+
+    /**
+     * @param lock index in {@code [0, getLockCount())}
+     * @return column of the lock position
+     */
+    public int getX(int lock) {
+        return lockState[check(lock)] % width - PAD;
+    }
+
+    /**
+     * @param lock index in {@code [0, getLockCount())}
+     * @return row of the lock position
+     */
+    public int getY(int lock) {
+        return lockState[check(lock)] / width % height - PAD;
+    }
+
+    /**
+     * @param lock index in {@code [0, getLockCount())}
+     * @return length of the shortest input sequence, including the final hard drop
+     */
+    public int getInputCount(int lock) {
+        return distance[lockFrom[check(lock)]] + 1;
+    }
+
+    /**
+     * Writes the shortest input sequence for a lock position, ending with
+     * {@link EventType#HARD_DROP}.
+     *
+     * @param lock index in {@code [0, getLockCount())}
+     * @param out  receives the inputs; needs {@link #getInputCount(int)} entries
+     * @return number of inputs written
+     */
+    public int getInputs(int lock, EventType[] out) {
+        int length = getInputCount(lock);
+        out[length - 1] = EventType.HARD_DROP;
+        int i = length - 2;
+        for (int s = lockFrom[lock]; parent[s] >= 0; s = parent[s]) {
+            out[i--] = MOVES[move[s]];
+        }
+        return length;
+    }
+
+    private int check(int lock) {
+        if (lock < 0 || lock >= lockCount) {
+            throw new IndexOutOfBoundsException("Lock " + lock + " out of range [0, " + lockCount + ")");
+        }
+        return lock;
+    }
+}
@@ -0,0 +1,246 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs {@link PerfectClearSolver} on the live game in the background, like
+ * {@link HintService} does for hints.
+ * <p>
+ * {@link #request()} snapshots the board and preview queue on the caller's thread; the
+ * solve runs on one low-priority daemon thread and is cut off after the timeout. Every
+ * request supersedes the previous one (a running solve is interrupted) and only the
+ * answer to the latest request is published, as an immutable {@link Analysis}.
+ * </p>
+ */
+public final class PerfectClearService implements AutoCloseable {
+
+    /** Default time a solve may take. */
+    public static final long DEFAULT_TIMEOUT_MS = 200;
+
+    private final GameBoard board;
+    private final ExecutorService executor;
+    private final int rows;
+    private final int cols;
+
+    private volatile long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TIMEOUT_MS);
+    private volatile int maxPieces = 10;
+    private volatile Consumer<Analysis> listener;
+
+    /** Number of the latest request; an analysis is stale once this has moved on. */
+    private final AtomicLong latest = new AtomicLong();
+
+    //caller thread only
+    private Future<?> running;
+    private GameState lastSnapshot;
+
+    //solver thread only
+    private final PerfectClearSolver solver;
+    private final SearchBoard searchBoard;
+    private final int[] pieces = new int[PerfectClearSolver.MAX_PIECES];
+
+    /**
+     * Creates a service for {@code board}.
+     *
+     * @param board  the live board; only read from the thread calling {@link #request()}
+     * @param solver the solver, used by the solver thread only
+     */
+    public PerfectClearService(GameBoard board, PerfectClearSolver solver) {
+        int[][] matrix = board.getBoardMatrix();
+        this.board = board;
+        this.solver = solver;
+        this.rows = matrix.length;
+        this.cols = matrix[0].length;
+        this.searchBoard = new SearchBoard(rows, cols);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "perfect-clear");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * Sets who receives finished analyses.
+     *
+     * @param listener called on the solver thread, or {@code null} to discard them
+     */
+    public void setListener(Consumer<Analysis> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets how long later solves may run.
+     *
+     * @param timeoutMs milliseconds, at least 1
+     */
+    public void setTimeoutMillis(long timeoutMs) {
+        if (timeoutMs < 1) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeoutMs);
+        }
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    /**
+     * Sets how many bricks later solves may use.
+     *
+     * @param maxPieces bricks in {@code [1, PerfectClearSolver.MAX_PIECES]}
+     */
+    public void setMaxPieces(int maxPieces) {
+        if (maxPieces < 1 || maxPieces > PerfectClearSolver.MAX_PIECES) {
+            throw new IllegalArgumentException("Max pieces must be in [1, " + PerfectClearSolver.MAX_PIECES + "]: "
+                    + maxPieces);
+        }
+        this.maxPieces = maxPieces;
+    }
+
+    /**
+     * Snapshots the board and starts a solve for it, superseding any earlier request.
+     * Does nothing if the position is unchanged since the last request.
+     *
+     * @return {@code true} if a new solve was started
+     */
+    public boolean request() {
+        GameState snapshot = new GameState(rows, cols);
+        int bricks = maxPieces;
+        int previews = Math.min(bricks - 1, GameState.QUEUE_CAPACITY);
+        //peek before saving: peeking generates bricks, and the generator state saved with an
+        //unchanged position must not differ from the previous request's
+        board.getPreviewIds(snapshot.queue(), previews);
+        board.saveState(snapshot);
+        if (snapshot.getBrickId() == 0 || snapshot.isGameOver()) {
+            cancel();
+            return false;
+        }
+        snapshot.setQueueLength(board.getPreviewIds(snapshot.queue(), previews));
+        if (snapshot.equals(lastSnapshot)) {
+            return false;
+        }
+        lastSnapshot = snapshot;
+        long id = latest.incrementAndGet();
+        if (running != null) {
+            running.cancel(true);
+        }
+        running = executor.submit(() -> solve(id, snapshot, bricks));
+        return true;
+    }
+
+    /**
+     * Drops the pending request, if any; nothing is published until the next request.
+     */
+    public void cancel() {
+        latest.incrementAndGet();
+        lastSnapshot = null;
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+
+    /**
+     * Tells whether {@code analysis} still answers the latest request.
+     *
+     * @param analysis a published analysis
+     * @return {@code false} if a newer request (or a cancel) has been made since
+     */
+    public boolean isCurrent(Analysis analysis) {
+        return analysis.getRequest() == latest.get();
+    }
+
+    private void solve(long id, GameState snapshot, int bricks) {
+        if (id != latest.get()) {
+            return;
+        }
+        long deadline = System.nanoTime() + timeoutNanos;
+        searchBoard.load(snapshot);
+        pieces[0] = snapshot.getBrickId();
+        int count = snapshot.getQueueLength();
+        System.arraycopy(snapshot.queue(), 0, pieces, 1, count);
+        int length = solver.solve(searchBoard, pieces, count + 1, snapshot.getRotation(), snapshot.getX(),
+                snapshot.getY(), snapshot.getHeldId(), snapshot.isHoldUsed(), bricks, deadline);
+        //clear an interrupt meant for this solve so it does not leak into the next one
+        Thread.interrupted();
+        Consumer<Analysis> target = listener;
+        if (target == null || id != latest.get()) {
+            return;
+        }
+        List<Hint> moves = new ArrayList<>(Math.max(length, 0));
+        for (int i = 0; i < length; i++) {
+            Placement p = solver.getPlacement(i);
+            moves.add(new Hint(id, solver.getBrickId(i), p.getRotation(), p.getX(), p.getY(), p.isHold()));
+        }
+        target.accept(new Analysis(id, length == PerfectClearSolver.TIMED_OUT, moves, solver.getNanos()));
+    }
+
+    /**
+     * Stops the solver thread.
+     */
+    @Override
+    public void close() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Result of one request: the placements of a perfect clear, none if there is no
+     * perfect clear within the limits, or a timeout.
+     * <p>
+     * Immutable, so it can be handed from the solver thread to the UI thread as is.
+     * </p>
+     */
+    public static final class Analysis {
+
+        private final long request;
+        private final boolean timedOut;
+        private final List<Hint> moves;
+        private final long nanos;
+
+        Analysis(long request, boolean timedOut, List<Hint> moves, long nanos) {
+            this.request = request;
+            this.timedOut = timedOut;
+            this.moves = Collections.unmodifiableList(moves);
+            this.nanos = nanos;
+        }
+
+        /** @return number of the {@link PerfectClearService#request()} call this analysis answers */
+        public long getRequest() {
+            return request;
+        }
+
+        /** @return {@code true} if the solve was cut off before an answer */
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        /** @return {@code true} if a perfect clear was found */
+        public boolean isFound() {
+            return !moves.isEmpty();
+        }
+
+        /** @return the placements in order, empty unless {@link #isFound()} */
+        public List<Hint> getMoves() {
+            return moves;
+        }
+
+        /** @return time the solve took in nanoseconds */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Analysis{#" + request + (timedOut ? ", timed out" : ", " + moves.size() + " moves")
+                    + ", " + nanos / 1000 + " us}";
+        }
+    }
+}
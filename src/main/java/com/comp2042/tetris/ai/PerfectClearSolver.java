@@ -0,0 +1,437 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.brick.Bricks;
+
+import java.util.Arrays;
+
+/**
+ * Finds whether the board can be emptied completely (a perfect clear) with the next few
+ * bricks, and the placements that do it.
+ * <p>
+ * A perfect clear of height {@code h} fills every empty cell of the bottom {@code h} rows
+ * and nothing above them, so it takes exactly {@code (h * cols - filled) / 4} bricks; the
+ * solver tries each height that needs a whole number of bricks, fewest bricks first, and
+ * runs a depth-first search over the placements of {@link PlacementSearch} (with hold)
+ * that stay inside the bottom rows. Line clears on the way shrink the target height with
+ * the board, so the count of empty cells to fill stays the same.
+ * </p>
+ * <p>
+ * The target rows fit in one {@code long} (bit {@code r * cols + c}, bottom row first), and
+ * each node is pruned with a few bit operations:
+ * </p>
+ * <ul>
+ *     <li>fill count: the bricks left in the queue must cover the empty cells;</li>
+ *     <li>regions: every connected empty region must be a multiple of four cells, found by
+ *     flood-filling the bitboard with shifts;</li>
+ *     <li>column parity: bricks shift the balance of empty cells in even and odd columns
+ *     by a fixed amount (an O, S or Z never changes it, an upright I by four) and line
+ *     clears never do, so a board whose imbalance exceeds what the remaining bricks can
+ *     correct is dead (boards with an even number of columns only).</li>
+ * </ul>
+ * <p>
+ * Sub-boards proven unsolvable are remembered in a {@link TranspositionTable}, keyed by
+ * the board's {@link Zobrist} hash, the queue position and the held brick, so the many
+ * placement orders reaching the same board are searched once. The memo is lossy (a
+ * 32-bit check per entry); a false hit can at worst miss a solution, never report a wrong
+ * one.
+ * </p>
+ * <p>
+ * Each instance keeps its scratch boards, so use one instance per thread.
+ * </p>
+ */
+public final class PerfectClearSolver {
+
+    /** Returned by {@link #solve} when the deadline (or an interrupt) stopped the search. */
+    public static final int TIMED_OUT = -1;
+
+    /** Default highest perfect clear tried. */
+    public static final int DEFAULT_MAX_HEIGHT = 4;
+
+    /** Most bricks a solve can use: the current brick and a full preview queue. */
+    public static final int MAX_PIECES = GameState.QUEUE_CAPACITY + 1;
+
+    /** Nodes between deadline checks. */
+    private static final int CHECK_INTERVAL = 1024;
+
+    /** Candidates kept per search level: both hold choices, every rotation and column. */
+    private static final int MAX_CANDIDATES = 2 * 4 * 32;
+
+    /** Largest change of the column-parity balance a brick can make, per brick id. */
+    private static final int[] PARITY_SHIFT = new int[Bricks.COUNT + 1];
+
+    /** First filled shape row of each rotation, per brick id. */
+    private static final int[][] TOP_ROW = new int[Bricks.COUNT + 1][];
+
+    static {
+        for (int id = 1; id <= Bricks.COUNT; id++) {
+            TOP_ROW[id] = new int[PieceTable.rotations(id)];
+            for (int r = 0; r < PieceTable.rotations(id); r++) {
+                int even = 0;
+                int odd = 0;
+                int top = -1;
+                for (int j = 0; j < PieceTable.SIZE; j++) {
+                    int mask = PieceTable.rowMask(id, r, j);
+                    even += Integer.bitCount(mask & 0x5);
+                    odd += Integer.bitCount(mask & 0xA);
+                    if (mask != 0 && top < 0) {
+                        top = j;
+                    }
+                }
+                TOP_ROW[id][r] = top;
+                PARITY_SHIFT[id] = Math.max(PARITY_SHIFT[id], Math.abs(even - odd));
+            }
+        }
+    }
+
+    private final TranspositionTable memo;
+    private final PlacementSearch placements = new PlacementSearch();
+    private int maxHeight = DEFAULT_MAX_HEIGHT;
+
+    //search state, sized on first use
+    private int rows;
+    private int cols;
+    private SearchBoard[] boards;
+    private int[][] candidates;
+    private final int[] chosen = new int[MAX_PIECES];
+    private final int[] chosenIds = new int[MAX_PIECES];
+    private final int[] paritySuffix = new int[MAX_PIECES + 1];
+    private int[] pieces;
+    private int pieceCount;
+    private long evenColumns;
+    private long oddColumns;
+    private long notFirstColumn;
+    private long notLastColumn;
+    private boolean timed;
+    private long deadline;
+    private boolean timedOut;
+
+    //collector state for PlacementSearch.enumerate
+    private int[] collecting;
+    private int collected;
+    private int collectingId;
+    private int collectingHold;
+    private int regionTop;
+    private final PlacementSearch.Visitor collector = this::collect;
+
+    //result of the last solve
+    private final Placement[] solution = new Placement[MAX_PIECES];
+    private final int[] solutionIds = new int[MAX_PIECES];
+    private int solutionLength;
+    private long nodes;
+    private long memoHits;
+    private long nanos;
+
+    /**
+     * Creates a solver with a memo of about a million entries (8 MiB).
+     */
+    public PerfectClearSolver() {
+        this(1 << 20);
+    }
+
+    /**
+     * Creates a solver.
+     *
+     * @param memoCapacity entries in the table of unsolvable sub-boards
+     */
+    public PerfectClearSolver(int memoCapacity) {
+        this.memo = new TranspositionTable(memoCapacity);
+        for (int i = 0; i < MAX_PIECES; i++) {
+            solution[i] = new Placement();
+        }
+    }
+
+    /**
+     * Sets the highest perfect clear tried, in rows.
+     *
+     * @param maxHeight rows, at least 1; limited further by the board so the rows fit in 64 bits
+     */
+    public void setMaxHeight(int maxHeight) {
+        if (maxHeight < 1) {
+            throw new IllegalArgumentException("Max height must be at least 1: " + maxHeight);
+        }
+        this.maxHeight = maxHeight;
+    }
+
+    /** @return the highest perfect clear tried, in rows */
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * Searches without a time limit.
+     *
+     * @see #solve(SearchBoard, int[], int, int, int, int, int, boolean, int, long)
+     */
+    public int solve(SearchBoard board, int[] pieces, int pieceCount, int rotation, int x, int y, int heldId,
+                     boolean holdUsed, int maxPieces) {
+        return solve(board, pieces, pieceCount, rotation, x, y, heldId, holdUsed, maxPieces, false, 0);
+    }
+
+    /**
+     * Searches for a perfect clear using at most {@code maxPieces} of the given bricks.
+     * {@code pieces[0]} is the current brick at the given position; the others come in at
+     * the spawn point. The board itself is not modified.
+     *
+     * @param board      the board
+     * @param pieces     the current brick followed by the preview queue
+     * @param pieceCount number of bricks in {@code pieces}, at most {@link #MAX_PIECES}
+     * @param rotation   current brick's rotation
+     * @param x          current brick's column
+     * @param y          current brick's row
+     * @param heldId     held brick, {@code 0} for none
+     * @param holdUsed   whether hold was already used for the current brick
+     * @param maxPieces  most bricks to place
+     * @param deadline   {@link System#nanoTime()} value to give up at
+     * @return the number of placements of the solution (see {@link #getPlacement(int)}),
+     *         {@code 0} if no perfect clear exists within the limits, or {@link #TIMED_OUT}
+     */
+    public int solve(SearchBoard board, int[] pieces, int pieceCount, int rotation, int x, int y, int heldId,
+                     boolean holdUsed, int maxPieces, long deadline) {
+        return solve(board, pieces, pieceCount, rotation, x, y, heldId, holdUsed, maxPieces, true, deadline);
+    }
+
+    private int solve(SearchBoard board, int[] pieces, int pieceCount, int rotation, int x, int y, int heldId,
+                      boolean holdUsed, int maxPieces, boolean timed, long deadline) {
+        if (pieceCount < 1 || pieceCount > MAX_PIECES) {
+            throw new IllegalArgumentException("Piece count must be in [1, " + MAX_PIECES + "]: " + pieceCount);
+        }
+        long start = System.nanoTime();
+        prepare(board);
+        this.pieces = pieces;
+        this.pieceCount = pieceCount;
+        this.timed = timed;
+        this.deadline = deadline;
+        this.timedOut = false;
+        this.nodes = 0;
+        this.memoHits = 0;
+        this.solutionLength = 0;
+        paritySuffix[pieceCount] = 0;
+        for (int i = pieceCount - 1; i >= 0; i--) {
+            paritySuffix[i] = paritySuffix[i + 1] + PARITY_SHIFT[pieces[i]];
+        }
+        boards[0].copyFrom(board);
+        int stack = 0;
+        int filled = 0;
+        for (int r = 0; r < rows; r++) {
+            int mask = board.rowMask(r);
+            if (mask != 0 && stack == 0) {
+                stack = rows - r;
+            }
+            filled += Integer.bitCount(mask);
+        }
+        int limit = Math.min(Math.min(maxHeight, rows), 64 / cols);
+        int result = 0;
+        for (int h = Math.max(stack, 1); h <= limit && result == 0; h++) {
+            int empty = h * cols - filled;
+            if (empty <= 0 || empty % 4 != 0 || empty / 4 > Math.min(maxPieces, pieceCount)) {
+                continue;
+            }
+            memo.newGeneration();
+            if (viable(boards[0], h, empty, 0, heldId)
+                    && search(0, 0, heldId, h, empty, rotation, x, y, holdUsed)) {
+                result = solutionLength;
+            } else if (timedOut) {
+                result = TIMED_OUT;
+            }
+        }
+        this.pieces = null;
+        nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private void prepare(SearchBoard board) {
+        if (boards != null && board.getRows() == rows && board.getCols() == cols) {
+            return;
+        }
+        rows = board.getRows();
+        cols = board.getCols();
+        boards = new SearchBoard[MAX_PIECES + 1];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = new SearchBoard(rows, cols);
+        }
+        candidates = new int[MAX_PIECES][MAX_CANDIDATES];
+        evenColumns = 0;
+        notFirstColumn = 0;
+        notLastColumn = 0;
+        for (int i = 0; i < 64; i++) {
+            int c = i % cols;
+            evenColumns |= (long) (c + 1 & 1) << i;
+            notFirstColumn |= (long) (c != 0 ? 1 : 0) << i;
+            notLastColumn |= (long) (c != cols - 1 ? 1 : 0) << i;
+        }
+        oddColumns = ~evenColumns;
+    }
+
+    /**
+     * Tries every placement at {@code depth}: {@code next} is the queue index of the brick
+     * in play, {@code held} the hold slot, {@code height} the target rows and
+     * {@code empty} the empty cells in them.
+     */
+    private boolean search(int depth, int next, int held, int height, int empty, int rotation, int x, int y,
+                           boolean holdUsed) {
+        SearchBoard board = boards[depth];
+        int[] list = candidates[depth];
+        collecting = list;
+        collected = 0;
+        regionTop = rows - height;
+        if (next < pieceCount) {
+            collectingId = pieces[next];
+            collectingHold = 0;
+            placements.enumerate(board, collectingId, rotation, x, y, collector);
+        }
+        int swapId = held != 0 ? held : next + 1 < pieceCount ? pieces[next + 1] : 0;
+        //swapping a brick for an identical held one changes nothing
+        if (!holdUsed && swapId != 0 && !(held != 0 && held == pieces[next])) {
+            collectingId = swapId;
+            collectingHold = 1;
+            placements.enumerate(board, swapId, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, collector);
+        }
+        int count = collected;
+        collecting = null;
+        //lowest landings first: they are the ones a perfect clear is built from
+        Arrays.sort(list, 0, count);
+        SearchBoard child = boards[depth + 1];
+        for (int k = count - 1; k >= 0; k--) {
+            int packed = list[k];
+            boolean hold = (packed >>> 19 & 1) != 0;
+            int id = hold ? swapId : pieces[next];
+            int rot = packed >>> 12 & 0xF;
+            int cx = (packed & 0xFFF) - 8;
+            int cy = packed >>> 20;
+            child.copyFrom(board);
+            int lines = child.place(id, rot, cx, cy);
+            int childNext = hold && held == 0 ? next + 2 : next + 1;
+            int childHeld = hold ? pieces[next] : held;
+            chosen[depth] = packed;
+            chosenIds[depth] = id;
+            if (empty == 4) {
+                //the last four cells: the brick completed every target row
+                solutionLength = depth + 1;
+                for (int d = 0; d <= depth; d++) {
+                    int p = chosen[d];
+                    solution[d].set(p >>> 16 & 0x7, p >>> 12 & 0xF, (p & 0xFFF) - 8, p >>> 20, 0, 0);
+                    solution[d].setHold((p >>> 19 & 1) != 0);
+                    solutionIds[d] = chosenIds[d];
+                }
+                return true;
+            }
+            if (++nodes % CHECK_INTERVAL == 0 && stop()) {
+                timedOut = true;
+                return false;
+            }
+            long key = child.hash() ^ Zobrist.position(childNext) ^ Zobrist.held(childHeld);
+            if (memo.get(key) != TranspositionTable.ABSENT) {
+                memoHits++;
+                continue;
+            }
+            int childHeight = height - lines;
+            if (viable(child, childHeight, empty - 4, childNext, childHeld)
+                    && search(depth + 1, childNext, childHeld, childHeight, empty - 4, 0, GameBoard.SPAWN_X,
+                    GameBoard.SPAWN_Y, false)) {
+                return true;
+            }
+            if (timedOut) {
+                return false;
+            }
+            memo.putIfLower(key, 0);
+        }
+        return false;
+    }
+
+    /** Applies the fill-count, region and parity bounds to a board. */
+    private boolean viable(SearchBoard board, int height, int empty, int next, int held) {
+        int bricks = empty / 4;
+        if (bricks > pieceCount - next) {
+            return false;
+        }
+        long open = 0;
+        int base = rows - height;
+        for (int r = 0; r < height; r++) {
+            open |= (long) (~board.rowMask(base + r) & ((1 << cols) - 1)) << (r * cols);
+        }
+        if (cols % 2 == 0) {
+            int imbalance = Math.abs(Long.bitCount(open & evenColumns) - Long.bitCount(open & oddColumns));
+            //only bricks still in the queue or in the hold slot can be placed
+            if (imbalance > paritySuffix[next] + PARITY_SHIFT[held]) {
+                return false;
+            }
+        }
+        return regionsFillable(open);
+    }
+
+    /** Tells whether every connected region of {@code open} is a multiple of four cells. */
+    private boolean regionsFillable(long open) {
+        while (open != 0) {
+            long region = open & -open;
+            while (true) {
+                long grown = (region | region << 1 & notFirstColumn | region >>> 1 & notLastColumn | region << cols
+                        | region >>> cols) & open;
+                if (grown == region) {
+                    break;
+                }
+                region = grown;
+            }
+            if (Long.bitCount(region) % 4 != 0) {
+                return false;
+            }
+            open &= ~region;
+        }
+        return true;
+    }
+
+    private void collect(int rotations, int rotation, int x, int y) {
+        if (y + TOP_ROW[collectingId][rotation] < regionTop) {
+            return;
+        }
+        collecting[collected++] = y << 20 | collectingHold << 19 | rotations << 16 | rotation << 12 | x + 8;
+    }
+
+    private boolean stop() {
+        return Thread.currentThread().isInterrupted() || timed && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * @param move index in {@code [0, length)} of the last solution
+     * @return the placement; after a hold the brick starts from the spawn point
+     */
+    public Placement getPlacement(int move) {
+        return solution[check(move)];
+    }
+
+    /**
+     * @param move index in {@code [0, length)} of the last solution
+     * @return id of the brick the move places
+     */
+    public int getBrickId(int move) {
+        return solutionIds[check(move)];
+    }
+
+    private int check(int move) {
+        if (move < 0 || move >= solutionLength) {
+            throw new IndexOutOfBoundsException("Move " + move + " out of range [0, " + solutionLength + ")");
+        }
+        return move;
+    }
+
+    /** @return placements tried by the last solve */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** @return placements of the last solve that reached a board already known to be unsolvable */
+    public long getMemoHits() {
+        return memoHits;
+    }
+
+    /** @return duration of the last solve in nanoseconds */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /** @return the table of unsolvable sub-boards, for its statistics */
+    public TranspositionTable getMemo() {
+        return memo;
+    }
+}
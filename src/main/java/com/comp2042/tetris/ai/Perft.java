@@ -0,0 +1,266 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameBoard;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Move-generation counter in the style of chess "perft": places the bricks of a fixed
+ * queue one after another in every reachable lock position and counts what it finds.
+ * <p>
+ * Level {@code d} (1-based) counts the placement sequences of the first {@code d} bricks
+ * (the leaf nodes of the search tree) and, optionally, the distinct boards they leave,
+ * told apart by {@link SearchBoard#hash()}. Every brick starts at the spawn point in
+ * rotation 0, lock positions come from {@link PathFinder} (so tucks and spins count), and
+ * completed rows are cleared as in the game; a brick that does not fit at the spawn point
+ * ends its branch (game over). Hold is not used.
+ * </p>
+ * <p>
+ * The counts only depend on the move rules, so they make a regression oracle for
+ * {@link SearchBoard}, {@link PathFinder} and any faster board, and nodes per second
+ * is a standard number for comparing their speed. With a pool the subtrees of the first
+ * brick's placements are counted in parallel, each task with its own boards and path
+ * finders; the counts do not depend on the number of threads.
+ * </p>
+ */
+public final class Perft {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a single-threaded counter.
+     */
+    public Perft() {
+        this(null);
+    }
+
+    /**
+     * Creates a counter that splits the work across {@code pool}.
+     *
+     * @param pool pool for the subtrees, or {@code null} to count on the calling thread
+     */
+    public Perft(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Counts placements of {@code pieces[0..depth)} on {@code board}.
+     *
+     * @param board    starting board (not modified)
+     * @param pieces   brick ids, in the order they spawn
+     * @param depth    number of bricks to place, {@code 1..pieces.length}
+     * @param distinct also count distinct boards per level (costs memory for every board)
+     * @return the counts
+     */
+    public Result run(SearchBoard board, int[] pieces, int depth, boolean distinct) {
+        if (depth < 1 || depth > pieces.length) {
+            throw new IllegalArgumentException("Depth must be in [1, " + pieces.length + "]: " + depth);
+        }
+        Result result = new Result(depth, distinct);
+        long start = System.nanoTime();
+        Walker root = new Walker(board, pieces, depth, result);
+        if (pool == null || depth == 1) {
+            root.walk(board, 0);
+            root.flush();
+        } else {
+            //level 0 here, everything below it as one task per placement
+            int count = root.expand(board, 0);
+            root.flush();
+            List<Subtree> tasks = new ArrayList<>(count);
+            for (int lock = 0; lock < count; lock++) {
+                tasks.add(new Subtree(root.placed(board, 0, lock), pieces, depth, result));
+            }
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        }
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Counts the subtree below one placement of the first brick.
+     */
+    private static final class Subtree extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient SearchBoard board;
+        private final int[] pieces;
+        private final int depth;
+        private final transient Result result;
+
+        Subtree(SearchBoard board, int[] pieces, int depth, Result result) {
+            this.board = board;
+            this.pieces = pieces;
+            this.depth = depth;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            Walker walker = new Walker(board, pieces, depth, result);
+            walker.walk(board, 1);
+            walker.flush();
+        }
+    }
+
+    /**
+     * Depth-first counter with one path finder and one child board per level.
+     */
+    private static final class Walker {
+        private final int[] pieces;
+        private final int depth;
+        private final Result result;
+        private final PathFinder[] finders;
+        private final SearchBoard[] children;
+        private final long[] nodes;
+
+        Walker(SearchBoard board, int[] pieces, int depth, Result result) {
+            this.pieces = pieces;
+            this.depth = depth;
+            this.result = result;
+            this.finders = new PathFinder[depth];
+            this.children = new SearchBoard[depth];
+            for (int level = 0; level < depth; level++) {
+                finders[level] = new PathFinder();
+                children[level] = new SearchBoard(board.getRows(), board.getCols());
+            }
+            this.nodes = new long[depth];
+        }
+
+        /** Searches the lock positions of level {@code level}'s brick and counts them. */
+        int expand(SearchBoard board, int level) {
+            int count = finders[level].search(board, pieces[level], 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y);
+            nodes[level] += count;
+            return count;
+        }
+
+        /** Places lock {@code lock} of the last {@link #expand} at {@code level} on a copy of {@code board}. */
+        SearchBoard placed(SearchBoard board, int level, int lock) {
+            SearchBoard child = new SearchBoard(board.getRows(), board.getCols());
+            place(board, child, level, lock);
+            return child;
+        }
+
+        private void place(SearchBoard board, SearchBoard child, int level, int lock) {
+            PathFinder finder = finders[level];
+            child.copyFrom(board);
+            child.place(pieces[level], finder.getRotation(lock), finder.getX(lock), finder.getY(lock));
+            if (result.distinct != null) {
+                result.distinct.get(level).add(child.hash());
+            }
+        }
+
+        void walk(SearchBoard board, int level) {
+            int count = expand(board, level);
+            if (level + 1 == depth && result.distinct == null) {
+                return;
+            }
+            SearchBoard child = children[level];
+            for (int lock = 0; lock < count; lock++) {
+                place(board, child, level, lock);
+                if (level + 1 < depth) {
+                    walk(child, level + 1);
+                }
+            }
+        }
+
+        void flush() {
+            for (int level = 0; level < depth; level++) {
+                result.nodes[level].add(nodes[level]);
+                nodes[level] = 0;
+            }
+        }
+    }
+
+    /**
+     * Counts of one {@link #run}.
+     */
+    public static final class Result {
+        private final LongAdder[] nodes;
+        /** Board hashes per level, or {@code null} if distinct boards are not counted. */
+        private final List<Set<Long>> distinct;
+        private long nanos;
+
+        private Result(int depth, boolean countDistinct) {
+            nodes = new LongAdder[depth];
+            for (int i = 0; i < depth; i++) {
+                nodes[i] = new LongAdder();
+            }
+            if (countDistinct) {
+                distinct = new ArrayList<>(depth);
+                for (int i = 0; i < depth; i++) {
+                    distinct.add(ConcurrentHashMap.newKeySet());
+                }
+            } else {
+                distinct = null;
+            }
+        }
+
+        /** @return number of levels counted */
+        public int getDepth() {
+            return nodes.length;
+        }
+
+        /**
+         * @param level level in {@code 1..getDepth()}
+         * @return placement sequences of the first {@code level} bricks
+         */
+        public long getNodes(int level) {
+            return nodes[level - 1].sum();
+        }
+
+        /**
+         * @param level level in {@code 1..getDepth()}
+         * @return distinct boards after the first {@code level} bricks, or {@code -1} if not counted
+         */
+        public long getDistinct(int level) {
+            return distinct == null ? -1 : distinct.get(level - 1).size();
+        }
+
+        /** @return placement sequences counted over all levels */
+        public long getTotalNodes() {
+            long total = 0;
+            for (LongAdder n : nodes) {
+                total += n.sum();
+            }
+            return total;
+        }
+
+        /** @return wall time of the run in nanoseconds */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /** @return {@link #getTotalNodes()} per second of wall time */
+        public double getNodesPerSecond() {
+            return nanos == 0 ? 0 : getTotalNodes() * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Perft{");
+            for (int level = 1; level <= getDepth(); level++) {
+                if (level > 1) {
+                    sb.append(", ");
+                }
+                sb.append(level).append(": ").append(getNodes(level));
+                if (distinct != null) {
+                    sb.append(" (").append(getDistinct(level)).append(" distinct)");
+                }
+            }
+            return sb.append(String.format(", %.0f nodes/s}", getNodesPerSecond())).toString();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.brick.Bricks;
+
+import java.util.List;
+
+/**
+ * Bitmask form of every rotation of the seven bricks, for the AI's {@link SearchBoard}.
+ * <p>
+ * The table is built from {@link Bricks#shapesOf(int)}, so rotation {@code r} here is the
+ * same matrix that {@link com.comp2042.tetris.model.rules.BrickRotator} uses for index
+ * {@code r}, and a placement found by the search can be reproduced on a
+ * {@link com.comp2042.tetris.model.GameBoard} by rotating and shifting.
+ * </p>
+ * <p>
+ * For each brick id and rotation it stores one mask per shape row (bit {@code i} set when
+ * shape column {@code i} is filled) and the first/last filled shape columns.
+ * </p>
+ */
+public final class PieceTable {
+
+    /** Side length of every brick matrix. */
+    public static final int SIZE = 4;
+
+    //indexed [id][rotation][shapeRow]; id 0 is unused
+    private static final int[][][] MASKS = new int[Bricks.COUNT + 1][][];
+    private static final int[][] MIN_COL = new int[Bricks.COUNT + 1][];
+    private static final int[][] MAX_COL = new int[Bricks.COUNT + 1][];
+
+    static {
+        for (int id = 1; id <= Bricks.COUNT; id++) {
+            List<int[][]> shapes = Bricks.shapesOf(id);
+            MASKS[id] = new int[shapes.size()][SIZE];
+            MIN_COL[id] = new int[shapes.size()];
+            MAX_COL[id] = new int[shapes.size()];
+            for (int r = 0; r < shapes.size(); r++) {
+                int[][] shape = shapes.get(r);
+                int all = 0;
+                for (int j = 0; j < SIZE; j++) {
+                    int mask = 0;
+                    for (int i = 0; i < SIZE; i++) {
+                        if (shape[j][i] != 0) {
+                            mask |= 1 << i;
+                        }
+                    }
+                    MASKS[id][r][j] = mask;
+                    all |= mask;
+                }
+                MIN_COL[id][r] = Integer.numberOfTrailingZeros(all);
+                MAX_COL[id][r] = 31 - Integer.numberOfLeadingZeros(all);
+            }
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private PieceTable() {
+
+    }
+
+    /**
+     * @param id brick id in {@code 1..Bricks.COUNT}
+     * @return number of distinct rotations of the brick
+     */
+    public static int rotations(int id) {
+        return MASKS[id].length;
+    }
+
+    /**
+     * @param id       brick id
+     * @param rotation rotation index
+     * @param row      shape row, {@code 0..SIZE-1}
+     * @return filled cells of the shape row, bit {@code i} for shape column {@code i}
+     */
+    public static int rowMask(int id, int rotation, int row) {
+        return MASKS[id][rotation][row];
+    }
+
+    /** @return first filled shape column of the rotation */
+    public static int minCol(int id, int rotation) {
+        return MIN_COL[id][rotation];
+    }
+
+    /** @return last filled shape column of the rotation */
+    public static int maxCol(int id, int rotation) {
+        return MAX_COL[id][rotation];
+    }
+}
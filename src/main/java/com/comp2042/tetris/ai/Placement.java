@@ -0,0 +1,101 @@
+package com.comp2042.tetris.ai;
+
+/**
+ * A final resting position of a brick chosen by the search, together with the inputs
+ * that reach it: an optional hold ({@link #isHold()}, after which the brick starts from the
+ * spawn position), {@link #getRotations()} presses of rotate, then a horizontal shift to
+ * {@link #getX()}, then a hard drop.
+ * <p>
+ * Mutable so a search can fill a caller-owned instance without allocating.
+ * </p>
+ */
+public final class Placement {
+
+    private boolean hold;
+    private int rotations;
+    private int rotation;
+    private int x;
+    private int y;
+    private int lines;
+    private double score = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Sets every field except the hold flag, which is cleared.
+     *
+     * @param rotations rotate presses from the starting rotation
+     * @param rotation  resulting rotation index
+     * @param x         final column
+     * @param y         final row
+     * @param lines     rows cleared by locking here
+     * @param score     heuristic evaluation
+     */
+    public void set(int rotations, int rotation, int x, int y, int lines, double score) {
+        this.hold = false;
+        this.rotations = rotations;
+        this.rotation = rotation;
+        this.x = x;
+        this.y = y;
+        this.lines = lines;
+        this.score = score;
+    }
+
+    /**
+     * Copies another placement into this one.
+     *
+     * @param other the placement to copy
+     */
+    public void copyFrom(Placement other) {
+        set(other.rotations, other.rotation, other.x, other.y, other.lines, other.score);
+        hold = other.hold;
+    }
+
+    /**
+     * Marks whether the placement starts with a hold.
+     *
+     * @param hold {@code true} to hold first
+     */
+    public void setHold(boolean hold) {
+        this.hold = hold;
+    }
+
+    /** @return {@code true} if the brick is placed after pressing hold */
+    public boolean isHold() {
+        return hold;
+    }
+
+    /** @return rotate presses needed from the starting rotation */
+    public int getRotations() {
+        return rotations;
+    }
+
+    /** @return rotation index of the placed brick */
+    public int getRotation() {
+        return rotation;
+    }
+
+    /** @return column of the brick matrix's left edge */
+    public int getX() {
+        return x;
+    }
+
+    /** @return row of the brick matrix's top edge */
+    public int getY() {
+        return y;
+    }
+
+    /** @return rows cleared by the placement */
+    public int getLines() {
+        return lines;
+    }
+
+    /** @return heuristic score; {@link Double#NEGATIVE_INFINITY} if none was found */
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "Placement{hold=" + hold + ", rotations=" + rotations + ", rotation=" + rotation + ", x=" + x
+                + ", y=" + y + ", lines=" + lines + ", score=" + score + '}';
+    }
+}
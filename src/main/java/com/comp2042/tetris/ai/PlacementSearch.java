@@ -0,0 +1,117 @@
+package com.comp2042.tetris.ai;
+
+/**
+ * Enumerates every placement of a brick reachable with the game's controls and picks
+ * the best one under a {@link Heuristic}.
+ * <p>
+ * From the starting position the brick is rotated in place ({@code k} presses, each
+ * intermediate rotation must fit since the game has no wall kicks), shifted left or right
+ * one column at a time until blocked, and hard-dropped. Every (rotation, column) pair
+ * reached this way is one candidate, so each candidate is exactly reproducible with
+ * ROTATE, LEFT/RIGHT and HARD_DROP events.
+ * </p>
+ * <p>
+ * Each instance keeps a scratch board, so use one instance per thread.
+ * </p>
+ */
+public final class PlacementSearch {
+
+    /**
+     * Receives the candidates of {@link #enumerate}.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Called once per reachable placement.
+         *
+         * @param rotations rotate presses from the starting rotation
+         * @param rotation  resulting rotation index
+         * @param x         column after shifting
+         * @param y         landing row
+         */
+        void visit(int rotations, int rotation, int x, int y);
+    }
+
+    private SearchBoard scratch;
+
+    //state of the running best() call, read by the scoring visitor
+    private SearchBoard source;
+    private int brickId;
+    private Heuristic heuristic;
+    private Placement best;
+
+    private final Visitor scorer = this::score;
+
+    /**
+     * Calls {@code visitor} for every reachable placement.
+     *
+     * @param board    the board
+     * @param id       brick id
+     * @param rotation starting rotation
+     * @param x        starting column
+     * @param y        starting row
+     * @param visitor  receives each placement
+     * @return number of placements visited ({@code 0} if the brick does not fit at the start)
+     */
+    public int enumerate(SearchBoard board, int id, int rotation, int x, int y, Visitor visitor) {
+        int count = PieceTable.rotations(id);
+        int visited = 0;
+        int rot = rotation;
+        for (int k = 0; k < count; k++, rot = (rot + 1) % count) {
+            if (!board.fits(id, rot, x, y)) {
+                break;
+            }
+            visitor.visit(k, rot, x, board.dropY(id, rot, x, y));
+            visited++;
+            for (int cx = x - 1; board.fits(id, rot, cx, y); cx--) {
+                visitor.visit(k, rot, cx, board.dropY(id, rot, cx, y));
+                visited++;
+            }
+            for (int cx = x + 1; board.fits(id, rot, cx, y); cx++) {
+                visitor.visit(k, rot, cx, board.dropY(id, rot, cx, y));
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Finds the highest-scoring placement.
+     *
+     * @param board     the board
+     * @param id        brick id
+     * @param rotation  starting rotation
+     * @param x         starting column
+     * @param y         starting row
+     * @param heuristic evaluation to maximise
+     * @param out       receives the best placement
+     * @return {@code false} if no placement exists (the brick does not fit at the start)
+     */
+    public boolean best(SearchBoard board, int id, int rotation, int x, int y, Heuristic heuristic, Placement out) {
+        if (scratch == null || scratch.getRows() != board.getRows() || scratch.getCols() != board.getCols()) {
+            scratch = new SearchBoard(board.getRows(), board.getCols());
+        }
+        source = board;
+        brickId = id;
+        this.heuristic = heuristic;
+        best = out;
+        out.set(0, rotation, x, y, 0, Double.NEGATIVE_INFINITY);
+        try {
+            return enumerate(board, id, rotation, x, y, scorer) > 0;
+        } finally {
+            source = null;
+            this.heuristic = null;
+            best = null;
+        }
+    }
+
+    private void score(int rotations, int rotation, int x, int y) {
+        scratch.copyFrom(source);
+        int lines = scratch.place(brickId, rotation, x, y);
+        double value = heuristic.evaluate(scratch, lines);
+        if (value > best.getScore()) {
+            best.set(rotations, rotation, x, y, lines, value);
+        }
+    }
+}
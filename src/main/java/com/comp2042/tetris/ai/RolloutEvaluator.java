@@ -0,0 +1,358 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import com.comp2042.tetris.util.SplitMix64;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scores candidate placements by Monte Carlo rollouts, for positions where the
+ * {@link Heuristic} alone is not trusted.
+ * <p>
+ * A rollout restores a snapshot of the live {@link GameBoard} into a worker's own board
+ * with a fresh brick seed (the known preview queue is kept, everything after it is new),
+ * plays the candidate, and lets a greedy {@link AiPlayer} continue for up to
+ * {@code horizon} pieces in total. Its value is the number of rows cleared; a top-out
+ * ends it early. Rollout {@code j} of every candidate uses the same seed, so candidates
+ * are compared on the same brick sequences and fewer rollouts are needed to tell them
+ * apart.
+ * </p>
+ * <p>
+ * Rollouts run on a work-stealing pool. Each worker owns a board, a {@link HeadlessGame}
+ * and a player for the life of the evaluator, takes rollouts from a shared counter in
+ * round-robin order over the candidates (so all estimates grow evenly), and keeps its own
+ * sums; the sums are merged when the evaluation ends. Workers stop taking rollouts once
+ * the deadline has passed, so an evaluation returns the estimate so far after at most one
+ * more rollout per worker.
+ * </p>
+ */
+public final class RolloutEvaluator implements AutoCloseable {
+
+    private static final MoveEvent ROTATE = new MoveEvent(EventType.ROTATE, EventSource.USER);
+    private static final MoveEvent LEFT = new MoveEvent(EventType.LEFT, EventSource.USER);
+    private static final MoveEvent RIGHT = new MoveEvent(EventType.RIGHT, EventSource.USER);
+    private static final MoveEvent HARD_DROP = new MoveEvent(EventType.HARD_DROP, EventSource.USER);
+    private static final MoveEvent HOLD = new MoveEvent(EventType.HOLD, EventSource.USER);
+
+    private final int rows;
+    private final int cols;
+    private final int horizon;
+    private final ExecutorService pool;
+    private final List<Worker> workers = new ArrayList<>();
+
+    private volatile Heuristic policy = Heuristic.DEFAULT;
+
+    //the running evaluation, read by the workers
+    private GameState snapshot;
+    private List<Placement> candidates;
+    private int totalRollouts;
+    private volatile long deadline;
+    private final AtomicInteger nextRollout = new AtomicInteger();
+
+    /**
+     * Creates an evaluator for boards of the given size.
+     *
+     * @param rows    board rows
+     * @param cols    board columns
+     * @param horizon pieces per rollout, counting the candidate
+     * @param threads worker threads
+     */
+    public RolloutEvaluator(int rows, int cols, int horizon, int threads) {
+        if (horizon < 1 || threads < 1) {
+            throw new IllegalArgumentException("Horizon and threads must be positive");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.horizon = horizon;
+        this.pool = Executors.newWorkStealingPool(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker());
+        }
+    }
+
+    /**
+     * Sets the evaluation the rollout player uses.
+     *
+     * @param policy the heuristic for the pieces after the candidate
+     */
+    public void setPolicy(Heuristic policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Lists every hard-drop placement of the board's current brick (no hold), in the
+     * form {@link #evaluate} takes.
+     *
+     * @param board the live board
+     * @return the candidates, empty if the brick has no placement
+     */
+    public static List<Placement> candidates(GameBoard board) {
+        int[][] matrix = board.getBoardMatrix();
+        SearchBoard searchBoard = new SearchBoard(matrix.length, matrix[0].length);
+        searchBoard.load(matrix);
+        List<Placement> list = new ArrayList<>();
+        int id = board.getCurrentBrickId();
+        if (id == 0) {
+            return list;
+        }
+        new PlacementSearch().enumerate(searchBoard, id, board.getCurrentRotation(), board.getCurrentX(),
+                board.getCurrentY(), (rotations, rotation, x, y) -> {
+                    Placement p = new Placement();
+                    p.set(rotations, rotation, x, y, 0, 0);
+                    list.add(p);
+                });
+        return list;
+    }
+
+    /**
+     * Runs rollouts for each candidate until every candidate has {@code rolloutsPerCandidate}
+     * or the timeout expires, whichever comes first. Blocks the calling thread meanwhile,
+     * so call it from a background thread when the board belongs to the UI; interrupting
+     * that thread ends the evaluation early, like the timeout.
+     *
+     * @param board                the live board, only read (snapshotted) on the calling thread
+     * @param candidates           placements of the current brick; with a hold, {@code x}
+     *                             is relative to the spawn column as in {@link BeamSearch}
+     * @param rolloutsPerCandidate rollouts wanted per candidate
+     * @param timeoutNanos         time budget
+     * @return the estimates
+     */
+    public Result evaluate(GameBoard board, List<Placement> candidates, int rolloutsPerCandidate,
+                           long timeoutNanos) {
+        int[][] matrix = board.getBoardMatrix();
+        if (matrix.length != rows || matrix[0].length != cols) {
+            throw new IllegalArgumentException("Board is " + matrix.length + "x" + matrix[0].length
+                    + ", evaluator is " + rows + "x" + cols);
+        }
+        long start = System.nanoTime();
+        Result result = new Result(candidates.size());
+        if (candidates.isEmpty() || rolloutsPerCandidate < 1) {
+            return result;
+        }
+        GameState state = new GameState(rows, cols);
+        board.saveState(state);
+        this.snapshot = state;
+        this.candidates = List.copyOf(candidates);
+        this.totalRollouts = Math.multiplyExact(rolloutsPerCandidate, candidates.size());
+        this.deadline = start + timeoutNanos;
+        nextRollout.set(0);
+        List<Future<Void>> running = new ArrayList<>(workers.size());
+        for (Worker worker : workers) {
+            running.add(pool.submit(worker));
+        }
+        boolean interrupted = false;
+        for (Future<Void> done : running) {
+            while (true) {
+                try {
+                    done.get();
+                    break;
+                } catch (InterruptedException e) {
+                    //stop early: the workers finish their current rollout and return
+                    interrupted = true;
+                    deadline = System.nanoTime();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Rollout failed", e.getCause());
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        for (Worker worker : workers) {
+            worker.mergeInto(result);
+        }
+        this.snapshot = null;
+        this.candidates = null;
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * One worker's board, player and partial sums.
+     */
+    private final class Worker implements Callable<Void> {
+        private final GameBoard board = new GameBoard(rows, cols, new RandomBrickGenerator());
+        private final HeadlessGame game = new HeadlessGame(board);
+        private final AiPlayer player;
+        private final GameState state = new GameState(rows, cols);
+
+        private double[] sum = new double[0];
+        private double[] sumSquares = new double[0];
+        private int[] count = new int[0];
+
+        Worker() {
+            board.newGame(0);
+            player = new AiPlayer(board);
+            player.setEventListener(game);
+        }
+
+        @Override
+        public Void call() {
+            int n = candidates.size();
+            if (count.length < n) {
+                sum = new double[n];
+                sumSquares = new double[n];
+                count = new int[n];
+            }
+            player.setHeuristic(policy);
+            while (System.nanoTime() - deadline < 0) {
+                int rollout = nextRollout.getAndIncrement();
+                if (rollout >= totalRollouts) {
+                    break;
+                }
+                int candidate = rollout % n;
+                double value = play(candidates.get(candidate), seedOf(rollout / n));
+                sum[candidate] += value;
+                sumSquares[candidate] += value * value;
+                count[candidate]++;
+            }
+            return null;
+        }
+
+        /** Seed of the {@code j}-th rollout of every candidate, derived from the position. */
+        private long seedOf(int j) {
+            return SplitMix64.mix(snapshot.getRandomState() + (j + 1) * SplitMix64.GAMMA);
+        }
+
+        private int play(Placement candidate, long seed) {
+            state.copyFrom(snapshot);
+            state.setRandomState(seed);
+            game.restoreState(state);
+            int shift = candidate.getX() - state.getX();
+            if (candidate.isHold()) {
+                game.onHoldEvent(HOLD);
+                shift = candidate.getX() - GameBoard.SPAWN_X;
+            }
+            for (int k = 0; k < candidate.getRotations(); k++) {
+                game.onRotateEvent(ROTATE);
+            }
+            for (; shift < 0; shift++) {
+                game.onLeftEvent(LEFT);
+            }
+            for (; shift > 0; shift--) {
+                game.onRightEvent(RIGHT);
+            }
+            game.onHardDropEvent(HARD_DROP);
+            while (!game.isGameOver() && game.getPieces() < horizon) {
+                player.playPiece();
+            }
+            return game.getLines();
+        }
+
+        void mergeInto(Result result) {
+            for (int i = 0; i < result.count.length; i++) {
+                result.sum[i] += sum[i];
+                result.sumSquares[i] += sumSquares[i];
+                result.count[i] += count[i];
+                sum[i] = 0;
+                sumSquares[i] = 0;
+                count[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Rollout estimates per candidate, in the order the candidates were given.
+     */
+    public static final class Result {
+        private final double[] sum;
+        private final double[] sumSquares;
+        private final int[] count;
+        private long nanos;
+
+        private Result(int candidates) {
+            sum = new double[candidates];
+            sumSquares = new double[candidates];
+            count = new int[candidates];
+        }
+
+        /** @return number of candidates */
+        public int size() {
+            return count.length;
+        }
+
+        /**
+         * @param candidate candidate index
+         * @return rollouts finished for the candidate
+         */
+        public int getRollouts(int candidate) {
+            return count[candidate];
+        }
+
+        /** @return rollouts finished for all candidates */
+        public long getTotalRollouts() {
+            long total = 0;
+            for (int c : count) {
+                total += c;
+            }
+            return total;
+        }
+
+        /**
+         * @param candidate candidate index
+         * @return average rows cleared per rollout, {@code NaN} without rollouts
+         */
+        public double getMean(int candidate) {
+            return count[candidate] == 0 ? Double.NaN : sum[candidate] / count[candidate];
+        }
+
+        /**
+         * @param candidate candidate index
+         * @return standard error of {@link #getMean(int)}, {@code NaN} with fewer than two rollouts
+         */
+        public double getStandardError(int candidate) {
+            int n = count[candidate];
+            if (n < 2) {
+                return Double.NaN;
+            }
+            double mean = sum[candidate] / n;
+            double variance = Math.max(0, (sumSquares[candidate] - n * mean * mean) / (n - 1));
+            return Math.sqrt(variance / n);
+        }
+
+        /** @return index of the candidate with the highest mean, {@code -1} if none has rollouts */
+        public int getBest() {
+            int best = -1;
+            for (int i = 0; i < count.length; i++) {
+                if (count[i] > 0 && (best < 0 || getMean(i) > getMean(best))) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        /** @return wall time of the evaluation in nanoseconds */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            int best = getBest();
+            return String.format("RolloutEvaluator.Result{candidates=%d, rollouts=%d, best=%d (%.2f +- %.2f rows), %.1f ms}",
+                    size(), getTotalRollouts(), best, best < 0 ? Double.NaN : getMean(best),
+                    best < 0 ? Double.NaN : getStandardError(best), nanos / 1e6);
+        }
+    }
+}
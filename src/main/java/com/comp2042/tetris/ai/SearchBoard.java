@@ -0,0 +1,252 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameState;
+
+import java.util.Arrays;
+
+/**
+ * Occupancy-only copy of a playfield used by the AI search.
+ * <p>
+ * Each row is one {@code int} with bit {@code c} set when column {@code c} is filled, so
+ * collision tests, locking and line clears are a few bit operations per brick row instead
+ * of matrix walks. Cell colours are not kept. Coordinates follow
+ * {@link com.comp2042.tetris.model.GameBoard}: {@code x} is the column and {@code y} the row
+ * of the brick matrix's top-left corner, row 0 at the top.
+ * </p>
+ * <p>
+ * The board also keeps its {@link Zobrist} hash up to date: {@link #place} XORs in the
+ * locked cells and, on a line clear, moves the keys of the rows that shift down.
+ * </p>
+ * <p>
+ * Not thread-safe; searches copy boards with {@link #copyFrom(SearchBoard)} rather than
+ * sharing them.
+ * </p>
+ */
+public final class SearchBoard {
+
+    private final int rows;
+    private final int cols;
+
+    /** Mask of a completely filled row. */
+    private final int full;
+
+    /** Row masks, top row first. */
+    private final int[] cells;
+
+    /** Zobrist hash of the filled cells. */
+    private long hash;
+
+    /**
+     * Creates an empty board.
+     *
+     * @param rows number of rows, at most {@link Zobrist#MAX_ROWS}
+     * @param cols number of columns, at most 31
+     */
+    public SearchBoard(int rows, int cols) {
+        if (cols < 1 || cols > 31) {
+            throw new IllegalArgumentException("Columns must be in [1, 31]: " + cols);
+        }
+        if (rows < 1 || rows > Zobrist.MAX_ROWS) {
+            throw new IllegalArgumentException("Rows must be in [1, " + Zobrist.MAX_ROWS + "]: " + rows);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.full = (1 << cols) - 1;
+        this.cells = new int[rows];
+    }
+
+    /**
+     * Loads a board matrix ({@code [row][col]}, 0 = empty).
+     *
+     * @param matrix the matrix, e.g. {@link com.comp2042.tetris.model.GameBoard#getBoardMatrix()}
+     */
+    public void load(int[][] matrix) {
+        for (int r = 0; r < rows; r++) {
+            int[] row = matrix[r];
+            int mask = 0;
+            for (int c = 0; c < cols; c++) {
+                if (row[c] != 0) {
+                    mask |= 1 << c;
+                }
+            }
+            cells[r] = mask;
+        }
+        rehash();
+    }
+
+    /**
+     * Loads the background of a snapshot.
+     *
+     * @param state the snapshot; must have the same size as this board
+     */
+    public void load(GameState state) {
+        int[] flat = state.cells();
+        for (int r = 0; r < rows; r++) {
+            int mask = 0;
+            for (int c = 0, i = r * cols; c < cols; c++, i++) {
+                if (flat[i] != 0) {
+                    mask |= 1 << c;
+                }
+            }
+            cells[r] = mask;
+        }
+        rehash();
+    }
+
+    private void rehash() {
+        long h = 0;
+        for (int r = 0; r < rows; r++) {
+            h ^= Zobrist.row(r, cells[r]);
+        }
+        hash = h;
+    }
+
+    /**
+     * Copies another board of the same size into this one.
+     *
+     * @param other the board to copy
+     */
+    public void copyFrom(SearchBoard other) {
+        System.arraycopy(other.cells, 0, cells, 0, rows);
+        hash = other.hash;
+    }
+
+    /** Empties the board. */
+    public void clear() {
+        Arrays.fill(cells, 0);
+        hash = 0;
+    }
+
+    /** @return Zobrist hash of the filled cells (see {@link Zobrist#row(int, int)}) */
+    public long hash() {
+        return hash;
+    }
+
+    /** @return number of rows */
+    public int getRows() {
+        return rows;
+    }
+
+    /** @return number of columns */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * @param row row index
+     * @return filled cells of the row, bit {@code c} for column {@code c}
+     */
+    public int rowMask(int row) {
+        return cells[row];
+    }
+
+    /**
+     * @param row row index
+     * @param col column index
+     * @return {@code true} if the cell is filled
+     */
+    public boolean isFilled(int row, int col) {
+        return (cells[row] >>> col & 1) != 0;
+    }
+
+    /**
+     * Tests whether a brick fits at a position, using the same rules as
+     * {@link com.comp2042.tetris.util.MatrixOperations#intersect}: filled brick cells must be
+     * inside the side walls, above the floor, and on empty cells. Cells above the top row
+     * count as empty.
+     *
+     * @param id       brick id
+     * @param rotation rotation index
+     * @param x        column of the brick matrix's left edge
+     * @param y        row of the brick matrix's top edge
+     * @return {@code true} if the brick does not collide
+     */
+    public boolean fits(int id, int rotation, int x, int y) {
+        if (x + PieceTable.minCol(id, rotation) < 0 || x + PieceTable.maxCol(id, rotation) >= cols) {
+            return false;
+        }
+        for (int j = 0; j < PieceTable.SIZE; j++) {
+            int mask = PieceTable.rowMask(id, rotation, j);
+            if (mask == 0) {
+                continue;
+            }
+            int row = y + j;
+            if (row >= rows) {
+                return false;
+            }
+            if (row >= 0 && (cells[row] & shift(mask, x)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the row a brick lands on when dropped straight down from {@code y}.
+     *
+     * @param id       brick id
+     * @param rotation rotation index
+     * @param x        column of the brick
+     * @param y        starting row; the brick must fit there
+     * @return the lowest row reachable by moving down
+     */
+    public int dropY(int id, int rotation, int x, int y) {
+        while (fits(id, rotation, x, y + 1)) {
+            y++;
+        }
+        return y;
+    }
+
+    /**
+     * Locks a brick into the board and clears completed rows, like
+     * {@link com.comp2042.tetris.model.GameBoard#mergeBrickToBackground()} followed by
+     * {@link com.comp2042.tetris.model.GameBoard#clearRows()}.
+     *
+     * @param id       brick id
+     * @param rotation rotation index
+     * @param x        column of the brick
+     * @param y        row of the brick
+     * @return number of rows cleared
+     */
+    public int place(int id, int rotation, int x, int y) {
+        boolean completed = false;
+        for (int j = 0; j < PieceTable.SIZE; j++) {
+            int mask = PieceTable.rowMask(id, rotation, j);
+            int row = y + j;
+            if (mask != 0 && row >= 0 && row < rows) {
+                int placed = shift(mask, x);
+                cells[row] |= placed;
+                hash ^= Zobrist.row(row, placed);
+                completed |= cells[row] == full;
+            }
+        }
+        if (!completed) {
+            return 0;
+        }
+        //compact the board downwards, skipping full rows; the hash drops the cleared rows
+        //and moves each shifted row's keys to its new row
+        int cleared = 0;
+        for (int r = rows - 1; r >= 0; r--) {
+            int mask = cells[r];
+            if (mask == full) {
+                cleared++;
+                hash ^= Zobrist.row(r, mask);
+            } else if (cleared > 0) {
+                cells[r + cleared] = mask;
+                if (mask != 0) {
+                    hash ^= Zobrist.row(r, mask) ^ Zobrist.row(r + cleared, mask);
+                }
+            }
+        }
+        Arrays.fill(cells, 0, cleared, 0);
+        return cleared;
+    }
+
+    /**
+     * Moves a shape row mask to board column {@code x}; {@code x} may be negative when the
+     * brick matrix's empty left columns hang past the wall.
+     */
+    private static int shift(int mask, int x) {
+        return x >= 0 ? mask << x : mask >>> -x;
+    }
+}
@@ -0,0 +1,713 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.brick.Bricks;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import com.comp2042.tetris.util.SplitMix64;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Plays seeded games against itself and streams one training record per placed brick into
+ * chunked binary shard files, for training learned evaluators.
+ * <p>
+ * Game {@code g} of a run uses seed {@code firstSeed + g} for its brick sequence, the same
+ * sequence {@link GameBoard#newGame(long)} deals. The rules are the game's: every brick
+ * spawns at the spawn point in rotation 0 and the game ends when it does not fit there;
+ * the policy may hold once per brick (swapping with the held brick, or taking the next one
+ * when the slot is empty). Moves are chosen greedily by {@link PlacementSearch} under the
+ * policy {@link Heuristic}, for the current brick and for the hold alternative, or with
+ * probability {@link #setExploration(double) epsilon} uniformly among the current brick's
+ * placements. Games stop at {@link #setMaxPieces(int) maxPieces} bricks. The simulation
+ * runs on a {@link SearchBoard} rather than a full {@link GameBoard}, which is what makes
+ * millions of records per core and minute possible.
+ * </p>
+ * <p>
+ * <b>Shard format</b> (big-endian, like the game's other binary files): a
+ * {@link #HEADER_BYTES}-byte header {@code int "CWS1", short version, short recordBytes,
+ * short rows, short cols, short previews, short 0, long recordCount}, then
+ * {@code recordCount} fixed-size records:
+ * </p>
+ * <ul>
+ *     <li>{@code long[ceil(rows * cols / 64)]} board before the brick, bit
+ *     {@code row * cols + col} set for a filled cell (row 0 at the top)</li>
+ *     <li>{@code int} game index within the run</li>
+ *     <li>{@code byte} brick id, {@code byte} held brick id (0 if none),
+ *     {@code byte[previews]} next brick ids</li>
+ *     <li>chosen placement: {@code byte} flags (bit 0: hold first, bit 1: the game ended
+ *     by topping out rather than at the piece limit), {@code byte} rotation,
+ *     {@code byte} column (signed), {@code byte} row, {@code byte} rows cleared</li>
+ *     <li>outcome: {@code int} rows cleared from this brick to the end of the game,
+ *     {@code int} bricks from this one to the end of the game (at least 1)</li>
+ * </ul>
+ * <p>
+ * A shard is written under a {@code .tmp} name and renamed to
+ * {@code shard-NNNNN.bin} once its record count is final, so readers only ever see
+ * complete shards. Numbering continues after the highest shard already in the directory,
+ * so later runs (of this or another generator) add to a dataset and never overwrite it.
+ * </p>
+ * <p>
+ * <b>Memory and back-pressure.</b> Workers fill fixed-size direct {@link ByteBuffer}s
+ * taken from a bounded free list and hand full ones to the writer, which runs on the
+ * thread calling {@link #run} and returns each buffer to the free list once written.
+ * When the disk is slower than the workers, the free list runs dry and workers block
+ * until a buffer comes back (counted in {@link Result#getStalls()}). Apart from that
+ * fixed pool, each worker keeps one game's records (at most {@code maxPieces}) until the
+ * game ends and its outcomes are known, so memory stays bounded however long the run is.
+ * </p>
+ */
+public final class SelfPlayGenerator {
+
+    /** Shard file magic ("CWS1"). */
+    public static final int MAGIC = 0x43575331;
+
+    /** Shard format version. */
+    public static final int VERSION = 1;
+
+    /** Size of the shard header in bytes. */
+    public static final int HEADER_BYTES = 24;
+
+    /** Offset of the record count in the header. */
+    private static final int COUNT_OFFSET = 16;
+
+    /** Default number of records per shard. */
+    public static final long DEFAULT_RECORDS_PER_SHARD = 1 << 20;
+
+    /** Default size of each direct buffer in bytes (rounded down to whole records). */
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 20;
+
+    /** Name of a published shard, capturing its number. */
+    private static final Pattern SHARD_NAME = Pattern.compile("shard-(\\d+)\\.bin");
+
+    /** Marks a worker's end in the queue of full buffers. */
+    private static final ByteBuffer DONE = ByteBuffer.allocate(0);
+
+    private final Path directory;
+    private final int rows;
+    private final int cols;
+    private final int threads;
+
+    private volatile Heuristic policy = Heuristic.DEFAULT;
+    private double exploration;
+    private int maxPieces = 10_000;
+    private int previews = 5;
+    private long recordsPerShard = DEFAULT_RECORDS_PER_SHARD;
+    private int bufferBytes = DEFAULT_BUFFER_BYTES;
+    private int bufferCount;
+
+    /** Number of the next shard file, above every shard found in the directory. */
+    private int nextShard;
+
+    private volatile boolean stopping;
+
+    /**
+     * Creates a generator writing shards to {@code directory}.
+     *
+     * @param directory output directory, created if missing
+     * @param rows      board rows, at most 64
+     * @param cols      board columns, at most 31
+     * @param threads   worker threads playing games
+     */
+    public SelfPlayGenerator(Path directory, int rows, int cols, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        if (rows < 1 || rows > Long.SIZE || cols < 1 || cols > 31) {
+            throw new IllegalArgumentException("Board must be at most 64x31: " + rows + "x" + cols);
+        }
+        this.directory = directory;
+        this.rows = rows;
+        this.cols = cols;
+        this.threads = threads;
+        this.bufferCount = 2 * threads;
+    }
+
+    /**
+     * Sets the evaluation the players use.
+     *
+     * @param policy the heuristic
+     */
+    public void setPolicy(Heuristic policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Sets how often a random placement is played instead of the policy's choice.
+     *
+     * @param epsilon probability in {@code [0, 1]}
+     */
+    public void setExploration(double epsilon) {
+        if (!(epsilon >= 0 && epsilon <= 1)) {
+            throw new IllegalArgumentException("Exploration must be in [0, 1]: " + epsilon);
+        }
+        this.exploration = epsilon;
+    }
+
+    /**
+     * Caps the length of each game; also bounds the records a worker keeps in memory.
+     *
+     * @param maxPieces bricks per game
+     */
+    public void setMaxPieces(int maxPieces) {
+        if (maxPieces < 1) {
+            throw new IllegalArgumentException("Max pieces must be positive: " + maxPieces);
+        }
+        this.maxPieces = maxPieces;
+    }
+
+    /**
+     * Sets how many upcoming bricks each record lists.
+     *
+     * @param previews preview bricks, in {@code [1, GameState.QUEUE_CAPACITY]}
+     */
+    public void setPreviews(int previews) {
+        if (previews < 1 || previews > GameState.QUEUE_CAPACITY) {
+            throw new IllegalArgumentException("Previews must be in [1, " + GameState.QUEUE_CAPACITY + "]: " + previews);
+        }
+        this.previews = previews;
+    }
+
+    /**
+     * Sets how many records a shard holds before the next one is started.
+     *
+     * @param records records per shard
+     */
+    public void setRecordsPerShard(long records) {
+        if (records < 1) {
+            throw new IllegalArgumentException("Records per shard must be positive: " + records);
+        }
+        this.recordsPerShard = records;
+    }
+
+    /**
+     * Sizes the pool of direct buffers between the workers and the writer.
+     *
+     * @param count number of buffers, at least one per worker
+     * @param bytes size of each buffer; at least one record
+     */
+    public void setBuffers(int count, int bytes) {
+        if (count < threads || bytes < getRecordBytes()) {
+            throw new IllegalArgumentException("Need at least " + threads + " buffers of " + getRecordBytes() + " bytes");
+        }
+        this.bufferCount = count;
+        this.bufferBytes = bytes;
+    }
+
+    /** @return size of one record in bytes with the current settings */
+    public int getRecordBytes() {
+        return 8 * boardWords() + 4 + 2 + previews + 5 + 8;
+    }
+
+    private int boardWords() {
+        return (rows * cols + 63) >>> 6;
+    }
+
+    /**
+     * Asks a running {@link #run} to finish early: games in progress are dropped (their
+     * outcomes are unknown), everything already handed to the writer is written.
+     */
+    public void stop() {
+        stopping = true;
+    }
+
+    /**
+     * Plays {@code games} games on the worker threads and writes their records, blocking
+     * until all are written (or {@link #stop()} is called).
+     *
+     * @param firstSeed seed of game 0; game {@code g} uses {@code firstSeed + g}
+     * @param games     number of games
+     * @return what was written
+     * @throws IOException if a shard cannot be written; the workers are stopped first
+     */
+    public Result run(long firstSeed, long games) throws IOException {
+        Files.createDirectories(directory);
+        nextShard = Math.max(nextShard, highestShard() + 1);
+        stopping = false;
+        long start = System.nanoTime();
+        int recordBytes = getRecordBytes();
+        int capacity = bufferBytes / recordBytes * recordBytes;
+        BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(bufferCount);
+        BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<>(bufferCount + threads);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(ByteBuffer.allocateDirect(capacity));
+        }
+        Result result = new Result();
+        AtomicLong nextGame = new AtomicLong();
+        List<Worker> workers = new ArrayList<>(threads);
+        List<Thread> running = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(firstSeed, games, nextGame, free, full, recordBytes);
+            Thread t = new Thread(worker, "self-play-" + i);
+            t.setDaemon(true);
+            workers.add(worker);
+            running.add(t);
+            t.start();
+        }
+
+        Shard shard = null;
+        IOException failure = null;
+        boolean interrupted = false;
+        int finished = 0;
+        try {
+            while (finished < threads) {
+                ByteBuffer buffer;
+                try {
+                    buffer = full.take();
+                } catch (InterruptedException e) {
+                    //the workers still need their buffers back: stop them and drain
+                    interrupted = true;
+                    stopping = true;
+                    continue;
+                }
+                if (buffer == DONE) {
+                    finished++;
+                    continue;
+                }
+                buffer.flip();
+                //after a write error keep recycling buffers so blocked workers can see the stop
+                while (failure == null && buffer.hasRemaining()) {
+                    try {
+                        if (shard == null) {
+                            shard = new Shard(nextShard++, recordBytes);
+                        }
+                        long room = recordsPerShard - shard.records;
+                        int bytes = (int) Math.min(buffer.remaining(), room * recordBytes);
+                        int limit = buffer.limit();
+                        buffer.limit(buffer.position() + bytes);
+                        shard.write(buffer);
+                        buffer.limit(limit);
+                        result.records += bytes / recordBytes;
+                        if (shard.records == recordsPerShard) {
+                            shard.finish();
+                            result.shards++;
+                            shard = null;
+                        }
+                    } catch (IOException e) {
+                        failure = e;
+                        stopping = true;
+                    }
+                }
+                buffer.clear();
+                free.add(buffer);
+            }
+            if (shard != null && failure == null) {
+                shard.finish();
+                result.shards++;
+                shard = null;
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            if (shard != null) {
+                shard.abandon();
+            }
+        }
+        for (Thread t : running) {
+            interrupted |= join(t);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        for (Worker worker : workers) {
+            result.games += worker.games;
+            result.stalls += worker.stalls;
+            if (worker.failure != null && failure == null) {
+                throw new IllegalStateException("Self-play worker failed", worker.failure);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /** @return number of the highest {@code shard-NNNNN.bin} in the directory, or -1 */
+    private int highestShard() throws IOException {
+        int highest = -1;
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(directory, "shard-*.bin")) {
+            for (Path shard : shards) {
+                Matcher m = SHARD_NAME.matcher(shard.getFileName().toString());
+                if (m.matches()) {
+                    highest = Math.max(highest, Integer.parseInt(m.group(1)));
+                }
+            }
+        }
+        return highest;
+    }
+
+    /** Waits for {@code t} and tells whether the wait was interrupted. */
+    private static boolean join(Thread t) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                t.join();
+                return interrupted;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+    }
+
+    /**
+     * One shard file being written.
+     */
+    private final class Shard {
+        private final Path tmp;
+        private final Path target;
+        private final FileChannel channel;
+        private final int recordBytes;
+        private long records;
+
+        Shard(int number, int recordBytes) throws IOException {
+            this.recordBytes = recordBytes;
+            target = directory.resolve(String.format("shard-%05d.bin", number));
+            tmp = directory.resolve(target.getFileName() + ".tmp");
+            channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putShort((short) VERSION)
+                    .putShort((short) recordBytes).putShort((short) rows).putShort((short) cols)
+                    .putShort((short) previews).putShort((short) 0).putLong(0).flip();
+            writeFully(header);
+        }
+
+        void write(ByteBuffer buffer) throws IOException {
+            int bytes = buffer.remaining();
+            writeFully(buffer);
+            records += bytes / recordBytes;
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        /** Patches the record count into the header and publishes the file. */
+        void finish() throws IOException {
+            ByteBuffer count = ByteBuffer.allocate(8).putLong(records).flip();
+            while (count.hasRemaining()) {
+                channel.write(count, COUNT_OFFSET + 8 - count.remaining());
+            }
+            channel.close();
+            //numbering starts above the existing shards, so a clash means someone else is writing here
+            if (Files.exists(target)) {
+                throw new FileAlreadyExistsException(target.toString());
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        void abandon() {
+            try {
+                channel.close();
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                //already failing; the partial file is only a .tmp
+            }
+        }
+    }
+
+    /**
+     * Plays games on its own board and fills buffers with their records.
+     */
+    private final class Worker implements Runnable {
+        private final long firstSeed;
+        private final long gameLimit;
+        private final AtomicLong nextGame;
+        private final BlockingQueue<ByteBuffer> free;
+        private final BlockingQueue<ByteBuffer> full;
+        private final int recordBytes;
+
+        private final SearchBoard board = new SearchBoard(rows, cols);
+        private final PlacementSearch search = new PlacementSearch();
+        private final Placement stay = new Placement();
+        private final Placement swap = new Placement();
+        private final int[] queue = new int[GameState.QUEUE_CAPACITY];
+        private final long[] words = new long[boardWords()];
+        /** Records of the game in progress, written out once its outcome is known. */
+        private final byte[] game;
+        private final ByteBuffer gameBuffer;
+        private ByteBuffer out;
+        private long random;
+
+        //placement picked by exploration
+        private int seen;
+        private int pickRotation;
+        private int pickX;
+        private int pickY;
+        private final PlacementSearch.Visitor picker = this::pick;
+
+        long games;
+        long stalls;
+        Throwable failure;
+
+        Worker(long firstSeed, long gameLimit, AtomicLong nextGame, BlockingQueue<ByteBuffer> free,
+               BlockingQueue<ByteBuffer> full, int recordBytes) {
+            this.firstSeed = firstSeed;
+            this.gameLimit = gameLimit;
+            this.nextGame = nextGame;
+            this.free = free;
+            this.full = full;
+            this.recordBytes = recordBytes;
+            this.game = new byte[Math.multiplyExact(maxPieces, recordBytes)];
+            this.gameBuffer = ByteBuffer.wrap(game);
+        }
+
+        @Override
+        public void run() {
+            try {
+                long g;
+                while (!stopping && (g = nextGame.getAndIncrement()) < gameLimit) {
+                    if (play(g)) {
+                        emit();
+                        games++;
+                    }
+                }
+                if (out != null && out.position() > 0) {
+                    full.put(out);
+                } else if (out != null) {
+                    free.put(out);
+                }
+                out = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException | Error e) {
+                failure = e;
+                stopping = true;
+            } finally {
+                //the writer counts these to know every worker is done
+                full.add(DONE);
+            }
+        }
+
+        /** Plays game {@code g} into {@link #game}; {@code false} if stopped part way. */
+        private boolean play(long g) {
+            long seed = firstSeed + g;
+            RandomBrickGenerator bricks = new RandomBrickGenerator(seed);
+            random = seed ^ 0x5DEECE66DL;
+            board.clear();
+            gameBuffer.clear();
+            Heuristic heuristic = policy;
+            int held = 0;
+            int pieces = 0;
+            boolean toppedOut = false;
+            int id = Bricks.idOf(bricks.getBrick());
+            while (pieces < maxPieces) {
+                if (stopping) {
+                    return false;
+                }
+                if (!board.fits(id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y)) {
+                    toppedOut = true;
+                    break;
+                }
+                bricks.peekIds(queue, previews);
+                writeState((int) g, id, held);
+
+                boolean hold = false;
+                int rotation;
+                int x;
+                int y;
+                if (exploration > 0 && nextDouble() < exploration) {
+                    seen = 0;
+                    search.enumerate(board, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, picker);
+                    rotation = pickRotation;
+                    x = pickX;
+                    y = pickY;
+                } else {
+                    search.best(board, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, heuristic, stay);
+                    int other = held != 0 ? held : queue[0];
+                    hold = other != id
+                            && search.best(board, other, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, heuristic, swap)
+                            && swap.getScore() > stay.getScore();
+                    Placement chosen = hold ? swap : stay;
+                    rotation = chosen.getRotation();
+                    x = chosen.getX();
+                    y = chosen.getY();
+                }
+                if (hold) {
+                    //same as GameBoard.holdCurrentBrick: swap, or take the next brick into play
+                    if (held == 0) {
+                        held = id;
+                        id = Bricks.idOf(bricks.getBrick());
+                    } else {
+                        int t = held;
+                        held = id;
+                        id = t;
+                    }
+                }
+                int lines = board.place(id, rotation, x, y);
+                gameBuffer.put((byte) (hold ? 1 : 0)).put((byte) rotation).put((byte) x).put((byte) y)
+                        .put((byte) lines).putInt(0).putInt(0);
+                pieces++;
+                id = Bricks.idOf(bricks.getBrick());
+            }
+            //outcomes: suffix sums from the last record back
+            int linesToGo = 0;
+            int flagsEnd = toppedOut ? 2 : 0;
+            int outcome = recordBytes - 13;
+            for (int p = pieces - 1; p >= 0; p--) {
+                int at = p * recordBytes + outcome;
+                linesToGo += game[at + 4];
+                game[at] |= (byte) flagsEnd;
+                gameBuffer.putInt(at + 5, linesToGo);
+                gameBuffer.putInt(at + 9, pieces - p);
+            }
+            return true;
+        }
+
+        /** Appends board, game index, brick, held brick and previews of a new record. */
+        private void writeState(int g, int id, int held) {
+            Arrays.fill(words, 0L);
+            for (int r = 0, bit = 0; r < rows; r++, bit += cols) {
+                long mask = board.rowMask(r);
+                if (mask != 0) {
+                    words[bit >>> 6] |= mask << (bit & 63);
+                    int spill = (bit & 63) + cols - 64;
+                    if (spill > 0) {
+                        words[(bit >>> 6) + 1] |= mask >>> (cols - spill);
+                    }
+                }
+            }
+            for (long word : words) {
+                gameBuffer.putLong(word);
+            }
+            gameBuffer.putInt(g).put((byte) id).put((byte) held);
+            for (int i = 0; i < previews; i++) {
+                gameBuffer.put((byte) queue[i]);
+            }
+        }
+
+        /** Reservoir-samples one placement, uniformly among those enumerated. */
+        private void pick(int rotations, int rotation, int x, int y) {
+            seen++;
+            if (nextIndex(seen) == 0) {
+                pickRotation = rotation;
+                pickX = x;
+                pickY = y;
+            }
+        }
+
+        /** Copies the finished game into direct buffers, blocking while none is free. */
+        private void emit() throws InterruptedException {
+            int length = gameBuffer.position();
+            int offset = 0;
+            while (offset < length) {
+                if (out == null) {
+                    out = free.poll();
+                    if (out == null) {
+                        stalls++;
+                        out = free.take();
+                    }
+                }
+                int n = Math.min(length - offset, out.remaining());
+                out.put(game, offset, n);
+                offset += n;
+                if (!out.hasRemaining()) {
+                    full.put(out);
+                    out = null;
+                }
+            }
+        }
+
+        private long nextLong() {
+            return SplitMix64.mix(random += SplitMix64.GAMMA);
+        }
+
+        private double nextDouble() {
+            return (nextLong() >>> 11) * 0x1.0p-53;
+        }
+
+        private int nextIndex(int bound) {
+            return SplitMix64.index(nextLong(), bound);
+        }
+    }
+
+    /**
+     * Totals of one {@link #run}.
+     */
+    public static final class Result {
+        private long games;
+        private long records;
+        private int shards;
+        private long stalls;
+        private long nanos;
+
+        private Result() {
+        }
+
+        /** @return games played to the end and written */
+        public long getGames() {
+            return games;
+        }
+
+        /** @return records written */
+        public long getRecords() {
+            return records;
+        }
+
+        /** @return shard files published */
+        public int getShards() {
+            return shards;
+        }
+
+        /** @return times a worker had to wait for a free buffer (the writer was behind) */
+        public long getStalls() {
+            return stalls;
+        }
+
+        /** @return wall time of the run in nanoseconds */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /** @return records per hour of wall time */
+        public double getRecordsPerHour() {
+            return nanos == 0 ? 0 : records * 3.6e12 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("SelfPlayGenerator.Result{games=%d, records=%d, shards=%d, stalls=%d, %.0f records/hour}",
+                    games, records, shards, stalls, getRecordsPerHour());
+        }
+    }
+
+    /**
+     * Generates a dataset from the command line with one worker per core.
+     *
+     * @param args output directory, then optionally the number of games, the first seed and
+     *             the exploration rate
+     * @throws IOException if a shard cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SelfPlayGenerator <directory> [games] [firstSeed] [exploration]");
+            return;
+        }
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 10_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        SelfPlayGenerator generator = new SelfPlayGenerator(Path.of(args[0]), 25, 10,
+                Runtime.getRuntime().availableProcessors());
+        if (args.length > 3) {
+            generator.setExploration(Double.parseDouble(args[3]));
+        }
+        System.out.println(generator.run(seed, games));
+    }
+}
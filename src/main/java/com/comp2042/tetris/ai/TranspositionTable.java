@@ -0,0 +1,228 @@
+package com.comp2042.tetris.ai;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size, lock-free hash table from {@link Zobrist} keys to small values, shared by
+ * the threads of a parallel search.
+ * <p>
+ * The table is one {@code long[]}, split into buckets of {@value #BUCKET} adjacent entries
+ * (32 bytes, so a probe touches one or two cache lines). An entry packs the high 32 bits of
+ * its key as a check, the generation it was written in and a 24-bit value into a single
+ * {@code long}, so every read and update is one atomic access and updates are plain
+ * compare-and-set loops: no locks and no torn entries.
+ * </p>
+ * <p>
+ * Entries are aged: {@link #newGeneration()} starts a new generation (e.g. a new search
+ * or search layer), and entries from older generations are treated as absent and are the
+ * first to be replaced, oldest first (the table is wiped when the 8-bit generation
+ * counter wraps). Entries of the current generation are never
+ * evicted; if a bucket is full of them, a store is dropped and counted as an overflow.
+ * </p>
+ * <p>
+ * {@link #getHitRate()} and {@link #getMemoryBytes()} report how well the table works
+ * and what it costs.
+ * </p>
+ */
+public final class TranspositionTable {
+
+    /** Entries per bucket. */
+    public static final int BUCKET = 4;
+
+    /** Largest storable value. */
+    public static final int MAX_VALUE = (1 << 24) - 1;
+
+    /** Value returned by {@link #get(long)} for an absent key. */
+    public static final int ABSENT = -1;
+
+    private static final VarHandle ENTRIES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] entries;
+    private final int bucketMask;
+
+    /** Current generation, 1..255 (0 marks an empty entry). */
+    private volatile int generation = 1;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    /**
+     * Creates a table with room for at least {@code capacity} entries.
+     *
+     * @param capacity minimum number of entries; rounded up to a power of two
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity < BUCKET || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be in [" + BUCKET + ", 2^30]: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.entries = new long[size];
+        this.bucketMask = size / BUCKET - 1;
+    }
+
+    /**
+     * Starts a new generation; everything stored before becomes stale.
+     * Call between searches (or search layers), not while other threads are storing.
+     */
+    public void newGeneration() {
+        int next = generation + 1;
+        if (next > 0xFF) {
+            //the 8-bit generation wraps: wipe the table so old entries cannot look current
+            Arrays.fill(entries, 0L);
+            next = 1;
+        }
+        generation = next;
+    }
+
+    /**
+     * Returns the value stored for {@code key} in the current generation.
+     *
+     * @param key the Zobrist key
+     * @return the value, or {@link #ABSENT}
+     */
+    public int get(long key) {
+        int base = bucketOf(key);
+        int check = (int) (key >>> 32);
+        int gen = generation;
+        int found = ABSENT;
+        for (int i = base; i < base + BUCKET; i++) {
+            long e = (long) ENTRIES.getOpaque(entries, i);
+            //racing inserts can leave the same key twice in a bucket; the lowest value wins
+            if (e != 0 && checkOf(e) == check && generationOf(e) == gen
+                    && (found == ABSENT || valueOf(e) < found)) {
+                found = valueOf(e);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Stores {@code value} for {@code key} unless a lower value is already stored in the
+     * current generation, and returns the value the key ends up with. Concurrent calls for
+     * the same key converge on the lowest value.
+     *
+     * @param key   the Zobrist key
+     * @param value value in {@code [0, MAX_VALUE]}
+     * @return the lowest value stored for the key (which is {@code value} if the key was new
+     *         or the store overflowed)
+     */
+    public int putIfLower(long key, int value) {
+        if (value < 0 || value > MAX_VALUE) {
+            throw new IllegalArgumentException("Value out of range: " + value);
+        }
+        probes.increment();
+        int base = bucketOf(key);
+        int check = (int) (key >>> 32);
+        int gen = generation;
+        long entry = pack(check, gen, value);
+        //a probe that finds its key counts one hit, however often a lost race sends it round again
+        boolean hit = false;
+        int result;
+        retry:
+        while (true) {
+            int victim = -1;
+            long victimEntry = 0;
+            int victimAge = -1;
+            for (int i = base; i < base + BUCKET; i++) {
+                long e = (long) ENTRIES.getOpaque(entries, i);
+                if (e != 0 && generationOf(e) == gen) {
+                    if (checkOf(e) != check) {
+                        continue;
+                    }
+                    hit = true;
+                    int stored = valueOf(e);
+                    if (stored <= value) {
+                        result = stored;
+                        break retry;
+                    }
+                    if (ENTRIES.compareAndSet(entries, i, e, entry)) {
+                        result = value;
+                        break retry;
+                    }
+                    continue retry;
+                }
+                //empty or stale: replace the oldest generation first
+                int age = e == 0 ? 0x100 : (gen - generationOf(e)) & 0xFF;
+                if (age > victimAge) {
+                    victim = i;
+                    victimEntry = e;
+                    victimAge = age;
+                }
+            }
+            if (victim < 0) {
+                overflows.increment();
+                result = value;
+                break;
+            }
+            if (ENTRIES.compareAndSet(entries, victim, victimEntry, entry)) {
+                result = value;
+                break;
+            }
+        }
+        if (hit) {
+            hits.increment();
+        }
+        return result;
+    }
+
+    private int bucketOf(long key) {
+        return ((int) key & bucketMask) * BUCKET;
+    }
+
+    private static long pack(int check, int generation, int value) {
+        return (long) check << 32 | (long) generation << 24 | value;
+    }
+
+    private static int checkOf(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    private static int generationOf(long entry) {
+        return (int) (entry >>> 24) & 0xFF;
+    }
+
+    private static int valueOf(long entry) {
+        return (int) entry & MAX_VALUE;
+    }
+
+    /** @return number of entries */
+    public int capacity() {
+        return entries.length;
+    }
+
+    /** @return bytes held by the entry array */
+    public long getMemoryBytes() {
+        return (long) entries.length * Long.BYTES;
+    }
+
+    /** @return {@link #putIfLower} calls so far */
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    /** @return {@link #putIfLower} calls that found their key already stored */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** @return stores dropped because a bucket was full of current entries */
+    public long getOverflows() {
+        return overflows.sum();
+    }
+
+    /** @return fraction of {@link #putIfLower} calls that found their key, {@code 0} if none */
+    public double getHitRate() {
+        long p = probes.sum();
+        return p == 0 ? 0 : (double) hits.sum() / p;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TranspositionTable{entries=%d, %d KiB, probes=%d, hit rate=%.1f%%, overflows=%d}",
+                capacity(), getMemoryBytes() / 1024, getProbes(), 100 * getHitRate(), getOverflows());
+    }
+}
@@ -0,0 +1,404 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import com.comp2042.tetris.util.SplitMix64;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evolves {@link Heuristic} weight vectors by playing seeded headless games.
+ * <p>
+ * The search is a separable (diagonal) CMA-style evolution strategy: each generation
+ * samples {@code populationSize} weight vectors from a normal distribution around the
+ * current mean with one standard deviation per weight, scores every candidate by the
+ * average number of rows its {@link AiPlayer} clears over {@code gamesPerCandidate} games
+ * (each capped at {@code maxPieces} pieces), and moves the mean to the weighted
+ * recombination of the better half. The per-weight variances follow the spread of the
+ * selected candidates (a rank-mu update). All candidates of a generation play the same
+ * brick sequences, so they are compared on equal terms.
+ * </p>
+ * <p>
+ * Games run on a fixed pool of worker threads. Each worker owns one {@link GameBoard},
+ * {@link HeadlessGame} and {@link AiPlayer} for the whole run and restarts it with
+ * {@link HeadlessGame#newGame(long)} for every game; workers take games from a shared
+ * counter and write their result to their own slot, so the only shared write per game
+ * is one atomic increment.
+ * </p>
+ * <p>
+ * After every generation the whole state (distribution, random state, last population
+ * and best candidate so far) is written to the checkpoint file, replacing it atomically;
+ * {@link #open} resumes from it, and a resumed run continues exactly as an uninterrupted
+ * one would.
+ * </p>
+ */
+public final class WeightTuner implements AutoCloseable {
+
+    /** Checkpoint file magic ("CWTU"). */
+    private static final int MAGIC = 0x43575455;
+
+    private static final int VERSION = 1;
+
+    private static final int N = Heuristic.WEIGHT_COUNT;
+
+    /** Smallest standard deviation a weight can shrink to. */
+    private static final double MIN_SIGMA = 1e-3;
+
+    /** Board size of the tuning games (the game's own size). */
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    private final Path checkpoint;
+    private final int populationSize;
+    private final int gamesPerCandidate;
+    private final int maxPieces;
+
+    //distribution and search state, all part of the checkpoint
+    private final double[] mean;
+    private final double[] sigma;
+    private long randomState;
+    private int generation;
+    private final double[][] population;
+    private final double[] fitness;
+    private double bestFitness = Double.NEGATIVE_INFINITY;
+    private final double[] best = new double[N];
+
+    //recombination weights for the best mu candidates
+    private final double[] recombination;
+    private final double muEffective;
+
+    private final ExecutorService pool;
+    private final List<Worker> workers = new ArrayList<>();
+
+    //work of the running generation, read by the workers
+    private final AtomicInteger nextGame = new AtomicInteger();
+    private final Heuristic[] candidates;
+    private final int[] results;
+
+    private long generationsThisRun;
+    private long nanosThisRun;
+
+    private WeightTuner(Path checkpoint, int populationSize, int gamesPerCandidate, int maxPieces, int threads) {
+        if (populationSize < 4 || gamesPerCandidate < 1 || maxPieces < 1 || threads < 1) {
+            throw new IllegalArgumentException("Population must be at least 4; games, pieces and threads positive");
+        }
+        this.checkpoint = checkpoint;
+        this.populationSize = populationSize;
+        this.gamesPerCandidate = gamesPerCandidate;
+        this.maxPieces = maxPieces;
+        this.mean = Heuristic.DEFAULT.toArray();
+        this.sigma = new double[N];
+        Arrays.fill(sigma, 0.1);
+        this.population = new double[populationSize][N];
+        this.fitness = new double[populationSize];
+        this.candidates = new Heuristic[populationSize];
+        this.results = new int[populationSize * gamesPerCandidate];
+
+        int mu = populationSize / 2;
+        recombination = new double[mu];
+        double sum = 0;
+        for (int i = 0; i < mu; i++) {
+            recombination[i] = Math.log(mu + 0.5) - Math.log(i + 1);
+            sum += recombination[i];
+        }
+        double squares = 0;
+        for (int i = 0; i < mu; i++) {
+            recombination[i] /= sum;
+            squares += recombination[i] * recombination[i];
+        }
+        muEffective = 1 / squares;
+
+        pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "weight-tuner");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker());
+        }
+    }
+
+    /**
+     * Opens a tuner, resuming from {@code checkpoint} if it exists.
+     *
+     * @param checkpoint        checkpoint file, rewritten after every generation
+     * @param populationSize    candidates per generation (ignored when resuming)
+     * @param gamesPerCandidate games played by each candidate (ignored when resuming)
+     * @param maxPieces         piece limit per game (ignored when resuming)
+     * @param threads           worker threads, e.g. {@code Runtime.availableProcessors()}
+     * @return the tuner
+     * @throws IOException if the checkpoint exists but cannot be read
+     */
+    public static WeightTuner open(Path checkpoint, int populationSize, int gamesPerCandidate, int maxPieces,
+                                   int threads) throws IOException {
+        if (!Files.isRegularFile(checkpoint)) {
+            WeightTuner tuner = new WeightTuner(checkpoint, populationSize, gamesPerCandidate, maxPieces, threads);
+            tuner.randomState = 0x7E57_2042L;
+            return tuner;
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        if (in.remaining() < 20 || in.getInt() != MAGIC) {
+            throw new IOException("Not a weight tuner checkpoint: " + checkpoint);
+        }
+        if (in.getInt() != VERSION) {
+            throw new IOException("Unsupported weight tuner checkpoint version: " + checkpoint);
+        }
+        WeightTuner tuner = new WeightTuner(checkpoint, in.getInt(), in.getInt(), in.getInt(), threads);
+        if (in.getInt() != N) {
+            throw new IOException("Checkpoint has a different number of weights: " + checkpoint);
+        }
+        tuner.generation = in.getInt();
+        tuner.randomState = in.getLong();
+        tuner.bestFitness = in.getDouble();
+        readVector(in, tuner.best);
+        readVector(in, tuner.mean);
+        readVector(in, tuner.sigma);
+        for (int i = 0; i < tuner.populationSize; i++) {
+            readVector(in, tuner.population[i]);
+            tuner.fitness[i] = in.getDouble();
+        }
+        return tuner;
+    }
+
+    private static void readVector(ByteBuffer in, double[] target) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = in.getDouble();
+        }
+    }
+
+    /**
+     * Samples, plays and scores one generation, updates the distribution and writes the
+     * checkpoint.
+     *
+     * @return the best fitness (average rows cleared) of this generation
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public double runGeneration() throws IOException {
+        long start = System.nanoTime();
+        for (int k = 0; k < populationSize; k++) {
+            for (int i = 0; i < N; i++) {
+                population[k][i] = mean[i] + sigma[i] * gaussian();
+            }
+            candidates[k] = Heuristic.of(population[k]);
+        }
+        playAll();
+        for (int k = 0; k < populationSize; k++) {
+            long lines = 0;
+            for (int g = 0; g < gamesPerCandidate; g++) {
+                lines += results[k * gamesPerCandidate + g];
+            }
+            fitness[k] = (double) lines / gamesPerCandidate;
+        }
+
+        //rank candidates, best first (ties by index, so runs are reproducible)
+        Integer[] order = new Integer[populationSize];
+        for (int k = 0; k < populationSize; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> fitness[a] != fitness[b] ? Double.compare(fitness[b], fitness[a]) : a - b);
+        if (fitness[order[0]] > bestFitness) {
+            bestFitness = fitness[order[0]];
+            System.arraycopy(population[order[0]], 0, best, 0, N);
+        }
+
+        //new mean: weighted recombination of the best half; new variances: their weighted spread
+        double learningRate = muEffective / (2 * (N + 2) + muEffective);
+        double[] newMean = new double[N];
+        for (int j = 0; j < recombination.length; j++) {
+            double[] x = population[order[j]];
+            for (int i = 0; i < N; i++) {
+                newMean[i] += recombination[j] * x[i];
+            }
+        }
+        for (int i = 0; i < N; i++) {
+            double spread = 0;
+            for (int j = 0; j < recombination.length; j++) {
+                double d = population[order[j]][i] - mean[i];
+                spread += recombination[j] * d * d;
+            }
+            double variance = (1 - learningRate) * sigma[i] * sigma[i] + learningRate * spread;
+            sigma[i] = Math.max(MIN_SIGMA, Math.sqrt(variance));
+        }
+        //the evaluation only depends on the direction of the weights; keep the mean at unit length
+        double norm = 0;
+        for (double w : newMean) {
+            norm += w * w;
+        }
+        norm = Math.sqrt(norm);
+        for (int i = 0; i < N; i++) {
+            mean[i] = norm > 0 ? newMean[i] / norm : newMean[i];
+        }
+        generation++;
+        writeCheckpoint();
+
+        nanosThisRun += System.nanoTime() - start;
+        generationsThisRun++;
+        return fitness[order[0]];
+    }
+
+    /**
+     * Hands every (candidate, game) pair of the generation to the workers and waits.
+     */
+    private void playAll() throws IOException {
+        nextGame.set(0);
+        try {
+            for (Future<Void> done : pool.invokeAll(workers)) {
+                done.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while playing generation " + generation, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tuning game failed", e.getCause());
+        }
+    }
+
+    /** Seed of game {@code g} of the current generation; shared by every candidate. */
+    private long gameSeed(int g) {
+        return (long) generation * gamesPerCandidate + g;
+    }
+
+    private void writeCheckpoint() throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(40 + 8 * (1 + 3 * N) + populationSize * 8 * (N + 1));
+        out.putInt(MAGIC).putInt(VERSION);
+        out.putInt(populationSize).putInt(gamesPerCandidate).putInt(maxPieces).putInt(N);
+        out.putInt(generation).putLong(randomState).putDouble(bestFitness);
+        for (double w : best) out.putDouble(w);
+        for (double w : mean) out.putDouble(w);
+        for (double s : sigma) out.putDouble(s);
+        for (int k = 0; k < populationSize; k++) {
+            for (double w : population[k]) out.putDouble(w);
+            out.putDouble(fitness[k]);
+        }
+        Path parent = checkpoint.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        //write a sibling file and rename it over the checkpoint, so a crash never leaves half a file
+        Path tmp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        Files.write(tmp, Arrays.copyOf(out.array(), out.position()));
+        Files.move(tmp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Standard normal sample (Box-Muller) from the tuner's own splitmix64 stream. */
+    private double gaussian() {
+        double u1 = (nextLong() >>> 11) * 0x1.0p-53;
+        double u2 = (nextLong() >>> 11) * 0x1.0p-53;
+        return Math.sqrt(-2 * Math.log(1 - u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    private long nextLong() {
+        return SplitMix64.mix(randomState += SplitMix64.GAMMA);
+    }
+
+    /** @return generations completed, including those before a resume */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /** @return the current mean of the search distribution */
+    public Heuristic getMean() {
+        return Heuristic.of(mean);
+    }
+
+    /** @return the best candidate seen so far, or {@code null} before the first generation */
+    public Heuristic getBest() {
+        return bestFitness == Double.NEGATIVE_INFINITY ? null : Heuristic.of(best);
+    }
+
+    /** @return average rows cleared by {@link #getBest()} */
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    /** @return current standard deviation of each weight */
+    public double[] getSigma() {
+        return sigma.clone();
+    }
+
+    /** @return generations per hour of wall time since this tuner was opened, {@code 0} before any */
+    public double getGenerationsPerHour() {
+        return nanosThisRun == 0 ? 0 : generationsThisRun * 3_600e9 / nanosThisRun;
+    }
+
+    /**
+     * Stops the worker threads. The checkpoint is already up to date.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Plays games for one worker thread until the generation's games are used up.
+     */
+    private final class Worker implements Callable<Void> {
+        private final GameBoard board = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+        private final HeadlessGame game = new HeadlessGame(board);
+        private final AiPlayer player;
+
+        Worker() {
+            board.newGame(0);
+            player = new AiPlayer(board);
+            player.setEventListener(game);
+        }
+
+        @Override
+        public Void call() {
+            int total = populationSize * gamesPerCandidate;
+            for (int task = nextGame.getAndIncrement(); task < total; task = nextGame.getAndIncrement()) {
+                player.setHeuristic(candidates[task / gamesPerCandidate]);
+                game.newGame(gameSeed(task % gamesPerCandidate));
+                while (!game.isGameOver() && game.getPieces() < maxPieces) {
+                    player.playPiece();
+                }
+                results[task] = game.getLines();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Runs the tuner from the command line.
+     * <p>
+     * Usage: {@code WeightTuner <checkpoint> [generations] [population] [games] [maxPieces]};
+     * an existing checkpoint is resumed.
+     * </p>
+     *
+     * @param args command line arguments
+     * @throws IOException if the checkpoint cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: WeightTuner <checkpoint> [generations] [population] [games] [maxPieces]");
+            return;
+        }
+        int generations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int population = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int games = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        int pieces = args.length > 4 ? Integer.parseInt(args[4]) : 2000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try (WeightTuner tuner = open(Path.of(args[0]), population, games, pieces, threads)) {
+            for (int i = 0; i < generations; i++) {
+                double fitness = tuner.runGeneration();
+                System.out.printf("generation %d: best %.1f lines, %.0f generations/hour, mean %s%n",
+                        tuner.getGeneration(), fitness, tuner.getGenerationsPerHour(), tuner.getMean());
+            }
+            System.out.println("best so far: " + tuner.getBest() + " (" + tuner.getBestFitness() + " lines)");
+        }
+    }
+}
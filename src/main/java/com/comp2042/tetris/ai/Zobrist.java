@@ -0,0 +1,82 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.brick.Bricks;
+import com.comp2042.tetris.util.SplitMix64;
+
+/**
+ * 64-bit Zobrist keys for search positions.
+ * <p>
+ * Every board cell, every brick id as the active brick, every brick id in the hold slot
+ * and every position in the piece sequence has a fixed random key; the hash of a position
+ * is the XOR of the keys of its parts. Because XOR is its own inverse, a hash can be
+ * updated incrementally: {@link SearchBoard} XORs in the cells of a locked brick and moves
+ * the keys of the rows shifted down by a line clear, instead of rehashing the board.
+ * </p>
+ * <p>
+ * The keys come from a fixed seed, so hashes are stable between runs.
+ * </p>
+ */
+public final class Zobrist {
+
+    /** Largest board height with cell keys. */
+    public static final int MAX_ROWS = 64;
+
+    /** Cell keys per row (one per possible column of a 31-column board, plus padding). */
+    private static final int ROW_STRIDE = 32;
+
+    private static final long[] CELLS = new long[MAX_ROWS * ROW_STRIDE];
+    private static final long[] PIECES = new long[Bricks.COUNT + 1];
+    private static final long[] HELD = new long[Bricks.COUNT + 1];
+    private static final long[] POSITIONS = new long[GameState.QUEUE_CAPACITY + 2];
+
+    static {
+        long state = 0x5EED_2042_C0DE_7E75L;
+        for (long[] table : new long[][]{CELLS, PIECES, HELD, POSITIONS}) {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = SplitMix64.mix(state += SplitMix64.GAMMA);
+            }
+        }
+        //"nothing held" contributes nothing, so an empty hold slot needs no special case
+        HELD[0] = 0;
+    }
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private Zobrist() {
+
+    }
+
+    /**
+     * Returns the combined key of the filled cells of one row.
+     *
+     * @param row  row index, {@code < MAX_ROWS}
+     * @param mask filled columns, bit {@code c} for column {@code c}
+     * @return XOR of the cell keys
+     */
+    public static long row(int row, int mask) {
+        long hash = 0;
+        int base = row * ROW_STRIDE;
+        while (mask != 0) {
+            hash ^= CELLS[base + Integer.numberOfTrailingZeros(mask)];
+            mask &= mask - 1;
+        }
+        return hash;
+    }
+
+    /** @return key of brick {@code id} being the active brick */
+    public static long piece(int id) {
+        return PIECES[id];
+    }
+
+    /** @return key of brick {@code id} in the hold slot ({@code 0} for an empty slot) */
+    public static long held(int id) {
+        return HELD[id];
+    }
+
+    /** @return key of the search being at {@code position} in the piece sequence */
+    public static long position(int position) {
+        return POSITIONS[position];
+    }
+}
@@ -2,12 +2,18 @@ package com.comp2042.tetris.application;
 
 import com.comp2042.tetris.controller.GameController;
 import com.comp2042.tetris.controller.GuiController;
+import com.comp2042.tetris.persistence.GameJournal;
+import com.comp2042.tetris.persistence.ReplayArchive;
+import com.comp2042.tetris.telemetry.TelemetryExporter;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * Entry point for the tetris application
  * this class initializes the JavaFX environment, loads hte FXML layout,
@@ -18,6 +24,12 @@ import javafx.stage.Stage;
 
 public class Main extends Application {
 
+    /** System property naming a per-piece telemetry file ({@code .csv} for CSV, binary otherwise). */
+    private static final String TELEMETRY_PROPERTY = "cw2025.telemetry";
+
+    /** The running game controller, kept so the crash journal can be closed on exit. */
+    private GameController gameController;
+
     /**
      * Starts the TetrisFJX application.
      *
@@ -30,7 +42,23 @@ public class Main extends Application {
         Parent root = loader.load();
 
         GuiController guiController = loader.getController();
-        new GameController(guiController);
+        //journal the session so a crash mid-game can be recovered at the next launch
+        gameController = new GameController(guiController, GameJournal.defaultPath());
+        //keep every game as a replay, e.g. for the finesse analyzer
+        try {
+            gameController.setReplayArchive(ReplayArchive.open(ReplayArchive.defaultPath()));
+        } catch (IOException e) {
+            System.err.println("Replay recording disabled: " + e.getMessage());
+        }
+        //opt-in telemetry, e.g. -Dcw2025.telemetry=pieces.csv
+        String telemetryFile = System.getProperty(TELEMETRY_PROPERTY);
+        if (telemetryFile != null && !telemetryFile.isBlank()) {
+            try {
+                gameController.setTelemetry(TelemetryExporter.open(Path.of(telemetryFile)));
+            } catch (IOException e) {
+                System.err.println("Telemetry export disabled: " + e.getMessage());
+            }
+        }
 
         primaryStage.setTitle("TetrisJFX");
         primaryStage.setScene(new Scene(root, 350, 510)); //size of window
@@ -42,6 +70,17 @@ public class Main extends Application {
 
     }
 
+    /**
+     * Closes the crash journal, replay archive and telemetry export cleanly when the window
+     * is closed.
+     */
+    @Override
+    public void stop() {
+        if (gameController != null) {
+            gameController.shutdown();
+        }
+    }
+
     /**
      * Launches the JavaFX application
      * @param args command line arguments passed at runtime
@@ -0,0 +1,308 @@
+package com.comp2042.tetris.bot;
+
+import com.comp2042.tetris.ai.Placement;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The game's side of a {@link BotProtocol} session with an external bot, usually a child
+ * process talking over its stdin and stdout.
+ * <p>
+ * {@link #suggest(GameState, int)} sends one position and blocks until the bot answers;
+ * the answer is kept in a {@link Reply} owned by the connection and overwritten by the
+ * next request, so a session does not allocate per brick. Asking for several moves at
+ * once lets the game play that many bricks for one round trip (see {@link BotPlayer}).
+ * </p>
+ * <p>
+ * Not thread-safe: one thread talks to the bot at a time.
+ * </p>
+ */
+public final class BotConnection implements AutoCloseable {
+
+    /** How long {@link #close()} waits for a child process to exit before killing it. */
+    private static final long EXIT_WAIT_MS = 2000;
+
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    private final BotProtocol protocol;
+    private final Process process;
+    private final int rows;
+    private final int cols;
+    private final String name;
+    private final GameState snapshot;
+    private final Reply reply = new Reply();
+    private int nextRequest;
+    private boolean closed;
+
+    private BotConnection(BotProtocol protocol, Process process, int rows, int cols) throws IOException {
+        this.protocol = protocol;
+        this.process = process;
+        this.rows = rows;
+        this.cols = cols;
+        this.snapshot = new GameState(rows, cols);
+        protocol.begin(BotProtocol.HELLO).putShort((short) BotProtocol.VERSION).putShort((short) rows)
+                .putShort((short) cols);
+        protocol.send();
+        byte type = protocol.receive();
+        if (type == BotProtocol.ERROR) {
+            throw new IOException("Bot refused the session: " + BotProtocol.getString(protocol.payload()));
+        }
+        if (type != BotProtocol.READY) {
+            throw new IOException("Expected READY from the bot, got message type " + type);
+        }
+        this.name = BotProtocol.getString(protocol.payload());
+    }
+
+    /**
+     * Starts a bot process and performs the handshake. The bot's stderr goes to this
+     * process's stderr.
+     *
+     * @param command the bot's command line
+     * @param rows    board rows
+     * @param cols    board columns
+     * @return the connection
+     * @throws IOException if the process cannot be started or the handshake fails
+     */
+    public static BotConnection launch(List<String> command, int rows, int cols) throws IOException {
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        try {
+            return new BotConnection(new BotProtocol(process.getInputStream(), process.getOutputStream()),
+                    process, rows, cols);
+        } catch (IOException | RuntimeException e) {
+            process.destroyForcibly();
+            throw e;
+        }
+    }
+
+    /**
+     * Performs the handshake over existing streams, e.g. pipes to a bot in this process.
+     *
+     * @param fromBot stream the bot writes to
+     * @param toBot   stream the bot reads from
+     * @param rows    board rows
+     * @param cols    board columns
+     * @return the connection
+     * @throws IOException if the handshake fails
+     */
+    public static BotConnection connect(InputStream fromBot, OutputStream toBot, int rows, int cols)
+            throws IOException {
+        return new BotConnection(new BotProtocol(fromBot, toBot), null, rows, cols);
+    }
+
+    /** @return the name the bot gave in its handshake */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Asks the bot about the board's current position, with as many preview bricks as
+     * the board can show (peeking does not change the brick sequence).
+     *
+     * @param board the live board, only read on the calling thread
+     * @param moves consecutive moves wanted, at least 1
+     * @return the answer, valid until the next request
+     * @throws IOException if the bot fails or breaks the protocol
+     */
+    public Reply suggest(GameBoard board, int moves) throws IOException {
+        board.saveState(snapshot);
+        snapshot.setQueueLength(board.getPreviewIds(snapshot.queue(), GameState.QUEUE_CAPACITY));
+        return suggest(snapshot, moves);
+    }
+
+    /**
+     * Asks the bot about a position.
+     *
+     * @param position the position, with its preview queue filled in
+     * @param moves    consecutive moves wanted, at least 1
+     * @return the answer, valid until the next request
+     * @throws IOException if the bot fails or breaks the protocol
+     */
+    public Reply suggest(GameState position, int moves) throws IOException {
+        if (moves < 1 || moves > Reply.MAX_MOVES) {
+            throw new IllegalArgumentException("Moves must be in [1, " + Reply.MAX_MOVES + "]: " + moves);
+        }
+        if (position.getRows() != rows || position.getCols() != cols) {
+            throw new IllegalArgumentException("Position is " + position.getRows() + "x" + position.getCols()
+                    + ", session is " + rows + "x" + cols);
+        }
+        int request = nextRequest++;
+        ByteBuffer out = protocol.begin(BotProtocol.POSITION);
+        out.putInt(request).put((byte) moves).put((byte) position.getBrickId()).put((byte) position.getRotation())
+                .put((byte) position.getX()).put((byte) position.getY()).put((byte) position.getHeldId())
+                .put((byte) (position.isHoldUsed() ? 1 : 0)).put((byte) position.getQueueLength());
+        int[] queue = position.queue();
+        for (int i = 0; i < position.getQueueLength(); i++) {
+            out.put((byte) queue[i]);
+        }
+        int[] cells = position.cells();
+        for (int r = 0; r < rows; r++) {
+            int mask = 0;
+            for (int c = 0, i = r * cols; c < cols; c++, i++) {
+                if (cells[i] != 0) {
+                    mask |= 1 << c;
+                }
+            }
+            out.putInt(mask);
+        }
+        protocol.send();
+        readReply(request);
+        return reply;
+    }
+
+    private void readReply(int request) throws IOException {
+        byte type = protocol.receive();
+        ByteBuffer in = protocol.payload();
+        if (type == BotProtocol.ERROR) {
+            throw new IOException("Bot error: " + BotProtocol.getString(in));
+        }
+        if (type != BotProtocol.PLACEMENTS && type != BotProtocol.INPUTS) {
+            throw new IOException("Expected a suggestion from the bot, got message type " + type);
+        }
+        int answered = in.getInt();
+        if (answered != request) {
+            throw new IOException("Bot answered request " + answered + " instead of " + request);
+        }
+        reply.inputs = type == BotProtocol.INPUTS;
+        if (reply.inputs) {
+            int count = in.getShort();
+            if (count < 0 || count > Reply.MAX_INPUTS) {
+                throw new IOException("Bad input count " + count);
+            }
+            for (int i = 0; i < count; i++) {
+                int ordinal = in.get();
+                if (ordinal < 0 || ordinal >= EVENT_TYPES.length) {
+                    throw new IOException("Bad input " + ordinal);
+                }
+                reply.events[i] = EVENT_TYPES[ordinal];
+            }
+            reply.count = count;
+        } else {
+            int count = in.get();
+            if (count < 0 || count > Reply.MAX_MOVES) {
+                throw new IOException("Bad move count " + count);
+            }
+            for (int i = 0; i < count; i++) {
+                reply.brickIds[i] = in.get();
+                boolean hold = in.get() != 0;
+                int rotations = in.get();
+                int rotation = in.get();
+                int x = in.get();
+                int y = in.get();
+                Placement p = reply.placements[i];
+                p.set(rotations, rotation, x, y, 0, 0);
+                p.setHold(hold);
+            }
+            reply.count = count;
+        }
+    }
+
+    /**
+     * Says goodbye, closes the pipes and, for a child process, waits briefly for it to
+     * exit before killing it.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            protocol.begin(BotProtocol.BYE);
+            protocol.send();
+        } catch (IOException ignored) {
+            //the bot is already gone
+        }
+        try {
+            protocol.close();
+        } catch (IOException ignored) {
+            //nothing left to release
+        }
+        if (process != null) {
+            try {
+                if (!process.waitFor(EXIT_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * A bot's answer: either placements (one per move asked for, possibly fewer) or an
+     * input sequence for the current brick.
+     */
+    public static final class Reply {
+
+        /** Most moves a request may ask for (the current brick and the whole queue). */
+        public static final int MAX_MOVES = GameState.QUEUE_CAPACITY + 1;
+
+        /** Longest input sequence accepted. */
+        public static final int MAX_INPUTS = 1024;
+
+        private final Placement[] placements = new Placement[MAX_MOVES];
+        private final int[] brickIds = new int[MAX_MOVES];
+        private final EventType[] events = new EventType[MAX_INPUTS];
+        private boolean inputs;
+        private int count;
+
+        private Reply() {
+            for (int i = 0; i < MAX_MOVES; i++) {
+                placements[i] = new Placement();
+            }
+        }
+
+        /** @return {@code true} for an input sequence, {@code false} for placements */
+        public boolean isInputs() {
+            return inputs;
+        }
+
+        /** @return number of placements, or of inputs when {@link #isInputs()} */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * @param move move index in {@code [0, size())}
+         * @return the placement; after a hold the brick starts from the spawn point
+         */
+        public Placement getPlacement(int move) {
+            return placements[check(move, false)];
+        }
+
+        /**
+         * @param move move index in {@code [0, size())}
+         * @return id of the brick the move places
+         */
+        public int getBrickId(int move) {
+            return brickIds[check(move, false)];
+        }
+
+        /**
+         * @param index input index in {@code [0, size())}
+         * @return the input
+         */
+        public EventType getInput(int index) {
+            return events[check(index, true)];
+        }
+
+        private int check(int index, boolean wantInputs) {
+            if (inputs != wantInputs) {
+                throw new IllegalStateException(inputs ? "The bot sent inputs" : "The bot sent placements");
+            }
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of range [0, " + count + ")");
+            }
+            return index;
+        }
+    }
+}
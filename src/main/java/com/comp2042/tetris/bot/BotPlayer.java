@@ -0,0 +1,153 @@
+package com.comp2042.tetris.bot;
+
+import com.comp2042.tetris.ai.Placement;
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.InputEventListener;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Plays a game with the moves of an external bot, sending them to an
+ * {@link InputEventListener} like {@link com.comp2042.tetris.ai.AiPlayer} does.
+ * <p>
+ * With a batch size above one, each request asks the bot for that many consecutive moves
+ * and the following bricks are played from the answer without asking again, as long as
+ * each planned move is for the brick actually in play. That divides the round trips by
+ * the batch size. Input sequences are always for one brick.
+ * </p>
+ */
+public final class BotPlayer {
+
+    private static final Map<EventType, MoveEvent> EVENTS = new EnumMap<>(EventType.class);
+
+    static {
+        for (EventType type : EventType.values()) {
+            EVENTS.put(type, new MoveEvent(type, EventSource.USER));
+        }
+    }
+
+    private final GameBoard board;
+    private final BotConnection bot;
+    private InputEventListener eventListener;
+    private int batch = 1;
+
+    //planned moves not played yet
+    private BotConnection.Reply plan;
+    private int next;
+
+    private long requests;
+    private final int[] nextId = new int[1];
+
+    /**
+     * Creates a player for {@code board}.
+     *
+     * @param board the board to read positions from
+     * @param bot   the bot to ask
+     */
+    public BotPlayer(GameBoard board, BotConnection bot) {
+        this.board = board;
+        this.bot = bot;
+    }
+
+    /**
+     * Sets the listener the moves are sent to.
+     *
+     * @param eventListener the game logic listener
+     */
+    public void setEventListener(InputEventListener eventListener) {
+        this.eventListener = eventListener;
+    }
+
+    /**
+     * Sets how many moves each request asks for.
+     *
+     * @param batch moves per request, in {@code [1, BotConnection.Reply.MAX_MOVES]}
+     */
+    public void setBatch(int batch) {
+        if (batch < 1 || batch > BotConnection.Reply.MAX_MOVES) {
+            throw new IllegalArgumentException("Batch must be in [1, " + BotConnection.Reply.MAX_MOVES + "]: " + batch);
+        }
+        this.batch = batch;
+        this.plan = null;
+    }
+
+    /** @return requests sent to the bot so far */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Plays the current brick: takes the next planned move if it is for this brick,
+     * otherwise asks the bot. A bot that has no move gets its brick hard-dropped.
+     *
+     * @return {@code true} if the bot gave a move for the brick
+     * @throws IOException if the bot fails or breaks the protocol
+     */
+    public boolean playPiece() throws IOException {
+        if (eventListener == null) {
+            throw new IllegalStateException("No event listener set");
+        }
+        if (!planned()) {
+            plan = bot.suggest(board, batch);
+            next = 0;
+            requests++;
+            if (plan.isInputs()) {
+                int count = plan.size();
+                for (int i = 0; i < count; i++) {
+                    eventListener.dispatch(EVENTS.get(plan.getInput(i)));
+                }
+                plan = null;
+                if (count == 0) {
+                    eventListener.dispatch(EVENTS.get(EventType.HARD_DROP));
+                }
+                return count > 0;
+            }
+            if (!planned()) {
+                plan = null;
+                eventListener.dispatch(EVENTS.get(EventType.HARD_DROP));
+                return false;
+            }
+        }
+        Placement move = plan.getPlacement(next++);
+        int startX = board.getCurrentX();
+        if (move.isHold()) {
+            eventListener.dispatch(EVENTS.get(EventType.HOLD));
+            startX = GameBoard.SPAWN_X;
+        }
+        for (int k = 0; k < move.getRotations(); k++) {
+            eventListener.dispatch(EVENTS.get(EventType.ROTATE));
+        }
+        for (int shift = move.getX() - startX; shift != 0; shift -= Integer.signum(shift)) {
+            eventListener.dispatch(EVENTS.get(shift < 0 ? EventType.LEFT : EventType.RIGHT));
+        }
+        eventListener.dispatch(EVENTS.get(EventType.HARD_DROP));
+        return true;
+    }
+
+    /** Tells whether the next planned move exists and places the brick that will be in play. */
+    private boolean planned() {
+        if (plan == null || plan.isInputs() || next >= plan.size()) {
+            return false;
+        }
+        Placement move = plan.getPlacement(next);
+        int id = board.getCurrentBrickId();
+        if (move.isHold()) {
+            if (board.isHoldUsed()) {
+                return false;
+            }
+            //after the hold the held brick (or the next one, if none is held) comes in
+            if (board.getHeldBrickId() != 0) {
+                id = board.getHeldBrickId();
+            } else {
+                board.getPreviewIds(nextId, 1);
+                id = nextId[0];
+            }
+        }
+        return id == plan.getBrickId(next);
+    }
+}
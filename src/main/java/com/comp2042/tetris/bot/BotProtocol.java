@@ -0,0 +1,182 @@
+package com.comp2042.tetris.bot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Length-prefixed binary framing shared by the game ({@link BotConnection}) and bot
+ * processes ({@link ReferenceBot}), usually over a child process's stdin and stdout.
+ * <p>
+ * Every frame is {@code int length, byte type, byte[length - 1] payload}, big-endian.
+ * Each side writes a frame with one buffered write and a flush, and reads it with one
+ * length read and one {@code readFully}, so a round trip costs two pipe writes and no
+ * parsing of text. Payload buffers are reused, so steady-state messaging does not
+ * allocate.
+ * </p>
+ * <p>
+ * <b>Messages from the game:</b>
+ * </p>
+ * <ul>
+ *     <li>{@link #HELLO}: {@code short version, short rows, short cols}</li>
+ *     <li>{@link #POSITION}: {@code int request, byte moves} (how many consecutive moves
+ *     the game asks for, at least 1), {@code byte brickId, byte rotation, byte x, byte y,
+ *     byte heldId, byte holdUsed, byte queueLength, byte[queueLength] queue}, then
+ *     {@code int[rows]} row masks (bit {@code c} for a filled cell in column {@code c},
+ *     top row first)</li>
+ *     <li>{@link #BYE}: no payload; the bot should exit</li>
+ * </ul>
+ * <p>
+ * <b>Messages from the bot:</b>
+ * </p>
+ * <ul>
+ *     <li>{@link #READY}: {@code string name}, the answer to {@link #HELLO}</li>
+ *     <li>{@link #PLACEMENTS}: {@code int request, byte count}, then per move
+ *     {@code byte brickId, byte hold, byte rotations, byte rotation, byte x, byte y}: the
+ *     brick to place (the one that comes in after a hold), whether to hold first, rotate
+ *     presses, the final rotation, column and row. Moves after the first assume the
+ *     earlier ones were played and start at the spawn point.</li>
+ *     <li>{@link #INPUTS}: {@code int request, short count, byte[count]} inputs as
+ *     {@link com.comp2042.tetris.events.EventType} ordinals, for the current brick only;
+ *     lets a bot play tucks and spins</li>
+ *     <li>{@link #ERROR}: {@code string message}</li>
+ * </ul>
+ * <p>
+ * Strings are {@code short length, byte[length]} UTF-8.
+ * </p>
+ */
+public final class BotProtocol {
+
+    /** Protocol version sent in {@link #HELLO}. */
+    public static final int VERSION = 1;
+
+    /** Game to bot: handshake. */
+    public static final byte HELLO = 1;
+    /** Game to bot: a position to suggest moves for. */
+    public static final byte POSITION = 2;
+    /** Game to bot: end of session. */
+    public static final byte BYE = 3;
+
+    /** Bot to game: handshake answer. */
+    public static final byte READY = 64;
+    /** Bot to game: suggested placements. */
+    public static final byte PLACEMENTS = 65;
+    /** Bot to game: an input sequence for the current brick. */
+    public static final byte INPUTS = 66;
+    /** Bot to game: the bot could not handle the last message. */
+    public static final byte ERROR = 67;
+
+    /** Largest payload either side accepts. */
+    public static final int MAX_PAYLOAD = 64 * 1024;
+
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final ByteBuffer sending = ByteBuffer.allocate(MAX_PAYLOAD);
+    private final byte[] received = new byte[MAX_PAYLOAD];
+    private final ByteBuffer receiving = ByteBuffer.wrap(received);
+    private byte sendingType;
+
+    /**
+     * Wraps a pair of streams; both are buffered here.
+     *
+     * @param in  stream frames are read from
+     * @param out stream frames are written to
+     */
+    public BotProtocol(InputStream in, OutputStream out) {
+        this.in = new DataInputStream(new BufferedInputStream(in, MAX_PAYLOAD));
+        this.out = new DataOutputStream(new BufferedOutputStream(out, MAX_PAYLOAD + 5));
+    }
+
+    /**
+     * Starts a frame.
+     *
+     * @param type message type
+     * @return the payload buffer to fill, valid until {@link #send()}
+     */
+    public ByteBuffer begin(byte type) {
+        sendingType = type;
+        return sending.clear();
+    }
+
+    /**
+     * Writes and flushes the frame started by {@link #begin(byte)}.
+     *
+     * @throws IOException if the stream fails
+     */
+    public void send() throws IOException {
+        out.writeInt(sending.position() + 1);
+        out.writeByte(sendingType);
+        out.write(sending.array(), 0, sending.position());
+        out.flush();
+    }
+
+    /**
+     * Reads the next frame, blocking until it arrives.
+     *
+     * @return its message type; the payload is in {@link #payload()}
+     * @throws EOFException if the other side closed the stream
+     * @throws IOException  if the stream fails or the frame is malformed
+     */
+    public byte receive() throws IOException {
+        int length = in.readInt();
+        if (length < 1 || length - 1 > MAX_PAYLOAD) {
+            throw new IOException("Bad frame length " + length);
+        }
+        byte type = in.readByte();
+        in.readFully(received, 0, length - 1);
+        receiving.clear().limit(length - 1);
+        return type;
+    }
+
+    /** @return payload of the last received frame, positioned at its start */
+    public ByteBuffer payload() {
+        return receiving;
+    }
+
+    /**
+     * Appends a string.
+     *
+     * @param buffer the payload
+     * @param value  the string
+     */
+    public static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new BufferOverflowException();
+        }
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    /**
+     * Reads a string.
+     *
+     * @param buffer the payload
+     * @return the string
+     */
+    public static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Closes both streams.
+     *
+     * @throws IOException if closing fails
+     */
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.comp2042.tetris.bot;
+
+import com.comp2042.tetris.ai.Heuristic;
+import com.comp2042.tetris.ai.PathFinder;
+import com.comp2042.tetris.ai.Placement;
+import com.comp2042.tetris.ai.PlacementSearch;
+import com.comp2042.tetris.ai.SearchBoard;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.model.GameBoard;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Bundled bot speaking {@link BotProtocol} on stdin and stdout, as a reference for bot
+ * authors and for testing the game's side.
+ * <p>
+ * By default it answers with greedy placements: for each brick it picks the best
+ * {@link PlacementSearch} placement under {@link Heuristic#DEFAULT}, holding when the
+ * held (or next) brick scores better, and keeps going down the queue for as many moves
+ * as the game asked for. With {@code --inputs} it answers with the shortest input
+ * sequence ({@link PathFinder}) to the best lock position of the current brick instead,
+ * which includes tucks and spins.
+ * </p>
+ * <p>
+ * Nothing else may be written to stdout; diagnostics go to stderr.
+ * </p>
+ */
+public final class ReferenceBot {
+
+    /** Name sent in {@link BotProtocol#READY}. */
+    public static final String NAME = "reference";
+
+    private final boolean inputs;
+    private final Heuristic heuristic = Heuristic.DEFAULT;
+    private final PlacementSearch search = new PlacementSearch();
+    private final PathFinder pathFinder = new PathFinder();
+    private final Placement stay = new Placement();
+    private final Placement swap = new Placement();
+    private final EventType[] path = new EventType[BotConnection.Reply.MAX_INPUTS];
+    private final int[] queue = new int[256];
+
+    //session state, set by HELLO
+    private SearchBoard board;
+    private SearchBoard scratch;
+    private int[][] matrix;
+
+    /**
+     * Creates a bot.
+     *
+     * @param inputs answer with input sequences rather than placements
+     */
+    public ReferenceBot(boolean inputs) {
+        this.inputs = inputs;
+    }
+
+    /**
+     * Serves one session until {@link BotProtocol#BYE} or the end of the input.
+     *
+     * @param in  stream from the game
+     * @param out stream to the game
+     * @throws IOException if a stream fails
+     */
+    public void serve(InputStream in, OutputStream out) throws IOException {
+        BotProtocol protocol = new BotProtocol(in, out);
+        while (true) {
+            byte type;
+            try {
+                type = protocol.receive();
+            } catch (EOFException e) {
+                return;
+            }
+            ByteBuffer payload = protocol.payload();
+            switch (type) {
+                case BotProtocol.HELLO -> hello(protocol, payload);
+                case BotProtocol.POSITION -> position(protocol, payload);
+                case BotProtocol.BYE -> {
+                    return;
+                }
+                default -> error(protocol, "Unknown message type " + type);
+            }
+        }
+    }
+
+    private void hello(BotProtocol protocol, ByteBuffer in) throws IOException {
+        int version = in.getShort();
+        int rows = in.getShort();
+        int cols = in.getShort();
+        if (version != BotProtocol.VERSION) {
+            error(protocol, "Unsupported protocol version " + version);
+            return;
+        }
+        try {
+            board = new SearchBoard(rows, cols);
+            scratch = new SearchBoard(rows, cols);
+            matrix = new int[rows][cols];
+        } catch (IllegalArgumentException e) {
+            error(protocol, e.getMessage());
+            return;
+        }
+        BotProtocol.putString(protocol.begin(BotProtocol.READY), NAME);
+        protocol.send();
+    }
+
+    private void position(BotProtocol protocol, ByteBuffer in) throws IOException {
+        if (board == null) {
+            error(protocol, "POSITION before HELLO");
+            return;
+        }
+        int request = in.getInt();
+        int moves = in.get();
+        int id = in.get();
+        int rotation = in.get();
+        int x = in.get();
+        int y = in.get();
+        int held = in.get();
+        boolean holdUsed = in.get() != 0;
+        int queueLength = in.get() & 0xFF;
+        for (int i = 0; i < queueLength; i++) {
+            queue[i] = in.get();
+        }
+        for (int r = 0; r < board.getRows(); r++) {
+            int mask = in.getInt();
+            for (int c = 0; c < board.getCols(); c++) {
+                matrix[r][c] = mask >>> c & 1;
+            }
+        }
+        board.load(matrix);
+        if (inputs) {
+            answerInputs(protocol, request, id, rotation, x, y);
+        } else {
+            answerPlacements(protocol, request, moves, id, rotation, x, y, held, holdUsed, queueLength);
+        }
+    }
+
+    private void answerPlacements(BotProtocol protocol, int request, int moves, int id, int rotation, int x, int y,
+                                  int held, boolean holdUsed, int queueLength) throws IOException {
+        ByteBuffer out = protocol.begin(BotProtocol.PLACEMENTS);
+        out.putInt(request);
+        int countAt = out.position();
+        out.put((byte) 0);
+        int count = 0;
+        int next = 0;
+        while (count < moves && id != 0) {
+            boolean canStay = search.best(board, id, rotation, x, y, heuristic, stay);
+            int other = held != 0 ? held : next < queueLength ? queue[next] : 0;
+            boolean hold = !holdUsed && other != 0 && other != id
+                    && search.best(board, other, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, heuristic, swap)
+                    && (!canStay || swap.getScore() > stay.getScore());
+            if (!canStay && !hold) {
+                break;
+            }
+            if (hold) {
+                if (held == 0) {
+                    held = id;
+                    id = queue[next++];
+                } else {
+                    int t = held;
+                    held = id;
+                    id = t;
+                }
+            }
+            Placement move = hold ? swap : stay;
+            out.put((byte) id).put((byte) (hold ? 1 : 0)).put((byte) move.getRotations())
+                    .put((byte) move.getRotation()).put((byte) move.getX()).put((byte) move.getY());
+            board.place(id, move.getRotation(), move.getX(), move.getY());
+            count++;
+            //the following bricks come in at the spawn point with hold available again
+            id = next < queueLength ? queue[next++] : 0;
+            rotation = 0;
+            x = GameBoard.SPAWN_X;
+            y = GameBoard.SPAWN_Y;
+            holdUsed = false;
+        }
+        out.put(countAt, (byte) count);
+        protocol.send();
+    }
+
+    private void answerInputs(BotProtocol protocol, int request, int id, int rotation, int x, int y)
+            throws IOException {
+        int locks = id == 0 ? 0 : pathFinder.search(board, id, rotation, x, y);
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int lock = 0; lock < locks; lock++) {
+            if (pathFinder.getInputCount(lock) > path.length) {
+                continue;
+            }
+            scratch.copyFrom(board);
+            int lines = scratch.place(id, pathFinder.getRotation(lock), pathFinder.getX(lock), pathFinder.getY(lock));
+            double score = heuristic.evaluate(scratch, lines);
+            if (score > bestScore) {
+                bestScore = score;
+                best = lock;
+            }
+        }
+        int count = best < 0 ? 0 : pathFinder.getInputs(best, path);
+        ByteBuffer out = protocol.begin(BotProtocol.INPUTS);
+        out.putInt(request).putShort((short) count);
+        for (int i = 0; i < count; i++) {
+            out.put((byte) path[i].ordinal());
+        }
+        protocol.send();
+    }
+
+    private static void error(BotProtocol protocol, String message) throws IOException {
+        BotProtocol.putString(protocol.begin(BotProtocol.ERROR), message);
+        protocol.send();
+    }
+
+    /**
+     * Runs the bot on stdin and stdout.
+     *
+     * @param args {@code --inputs} to answer with input sequences
+     * @throws IOException if a stream fails
+     */
+    public static void main(String[] args) throws IOException {
+        boolean inputs = args.length > 0 && args[0].equals("--inputs");
+        new ReferenceBot(inputs).serve(System.in, System.out);
+    }
+}
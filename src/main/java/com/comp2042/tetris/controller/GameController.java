@@ -1,12 +1,25 @@
 package com.comp2042.tetris.controller;
 
+import com.comp2042.tetris.ai.AiPlayer;
+import com.comp2042.tetris.ai.BeamSearch;
+import com.comp2042.tetris.ai.HintService;
 import com.comp2042.tetris.events.EventSource;
 import com.comp2042.tetris.events.InputEventListener;
 import com.comp2042.tetris.events.MoveEvent;
 import com.comp2042.tetris.model.*;
+import com.comp2042.tetris.persistence.GameJournal;
+import com.comp2042.tetris.persistence.JournalRecovery;
+import com.comp2042.tetris.persistence.ReplayArchive;
+import com.comp2042.tetris.persistence.ReplayRecorder;
+import com.comp2042.tetris.telemetry.PieceTelemetry;
+import com.comp2042.tetris.telemetry.TelemetryExporter;
 
 import javafx.beans.value.ChangeListener;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Coordinates the core game flow between the GUI and the domain model.
  * <p>
@@ -15,6 +28,20 @@ import javafx.beans.value.ChangeListener;
  * applies game rules (movement, hard drop, hold, line clears, scoring),
  * and updates the view accordingly (board state, next/held previews, gravity, level).
  * </p>
+ * <p>
+ * When started with a journal file, every input is recorded in a {@link GameJournal}
+ * together with a checkpoint every {@value #CHECKPOINT_INTERVAL} locked pieces, and an
+ * unfinished game left behind by a crash is recovered on start-up.
+ * </p>
+ * <p>
+ * Optionally ({@link #setReplayArchive(ReplayArchive)}), games are started from a random
+ * seed and their inputs recorded with a {@link ReplayRecorder}; each game is appended to
+ * the archive when it ends, is restarted, or the session shuts down.
+ * </p>
+ * <p>
+ * Optionally ({@link #setTelemetry(TelemetryExporter)}), one telemetry record per locked
+ * piece is streamed to a {@link TelemetryExporter}.
+ * </p>
  */
 public final class GameController implements InputEventListener {
 
@@ -40,6 +67,50 @@ public final class GameController implements InputEventListener {
      */
     private int currentLevel = 1;
 
+    /** Number of locked pieces between journal checkpoints. */
+    private static final int CHECKPOINT_INTERVAL = 8;
+
+    /** Player id stored with recorded replays; there is only the local player. */
+    private static final int LOCAL_PLAYER_ID = 0;
+
+    /** Bricks of lookahead behind the hint overlay (current, next and one more). */
+    private static final int HINT_DEPTH = 3;
+
+    /**
+     * Crash journal for the running game, or {@code null} when journaling is disabled.
+     */
+    private GameJournal journal;
+
+    /**
+     * Pieces locked since the last journal checkpoint.
+     */
+    private int locksSinceCheckpoint;
+
+    /**
+     * {@code true} when the running game was recovered from the journal; it has no seed,
+     * so it cannot be recorded as a replay.
+     */
+    private boolean recovered;
+
+    /**
+     * Archive receiving finished games, or {@code null} when replay recording is disabled.
+     */
+    private ReplayArchive replayArchive;
+
+    /** Records the inputs of the running game while replays are enabled. */
+    private final ReplayRecorder replayRecorder = new ReplayRecorder();
+
+    /**
+     * Per-piece telemetry tracker, or {@code null} when telemetry export is disabled.
+     */
+    private PieceTelemetry telemetry;
+
+    /** Auto-play AI, or {@code null} when the board is not a {@link GameBoard}. */
+    private AiPlayer autoPlayer;
+
+    /** Background hint search, or {@code null} when the board is not a {@link GameBoard}. */
+    private HintService hintService;
+
     /**
      * Creates a new game controller and initializes the view and model for a new session.
      * <ul>
@@ -52,6 +123,20 @@ public final class GameController implements InputEventListener {
      * @param c the GUI controller to connect to this game session
      */
     public GameController(GuiController c) {
+        this(c, null);
+    }
+
+    /**
+     * Creates a new game controller that journals the session to {@code journalFile}.
+     * <p>
+     * If the file holds an unfinished game from a previous run that did not shut down
+     * cleanly, that game is restored before the new journal is started.
+     * </p>
+     *
+     * @param c           the GUI controller to connect to this game session
+     * @param journalFile crash journal location, or {@code null} to disable journaling
+     */
+    public GameController(GuiController c, Path journalFile) {
         viewGuiController = c;
         board.createNewBrick();
         viewGuiController.setEventListener(this);
@@ -70,6 +155,9 @@ public final class GameController implements InputEventListener {
             int level = levelService.levelForScore(s);
             viewGuiController.setGravityMs(g);
             viewGuiController.showLevel(level);
+            if (autoPlayer != null) {
+                autoPlayer.setGravityMs(g);
+            }
 
 
             //maybe add level display later
@@ -80,6 +168,187 @@ public final class GameController implements InputEventListener {
         };
         //attach the listener
         board.getScore().scoreProperty().addListener(scoreListener);
+
+        if (board instanceof GameBoard gameBoard) {
+            //auto-play looks one brick ahead, like the player does with the next preview
+            autoPlayer = new AiPlayer(gameBoard);
+            autoPlayer.setBeamSearch(new BeamSearch(BeamSearch.DEFAULT_BEAM_WIDTH, 2));
+            //never think longer than a share of the time the brick takes to fall one row
+            autoPlayer.setGravityMs(initialGravityMs);
+            viewGuiController.setAutoPlayer(autoPlayer);
+            //hints search deeper, off the FX thread
+            hintService = new HintService(gameBoard, HINT_DEPTH);
+            viewGuiController.setHintService(hintService);
+        }
+
+        if (journalFile != null && board instanceof GameBoard gameBoard) {
+            startJournal(journalFile, gameBoard);
+        }
+    }
+
+    /**
+     * Recovers an unfinished game from {@code journalFile} (if any), then starts a fresh
+     * journal beginning with a checkpoint of the current state.
+     * <p>
+     * Journaling is disabled (with a message on stderr) if the file cannot be used;
+     * the game itself is never blocked by journal problems.
+     * </p>
+     *
+     * @param journalFile crash journal location
+     * @param gameBoard   the board to recover into and checkpoint
+     */
+    private void startJournal(Path journalFile, GameBoard gameBoard) {
+        try {
+            //journal is still null here, so replayed inputs are not recorded twice
+            if (JournalRecovery.recover(journalFile, gameBoard, this)) {
+                recovered = true;
+                viewGuiController.refreshGameBackground(board.getBoardMatrix());
+                viewGuiController.showNext(board.getNextViewData());
+                viewGuiController.showHeld(board.getHeldBrickViewData());
+            }
+            journal = GameJournal.open(journalFile);
+            journal.checkpoint(gameBoard);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Crash journal disabled: " + e.getMessage());
+            journal = null;
+        }
+    }
+
+    /**
+     * Records every game as a replay in {@code archive}, which is closed by
+     * {@link #shutdown()}.
+     * <p>
+     * Replays need a seeded game, so the running game is restarted from a fresh seed unless
+     * it was recovered from the journal; a recovered game is finished unrecorded and
+     * recording starts with the next one.
+     * </p>
+     *
+     * @param archive destination for finished games, or {@code null} to disable recording
+     */
+    public void setReplayArchive(ReplayArchive archive) {
+        replayArchive = null;
+        if (archive != null && board instanceof GameBoard) {
+            replayArchive = archive;
+            if (!recovered) {
+                createNewGame();
+            }
+        }
+    }
+
+    /**
+     * Appends the running game to the replay archive, if it is being recorded. Recording
+     * is disabled (with a message on stderr) if the archive cannot be written.
+     */
+    private void finishReplay() {
+        if (replayArchive == null || !replayRecorder.isRecording()) {
+            return;
+        }
+        try {
+            replayArchive.append(replayRecorder.finish(board.getScore().scoreProperty().get()));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Replay recording disabled: " + e.getMessage());
+            closeReplayArchive();
+        }
+    }
+
+    private void closeReplayArchive() {
+        try {
+            replayArchive.close();
+        } catch (IOException e) {
+            System.err.println("Replay archive could not be closed: " + e.getMessage());
+        }
+        replayArchive = null;
+    }
+
+    /**
+     * Streams one telemetry record per locked piece to {@code exporter}.
+     * The exporter is closed by {@link #shutdown()}.
+     *
+     * @param exporter destination for piece records, or {@code null} to disable telemetry
+     */
+    public void setTelemetry(TelemetryExporter exporter) {
+        telemetry = null;
+        if (exporter != null && board instanceof GameBoard gameBoard) {
+            telemetry = new PieceTelemetry(exporter);
+            telemetry.reset(gameBoard);
+        }
+    }
+
+    /**
+     * Records an input in the crash journal, replay and telemetry (if enabled).
+     *
+     * @param event the input being applied
+     */
+    private void recordInput(MoveEvent event) {
+        if (journal != null) {
+            journal.record(event);
+        }
+        if (replayArchive != null) {
+            replayRecorder.record(event);
+        }
+        if (telemetry != null) {
+            telemetry.input(event);
+        }
+    }
+
+    /**
+     * Emits the telemetry record for a piece that just locked. Called after its rows were
+     * cleared and scored, before the next brick spawns.
+     *
+     * @param linesRemoved lines cleared by the lock
+     */
+    private void telemetryLock(int linesRemoved) {
+        if (telemetry != null && board instanceof GameBoard gameBoard) {
+            telemetry.pieceLocked(gameBoard, linesRemoved);
+        }
+    }
+
+    /**
+     * Called after every locked piece; writes a journal checkpoint every
+     * {@value #CHECKPOINT_INTERVAL} locks.
+     */
+    private void journalLock() {
+        if (journal != null && ++locksSinceCheckpoint >= CHECKPOINT_INTERVAL
+                && board instanceof GameBoard gameBoard) {
+            journal.checkpoint(gameBoard);
+            locksSinceCheckpoint = 0;
+        }
+    }
+
+    /**
+     * Stops journaling and marks the journal as cleanly closed, so the session is not
+     * recovered at the next launch, archives the running game and closes the replay
+     * archive, and closes the telemetry exporter and the hint search. Safe to call more
+     * than once.
+     */
+    public void shutdown() {
+        if (hintService != null) {
+            hintService.close();
+            hintService = null;
+        }
+        if (replayArchive != null) {
+            finishReplay();
+            if (replayArchive != null) {
+                closeReplayArchive();
+            }
+        }
+        if (telemetry != null) {
+            try {
+                telemetry.getExporter().close();
+            } catch (IOException e) {
+                System.err.println("Telemetry export could not be closed: " + e.getMessage());
+            }
+            telemetry = null;
+        }
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Crash journal could not be closed: " + e.getMessage());
+        }
+        journal = null;
     }
 
     /**
@@ -95,6 +364,7 @@ public final class GameController implements InputEventListener {
      */
     @Override
     public DownData onDownEvent(MoveEvent event) { //handles the event when a piece moves down
+        recordInput(event);
         boolean canMove = board.moveBrickDown(); //tries to move the piece down, returns false if it can't
         ClearRow clearRow = null;
         if (!canMove) {
@@ -103,13 +373,16 @@ public final class GameController implements InputEventListener {
             if (clearRow.getLinesRemoved() > 0) {
                 board.getScore().add(clearRow.getScoreBonus());
             }
+            telemetryLock(clearRow.getLinesRemoved());
             boolean gameOver = board.createNewBrick();
             if(gameOver){
+                finishReplay();
                 viewGuiController.gameOver();
             } else{
                 //update preview to the newly queued next piece
                 viewGuiController.showNext(board.getNextViewData());
             }
+            journalLock();
 
             viewGuiController.refreshGameBackground(board.getBoardMatrix()); //updates the GUI with new board state
 
@@ -127,6 +400,7 @@ public final class GameController implements InputEventListener {
      */
     @Override
     public DownData onHardDropEvent(MoveEvent event) {
+        recordInput(event);
         // count how many cells the piece falls
         int droppedCells = 0;
         while (board.moveBrickDown()) {
@@ -143,13 +417,16 @@ public final class GameController implements InputEventListener {
         if (clearRow.getLinesRemoved() > 0) {
             board.getScore().add(clearRow.getScoreBonus());
         }
+        telemetryLock(clearRow.getLinesRemoved());
 
         if (board.createNewBrick()) {
+            finishReplay();
             viewGuiController.gameOver();
         } else{
             //update preview to the newly queued next piece
             viewGuiController.showNext(board.getNextViewData());
         }
+        journalLock();
 
         viewGuiController.refreshGameBackground(board.getBoardMatrix());
 
@@ -164,6 +441,7 @@ public final class GameController implements InputEventListener {
      */
     @Override
     public ViewData onLeftEvent(MoveEvent event) {
+        recordInput(event);
         board.moveBrickLeft();
         return board.getViewData();
     }
@@ -176,6 +454,7 @@ public final class GameController implements InputEventListener {
      */
     @Override
     public ViewData onRightEvent(MoveEvent event) {
+        recordInput(event);
         board.moveBrickRight();
         return board.getViewData();
     }
@@ -187,6 +466,7 @@ public final class GameController implements InputEventListener {
      */
     @Override
     public ViewData onRotateEvent(MoveEvent event) {
+        recordInput(event);
         board.rotateLeftBrick();
         return board.getViewData();
     }
@@ -202,8 +482,10 @@ public final class GameController implements InputEventListener {
      */
     @Override
     public ViewData onHoldEvent(MoveEvent event) {
+        recordInput(event);
         boolean gameOver = board.holdCurrentBrick();
         if(gameOver){
+            finishReplay();
             viewGuiController.gameOver();
         }else{
             viewGuiController.showNext(board.getNextViewData());
@@ -224,7 +506,16 @@ public final class GameController implements InputEventListener {
      */
     @Override
     public void createNewGame() {
-        board.newGame();
+        //a restart ends the game being recorded; the new one gets its own seed
+        finishReplay();
+        recovered = false;
+        if (replayArchive != null && board instanceof GameBoard gameBoard) {
+            long seed = ThreadLocalRandom.current().nextLong();
+            gameBoard.newGame(seed);
+            replayRecorder.begin(seed, LOCAL_PLAYER_ID);
+        } else {
+            board.newGame();
+        }
         viewGuiController.refreshGameBackground(board.getBoardMatrix());
 
         viewGuiController.showNext(board.getNextViewData());
@@ -232,6 +523,18 @@ public final class GameController implements InputEventListener {
         //reset gravity when a new game starts
         int g = levelService.gravityMsForScore(board.getScore().scoreProperty().get());
         viewGuiController.setGravityMs(g);
+        if (autoPlayer != null) {
+            autoPlayer.setGravityMs(g);
+        }
         viewGuiController.showLevel(levelService.levelForScore(board.getScore().scoreProperty().get()));
+
+        //a new game invalidates everything journaled so far; start from a fresh checkpoint
+        if (journal != null && board instanceof GameBoard gameBoard) {
+            journal.checkpoint(gameBoard);
+            locksSinceCheckpoint = 0;
+        }
+        if (telemetry != null && board instanceof GameBoard gameBoard) {
+            telemetry.reset(gameBoard);
+        }
     }
 }
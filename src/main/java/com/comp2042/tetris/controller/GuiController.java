@@ -1,5 +1,8 @@
 package com.comp2042.tetris.controller;
 
+import com.comp2042.tetris.ai.AiPlayer;
+import com.comp2042.tetris.ai.Hint;
+import com.comp2042.tetris.ai.HintService;
 import com.comp2042.tetris.events.EventSource;
 import com.comp2042.tetris.events.EventType;
 import com.comp2042.tetris.events.InputEventListener;
@@ -9,6 +12,7 @@ import com.comp2042.tetris.model.ViewData;
 import com.comp2042.tetris.view.NotificationPanel;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -56,6 +60,10 @@ public final class GuiController implements Initializable {
     @FXML
     private GridPane ghostPanel;
 
+    /** Hint layer panel (suggested placement, rendered behind the ghost). */
+    @FXML
+    private GridPane hintPanel;
+
     /** Replay button (shown on game over). */
     //added replay button
     @FXML
@@ -102,6 +110,9 @@ public final class GuiController implements Initializable {
     /** Rectangle matrix for the ghost piece display */
     private Rectangle[][] ghostRectangles;
 
+    /** Rectangle matrix for the hint overlay */
+    private Rectangle[][] hintRectangles;
+
     //keep latest active brick viewdata for ghost computation
     //private ViewData currentBrickView;
 
@@ -109,6 +120,21 @@ public final class GuiController implements Initializable {
     /** Automatic gravity (piece falls) timer. */
     private Timeline timeLine;
 
+    /** Interval between AI inputs while auto-play is on. */
+    private static final int AUTO_PLAY_MS = 60;
+
+    /** Computer player used by auto-play, or {@code null} when unavailable. */
+    private AiPlayer autoPlayer;
+
+    /** Sends one AI input per tick while auto-play is on; {@code null} when off. */
+    private Timeline autoPlayTimeline;
+
+    /** Background search behind the hint overlay (key {@code H}); {@code null} if unavailable. */
+    private HintService hintService;
+
+    /** Whether the hint overlay is on. */
+    private boolean hintsOn;
+
     /** UI state flags. */
     private final BooleanProperty isPause = new SimpleBooleanProperty();
 
@@ -171,6 +197,18 @@ public final class GuiController implements Initializable {
                     refreshBrick(eventListener.onHoldEvent(new MoveEvent(EventType.HOLD, EventSource.USER)));
                     keyEvent.consume();
                 }
+
+                //toggle the computer player when i is pressed
+                if (keyEvent.getCode() == KeyCode.I) {
+                    toggleAutoPlay();
+                    keyEvent.consume();
+                }
+
+                //toggle the placement hint when h is pressed
+                if (keyEvent.getCode() == KeyCode.H) {
+                    toggleHints();
+                    keyEvent.consume();
+                }
             }
         });
         //hide replay button at the start
@@ -207,6 +245,18 @@ public final class GuiController implements Initializable {
             }
         }
 
+        //hint rectangles go furthest back, then ghost, then active
+        if (hintPanel != null) {
+            hintRectangles = createBrickLayer(PREVIEW_SIZE, PREVIEW_SIZE, hintPanel, true);
+            //outlined, so the hint stays distinguishable from the ghost
+            for (Rectangle[] row : hintRectangles) {
+                for (Rectangle rect : row) {
+                    rect.setStroke(Color.WHITE);
+                    rect.setStrokeWidth(1);
+                }
+            }
+        }
+
         //build ghost rectangles first (they will be behind active bricks)
         ghostRectangles = createBrickLayer(
                 brick.getBrickData().length,
@@ -266,6 +316,10 @@ public final class GuiController implements Initializable {
         paintBrickLayer(rectangles, brick.getBrickData(), false);
         renderGhost(brick);
         updatePanelsPosition(brick);
+        if (hintsOn) {
+            //only snapshots the board; the search runs on the hint thread
+            hintService.request();
+        }
 
     }
 
@@ -331,6 +385,8 @@ public final class GuiController implements Initializable {
                 setRectangleData(board[i][j], displayMatrix[i][j]);
             }
         }
+        //the board changed under the hint; the next refresh asks for a new one
+        clearHint();
     }
 
     /**
@@ -372,6 +428,116 @@ public final class GuiController implements Initializable {
         this.eventListener = eventListener;
     }
 
+    /**
+     * Sets the computer player that auto-play (key {@code I}) takes its inputs from.
+     *
+     * @param autoPlayer the AI player, or {@code null} to disable auto-play
+     */
+    public void setAutoPlayer(AiPlayer autoPlayer) {
+        this.autoPlayer = autoPlayer;
+    }
+
+    /**
+     * Starts or stops auto-play. While on, the AI sends one input every
+     * {@value #AUTO_PLAY_MS} ms through the same listener calls as the keyboard.
+     */
+    private void toggleAutoPlay() {
+        if (autoPlayTimeline != null) {
+            autoPlayTimeline.stop();
+            autoPlayTimeline = null;
+            return;
+        }
+        if (autoPlayer == null) {
+            return;
+        }
+        autoPlayTimeline = new Timeline(new KeyFrame(Duration.millis(AUTO_PLAY_MS), _ -> {
+            if (isPause.getValue() == Boolean.FALSE && isGameOver.getValue() == Boolean.FALSE) {
+                playMove(autoPlayer.nextMove());
+            }
+        }));
+        autoPlayTimeline.setCycleCount(Timeline.INDEFINITE);
+        autoPlayTimeline.play();
+    }
+
+    /**
+     * Sets the background search that the hint overlay (key {@code H}) shows.
+     * Hints are published back to the FX thread with {@link Platform#runLater}.
+     *
+     * @param hintService the hint service, or {@code null} to disable hints
+     */
+    public void setHintService(HintService hintService) {
+        this.hintService = hintService;
+        if (hintService != null) {
+            hintService.setListener(hint -> Platform.runLater(() -> showHint(hint)));
+        }
+    }
+
+    /**
+     * Turns the hint overlay on or off. Turning it on requests a hint for the current brick.
+     */
+    private void toggleHints() {
+        if (hintService == null || hintRectangles == null) {
+            return;
+        }
+        hintsOn = !hintsOn;
+        if (hintsOn) {
+            hintService.request();
+        } else {
+            hintService.cancel();
+            clearHint();
+        }
+    }
+
+    /**
+     * Draws a published hint, unless it was overtaken by a newer request or hints were
+     * turned off while it was on its way.
+     *
+     * @param hint the suggested placement
+     */
+    private void showHint(Hint hint) {
+        if (!hintsOn || !hintService.isCurrent(hint)) {
+            return;
+        }
+        paintBrickLayer(hintRectangles, hint.getShape(), true);
+        hintPanel.setLayoutX(gamePanel.getLayoutX() + hint.getX() * hintPanel.getVgap() + hint.getX() * BRICK_SIZE);
+        hintPanel.setLayoutY(
+                -42 + gamePanel.getLayoutY() + hint.getY() * hintPanel.getHgap() + hint.getY() * BRICK_SIZE
+        );
+    }
+
+    /**
+     * Hides the hint overlay until the next hint arrives.
+     */
+    private void clearHint() {
+        if (hintRectangles == null) return;
+        for (Rectangle[] row : hintRectangles) {
+            for (Rectangle rect : row) {
+                rect.setFill(Color.TRANSPARENT);
+                rect.setOpacity(0.0);
+            }
+        }
+    }
+
+    /**
+     * Applies one input from a non-keyboard source and repaints, like the key handler does.
+     *
+     * @param event the input to apply
+     */
+    private void playMove(MoveEvent event) {
+        switch (event.getEventType()) {
+            case LEFT -> refreshBrick(eventListener.onLeftEvent(event));
+            case RIGHT -> refreshBrick(eventListener.onRightEvent(event));
+            case ROTATE -> refreshBrick(eventListener.onRotateEvent(event));
+            case HOLD -> refreshBrick(eventListener.onHoldEvent(event));
+            case DOWN -> moveDown(event);
+            case HARD_DROP -> {
+                DownData downData = eventListener.onHardDropEvent(event);
+                showScoreBonus(downData);
+                refreshBrick(downData.getViewData());
+            }
+        }
+    }
+
     /** Expose paused state for tests (read-only). */
     public boolean isPaused() {
         return isPause.get();
@@ -462,6 +628,8 @@ public final class GuiController implements Initializable {
      */
     public void gameOver() {
         if (timeLine != null) timeLine.stop();
+        if (hintService != null) hintService.cancel();
+        clearHint();
 
         isGameOver.set(true);
         pauseButton.setDisable(true);
@@ -0,0 +1,299 @@
+package com.comp2042.tetris.controller;
+
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.InputEventListener;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.ClearRow;
+import com.comp2042.tetris.model.DownData;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.ViewData;
+
+/**
+ * Applies the game rules of {@link GameController} to a {@link GameBoard} without a view.
+ * <p>
+ * Used to run games off the JavaFX thread, e.g. AI players, benchmarks and simulations.
+ * Movement, locking, line clears and scoring behave exactly as in {@link GameController}.
+ * Once a spawn is blocked the game is over and further events are ignored until
+ * {@link #createNewGame()}.
+ * </p>
+ * <p>
+ * In versus play, garbage from opponents is queued with {@link #receiveGarbage(int, int)}
+ * and rises into the board at the next lock, after that lock's clears and before the
+ * next spawn.
+ * </p>
+ * <p>
+ * {@link #saveCheckpoint(Checkpoint)} and {@link #loadCheckpoint(Checkpoint)} copy the whole
+ * game, counters and queued garbage included, into and out of a preallocated
+ * {@link Checkpoint}; rollback netcode uses them to rewind and re-simulate.
+ * </p>
+ */
+public final class HeadlessGame implements InputEventListener {
+
+    private final GameBoard board;
+
+    /** Pieces locked since the game started. */
+    private int pieces;
+
+    /** Rows cleared since the game started. */
+    private int lines;
+
+    private boolean gameOver;
+
+    /** Most garbage attacks queued at once; later ones are merged into the last. */
+    private static final int MAX_PENDING = 16;
+
+    /** Queued garbage attacks, oldest first: rows and hole column of each. */
+    private final int[] pendingLines = new int[MAX_PENDING];
+    private final int[] pendingHoles = new int[MAX_PENDING];
+    private int pendingCount;
+
+    /**
+     * Creates a headless game on {@code board}, which must already have an active brick
+     * (call {@link #createNewGame()} or {@link GameBoard#newGame(long)} first otherwise).
+     *
+     * @param board the board to play on
+     */
+    public HeadlessGame(GameBoard board) {
+        this.board = board;
+    }
+
+    /** @return the board being played */
+    public GameBoard getBoard() {
+        return board;
+    }
+
+    /** @return pieces locked since the game started */
+    public int getPieces() {
+        return pieces;
+    }
+
+    /** @return rows cleared since the game started */
+    public int getLines() {
+        return lines;
+    }
+
+    /** @return {@code true} once a spawn was blocked */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /** @return garbage rows queued for the next lock */
+    public int getPendingGarbage() {
+        int total = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            total += pendingLines[i];
+        }
+        return total;
+    }
+
+    /**
+     * Queues garbage from an opponent; it rises into the board at the next lock.
+     *
+     * @param garbageLines rows to add; ignored if not positive
+     * @param holeColumn   the empty column of those rows
+     */
+    public void receiveGarbage(int garbageLines, int holeColumn) {
+        if (garbageLines <= 0 || gameOver) {
+            return;
+        }
+        if (pendingCount == MAX_PENDING) {
+            pendingLines[MAX_PENDING - 1] += garbageLines;
+            return;
+        }
+        pendingLines[pendingCount] = garbageLines;
+        pendingHoles[pendingCount] = holeColumn;
+        pendingCount++;
+    }
+
+    /**
+     * Merges the active brick, clears and scores rows, raises queued garbage, and spawns
+     * the next brick.
+     */
+    private ClearRow lock() {
+        board.mergeBrickToBackground();
+        ClearRow clearRow = board.clearRows();
+        if (clearRow.getLinesRemoved() > 0) {
+            board.getScore().add(clearRow.getScoreBonus());
+        }
+        pieces++;
+        lines += clearRow.getLinesRemoved();
+        boolean toppedOut = false;
+        for (int i = 0; i < pendingCount && !toppedOut; i++) {
+            toppedOut = board.addGarbage(pendingLines[i], pendingHoles[i]);
+        }
+        pendingCount = 0;
+        gameOver = toppedOut || board.createNewBrick();
+        return clearRow;
+    }
+
+    @Override
+    public DownData onDownEvent(MoveEvent event) {
+        ClearRow clearRow = null;
+        if (!gameOver) {
+            if (!board.moveBrickDown()) {
+                clearRow = lock();
+            } else if (event.getEventSource() == EventSource.USER) {
+                board.getScore().add(1);
+            }
+        }
+        return new DownData(clearRow, board.getViewData());
+    }
+
+    @Override
+    public DownData onHardDropEvent(MoveEvent event) {
+        ClearRow clearRow = null;
+        if (!gameOver) {
+            int droppedCells = 0;
+            while (board.moveBrickDown()) {
+                droppedCells++;
+            }
+            if (droppedCells > 0 && event.getEventSource() == EventSource.USER) {
+                board.getScore().add(droppedCells * 2);
+            }
+            clearRow = lock();
+        }
+        return new DownData(clearRow, board.getViewData());
+    }
+
+    @Override
+    public ViewData onLeftEvent(MoveEvent event) {
+        if (!gameOver) {
+            board.moveBrickLeft();
+        }
+        return board.getViewData();
+    }
+
+    @Override
+    public ViewData onRightEvent(MoveEvent event) {
+        if (!gameOver) {
+            board.moveBrickRight();
+        }
+        return board.getViewData();
+    }
+
+    @Override
+    public ViewData onRotateEvent(MoveEvent event) {
+        if (!gameOver) {
+            board.rotateLeftBrick();
+        }
+        return board.getViewData();
+    }
+
+    @Override
+    public ViewData onHoldEvent(MoveEvent event) {
+        if (!gameOver) {
+            gameOver = board.holdCurrentBrick();
+        }
+        return board.getViewData();
+    }
+
+    /**
+     * Starts a fresh game on the board and resets the counters.
+     */
+    @Override
+    public void createNewGame() {
+        board.newGame();
+        resetCounters();
+    }
+
+    /**
+     * Starts a fresh game with a reproducible brick sequence, reusing the board.
+     *
+     * @param seed the brick sequence seed, see {@link GameBoard#newGame(long)}
+     */
+    public void newGame(long seed) {
+        board.newGame(seed);
+        resetCounters();
+    }
+
+    /**
+     * Continues from a snapshot instead of a fresh game, reusing the board; the counters
+     * start from zero.
+     *
+     * @param state the position to continue from, see {@link GameBoard#restoreState(GameState)}
+     */
+    public void restoreState(GameState state) {
+        board.restoreState(state);
+        resetCounters();
+        gameOver = state.isGameOver();
+    }
+
+    /**
+     * Copies the complete game into {@code target} without allocating.
+     *
+     * @param target checkpoint with the same dimensions as the board
+     */
+    public void saveCheckpoint(Checkpoint target) {
+        board.saveState(target.board);
+        target.pieces = pieces;
+        target.lines = lines;
+        target.gameOver = gameOver;
+        System.arraycopy(pendingLines, 0, target.pendingLines, 0, pendingCount);
+        System.arraycopy(pendingHoles, 0, target.pendingHoles, 0, pendingCount);
+        target.pendingCount = pendingCount;
+    }
+
+    /**
+     * Replaces the complete game with the contents of {@code source}; unlike
+     * {@link #restoreState(GameState)} the counters and queued garbage are restored too.
+     *
+     * @param source checkpoint previously filled by {@link #saveCheckpoint(Checkpoint)}
+     */
+    public void loadCheckpoint(Checkpoint source) {
+        board.restoreState(source.board);
+        pieces = source.pieces;
+        lines = source.lines;
+        gameOver = source.gameOver;
+        System.arraycopy(source.pendingLines, 0, pendingLines, 0, source.pendingCount);
+        System.arraycopy(source.pendingHoles, 0, pendingHoles, 0, source.pendingCount);
+        pendingCount = source.pendingCount;
+    }
+
+    private void resetCounters() {
+        pieces = 0;
+        lines = 0;
+        pendingCount = 0;
+        gameOver = false;
+    }
+
+    /**
+     * A reusable copy of a {@link HeadlessGame}: the board snapshot plus the counters and
+     * queued garbage. All storage is allocated up front.
+     */
+    public static final class Checkpoint {
+
+        private final GameState board;
+        private int pieces;
+        private int lines;
+        private boolean gameOver;
+        private final int[] pendingLines = new int[MAX_PENDING];
+        private final int[] pendingHoles = new int[MAX_PENDING];
+        private int pendingCount;
+
+        /**
+         * Creates an empty checkpoint for a board of the given size.
+         *
+         * @param rows number of rows
+         * @param cols number of columns
+         */
+        public Checkpoint(int rows, int cols) {
+            this.board = new GameState(rows, cols);
+        }
+
+        /** @return the board part of the checkpoint */
+        public GameState getBoard() {
+            return board;
+        }
+
+        /** @return pieces locked when the checkpoint was saved */
+        public int getPieces() {
+            return pieces;
+        }
+
+        /** @return rows cleared when the checkpoint was saved */
+        public int getLines() {
+            return lines;
+        }
+    }
+}
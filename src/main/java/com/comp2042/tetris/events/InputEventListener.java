@@ -77,4 +77,24 @@ public interface InputEventListener {
      * Resets the game state and starts a new session.
      */
     void createNewGame();
+
+    /**
+     * Routes an event to the handler matching its {@link EventType}.
+     * <p>
+     * Used by non-keyboard sources (e.g. journal recovery) that replay a stream
+     * of recorded events.
+     * </p>
+     *
+     * @param event the event to handle
+     */
+    default void dispatch(MoveEvent event) {
+        switch (event.getEventType()) {
+            case DOWN -> onDownEvent(event);
+            case LEFT -> onLeftEvent(event);
+            case RIGHT -> onRightEvent(event);
+            case ROTATE -> onRotateEvent(event);
+            case HARD_DROP -> onHardDropEvent(event);
+            case HOLD -> onHoldEvent(event);
+        }
+    }
 }
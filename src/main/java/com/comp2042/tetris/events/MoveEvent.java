@@ -12,9 +12,29 @@ package com.comp2042.tetris.events;
  * and passed to {@link InputEventListener} implementations such as
  * {@link com.comp2042.tetris.controller.GameController}.
  * </p>
+ * <p>
+ * Every event also has a compact integer code ({@link #toCode()}) used when events
+ * are persisted, e.g. by the crash journal. {@link #fromCode(int)} maps a code back
+ * to a shared immutable instance, so decoding never allocates.
+ * </p>
  */
 public final class MoveEvent {
 
+    /** Number of distinct {@link EventSource} values, used as the code radix. */
+    private static final int SOURCE_COUNT = EventSource.values().length;
+
+    /** Shared instances indexed by {@link #toCode()}. */
+    private static final MoveEvent[] BY_CODE = new MoveEvent[EventType.values().length * SOURCE_COUNT];
+
+    static {
+        for (EventType type : EventType.values()) {
+            for (EventSource source : EventSource.values()) {
+                MoveEvent e = new MoveEvent(type, source);
+                BY_CODE[e.toCode()] = e;
+            }
+        }
+    }
+
     /** The type of movement or action (e.g., LEFT, RIGHT, ROTATE). */
     private final EventType eventType;
 
@@ -37,7 +57,6 @@ public final class MoveEvent {
      *
      * @return the {@link EventType} associated with this event
      */
-    @SuppressWarnings("unused")
     public EventType getEventType() {
         return eventType;
     }
@@ -50,4 +69,31 @@ public final class MoveEvent {
     public EventSource getEventSource() {
         return eventSource;
     }
+
+    /**
+     * Returns a compact code identifying this event's type and source.
+     * <p>
+     * Codes are stable as long as constants are only appended to {@link EventType}
+     * and {@link EventSource}.
+     * </p>
+     *
+     * @return a code in {@code [0, 64)}
+     */
+    public int toCode() {
+        return eventType.ordinal() * SOURCE_COUNT + eventSource.ordinal();
+    }
+
+    /**
+     * Returns the shared event instance for a code produced by {@link #toCode()}.
+     *
+     * @param code the event code
+     * @return the matching event
+     * @throws IllegalArgumentException if the code is unknown
+     */
+    public static MoveEvent fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown move event code: " + code);
+        }
+        return BY_CODE[code];
+    }
 }
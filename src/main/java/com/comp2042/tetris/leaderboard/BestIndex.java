@@ -0,0 +1,103 @@
+package com.comp2042.tetris.leaderboard;
+
+import java.util.Arrays;
+
+/**
+ * Best result per key (a mode, a day, or a mode and day), kept in sorted primitive arrays.
+ * <p>
+ * The number of distinct keys is small compared with the number of results (one per
+ * mode or per day), so inserting a new key by shifting the arrays is cheap, and lookups
+ * and key ranges are binary searches.
+ * </p>
+ */
+final class BestIndex {
+
+    /** Sorted distinct keys; valid entries are {@code [0, size)}. */
+    private long[] keys = new long[64];
+
+    /** Best score for each key. */
+    private int[] scores = new int[64];
+
+    /** Row of the best result for each key. */
+    private int[] rows = new int[64];
+
+    private int size;
+
+    /**
+     * Records a result, replacing the key's best if {@code score} beats it.
+     * Ties keep the earlier result.
+     *
+     * @param key   the key
+     * @param score the result's score
+     * @param row   the result's row
+     */
+    void offer(long key, int score, int row) {
+        int at = Arrays.binarySearch(keys, 0, size, key);
+        if (at >= 0) {
+            if (score > scores[at]) {
+                scores[at] = score;
+                rows[at] = row;
+            }
+            return;
+        }
+        at = -at - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+            rows = Arrays.copyOf(rows, size * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(scores, at, scores, at + 1, size - at);
+        System.arraycopy(rows, at, rows, at + 1, size - at);
+        keys[at] = key;
+        scores[at] = score;
+        rows[at] = row;
+        size++;
+    }
+
+    /**
+     * Returns the row of the best result for {@code key}.
+     *
+     * @param key the key
+     * @return the row, or {@code -1} if there is no result for the key
+     */
+    int best(long key) {
+        int at = Arrays.binarySearch(keys, 0, size, key);
+        return at >= 0 ? rows[at] : -1;
+    }
+
+    /**
+     * Returns the row of the best result over all keys in {@code [from, to]}.
+     *
+     * @param from lowest key (inclusive)
+     * @param to   highest key (inclusive)
+     * @return the row, or {@code -1} if no key lies in the range
+     */
+    int bestInRange(long from, long to) {
+        int i = ScoreIndex.lowerBound(keys, size, from);
+        int bestRow = -1;
+        int bestScore = Integer.MIN_VALUE;
+        for (; i < size && keys[i] <= to; i++) {
+            if (bestRow < 0 || scores[i] > bestScore) {
+                bestScore = scores[i];
+                bestRow = rows[i];
+            }
+        }
+        return bestRow;
+    }
+
+    /** @return number of distinct keys */
+    int size() {
+        return size;
+    }
+
+    /** @return the {@code i}-th smallest key */
+    long keyAt(int i) {
+        return keys[i];
+    }
+
+    /** @return row of the best result for the {@code i}-th smallest key */
+    int rowAt(int i) {
+        return rows[i];
+    }
+}
@@ -0,0 +1,331 @@
+package com.comp2042.tetris.leaderboard;
+
+import com.comp2042.tetris.model.LevelService;
+import com.comp2042.tetris.model.Score;
+import com.comp2042.tetris.persistence.ReplayArchive;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * In-process leaderboard over stored game results.
+ * <p>
+ * Results are kept column-wise in primitive arrays (score, mode, day, player) and
+ * identified by their row number (insertion order). On top of the columns sit:
+ * </p>
+ * <ul>
+ *   <li>a sorted score index over all results and one per mode, answering rank,
+ *       percentile and top-K queries by binary search;</li>
+ *   <li>best-result indexes per mode, per day and per mode and day.</li>
+ * </ul>
+ * <p>
+ * Inserts are incremental: a result is appended to the columns and added to a small
+ * sorted buffer in each score index, which is merged into the index in bulk once full.
+ * A mode is a small non-negative id chosen by the caller (the game currently has a
+ * single mode, {@link #DEFAULT_MODE}); a day is an epoch day ({@link LocalDate#toEpochDay()}).
+ * Levels are not stored but derived from the score with {@link LevelService}.
+ * </p>
+ * <p>
+ * Not thread-safe; confine each instance to one thread.
+ * </p>
+ */
+public final class Leaderboard {
+
+    /** Mode id of the standard game. */
+    public static final int DEFAULT_MODE = 0;
+
+    /** Number of supported mode ids ({@code 0} to {@code MAX_MODES - 1}). */
+    public static final int MAX_MODES = 256;
+
+    private final LevelService levelService = new LevelService();
+
+    //result columns, indexed by row
+    private int[] scores = new int[1024];
+    private int[] modes = new int[1024];
+    private int[] days = new int[1024];
+    private int[] players = new int[1024];
+    private int size;
+
+    /** Score index over every result. */
+    private final ScoreIndex all = new ScoreIndex();
+
+    /** Score index per mode, created on first use. */
+    private final ScoreIndex[] byMode = new ScoreIndex[MAX_MODES];
+
+    private final BestIndex bestPerMode = new BestIndex();
+    private final BestIndex bestPerDay = new BestIndex();
+    private final BestIndex bestPerModeAndDay = new BestIndex();
+
+    /**
+     * Builds a leaderboard from every replay in an archive, using the UTC day each game
+     * was recorded on.
+     *
+     * @param archive the replay archive
+     * @param mode    mode id to file the results under
+     * @return a leaderboard with one row per replay, in catalog order
+     */
+    public static Leaderboard fromArchive(ReplayArchive archive, int mode) {
+        Leaderboard board = new Leaderboard();
+        for (int i = 0; i < archive.size(); i++) {
+            int day = (int) Math.floorDiv(archive.getRecordedAt(i), 86_400_000L);
+            board.submit(archive.getScore(i), mode, day, archive.getPlayerId(i));
+        }
+        return board;
+    }
+
+    /**
+     * Adds a finished game's score.
+     *
+     * @param score    the game's score
+     * @param mode     mode id
+     * @param date     day the game was played
+     * @param playerId id of the player
+     * @return the result's row
+     */
+    public int submit(Score score, int mode, LocalDate date, int playerId) {
+        return submit(score.scoreProperty().get(), mode, (int) date.toEpochDay(), playerId);
+    }
+
+    /**
+     * Adds a result.
+     *
+     * @param score    final score
+     * @param mode     mode id, {@code 0 <= mode < MAX_MODES}
+     * @param day      epoch day the game was played
+     * @param playerId id of the player
+     * @return the result's row
+     */
+    public int submit(int score, int mode, int day, int playerId) {
+        checkMode(mode);
+        if (size == scores.length) {
+            int capacity = size * 2;
+            scores = Arrays.copyOf(scores, capacity);
+            modes = Arrays.copyOf(modes, capacity);
+            days = Arrays.copyOf(days, capacity);
+            players = Arrays.copyOf(players, capacity);
+        }
+        int row = size++;
+        scores[row] = score;
+        modes[row] = mode;
+        days[row] = day;
+        players[row] = playerId;
+
+        all.insert(score, row);
+        modeIndex(mode).insert(score, row);
+        bestPerMode.offer(mode, score, row);
+        bestPerDay.offer(day, score, row);
+        bestPerModeAndDay.offer(modeDayKey(mode, day), score, row);
+        return row;
+    }
+
+    private ScoreIndex modeIndex(int mode) {
+        ScoreIndex index = byMode[mode];
+        if (index == null) {
+            index = new ScoreIndex();
+            byMode[mode] = index;
+        }
+        return index;
+    }
+
+    //biasing the day keeps negative days (before 1970) ordered before positive ones
+    private static long modeDayKey(int mode, int day) {
+        return ((long) checkMode(mode) << 32) | ((long) day - Integer.MIN_VALUE);
+    }
+
+    private static int checkMode(int mode) {
+        if (mode < 0 || mode >= MAX_MODES) {
+            throw new IllegalArgumentException("Mode must be in [0, " + MAX_MODES + "): " + mode);
+        }
+        return mode;
+    }
+
+    /** @return number of stored results */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Rank of {@code score} among all results: one plus the number of strictly higher scores.
+     *
+     * @param score the score to rank
+     * @return the rank, starting at 1
+     */
+    public int rank(int score) {
+        return 1 + all.countAtLeast((long) score + 1);
+    }
+
+    /**
+     * Rank of {@code score} among the results of one mode.
+     *
+     * @param mode  mode id
+     * @param score the score to rank
+     * @return the rank, starting at 1
+     * @throws IllegalArgumentException if {@code mode} is not in {@code [0, MAX_MODES)}
+     */
+    public int rankInMode(int mode, int score) {
+        ScoreIndex index = byMode[checkMode(mode)];
+        return index == null ? 1 : 1 + index.countAtLeast((long) score + 1);
+    }
+
+    /**
+     * Percentile rank of {@code score} among all results: the percentage of results below
+     * it, counting ties as half.
+     *
+     * @param score the score
+     * @return percentile in {@code [0, 100]}, or {@code 0} if there are no results
+     */
+    public double percentile(int score) {
+        return percentile(all, score);
+    }
+
+    /**
+     * Percentile rank of {@code score} among the results of one mode.
+     *
+     * @param mode  mode id
+     * @param score the score
+     * @return percentile in {@code [0, 100]}, or {@code 0} if the mode has no results
+     * @throws IllegalArgumentException if {@code mode} is not in {@code [0, MAX_MODES)}
+     */
+    public double percentileInMode(int mode, int score) {
+        ScoreIndex index = byMode[checkMode(mode)];
+        return index == null ? 0 : percentile(index, score);
+    }
+
+    private static double percentile(ScoreIndex index, int score) {
+        int n = index.size();
+        if (n == 0) {
+            return 0;
+        }
+        int atLeast = index.countAtLeast(score);
+        int above = index.countAtLeast((long) score + 1);
+        int below = n - atLeast;
+        return 100.0 * (below + 0.5 * (atLeast - above)) / n;
+    }
+
+    /**
+     * Rows of the {@code k} highest results (ties: most recent first).
+     *
+     * @param k maximum number of rows
+     * @return rows in descending score order
+     */
+    public int[] top(int k) {
+        return top(all, k);
+    }
+
+    /**
+     * Rows of the {@code k} highest results of one mode.
+     *
+     * @param mode mode id
+     * @param k    maximum number of rows
+     * @return rows in descending score order
+     * @throws IllegalArgumentException if {@code mode} is not in {@code [0, MAX_MODES)}
+     */
+    public int[] topInMode(int mode, int k) {
+        ScoreIndex index = byMode[checkMode(mode)];
+        return index == null ? new int[0] : top(index, k);
+    }
+
+    private static int[] top(ScoreIndex index, int k) {
+        int[] rows = new int[Math.min(k, index.size())];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = ScoreIndex.rowOf(index.entryFromTop(i));
+        }
+        return rows;
+    }
+
+    /**
+     * Best result of a mode.
+     *
+     * @param mode mode id
+     * @return its row, or {@code -1} if the mode has no results
+     * @throws IllegalArgumentException if {@code mode} is not in {@code [0, MAX_MODES)}
+     */
+    public int bestOfMode(int mode) {
+        return bestPerMode.best(checkMode(mode));
+    }
+
+    /**
+     * Best result of a day, across modes.
+     *
+     * @param day epoch day
+     * @return its row, or {@code -1} if nothing was played that day
+     */
+    public int bestOfDay(int day) {
+        return bestPerDay.best(day);
+    }
+
+    /**
+     * Best result of a mode on a day.
+     *
+     * @param mode mode id
+     * @param day  epoch day
+     * @return its row, or {@code -1} if there is none
+     * @throws IllegalArgumentException if {@code mode} is not in {@code [0, MAX_MODES)}
+     */
+    public int bestOfModeAndDay(int mode, int day) {
+        return bestPerModeAndDay.best(modeDayKey(mode, day));
+    }
+
+    /**
+     * Best result of a mode between two days, e.g. a weekly leaderboard.
+     *
+     * @param mode    mode id
+     * @param fromDay first epoch day (inclusive)
+     * @param toDay   last epoch day (inclusive)
+     * @return its row, or {@code -1} if there is none
+     * @throws IllegalArgumentException if {@code mode} is not in {@code [0, MAX_MODES)}
+     */
+    public int bestOfModeBetween(int mode, int fromDay, int toDay) {
+        return bestPerModeAndDay.bestInRange(modeDayKey(mode, fromDay), modeDayKey(mode, toDay));
+    }
+
+    /**
+     * Best result of each day, in day order.
+     *
+     * @return rows of each day's best result
+     */
+    public int[] bestPerDay() {
+        int[] rows = new int[bestPerDay.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = bestPerDay.rowAt(i);
+        }
+        return rows;
+    }
+
+    /** @return score of the result in {@code row} */
+    public int getScore(int row) {
+        return scores[checkRow(row)];
+    }
+
+    /** @return mode of the result in {@code row} */
+    public int getMode(int row) {
+        return modes[checkRow(row)];
+    }
+
+    /** @return epoch day of the result in {@code row} */
+    public int getDay(int row) {
+        return days[checkRow(row)];
+    }
+
+    /** @return player of the result in {@code row} */
+    public int getPlayerId(int row) {
+        return players[checkRow(row)];
+    }
+
+    /** @return level reached by the result in {@code row}, see {@link LevelService#levelForScore(int)} */
+    public int getLevel(int row) {
+        return levelService.levelForScore(scores[checkRow(row)]);
+    }
+
+    /** @return the date of the result in {@code row} */
+    public LocalDate getDate(int row) {
+        return LocalDate.ofEpochDay(days[checkRow(row)]);
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range [0, " + size + ")");
+        }
+        return row;
+    }
+}
@@ -0,0 +1,143 @@
+package com.comp2042.tetris.leaderboard;
+
+import java.util.Arrays;
+
+/**
+ * Sorted index of (score, row) pairs supporting rank queries by binary search.
+ * <p>
+ * Each entry is packed into one {@code long} as {@code score << 32 | row}, so sorting the
+ * longs orders by score and then by row. Inserts go into a small sorted delta array
+ * that is merged into the main array once it fills up, which keeps an insert cheap
+ * (a short {@link System#arraycopy}) while the bulk of the index stays one flat array.
+ * Queries search both arrays.
+ * </p>
+ */
+final class ScoreIndex {
+
+    /** Entries held in the delta before it is merged into {@link #main}. */
+    private static final int DELTA_CAPACITY = 4096;
+
+    /** Bulk of the index, sorted; valid entries are {@code [0, mainSize)}. */
+    private long[] main = new long[DELTA_CAPACITY];
+    private int mainSize;
+
+    /** Recent inserts, sorted; valid entries are {@code [0, deltaSize)}. */
+    private final long[] delta = new long[DELTA_CAPACITY];
+    private int deltaSize;
+
+    static long pack(int score, int row) {
+        return ((long) score << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    static int rowOf(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Adds one result.
+     *
+     * @param score the score
+     * @param row   the result's row in the leaderboard
+     */
+    void insert(int score, int row) {
+        if (deltaSize == DELTA_CAPACITY) {
+            merge();
+        }
+        long entry = pack(score, row);
+        int at = lowerBound(delta, deltaSize, entry);
+        System.arraycopy(delta, at, delta, at + 1, deltaSize - at);
+        delta[at] = entry;
+        deltaSize++;
+    }
+
+    /**
+     * Merges the delta into the main array in place, from the back: each delta entry
+     * finds its slot by binary search and the main entries above it move up as one
+     * block copy.
+     */
+    private void merge() {
+        int total = mainSize + deltaSize;
+        if (main.length < total) {
+            main = Arrays.copyOf(main, Math.max(total, main.length + (main.length >> 1)));
+        }
+        int end = mainSize;
+        for (int j = deltaSize - 1; j >= 0; j--) {
+            int at = lowerBound(main, end, delta[j]);
+            System.arraycopy(main, at, main, at + j + 1, end - at);
+            main[at + j] = delta[j];
+            end = at;
+        }
+        mainSize = total;
+        deltaSize = 0;
+    }
+
+    /** @return number of entries */
+    int size() {
+        return mainSize + deltaSize;
+    }
+
+    /**
+     * Counts entries with a score of at least {@code score}.
+     *
+     * @param score the threshold
+     * @return number of entries scoring {@code >= score}
+     */
+    int countAtLeast(long score) {
+        if (score > Integer.MAX_VALUE) {
+            return 0;
+        }
+        long key = score << 32;
+        return size() - lowerBound(main, mainSize, key) - lowerBound(delta, deltaSize, key);
+    }
+
+    /**
+     * Returns the entry with the {@code k}-th highest score (0-based; ties by highest row).
+     *
+     * @param k rank from the top, {@code 0 <= k < size()}
+     * @return the packed entry
+     */
+    long entryFromTop(int k) {
+        if (k < 0 || k >= size()) {
+            throw new IndexOutOfBoundsException("Rank " + k + " out of range [0, " + size() + ")");
+        }
+        //walk both sorted arrays from the top; the delta is small so this stays cheap
+        int i = mainSize - 1;
+        int j = deltaSize - 1;
+        if (deltaSize == 0) {
+            return main[i - k];
+        }
+        while (true) {
+            if (j < 0 || (i >= 0 && main[i] > delta[j])) {
+                //skip whole runs of main entries that sit above the next delta entry
+                int above = j < 0 ? Integer.MAX_VALUE : i - lowerBound(main, i + 1, delta[j]) + 1;
+                if (k < above) {
+                    return main[i - k];
+                }
+                k -= above;
+                i -= above;
+                continue;
+            }
+            long pick = delta[j--];
+            if (k-- == 0) {
+                return pick;
+            }
+        }
+    }
+
+    /**
+     * First index in {@code a[0, length)} whose value is {@code >= key}.
+     */
+    static int lowerBound(long[] a, int length, long key) {
+        int lo = 0;
+        int hi = length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
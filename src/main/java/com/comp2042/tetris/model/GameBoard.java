@@ -3,11 +3,13 @@ package com.comp2042.tetris.model;
 
 import com.comp2042.tetris.model.brick.Brick;
 import com.comp2042.tetris.model.brick.BrickGenerator;
+import com.comp2042.tetris.model.brick.Bricks;
 import com.comp2042.tetris.model.brick.RandomBrickGenerator;
 import com.comp2042.tetris.model.rules.BrickRotator;
 import com.comp2042.tetris.util.MatrixOperations;
 
 import java.awt.*;
+import java.util.Arrays;
 
 /**
  * Concrete implementation of the {@link Board} game model.
@@ -28,10 +30,26 @@ import java.awt.*;
  *   <li>{@code brickGenerator} supplies the active and next bricks; {@code nextViewData} caches the preview.</li>
  *   <li>Holding is allowed once per spawn; swap with held brick resets rotation and position to the spawn offset.</li>
  * </ul>
+ *
+ * <h3>Snapshots</h3>
+ * <ul>
+ *   <li>{@link #saveState(GameState)} / {@link #restoreState(GameState)} copy the complete game state
+ *       into or out of a preallocated {@link GameState} (used by the crash journal).</li>
+ *   <li>Generator state is only captured when the generator is a {@link RandomBrickGenerator}.</li>
+ * </ul>
  */
 //manages game state including board matrix, current brick, score, and game logic
 public class GameBoard implements Board {
 
+    /** Column of the brick matrix's left edge when a brick spawns. */
+    public static final int SPAWN_X = 4;
+
+    /** Row of the brick matrix's top edge when a brick spawns. */
+    public static final int SPAWN_Y = 0;
+
+    /** Cell value of garbage rows added by {@link #addGarbage(int, int)}. */
+    public static final int GARBAGE_CELL = 8;
+
     /** Number of rows in the playfield (named width in legacy code). */
     private final int width;
 
@@ -47,6 +65,9 @@ public class GameBoard implements Board {
     /** Background board matrix (0 = empty, >0 = filled). Indexed as [row][col]. */
     private int[][] currentGameMatrix;
 
+    /** Bumped on every change to the background or restore of the active brick. */
+    private long boardGeneration;
+
     /** Top-left (x=col, y=row) placement of the active brick’s current shape. */
     private Point currentOffset;
 
@@ -77,10 +98,24 @@ public class GameBoard implements Board {
      */
     //declares board dimensions, initializes game matrix, brick generator, rotator, and score
     public GameBoard(int width, int height) {
+        this(width, height, new RandomBrickGenerator());
+    }
+
+    /**
+     * Creates a new {@code GameBoard} that draws its bricks from the given generator.
+     * <p>
+     * Pass a seeded {@link RandomBrickGenerator} for a reproducible brick sequence.
+     * </p>
+     *
+     * @param width          number of rows in the playfield
+     * @param height         number of columns in the playfield
+     * @param brickGenerator supplies current/next bricks
+     */
+    public GameBoard(int width, int height, BrickGenerator brickGenerator) {
         this.width = width;
         this.height = height;
         currentGameMatrix = new int[width][height];
-        brickGenerator = new RandomBrickGenerator();
+        this.brickGenerator = brickGenerator;
         brickRotator = new BrickRotator();
         score = new Score();
     }
@@ -109,18 +144,16 @@ public class GameBoard implements Board {
      *
      * @return {@code true} if the move succeeded; {@code false} if blocked
      */
-    //copies the current matrtix, calcs the new position by moving down, checks for collision
+    //calcs the new position by moving down, checks for collision against the live matrix
+    //(intersect only reads it, so no copy is needed)
     //updates position if no conflict
     @Override
     public boolean moveBrickDown() {
-        int[][] currentMatrix = MatrixOperations.copy(currentGameMatrix);
-        Point p = new Point(currentOffset);
-        p.translate(0, 1);
-        boolean conflict = MatrixOperations.intersect(currentMatrix, brickRotator.getCurrentShape(), (int) p.getX(), (int) p.getY());
+        boolean conflict = MatrixOperations.intersect(currentGameMatrix, brickRotator.getCurrentShape(), currentOffset.x, currentOffset.y + 1);
         if (conflict) {
             return false;
         } else {
-            currentOffset = p;
+            currentOffset.translate(0, 1);
             return true;
         }
     }
@@ -132,14 +165,11 @@ public class GameBoard implements Board {
      */
     @Override
     public boolean moveBrickLeft() {
-        int[][] currentMatrix = MatrixOperations.copy(currentGameMatrix);
-        Point p = new Point(currentOffset);
-        p.translate(-1, 0);
-        boolean conflict = MatrixOperations.intersect(currentMatrix, brickRotator.getCurrentShape(), (int) p.getX(), (int) p.getY());
+        boolean conflict = MatrixOperations.intersect(currentGameMatrix, brickRotator.getCurrentShape(), currentOffset.x - 1, currentOffset.y);
         if (conflict) {
             return false;
         } else {
-            currentOffset = p;
+            currentOffset.translate(-1, 0);
             return true;
         }
     }
@@ -151,14 +181,11 @@ public class GameBoard implements Board {
      */
     @Override
     public boolean moveBrickRight() {
-        int[][] currentMatrix = MatrixOperations.copy(currentGameMatrix);
-        Point p = new Point(currentOffset);
-        p.translate(1, 0);
-        boolean conflict = MatrixOperations.intersect(currentMatrix, brickRotator.getCurrentShape(), (int) p.getX(), (int) p.getY());
+        boolean conflict = MatrixOperations.intersect(currentGameMatrix, brickRotator.getCurrentShape(), currentOffset.x + 1, currentOffset.y);
         if (conflict) {
             return false;
         } else {
-            currentOffset = p;
+            currentOffset.translate(1, 0);
             return true;
         }
     }
@@ -172,9 +199,8 @@ public class GameBoard implements Board {
     //gets next rotation shape, check for collision, updates shape if no conflict
     @Override
     public boolean rotateLeftBrick() {
-        int[][] currentMatrix = MatrixOperations.copy(currentGameMatrix);
         NextShapeInfo nextShape = brickRotator.getNextShape();
-        boolean conflict = MatrixOperations.intersect(currentMatrix, nextShape.getShape(), (int) currentOffset.getX(), (int) currentOffset.getY());
+        boolean conflict = MatrixOperations.intersect(currentGameMatrix, nextShape.getShape(), (int) currentOffset.getX(), (int) currentOffset.getY());
         if (conflict) {
             return false;
         } else {
@@ -198,7 +224,7 @@ public class GameBoard implements Board {
         // consume the next brick as the current one
         this.currentBrick = brickGenerator.getBrick();
         brickRotator.setBrick(this.currentBrick);
-        currentOffset = new Point(4, 0);
+        currentOffset = new Point(SPAWN_X, SPAWN_Y);
 
         //allow hold again for the new spawn
         holdUsed = false;
@@ -227,6 +253,17 @@ public class GameBoard implements Board {
         return currentGameMatrix;
     }
 
+    /**
+     * Returns a counter that changes whenever the background matrix changes (lock, line
+     * clear, garbage, new game) or a snapshot is restored. Some of these update the matrix
+     * in place, so compare generations rather than matrix references.
+     *
+     * @return the current board generation
+     */
+    public long getBoardGeneration() {
+        return boardGeneration;
+    }
+
     /**
      * Returns a {@link ViewData} snapshot describing the active brick and the next preview.
      * <p>
@@ -263,6 +300,7 @@ public class GameBoard implements Board {
     @Override
     public void mergeBrickToBackground() {
         currentGameMatrix = MatrixOperations.merge(currentGameMatrix, brickRotator.getCurrentShape(), (int) currentOffset.getX(), (int) currentOffset.getY());
+        boardGeneration++;
     }
 
     /**
@@ -275,10 +313,58 @@ public class GameBoard implements Board {
     public ClearRow clearRows() {
         ClearRow clearRow = MatrixOperations.checkRemoving(currentGameMatrix);
         currentGameMatrix = clearRow.getNewMatrix();
+        boardGeneration++;
         return clearRow;
 
     }
 
+    /**
+     * Pushes the background up and fills the bottom {@code lines} rows with garbage:
+     * {@link #GARBAGE_CELL} everywhere except one empty cell in {@code holeColumn}.
+     * <p>
+     * Filled cells pushed off the top end the game. The active brick is not moved, so
+     * call this between a lock and the next spawn.
+     * </p>
+     *
+     * @param lines      rows to add; nothing happens if not positive
+     * @param holeColumn the empty column of every garbage row
+     * @return {@code true} if filled cells were pushed off the top (game over)
+     */
+    //shifts rows up in place and refills the freed bottom rows
+    public boolean addGarbage(int lines, int holeColumn) {
+        if (holeColumn < 0 || holeColumn >= height) {
+            throw new IllegalArgumentException("Hole column out of range: " + holeColumn);
+        }
+        if (lines <= 0) {
+            return false;
+        }
+        lines = Math.min(lines, width);
+        boolean overflow = false;
+        for (int row = 0; row < lines && !overflow; row++) {
+            for (int cell : currentGameMatrix[row]) {
+                if (cell != 0) {
+                    overflow = true;
+                    break;
+                }
+            }
+        }
+        //rotate the row arrays instead of copying cells; the pushed-out rows become garbage
+        int[][] pushed = new int[lines][];
+        System.arraycopy(currentGameMatrix, 0, pushed, 0, lines);
+        System.arraycopy(currentGameMatrix, lines, currentGameMatrix, 0, width - lines);
+        for (int i = 0; i < lines; i++) {
+            int[] row = pushed[i];
+            Arrays.fill(row, GARBAGE_CELL);
+            row[holeColumn] = 0;
+            currentGameMatrix[width - lines + i] = row;
+        }
+        boardGeneration++;
+        if (overflow) {
+            gameOver = true;
+        }
+        return overflow;
+    }
+
     /**
      * Returns the score tracker.
      *
@@ -303,6 +389,23 @@ public class GameBoard implements Board {
         createNewBrick();
     }
 
+    /**
+     * Starts a new game whose brick sequence is determined by {@code seed}.
+     * <p>
+     * A game started this way is fully reproducible from the seed and the input events
+     * applied afterwards, which is what replays record. The seed is ignored when the
+     * generator is not a {@link RandomBrickGenerator}.
+     * </p>
+     *
+     * @param seed the brick sequence seed
+     */
+    public void newGame(long seed) {
+        if (brickGenerator instanceof RandomBrickGenerator random) {
+            random.reseed(seed);
+        }
+        newGame();
+    }
+
     /**
      * Returns the cached “next” brick preview data.
      *
@@ -310,6 +413,14 @@ public class GameBoard implements Board {
      */
     @Override
     public ViewData getNextBrickViewData() {
+        if (nextViewData == null) {
+            //cache is dropped by restoreState(); rebuild it lazily from the generator
+            Brick upcoming = brickGenerator.getNextBrick();
+            if (upcoming != null) {
+                int[][] previewShape = upcoming.getShapeMatrix().getFirst();
+                nextViewData = new ViewData(previewShape, 0, 0, previewShape);
+            }
+        }
         return nextViewData;
     }
 
@@ -342,7 +453,7 @@ public class GameBoard implements Board {
             heldBrick = currentBrick;
             currentBrick = temp;
             brickRotator.setBrick(currentBrick);
-            currentOffset = new Point(4, 0);
+            currentOffset = new Point(SPAWN_X, SPAWN_Y);
             // mark hold used for this spawn
             holdUsed = true;
             // check immediate collision after swap
@@ -378,6 +489,7 @@ public class GameBoard implements Board {
      */
     public void resetForNewGame() {
         this.currentGameMatrix = new int[width][height];
+        boardGeneration++;
 
         // reset score / flags
         if (this.score != null) this.score.reset();
@@ -392,4 +504,159 @@ public class GameBoard implements Board {
         this.heldBrick = null;
         this.holdUsed = false;
     }
+
+    /**
+     * Returns the id of the active brick (see {@link Bricks}).
+     *
+     * @return active brick id, or 0 if there is none
+     */
+    public int getCurrentBrickId() {
+        return Bricks.idOf(currentBrick);
+    }
+
+    /**
+     * Returns the id of the held brick (see {@link Bricks}).
+     *
+     * @return held brick id, or 0 if the hold slot is empty
+     */
+    public int getHeldBrickId() {
+        return Bricks.idOf(heldBrick);
+    }
+
+    /**
+     * Returns the rotation index of the active brick.
+     *
+     * @return rotation index within the brick's shape list
+     */
+    public int getCurrentRotation() {
+        return brickRotator.getCurrentShapeIndex();
+    }
+
+    /**
+     * Returns the column of the active brick's top-left corner.
+     *
+     * @return x position, or 0 if there is no active brick
+     */
+    public int getCurrentX() {
+        return currentOffset != null ? currentOffset.x : 0;
+    }
+
+    /**
+     * Returns the row of the active brick's top-left corner.
+     *
+     * @return y position, or 0 if there is no active brick
+     */
+    public int getCurrentY() {
+        return currentOffset != null ? currentOffset.y : 0;
+    }
+
+    /**
+     * Copies the ids of the upcoming bricks, soonest first, into {@code target}.
+     * <p>
+     * With a {@link RandomBrickGenerator} the generator is asked to look further ahead
+     * when needed; the brick sequence itself does not change, since it only depends on the
+     * seed. Other generators only expose their single "next" brick.
+     * </p>
+     *
+     * @param target destination array
+     * @param count  number of previews wanted, at most {@link GameState#QUEUE_CAPACITY}
+     * @return number of ids written
+     */
+    public int getPreviewIds(int[] target, int count) {
+        count = Math.min(count, GameState.QUEUE_CAPACITY);
+        if (brickGenerator instanceof RandomBrickGenerator random) {
+            return random.peekIds(target, count);
+        }
+        Brick next = brickGenerator.getNextBrick();
+        if (next == null || count <= 0) {
+            return 0;
+        }
+        target[0] = Bricks.idOf(next);
+        return 1;
+    }
+
+    /**
+     * Returns whether hold has already been used for the current spawn.
+     *
+     * @return {@code true} if another hold is not allowed until the next spawn
+     */
+    public boolean isHoldUsed() {
+        return holdUsed;
+    }
+
+    /**
+     * Copies the complete game state into {@code target} without allocating.
+     *
+     * @param target snapshot with the same dimensions as this board
+     * @throws IllegalArgumentException if the snapshot dimensions differ from the board
+     */
+    public void saveState(GameState target) {
+        if (target.getRows() != width || target.getCols() != height) {
+            throw new IllegalArgumentException("Snapshot size mismatch");
+        }
+        int[] cells = target.cells();
+        for (int r = 0; r < width; r++) {
+            System.arraycopy(currentGameMatrix[r], 0, cells, r * height, height);
+        }
+        target.setBrickId(Bricks.idOf(currentBrick));
+        target.setRotation(brickRotator.getCurrentShapeIndex());
+        target.setX(getCurrentX());
+        target.setY(getCurrentY());
+        target.setHeldId(Bricks.idOf(heldBrick));
+        target.setHoldUsed(holdUsed);
+        target.setGameOver(gameOver);
+        target.setScore(score.scoreProperty().get());
+        if (brickGenerator instanceof RandomBrickGenerator random) {
+            target.setRandomState(random.getRandomState());
+            target.setQueueLength(random.getQueuedIds(target.queue()));
+        } else {
+            target.setRandomState(0);
+            target.setQueueLength(0);
+        }
+    }
+
+    /**
+     * Replaces the complete game state with the contents of {@code source}.
+     * <p>
+     * The background matrix is overwritten in place. The score property is set to the
+     * snapshot score, so score listeners fire as usual. The generator is restored only
+     * when it is a {@link RandomBrickGenerator}.
+     * </p>
+     *
+     * @param source snapshot with the same dimensions as this board
+     * @throws IllegalArgumentException if the snapshot dimensions differ from the board
+     */
+    public void restoreState(GameState source) {
+        if (source.getRows() != width || source.getCols() != height) {
+            throw new IllegalArgumentException("Snapshot size mismatch");
+        }
+        int[] cells = source.cells();
+        for (int r = 0; r < width; r++) {
+            System.arraycopy(cells, r * height, currentGameMatrix[r], 0, height);
+        }
+        boardGeneration++;
+        Brick restored = Bricks.byId(source.getBrickId());
+        if (restored != currentBrick) {
+            //the rotator already holds the shapes of an unchanged brick; fetching them again
+            //deep-copies every rotation, which would dominate the cost of a rollback
+            currentBrick = restored;
+            brickRotator.setBrick(currentBrick);
+        }
+        brickRotator.setCurrentShape(source.getRotation());
+        if (currentBrick == null) {
+            currentOffset = null;
+        } else if (currentOffset == null) {
+            currentOffset = new Point(source.getX(), source.getY());
+        } else {
+            currentOffset.setLocation(source.getX(), source.getY());
+        }
+        heldBrick = Bricks.byId(source.getHeldId());
+        holdUsed = source.isHoldUsed();
+        gameOver = source.isGameOver();
+        score.scoreProperty().set(source.getScore());
+        if (brickGenerator instanceof RandomBrickGenerator random) {
+            random.restore(source.getRandomState(), source.queue(), source.getQueueLength());
+        }
+        nextViewData = null;
+    }
 }
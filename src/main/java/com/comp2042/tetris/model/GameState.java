@@ -0,0 +1,369 @@
+package com.comp2042.tetris.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A flat, reusable snapshot of everything needed to resume a {@link GameBoard}.
+ * <p>
+ * The snapshot holds the background cells (row-major, one {@code int} per cell),
+ * the active brick (id, rotation index and offset), the hold slot, the score,
+ * the game-over flag and the brick generator state (random state and queued ids).
+ * Brick ids follow {@link com.comp2042.tetris.model.brick.Bricks}.
+ * </p>
+ *
+ * <p>
+ * All storage is preallocated in the constructor, so {@link GameBoard#saveState(GameState)}
+ * and {@link GameBoard#restoreState(GameState)} can be called repeatedly without
+ * allocating. Instances can also be written to and read from a {@link ByteBuffer}
+ * using a compact fixed layout (see {@link #encodedSize()}).
+ * </p>
+ */
+public final class GameState {
+
+    /** Maximum number of queued brick ids a snapshot can hold. */
+    public static final int QUEUE_CAPACITY = 16;
+
+    /** Number of rows in the captured board. */
+    private final int rows;
+
+    /** Number of columns in the captured board. */
+    private final int cols;
+
+    /** Background cells in row-major order ({@code cells[row * cols + col]}). */
+    private final int[] cells;
+
+    /** Id of the active brick (0 = none). */
+    private int brickId;
+
+    /** Rotation index of the active brick. */
+    private int rotation;
+
+    /** Column of the active brick's top-left corner. */
+    private int x;
+
+    /** Row of the active brick's top-left corner. */
+    private int y;
+
+    /** Id of the held brick (0 = empty hold). */
+    private int heldId;
+
+    /** Whether hold has already been used for the current spawn. */
+    private boolean holdUsed;
+
+    /** Whether the game has ended. */
+    private boolean gameOver;
+
+    /** Current score. */
+    private int score;
+
+    /** Brick generator random state. */
+    private long randomState;
+
+    /** Queued brick ids in the generator, front first. */
+    private final int[] queue = new int[QUEUE_CAPACITY];
+
+    /** Number of valid entries in {@link #queue}. */
+    private int queueLength;
+
+    /**
+     * Creates an empty snapshot for a board of the given size.
+     *
+     * @param rows number of rows
+     * @param cols number of columns
+     */
+    public GameState(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new int[rows * cols];
+    }
+
+    /**
+     * Copies every field of {@code other} into this snapshot.
+     *
+     * @param other the snapshot to copy (must have the same dimensions)
+     * @throws IllegalArgumentException if the dimensions differ
+     */
+    public void copyFrom(GameState other) {
+        if (other.rows != rows || other.cols != cols) {
+            throw new IllegalArgumentException("Snapshot size mismatch");
+        }
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+        brickId = other.brickId;
+        rotation = other.rotation;
+        x = other.x;
+        y = other.y;
+        heldId = other.heldId;
+        holdUsed = other.holdUsed;
+        gameOver = other.gameOver;
+        score = other.score;
+        randomState = other.randomState;
+        System.arraycopy(other.queue, 0, queue, 0, other.queueLength);
+        queueLength = other.queueLength;
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeTo(ByteBuffer)} produces.
+     *
+     * @return encoded size in bytes
+     */
+    public int encodedSize() {
+        //rows, cols (2 shorts) + cells (1 byte each) + 6 bytes of piece/hold/flags
+        //+ score (int) + random state (long) + queue length and ids (1 byte each)
+        return 4 + cells.length + 6 + 4 + 8 + 1 + queueLength;
+    }
+
+    /**
+     * Writes this snapshot to {@code buffer} at its current position.
+     *
+     * @param buffer destination buffer with at least {@link #encodedSize()} bytes remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putShort((short) rows);
+        buffer.putShort((short) cols);
+        for (int cell : cells) {
+            buffer.put((byte) cell);
+        }
+        buffer.put((byte) brickId);
+        buffer.put((byte) rotation);
+        buffer.put((byte) x);
+        buffer.put((byte) y);
+        buffer.put((byte) heldId);
+        buffer.put((byte) ((holdUsed ? 1 : 0) | (gameOver ? 2 : 0)));
+        buffer.putInt(score);
+        buffer.putLong(randomState);
+        buffer.put((byte) queueLength);
+        for (int i = 0; i < queueLength; i++) {
+            buffer.put((byte) queue[i]);
+        }
+    }
+
+    /**
+     * Reads a snapshot previously produced by {@link #writeTo(ByteBuffer)}.
+     *
+     * @param buffer source buffer positioned at the start of an encoded snapshot
+     * @throws IllegalArgumentException if the encoded dimensions differ from this snapshot or
+     *                                  the encoded queue length is out of range
+     */
+    public void readFrom(ByteBuffer buffer) {
+        int r = buffer.getShort();
+        int c = buffer.getShort();
+        if (r != rows || c != cols) {
+            throw new IllegalArgumentException("Encoded board is " + r + "x" + c + ", expected " + rows + "x" + cols);
+        }
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = buffer.get();
+        }
+        brickId = buffer.get();
+        rotation = buffer.get();
+        x = buffer.get();
+        y = buffer.get();
+        heldId = buffer.get();
+        int flags = buffer.get();
+        holdUsed = (flags & 1) != 0;
+        gameOver = (flags & 2) != 0;
+        score = buffer.getInt();
+        randomState = buffer.getLong();
+        int length = buffer.get();
+        if (length < 0 || length > QUEUE_CAPACITY) {
+            throw new IllegalArgumentException("Encoded queue length out of range: " + length);
+        }
+        queueLength = length;
+        for (int i = 0; i < queueLength; i++) {
+            queue[i] = buffer.get();
+        }
+    }
+
+    /** @return number of rows */
+    public int getRows() {
+        return rows;
+    }
+
+    /** @return number of columns */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the value of a single background cell.
+     *
+     * @param row row index
+     * @param col column index
+     * @return the cell value (0 = empty)
+     */
+    public int getCell(int row, int col) {
+        return cells[row * cols + col];
+    }
+
+    /**
+     * Sets the value of a single background cell.
+     *
+     * @param row   row index
+     * @param col   column index
+     * @param value the cell value (0 = empty)
+     */
+    public void setCell(int row, int col, int value) {
+        cells[row * cols + col] = value;
+    }
+
+    /**
+     * Returns the backing cell array (row-major). Callers may read or write it directly
+     * to avoid per-cell calls; its length is {@code rows * cols}.
+     *
+     * @return the backing cell array
+     */
+    public int[] cells() {
+        return cells;
+    }
+
+    /** @return id of the active brick (0 = none) */
+    public int getBrickId() {
+        return brickId;
+    }
+
+    /** @param brickId id of the active brick (0 = none) */
+    public void setBrickId(int brickId) {
+        this.brickId = brickId;
+    }
+
+    /** @return rotation index of the active brick */
+    public int getRotation() {
+        return rotation;
+    }
+
+    /** @param rotation rotation index of the active brick */
+    public void setRotation(int rotation) {
+        this.rotation = rotation;
+    }
+
+    /** @return column of the active brick */
+    public int getX() {
+        return x;
+    }
+
+    /** @param x column of the active brick */
+    public void setX(int x) {
+        this.x = x;
+    }
+
+    /** @return row of the active brick */
+    public int getY() {
+        return y;
+    }
+
+    /** @param y row of the active brick */
+    public void setY(int y) {
+        this.y = y;
+    }
+
+    /** @return id of the held brick (0 = empty) */
+    public int getHeldId() {
+        return heldId;
+    }
+
+    /** @param heldId id of the held brick (0 = empty) */
+    public void setHeldId(int heldId) {
+        this.heldId = heldId;
+    }
+
+    /** @return whether hold was already used for the current spawn */
+    public boolean isHoldUsed() {
+        return holdUsed;
+    }
+
+    /** @param holdUsed whether hold was already used for the current spawn */
+    public void setHoldUsed(boolean holdUsed) {
+        this.holdUsed = holdUsed;
+    }
+
+    /** @return whether the game has ended */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /** @param gameOver whether the game has ended */
+    public void setGameOver(boolean gameOver) {
+        this.gameOver = gameOver;
+    }
+
+    /** @return the score */
+    public int getScore() {
+        return score;
+    }
+
+    /** @param score the score */
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    /** @return the brick generator random state */
+    public long getRandomState() {
+        return randomState;
+    }
+
+    /** @param randomState the brick generator random state */
+    public void setRandomState(long randomState) {
+        this.randomState = randomState;
+    }
+
+    /**
+     * Returns the backing queue array (front first); only the first
+     * {@link #getQueueLength()} entries are valid.
+     *
+     * @return the backing queue array
+     */
+    public int[] queue() {
+        return queue;
+    }
+
+    /** @return number of queued brick ids */
+    public int getQueueLength() {
+        return queueLength;
+    }
+
+    /**
+     * Sets the number of valid queued ids.
+     *
+     * @param queueLength number of valid entries in {@link #queue()}
+     */
+    public void setQueueLength(int queueLength) {
+        if (queueLength < 0 || queueLength > QUEUE_CAPACITY) {
+            throw new IllegalArgumentException("Queue length out of range: " + queueLength);
+        }
+        this.queueLength = queueLength;
+    }
+
+    /**
+     * Compares the gameplay-relevant contents of two snapshots.
+     *
+     * @param o the object to compare with
+     * @return {@code true} if both snapshots describe the same game state
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameState other)) return false;
+        return rows == other.rows && cols == other.cols
+                && brickId == other.brickId && rotation == other.rotation
+                && x == other.x && y == other.y
+                && heldId == other.heldId && holdUsed == other.holdUsed
+                && gameOver == other.gameOver && score == other.score
+                && randomState == other.randomState
+                && Arrays.equals(cells, other.cells)
+                && Arrays.equals(queue, 0, queueLength, other.queue, 0, other.queueLength);
+    }
+
+    /**
+     * Hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int h = Arrays.hashCode(cells);
+        h = 31 * h + brickId * 97 + rotation * 13 + x * 7 + y;
+        h = 31 * h + heldId + (holdUsed ? 1 : 0) + (gameOver ? 2 : 0);
+        h = 31 * h + score;
+        return 31 * h + Long.hashCode(randomState);
+    }
+}
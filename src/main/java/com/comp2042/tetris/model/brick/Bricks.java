@@ -0,0 +1,99 @@
+package com.comp2042.tetris.model.brick;
+
+import java.util.List;
+
+/**
+ * Shared table of the seven standard brick prototypes, indexed by brick id.
+ * <p>
+ * A brick's id is the colour value stored in its shape matrices, which is also the
+ * value written into the board when the brick is merged:
+ * I=1, J=2, L=3, O=4, S=5, T=6, Z=7. Id {@code 0} means "no brick".
+ * </p>
+ *
+ * <p>
+ * Bricks are immutable (their matrices are deep-copied on every
+ * {@link Brick#getShapeMatrix()} call), so one prototype per type can be shared
+ * by every generator and board. This lets persistent state such as journals,
+ * replays and snapshots refer to bricks by a single small integer.
+ * </p>
+ */
+public final class Bricks {
+
+    /** Number of distinct brick types. */
+    public static final int COUNT = 7;
+
+    /** Brick prototypes; index {@code id - 1} holds the brick with that id. */
+    private static final Brick[] PROTOTYPES = {
+            new IBrick(),
+            new JBrick(),
+            new LBrick(),
+            new OBrick(),
+            new SBrick(),
+            new TBrick(),
+            new ZBrick()
+    };
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private Bricks() {
+
+    }
+
+    /**
+     * Returns the shared prototype for the given brick id.
+     *
+     * @param id brick id in {@code 1..COUNT}, or {@code 0} for none
+     * @return the brick prototype, or {@code null} when {@code id == 0}
+     * @throws IllegalArgumentException if the id is outside {@code 0..COUNT}
+     */
+    public static Brick byId(int id) {
+        if (id == 0) {
+            return null;
+        }
+        if (id < 0 || id > COUNT) {
+            throw new IllegalArgumentException("Unknown brick id: " + id);
+        }
+        return PROTOTYPES[id - 1];
+    }
+
+    /**
+     * Returns the id of the given brick.
+     * <p>
+     * Shared prototypes are resolved by identity; any other {@link Brick}
+     * implementation falls back to the first non-zero value of its spawn matrix.
+     * </p>
+     *
+     * @param brick the brick to identify (may be {@code null})
+     * @return the brick id, or {@code 0} for {@code null}
+     */
+    public static int idOf(Brick brick) {
+        if (brick == null) {
+            return 0;
+        }
+        for (int i = 0; i < PROTOTYPES.length; i++) {
+            if (PROTOTYPES[i] == brick) {
+                return i + 1;
+            }
+        }
+        //foreign brick instance: read the colour value from its first rotation
+        for (int[] row : brick.getShapeMatrix().getFirst()) {
+            for (int v : row) {
+                if (v != 0) {
+                    return v;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the rotation states of the brick with the given id.
+     *
+     * @param id brick id in {@code 1..COUNT}
+     * @return a deep copy of the brick's rotation matrices
+     */
+    public static List<int[][]> shapesOf(int id) {
+        return byId(id).getShapeMatrix();
+    }
+}
@@ -1,9 +1,9 @@
 package com.comp2042.tetris.model.brick;
 
+import com.comp2042.tetris.util.SplitMix64;
+
 import java.util.ArrayDeque;
-import java.util.ArrayList;
 import java.util.Deque;
-import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -16,43 +16,46 @@ import java.util.concurrent.ThreadLocalRandom;
  *
  * <p><b>How it works:</b></p>
  * <ul>
- *   <li>All seven standard Tetris bricks are stored in a {@link List}.</li>
+ *   <li>All seven standard Tetris bricks are shared through {@link Bricks}.</li>
  *   <li>A {@link Deque} queue tracks the current and next brick.</li>
  *   <li>{@link #getBrick()} dequeues the current brick and replenishes the queue with a new random one.</li>
  *   <li>{@link #getNextBrick()} previews the next brick without removing it.</li>
  * </ul>
  *
  * <p>
- * Randomization is handled using {@link ThreadLocalRandom}, ensuring
- * each brick type has an equal chance of appearing.
+ * Randomization uses a small SplitMix64 generator whose whole state is a single
+ * {@code long}. Each brick type has an equal chance of appearing, the sequence is
+ * fully determined by the seed, and the generator state can be captured with
+ * {@link #getRandomState()} and restored with {@link #restore(long, int[], int)}
+ * (used by journals, replays and snapshots).
  * </p>
  */
 public class RandomBrickGenerator implements BrickGenerator {
 
-    /** Holds all seven available brick prototypes (I, J, L, O, S, T, Z). */
-    private final List<Brick> brickList;
-
     /** Queue containing the current and next bricks for the game. */
     private final Deque<Brick> nextBricks = new ArrayDeque<>();
 
+    /** Current SplitMix64 state. */
+    private long randomState;
+
     /**
-     * Constructs a new {@code RandomBrickGenerator}.
+     * Constructs a new {@code RandomBrickGenerator} with a random seed.
      * <p>
-     * Initializes the list of available bricks and pre-loads
-     * two random bricks into the queue for immediate use.
+     * Pre-loads two random bricks into the queue for immediate use.
      * </p>
      */
     public RandomBrickGenerator() {
-        brickList = new ArrayList<>();
-        brickList.add(new IBrick());
-        brickList.add(new JBrick());
-        brickList.add(new LBrick());
-        brickList.add(new OBrick());
-        brickList.add(new SBrick());
-        brickList.add(new TBrick());
-        brickList.add(new ZBrick());
-        nextBricks.add(brickList.get(ThreadLocalRandom.current().nextInt(brickList.size())));
-        nextBricks.add(brickList.get(ThreadLocalRandom.current().nextInt(brickList.size())));
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Constructs a new {@code RandomBrickGenerator} whose brick sequence is
+     * fully determined by {@code seed}.
+     *
+     * @param seed the seed for the brick sequence
+     */
+    public RandomBrickGenerator(long seed) {
+        start(seed);
     }
 
     /**
@@ -67,7 +70,7 @@ public class RandomBrickGenerator implements BrickGenerator {
     @Override
     public Brick getBrick() {
         if (nextBricks.size() <= 1) {
-            nextBricks.add(brickList.get(ThreadLocalRandom.current().nextInt(brickList.size())));
+            nextBricks.add(randomBrick());
         }
         return nextBricks.poll();
     }
@@ -81,4 +84,113 @@ public class RandomBrickGenerator implements BrickGenerator {
     public Brick getNextBrick() {
         return nextBricks.peek();
     }
+
+    /**
+     * Restarts the brick sequence from the given seed and refills the queue.
+     *
+     * @param seed the new seed
+     */
+    public void reseed(long seed) {
+        start(seed);
+    }
+
+    //private, so the constructor does not call a method a subclass could override
+    private void start(long seed) {
+        randomState = seed;
+        nextBricks.clear();
+        nextBricks.add(randomBrick());
+        nextBricks.add(randomBrick());
+    }
+
+    /**
+     * Returns the current random state; together with the queued ids this fully
+     * describes the generator.
+     *
+     * @return the SplitMix64 state
+     */
+    public long getRandomState() {
+        return randomState;
+    }
+
+    /**
+     * Copies the ids of the queued bricks (front first) into {@code target}.
+     *
+     * @param target destination array; must hold at least {@link #getQueueSize()} entries
+     * @return the number of ids written
+     */
+    public int getQueuedIds(int[] target) {
+        int n = 0;
+        for (Brick b : nextBricks) {
+            target[n++] = Bricks.idOf(b);
+        }
+        return n;
+    }
+
+    /**
+     * Copies the ids of the next {@code count} bricks (front first) into {@code target},
+     * generating bricks ahead of time if the queue is shorter. Generating early does not
+     * change the sequence, which is fixed by the seed.
+     *
+     * @param target destination array; must hold at least {@code count} entries
+     * @param count  number of upcoming bricks wanted
+     * @return the number of ids written ({@code count})
+     */
+    public int peekIds(int[] target, int count) {
+        while (nextBricks.size() < count) {
+            nextBricks.add(randomBrick());
+        }
+        int n = 0;
+        for (Brick b : nextBricks) {
+            if (n == count) {
+                break;
+            }
+            target[n++] = Bricks.idOf(b);
+        }
+        return n;
+    }
+
+    /**
+     * Returns how many bricks are currently queued.
+     *
+     * @return queue size
+     */
+    public int getQueueSize() {
+        return nextBricks.size();
+    }
+
+    /**
+     * Restores a state previously captured with {@link #getRandomState()} and
+     * {@link #getQueuedIds(int[])}.
+     *
+     * @param state  the random state to resume from
+     * @param ids    queued brick ids, front first
+     * @param length number of valid entries in {@code ids}
+     */
+    public void restore(long state, int[] ids, int length) {
+        randomState = state;
+        nextBricks.clear();
+        for (int i = 0; i < length; i++) {
+            nextBricks.add(Bricks.byId(ids[i]));
+        }
+    }
+
+    /**
+     * Draws a uniformly random brick prototype.
+     *
+     * @return a random brick
+     */
+    private Brick randomBrick() {
+        return Bricks.byId(1 + nextIndex(Bricks.COUNT));
+    }
+
+    /**
+     * Advances the SplitMix64 state and maps the output into {@code [0, bound)}.
+     *
+     * @param bound exclusive upper bound
+     * @return a uniformly distributed index
+     */
+    private int nextIndex(int bound) {
+        return SplitMix64.index(SplitMix64.mix(randomState += SplitMix64.GAMMA), bound);
+    }
+
 }
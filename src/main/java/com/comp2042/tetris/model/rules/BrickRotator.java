@@ -3,6 +3,8 @@ package com.comp2042.tetris.model.rules;
 import com.comp2042.tetris.model.NextShapeInfo;
 import com.comp2042.tetris.model.brick.Brick;
 
+import java.util.List;
+
 /**
  * Handles the rotation logic for a {@link Brick}.
  * <p>
@@ -21,6 +23,12 @@ public class BrickRotator {
     /** The current brick being rotated. */
     private Brick brick;
 
+    /**
+     * Rotation matrices of {@link #brick}, fetched once per brick because
+     * {@link Brick#getShapeMatrix()} returns a fresh deep copy on every call.
+     */
+    private List<int[][]> shapes;
+
     /** The index of the current rotation state within the brick’s matrix list. */
     private int currentShape = 0; //tracks the current rotation of the brick
 
@@ -37,8 +45,8 @@ public class BrickRotator {
     //method to get next rotation index of the Brick object
     public NextShapeInfo getNextShape() {
         int nextShape = currentShape; //change redundancy later
-        nextShape = (++nextShape) % brick.getShapeMatrix().size(); //increment nextShape and wrap around
-        return new NextShapeInfo(brick.getShapeMatrix().get(nextShape), nextShape); //return next shape matrix and index
+        nextShape = (++nextShape) % shapes.size(); //increment nextShape and wrap around
+        return new NextShapeInfo(shapes.get(nextShape), nextShape); //return next shape matrix and index
     }
 
 
@@ -48,9 +56,18 @@ public class BrickRotator {
      * @return the current shape matrix for the brick
      */
     public int[][] getCurrentShape() {
-        return brick.getShapeMatrix().get(currentShape);
+        return shapes.get(currentShape);
     } //method to get current rotation matrix
 
+    /**
+     * Returns the current rotation index.
+     *
+     * @return the index of the current rotation state
+     */
+    public int getCurrentShapeIndex() {
+        return currentShape;
+    }
+
     /**
      * Sets the current rotation index.
      * <p>
@@ -71,6 +88,7 @@ public class BrickRotator {
      */
     public void setBrick(Brick brick) {
         this.brick = brick;
+        this.shapes = brick != null ? brick.getShapeMatrix() : null;
         currentShape = 0;//reset rotation index to initial state
     }
 
@@ -0,0 +1,42 @@
+package com.comp2042.tetris.model.rules;
+
+import com.comp2042.tetris.model.ClearRow;
+
+/**
+ * Versus attack table: how many garbage rows a line clear sends to an opponent.
+ * <p>
+ * Singles send nothing, doubles one row, triples two and a four-row clear four,
+ * as in most guideline versus modes.
+ * </p>
+ */
+public final class GarbageRules {
+
+    /** Garbage rows sent per rows cleared, indexed by rows cleared. */
+    private static final int[] ATTACK = {0, 0, 1, 2, 4};
+
+    private GarbageRules() {
+    }
+
+    /**
+     * Returns the garbage sent for clearing {@code linesRemoved} rows at once.
+     *
+     * @param linesRemoved rows cleared by one lock
+     * @return garbage rows to send, 0 for none
+     */
+    public static int linesToSend(int linesRemoved) {
+        if (linesRemoved <= 0) {
+            return 0;
+        }
+        return linesRemoved < ATTACK.length ? ATTACK[linesRemoved] : linesRemoved;
+    }
+
+    /**
+     * Returns the garbage sent for a lock's clear result.
+     *
+     * @param clearRow the lock's result, or {@code null} if the brick did not lock
+     * @return garbage rows to send, 0 for none
+     */
+    public static int linesToSend(ClearRow clearRow) {
+        return clearRow == null ? 0 : linesToSend(clearRow.getLinesRemoved());
+    }
+}
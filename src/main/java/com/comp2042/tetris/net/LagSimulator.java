@@ -0,0 +1,105 @@
+package com.comp2042.tetris.net;
+
+import com.comp2042.tetris.util.SplitMix64;
+
+import java.util.PriorityQueue;
+
+/**
+ * A one-way in-process link that delivers messages late, for trying netcode such as
+ * {@link RollbackSession} without a network.
+ * <p>
+ * Each message is delayed by a fixed latency plus a uniform jitter of up to
+ * {@code ±jitter}, so with jitter messages can overtake each other, as over UDP. Time is
+ * whatever unit the caller counts in (ticks, milliseconds, ...) and is passed in
+ * explicitly, which makes a run reproducible from its seed.
+ * </p>
+ *
+ * @param <T> message type
+ */
+public final class LagSimulator<T> {
+
+    private final long delay;
+    private final long jitter;
+    private long random;
+
+    /** Messages in flight, soonest first; ties keep sending order. */
+    private final PriorityQueue<Entry<T>> inFlight = new PriorityQueue<>();
+    private long sent;
+
+    /**
+     * Creates a link.
+     *
+     * @param delay  mean latency, not negative
+     * @param jitter largest deviation from the mean, in {@code [0, delay]}
+     * @param seed   seed of the jitter sequence
+     */
+    public LagSimulator(long delay, long jitter, long seed) {
+        if (delay < 0 || jitter < 0 || jitter > delay) {
+            throw new IllegalArgumentException("Need 0 <= jitter <= delay: " + jitter + ", " + delay);
+        }
+        this.delay = delay;
+        this.jitter = jitter;
+        this.random = seed;
+    }
+
+    /**
+     * Puts a message on the link.
+     *
+     * @param now     current time
+     * @param message the message
+     */
+    public void send(long now, T message) {
+        long lag = delay;
+        if (jitter > 0) {
+            lag += Long.remainderUnsigned(next(), 2 * jitter + 1) - jitter;
+        }
+        inFlight.add(new Entry<>(now + lag, sent++, message));
+    }
+
+    /**
+     * Takes the next message that has arrived by {@code now}.
+     *
+     * @param now current time
+     * @return the message, or {@code null} if none is due yet
+     */
+    public T poll(long now) {
+        Entry<T> head = inFlight.peek();
+        if (head == null || head.due > now) {
+            return null;
+        }
+        inFlight.poll();
+        return head.message;
+    }
+
+    /** @return messages sent but not yet delivered */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /** @return messages sent so far */
+    public long getSent() {
+        return sent;
+    }
+
+    private long next() {
+        return SplitMix64.mix(random += SplitMix64.GAMMA);
+    }
+
+    private static final class Entry<T> implements Comparable<Entry<T>> {
+
+        private final long due;
+        private final long order;
+        private final T message;
+
+        Entry(long due, long order, T message) {
+            this.due = due;
+            this.order = order;
+            this.message = message;
+        }
+
+        @Override
+        public int compareTo(Entry<T> o) {
+            return due != o.due ? Long.compare(due, o.due) : Long.compare(order, o.order);
+        }
+    }
+}
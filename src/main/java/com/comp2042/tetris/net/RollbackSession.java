@@ -0,0 +1,335 @@
+package com.comp2042.tetris.net;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.ClearRow;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import com.comp2042.tetris.model.rules.GarbageRules;
+import com.comp2042.tetris.util.SplitMix64;
+
+import java.util.Arrays;
+
+/**
+ * One peer's view of a two-player versus match played with rollback netcode.
+ * <p>
+ * Both peers simulate both games in fixed ticks. Each tick consumes one input bit set per
+ * player ({@link #LEFT}, {@link #RIGHT}, ...). The local input is known at once; the
+ * remote input for a tick arrives later over the network, so until then it is predicted
+ * to repeat the last remote input received. When the real input turns out to differ from
+ * the prediction, the session restores the snapshot taken before that tick and
+ * re-simulates up to the present before the next tick runs. Locks send garbage to the
+ * other game as in {@link VersusServer}, with hole columns drawn from a sequence shared
+ * by both peers, so two sessions fed the same inputs end in the same state.
+ * </p>
+ * <p>
+ * Snapshots live in a ring allocated up front, one {@link HeadlessGame.Checkpoint} per
+ * game and tick; saving and restoring only copies arrays and does not allocate. The
+ * session runs at most {@link #getMaxRollback()} ticks ahead of the last confirmed remote
+ * input; beyond that {@link #advance(int)} refuses to run, and the caller should wait
+ * (stall) instead of predicting further.
+ * </p>
+ * <p>
+ * Not thread-safe: call everything from the game loop thread.
+ * </p>
+ */
+public final class RollbackSession {
+
+    /** Input bit: move left. */
+    public static final int LEFT = 1;
+
+    /** Input bit: move right. */
+    public static final int RIGHT = 2;
+
+    /** Input bit: rotate. */
+    public static final int ROTATE = 4;
+
+    /** Input bit: soft drop one row. */
+    public static final int SOFT_DROP = 8;
+
+    /** Input bit: hard drop. */
+    public static final int HARD_DROP = 16;
+
+    /** Input bit: hold. */
+    public static final int HOLD = 32;
+
+    /** Default number of ticks the session may run ahead of the remote inputs. */
+    public static final int DEFAULT_MAX_ROLLBACK = 8;
+
+    /** Ticks between gravity steps. */
+    public static final int GRAVITY_TICKS = 30;
+
+    /** Rows of each board. */
+    public static final int ROWS = 25;
+
+    /** Columns of each board. */
+    public static final int COLS = 10;
+
+    private static final MoveEvent USER_HOLD = new MoveEvent(EventType.HOLD, EventSource.USER);
+    private static final MoveEvent USER_ROTATE = new MoveEvent(EventType.ROTATE, EventSource.USER);
+    private static final MoveEvent USER_LEFT = new MoveEvent(EventType.LEFT, EventSource.USER);
+    private static final MoveEvent USER_RIGHT = new MoveEvent(EventType.RIGHT, EventSource.USER);
+    private static final MoveEvent USER_DOWN = new MoveEvent(EventType.DOWN, EventSource.USER);
+    private static final MoveEvent USER_HARD_DROP = new MoveEvent(EventType.HARD_DROP, EventSource.USER);
+    private static final MoveEvent GRAVITY = new MoveEvent(EventType.DOWN, EventSource.THREAD);
+
+    private final int local;
+    private final int maxRollback;
+    private final HeadlessGame[] games = new HeadlessGame[2];
+
+    //ring of per-tick data, indexed by tick & mask
+    private final int mask;
+    private final HeadlessGame.Checkpoint[][] saved;
+    private final long[] savedHoles;
+    private final int[] localInputs;
+    private final int[] remoteInputs;
+    /** Tick each {@link #remoteInputs} entry belongs to, or -1. */
+    private final int[] remoteTicks;
+    /** Remote input each simulated tick actually used, real or predicted. */
+    private final int[] usedRemote;
+
+    /** Next tick to simulate. */
+    private int tick;
+
+    /** Remote inputs are known for every tick below this. */
+    private int confirmed;
+
+    /** Remote input of tick {@code confirmed - 1}, the prediction for later ticks. */
+    private int lastRemote;
+
+    /** Earliest tick simulated with a wrong prediction, or {@link Integer#MAX_VALUE}. */
+    private int rollbackFrom = Integer.MAX_VALUE;
+
+    /** Garbage hole sequence state. */
+    private long holes;
+
+    private long rollbacks;
+    private long resimulated;
+    private int longestRollback;
+
+    /**
+     * Creates a session with the default rollback window.
+     *
+     * @param localPlayer 0 or 1, the game this peer controls
+     * @param seed        match seed, the same on both peers
+     */
+    public RollbackSession(int localPlayer, long seed) {
+        this(localPlayer, seed, DEFAULT_MAX_ROLLBACK);
+    }
+
+    /**
+     * Creates a session.
+     *
+     * @param localPlayer 0 or 1, the game this peer controls
+     * @param seed        match seed, the same on both peers
+     * @param maxRollback ticks the session may run ahead of the remote inputs, at least 1
+     */
+    public RollbackSession(int localPlayer, long seed, int maxRollback) {
+        if (localPlayer != 0 && localPlayer != 1) {
+            throw new IllegalArgumentException("Local player must be 0 or 1: " + localPlayer);
+        }
+        if (maxRollback < 1 || maxRollback > 1 << 12) {
+            throw new IllegalArgumentException("Max rollback must be in [1, 4096]: " + maxRollback);
+        }
+        this.local = localPlayer;
+        this.maxRollback = maxRollback;
+        //remote inputs may run up to maxRollback ticks ahead of ours, and we keep maxRollback behind
+        int size = Integer.highestOneBit(2 * maxRollback + 1) << 1;
+        this.mask = size - 1;
+        this.saved = new HeadlessGame.Checkpoint[size][2];
+        this.savedHoles = new long[size];
+        this.localInputs = new int[size];
+        this.remoteInputs = new int[size];
+        this.remoteTicks = new int[size];
+        this.usedRemote = new int[size];
+        Arrays.fill(remoteTicks, -1);
+        for (int i = 0; i < size; i++) {
+            saved[i][0] = new HeadlessGame.Checkpoint(ROWS, COLS);
+            saved[i][1] = new HeadlessGame.Checkpoint(ROWS, COLS);
+        }
+        for (int p = 0; p < 2; p++) {
+            GameBoard board = new GameBoard(ROWS, COLS, new RandomBrickGenerator(seed));
+            games[p] = new HeadlessGame(board);
+            games[p].newGame(seed);
+        }
+        this.holes = seed;
+    }
+
+    /**
+     * Runs the next tick with {@code input} as the local player's input, first rolling back
+     * and re-simulating if a late remote input contradicted a prediction.
+     *
+     * @param input the local input bits of this tick
+     * @return {@code false} if the session is already {@link #getMaxRollback()} ticks ahead of
+     *         the remote inputs; nothing happened and the caller should retry next frame
+     */
+    public boolean advance(int input) {
+        if (tick - confirmed >= maxRollback) {
+            return false;
+        }
+        synchronize();
+        localInputs[tick & mask] = input;
+        save(tick);
+        simulate(tick);
+        tick++;
+        return true;
+    }
+
+    /**
+     * Records the remote player's input for {@code remoteTick}. Inputs may arrive out of
+     * order and more than once; a late input that differs from its prediction schedules a
+     * rollback, done by the next {@link #advance(int)} or {@link #synchronize()}.
+     *
+     * @param remoteTick the tick the input belongs to
+     * @param input      the remote input bits
+     * @throws IllegalArgumentException if the tick is further ahead than the ring can hold
+     */
+    public void addRemoteInput(int remoteTick, int input) {
+        if (remoteTick < confirmed) {
+            return;
+        }
+        if (remoteTick - confirmed > mask) {
+            throw new IllegalArgumentException("Remote tick " + remoteTick + " too far ahead of " + confirmed);
+        }
+        int slot = remoteTick & mask;
+        remoteInputs[slot] = input;
+        remoteTicks[slot] = remoteTick;
+        if (remoteTick < tick && usedRemote[slot] != input) {
+            rollbackFrom = Math.min(rollbackFrom, remoteTick);
+        }
+        while (remoteTicks[confirmed & mask] == confirmed) {
+            lastRemote = remoteInputs[confirmed & mask];
+            confirmed++;
+        }
+    }
+
+    /**
+     * Performs a pending rollback now, so the games reflect every input received so far
+     * (e.g. before drawing).
+     */
+    public void synchronize() {
+        int from = rollbackFrom;
+        if (from >= tick) {
+            return;
+        }
+        rollbackFrom = Integer.MAX_VALUE;
+        load(from);
+        simulate(from);
+        for (int t = from + 1; t < tick; t++) {
+            save(t);
+            simulate(t);
+        }
+        rollbacks++;
+        resimulated += tick - from;
+        longestRollback = Math.max(longestRollback, tick - from);
+    }
+
+    private void save(int t) {
+        int slot = t & mask;
+        games[0].saveCheckpoint(saved[slot][0]);
+        games[1].saveCheckpoint(saved[slot][1]);
+        savedHoles[slot] = holes;
+    }
+
+    private void load(int t) {
+        int slot = t & mask;
+        games[0].loadCheckpoint(saved[slot][0]);
+        games[1].loadCheckpoint(saved[slot][1]);
+        holes = savedHoles[slot];
+    }
+
+    private void simulate(int t) {
+        int slot = t & mask;
+        int remote = remoteTicks[slot] == t ? remoteInputs[slot] : lastRemote;
+        usedRemote[slot] = remote;
+        int own = localInputs[slot];
+        boolean gravity = (t + 1) % GRAVITY_TICKS == 0;
+        play(0, local == 0 ? own : remote, gravity);
+        play(1, local == 1 ? own : remote, gravity);
+    }
+
+    private void play(int player, int input, boolean gravity) {
+        HeadlessGame game = games[player];
+        if ((input & HOLD) != 0) {
+            game.onHoldEvent(USER_HOLD);
+        }
+        if ((input & ROTATE) != 0) {
+            game.onRotateEvent(USER_ROTATE);
+        }
+        if ((input & LEFT) != 0) {
+            game.onLeftEvent(USER_LEFT);
+        }
+        if ((input & RIGHT) != 0) {
+            game.onRightEvent(USER_RIGHT);
+        }
+        if ((input & SOFT_DROP) != 0) {
+            attack(player, game.onDownEvent(USER_DOWN).getClearRow());
+        }
+        if ((input & HARD_DROP) != 0) {
+            attack(player, game.onHardDropEvent(USER_HARD_DROP).getClearRow());
+        }
+        if (gravity) {
+            attack(player, game.onDownEvent(GRAVITY).getClearRow());
+        }
+    }
+
+    private void attack(int player, ClearRow clearRow) {
+        int lines = GarbageRules.linesToSend(clearRow);
+        if (lines > 0) {
+            holes += SplitMix64.GAMMA;
+            games[1 - player].receiveGarbage(lines, (int) Long.remainderUnsigned(SplitMix64.mix(holes), COLS));
+        }
+    }
+
+    /**
+     * Returns one of the two games, as of the latest simulated tick.
+     *
+     * @param player 0 or 1
+     * @return the game; read it only, the session owns it
+     */
+    public HeadlessGame getGame(int player) {
+        return games[player];
+    }
+
+    /** @return the game this peer controls, 0 or 1 */
+    public int getLocalPlayer() {
+        return local;
+    }
+
+    /** @return number of ticks simulated so far */
+    public int getTick() {
+        return tick;
+    }
+
+    /** @return remote inputs are known for every tick below this */
+    public int getConfirmedTick() {
+        return confirmed;
+    }
+
+    /** @return ticks the session may run ahead of the remote inputs */
+    public int getMaxRollback() {
+        return maxRollback;
+    }
+
+    /** @return {@code true} once either game has topped out */
+    public boolean isOver() {
+        return games[0].isGameOver() || games[1].isGameOver();
+    }
+
+    /** @return rollbacks performed so far */
+    public long getRollbacks() {
+        return rollbacks;
+    }
+
+    /** @return ticks re-simulated by rollbacks so far */
+    public long getResimulatedTicks() {
+        return resimulated;
+    }
+
+    /** @return most ticks re-simulated by a single rollback */
+    public int getLongestRollback() {
+        return longestRollback;
+    }
+}
@@ -0,0 +1,197 @@
+package com.comp2042.tetris.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Blocking spectator for {@link SpectatorServer}: applies the stream to its own copy of
+ * every player's board and active brick.
+ * <p>
+ * The copy is allocated at the first keyframe; after that, receiving does not allocate.
+ * Not thread-safe.
+ * </p>
+ */
+public final class SpectatorClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+
+    private int players;
+    private int rows;
+    private int cols;
+    private byte[][] cells;
+    private int[][] poses;
+    private int sequence;
+    private long keyframes;
+    private long bytes;
+
+    private SpectatorClient(SocketChannel channel) {
+        this.channel = channel;
+        in.flip();
+    }
+
+    /**
+     * Connects and subscribes to a stream.
+     *
+     * @param address the server's address
+     * @param stream  the stream's {@link SpectatorStream#getId()}
+     * @return the subscribed client
+     * @throws IOException if the connection fails
+     */
+    public static SpectatorClient connect(InetSocketAddress address, int stream) throws IOException {
+        return connect(SocketChannel.open(), address, stream);
+    }
+
+    /** Connects an already opened channel, e.g. one with socket options set. */
+    static SpectatorClient connect(SocketChannel channel, InetSocketAddress address, int stream) throws IOException {
+        try {
+            channel.connect(address);
+            ByteBuffer subscribe = ByteBuffer.allocate(SpectatorProtocol.SUBSCRIBE_FRAME);
+            subscribe.putShort((short) (SpectatorProtocol.SUBSCRIBE_FRAME - 2)).put(SpectatorProtocol.SUBSCRIBE)
+                    .putInt(stream).flip();
+            while (subscribe.hasRemaining()) {
+                channel.write(subscribe);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new SpectatorClient(channel);
+    }
+
+    /**
+     * Reads and applies the next frame, blocking until it arrives.
+     *
+     * @return its type
+     * @throws EOFException if the server closed the connection
+     * @throws IOException  if the connection fails or the frame is malformed
+     */
+    public byte receive() throws IOException {
+        while (in.remaining() < 2 || in.remaining() < (in.getShort(in.position()) & 0xFFFF) + 2) {
+            in.compact();
+            if (!in.hasRemaining()) {
+                throw new IOException("Frame larger than " + in.capacity() + " bytes");
+            }
+            int n = channel.read(in);
+            in.flip();
+            if (n < 0) {
+                throw new EOFException("Server closed the connection");
+            }
+        }
+        int offset = in.position();
+        int length = (in.getShort() & 0xFFFF) + 2;
+        byte type = in.get();
+        if (type != SpectatorProtocol.KEYFRAME && cells == null) {
+            throw new IOException("Stream did not start with a keyframe");
+        }
+        switch (type) {
+            case SpectatorProtocol.KEYFRAME -> {
+                sequence = in.getInt();
+                int p = in.get();
+                int r = in.get();
+                int c = in.get();
+                if (cells == null || p != players || r != rows || c != cols) {
+                    players = p;
+                    rows = r;
+                    cols = c;
+                    cells = new byte[p][r * c];
+                    poses = new int[p][4];
+                }
+                for (int i = 0; i < players; i++) {
+                    readPose(i);
+                    in.get(cells[i]);
+                }
+                keyframes++;
+            }
+            case SpectatorProtocol.DELTA -> {
+                byte[] board = cells[in.get()];
+                int count = in.getShort();
+                for (int i = 0; i < count; i++) {
+                    int index = in.getShort();
+                    board[index] = in.get();
+                }
+                sequence++;
+            }
+            case SpectatorProtocol.BOARD -> {
+                in.get(cells[in.get()]);
+                sequence++;
+            }
+            case SpectatorProtocol.POSE -> {
+                readPose(in.get());
+                sequence++;
+            }
+            default -> throw new IOException("Unknown frame type " + type);
+        }
+        in.position(offset + length);
+        bytes += length;
+        return type;
+    }
+
+    private void readPose(int player) {
+        int[] pose = poses[player];
+        pose[0] = in.get();
+        pose[1] = in.get();
+        pose[2] = in.get();
+        pose[3] = in.get();
+    }
+
+    /** @return sequence number of the last frame applied */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /** @return keyframes received, including skips ahead */
+    public long getKeyframes() {
+        return keyframes;
+    }
+
+    /** @return bytes received */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /** @return players in the stream, 0 before the first keyframe */
+    public int getPlayers() {
+        return players;
+    }
+
+    /**
+     * Returns one cell of a player's board.
+     *
+     * @param player the player's index
+     * @param row    row index, top row first
+     * @param col    column index
+     * @return the cell's value, 0 for empty
+     */
+    public int getCell(int player, int row, int col) {
+        return cells[player][row * cols + col];
+    }
+
+    /** @return id of the player's active brick, 0 for none */
+    public int getBrickId(int player) {
+        return poses[player][0];
+    }
+
+    /** @return rotation of the player's active brick */
+    public int getRotation(int player) {
+        return poses[player][1];
+    }
+
+    /** @return column of the player's active brick */
+    public int getX(int player) {
+        return poses[player][2];
+    }
+
+    /** @return row of the player's active brick */
+    public int getY(int player) {
+        return poses[player][3];
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
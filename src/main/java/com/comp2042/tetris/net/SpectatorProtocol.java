@@ -0,0 +1,60 @@
+package com.comp2042.tetris.net;
+
+/**
+ * Frames of the spectator stream served by {@link SpectatorServer}.
+ * <p>
+ * Framing is the same as {@link VersusProtocol}: {@code short length, byte type,
+ * byte[length - 1] payload}, big-endian. A spectator sends one {@link #SUBSCRIBE} and then
+ * only reads. The stream it gets is a {@link #KEYFRAME} followed by changes:
+ * </p>
+ * <ul>
+ *     <li>{@link #KEYFRAME}: {@code int sequence, byte players, byte rows, byte cols},
+ *     then per player {@code byte brickId, byte rotation, byte x, byte y,
+ *     byte[rows * cols]} cells, top row first; replaces everything the spectator knows</li>
+ *     <li>{@link #DELTA}: {@code byte player, short count}, then per changed cell
+ *     {@code short index, byte value} with {@code index = row * cols + col}</li>
+ *     <li>{@link #BOARD}: {@code byte player, byte[rows * cols]} cells; sent instead of a
+ *     delta when that would be larger</li>
+ *     <li>{@link #POSE}: {@code byte player, byte brickId, byte rotation, byte x, byte y};
+ *     the active brick moved</li>
+ * </ul>
+ * <p>
+ * A spectator that falls too far behind skips ahead to the latest keyframe; it never sees
+ * a delta without the state that delta applies to.
+ * </p>
+ */
+public final class SpectatorProtocol {
+
+    /** Spectator to server: {@code int stream}, the stream to watch. */
+    public static final byte SUBSCRIBE = 1;
+
+    /** Server to spectator: full state of every player. */
+    public static final byte KEYFRAME = 64;
+    /** Server to spectator: cells one player's lock changed. */
+    public static final byte DELTA = 65;
+    /** Server to spectator: one player's full board. */
+    public static final byte BOARD = 66;
+    /** Server to spectator: one player's active brick. */
+    public static final byte POSE = 67;
+
+    /** Bytes before the payload: length and type. */
+    public static final int HEADER = 3;
+
+    /** Bytes of a {@link #SUBSCRIBE} frame. */
+    public static final int SUBSCRIBE_FRAME = HEADER + 4;
+
+    private SpectatorProtocol() {
+    }
+
+    /**
+     * Returns the size of a keyframe, the largest frame of a stream.
+     *
+     * @param players players in the stream
+     * @param rows    rows of every board
+     * @param cols    columns of every board
+     * @return bytes of a {@link #KEYFRAME} including its header
+     */
+    public static int keyframeSize(int players, int rows, int cols) {
+        return HEADER + 7 + players * (4 + rows * cols);
+    }
+}
@@ -0,0 +1,415 @@
+package com.comp2042.tetris.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Serves {@link SpectatorStream}s to spectators over non-blocking NIO.
+ * <p>
+ * One selector thread serves every spectator. Each stream's frames are serialised once
+ * into the stream's ring buffer; a spectator keeps a read-only view of that ring and an
+ * offset into the stream, and is sent the bytes between its offset and the stream's head
+ * straight from the ring, so fanning out to a thousand spectators costs a thousand
+ * socket writes and no copies or allocation.
+ * </p>
+ * <p>
+ * When a socket only takes part of a frame, the rest of that frame is copied aside, so a
+ * spectator's place in the ring is always a frame boundary. A spectator more than half a
+ * ring behind skips to the latest keyframe from there. If the ring is overwritten while
+ * its bytes are being sent (the publisher wrote half a ring during one socket write), the
+ * spectator is disconnected, since part of what it received may be torn.
+ * </p>
+ */
+public final class SpectatorServer implements AutoCloseable {
+
+    /** Ring bytes per stream unless configured otherwise. */
+    public static final int DEFAULT_RING_BYTES = 256 * 1024;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread thread;
+    private final int ringBytes;
+    private final Map<Integer, SpectatorStream> streams = new ConcurrentHashMap<>();
+    private final Consumer<SelectionKey> handler = this::handle;
+    private int nextStream;
+    private volatile boolean running = true;
+
+    //server thread only
+    private final List<SpectatorStream> watched = new ArrayList<>();
+
+    //written by the server thread only
+    private volatile int spectators;
+    private volatile long resyncs;
+    private volatile long torn;
+
+    /**
+     * Starts a server with rings of {@link #DEFAULT_RING_BYTES}.
+     *
+     * @param address address to listen on; port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     */
+    public SpectatorServer(InetSocketAddress address) throws IOException {
+        this(address, DEFAULT_RING_BYTES);
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param address   address to listen on; port 0 picks a free port
+     * @param ringBytes ring size of every stream; how far a spectator may fall behind
+     *                  before it skips ahead
+     * @throws IOException if the address cannot be bound
+     */
+    public SpectatorServer(InetSocketAddress address, int ringBytes) throws IOException {
+        if (ringBytes < 4096) {
+            throw new IllegalArgumentException("Ring must be at least 4096 bytes: " + ringBytes);
+        }
+        this.ringBytes = ringBytes;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        try {
+            server.bind(address, 1024);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            server.close();
+            selector.close();
+            throw e;
+        }
+        thread = new Thread(this::run, "spectators");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** @return the port the server listens on */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /** @return spectators currently subscribed */
+    public int getSpectators() {
+        return spectators;
+    }
+
+    /** @return times a spectator skipped ahead to a keyframe */
+    public long getResyncs() {
+        return resyncs;
+    }
+
+    /** @return spectators dropped because the ring was overwritten under them */
+    public long getTorn() {
+        return torn;
+    }
+
+    /**
+     * Opens a stream spectators can subscribe to by its {@link SpectatorStream#getId()}.
+     *
+     * @param players players in the match
+     * @param rows    rows of every board
+     * @param cols    columns of every board
+     * @return the stream, to be published to by the match's host
+     */
+    public synchronized SpectatorStream openStream(int players, int rows, int cols) {
+        if (players < 1 || players > Byte.MAX_VALUE || rows < 1 || rows > Byte.MAX_VALUE
+                || cols < 1 || cols > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Bad stream shape: " + players + " players, " + rows + "x" + cols);
+        }
+        if (SpectatorProtocol.keyframeSize(players, rows, cols) > ringBytes / 8) {
+            throw new IllegalArgumentException("Keyframes too large for a " + ringBytes + " byte ring");
+        }
+        SpectatorStream stream = new SpectatorStream(this, nextStream++, players, rows, cols, ringBytes);
+        streams.put(stream.getId(), stream);
+        return stream;
+    }
+
+    /** Called by streams after publishing. */
+    void wakeup() {
+        selector.wakeup();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(handler);
+                //new frames: send to everyone not already waiting for their socket to drain
+                for (int i = 0; i < watched.size(); i++) {
+                    SpectatorStream stream = watched.get(i);
+                    List<Subscriber> subscribers = stream.subscribers;
+                    for (int j = 0; j < subscribers.size(); j++) {
+                        Subscriber s = subscribers.get(j);
+                        if (!s.blocked && s.cursor != stream.head && send(s)) {
+                            //dropped: its slot now holds the last subscriber
+                            j--;
+                        }
+                    }
+                    if (subscribers.isEmpty()) {
+                        //the last one left, which took the stream out of the list
+                        i--;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            //the selector itself failed; fall through and close every connection
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                key.cancel();
+                try {
+                    key.channel().close();
+                } catch (IOException ignored) {
+                    //closing anyway
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                //closing anyway
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Subscriber s = (Subscriber) key.attachment();
+        if (key.isReadable() && read(s)) {
+            return;
+        }
+        if (key.isValid() && key.isWritable()) {
+            s.blocked = false;
+            send(s);
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Subscriber s = new Subscriber(channel);
+                s.key = channel.register(selector, SelectionKey.OP_READ, s);
+            }
+        } catch (IOException e) {
+            //a failed accept only loses that spectator
+        }
+    }
+
+    /** @return {@code true} if the spectator was dropped */
+    private boolean read(Subscriber s) {
+        if (s.stream != null) {
+            //spectators have nothing more to say; only watch for the close
+            s.in.clear();
+        }
+        int n;
+        try {
+            n = s.channel.read(s.in);
+        } catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            drop(s);
+            return true;
+        }
+        if (s.stream != null || s.in.hasRemaining()) {
+            return false;
+        }
+        ByteBuffer in = s.in;
+        SpectatorStream stream = null;
+        if (in.getShort(0) == SpectatorProtocol.SUBSCRIBE_FRAME - 2 && in.get(2) == SpectatorProtocol.SUBSCRIBE) {
+            stream = streams.get(in.getInt(SpectatorProtocol.HEADER));
+        }
+        if (stream == null) {
+            drop(s);
+            return true;
+        }
+        s.stream = stream;
+        s.view = stream.ring.asReadOnlyBuffer();
+        s.cursor = stream.keyframeAt;
+        s.pending = ByteBuffer.allocate(stream.maxFrame).flip();
+        s.index = stream.subscribers.size();
+        stream.subscribers.add(s);
+        if (s.index == 0) {
+            watched.add(stream);
+        }
+        spectators++;
+        return send(s);
+    }
+
+    /**
+     * Sends {@code s} what it has not seen yet, as far as its socket takes it.
+     *
+     * @return {@code true} if the spectator was dropped
+     */
+    private boolean send(Subscriber s) {
+        SpectatorStream stream = s.stream;
+        int capacity = stream.capacity;
+        if (s.pending.hasRemaining() && !write(s, s.pending)) {
+            return !s.channel.isOpen();
+        }
+        long head;
+        while (s.cursor < (head = stream.head)) {
+            if (head - s.cursor > capacity / 2) {
+                //the cursor is always on a frame boundary, so the skip cannot tear a frame
+                s.cursor = stream.keyframeAt;
+                resyncs++;
+                continue;
+            }
+            int from = (int) (s.cursor % capacity);
+            int length = (int) Math.min(head - s.cursor, capacity - from);
+            ByteBuffer view = s.view;
+            view.clear().position(from).limit(from + length);
+            if (!write(s, view) && !s.channel.isOpen()) {
+                return true;
+            }
+            long start = s.cursor;
+            long end = start + (view.position() - from);
+            long boundary = start;
+            while (boundary < end) {
+                boundary += stream.frameLength(boundary);
+            }
+            //checked after reading: the bytes sent and the lengths walked all came from the ring
+            if (overwritten(s, start)) {
+                return true;
+            }
+            //keep the rest of a half-sent frame, which the ring may overwrite before it is sent
+            s.pending.clear();
+            stream.copy(end, (int) (boundary - end), s.pending);
+            s.pending.flip();
+            if (overwritten(s, start)) {
+                return true;
+            }
+            s.cursor = boundary;
+            if (s.blocked || s.pending.hasRemaining() && !write(s, s.pending)) {
+                return !s.channel.isOpen();
+            }
+        }
+        if ((s.key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+            s.key.interestOps(SelectionKey.OP_READ);
+        }
+        return false;
+    }
+
+    /**
+     * Drops {@code s} if the ring may no longer hold stream offset {@code start}. The
+     * publisher writes a frame before it moves the head, so up to one more frame past the
+     * head may already be overwriting the ring.
+     *
+     * @return {@code true} if it was dropped
+     */
+    private boolean overwritten(Subscriber s, long start) {
+        SpectatorStream stream = s.stream;
+        if (stream.head - start <= stream.capacity - stream.maxFrame) {
+            return false;
+        }
+        torn++;
+        drop(s);
+        return true;
+    }
+
+    /**
+     * Writes as much of {@code buffer} as the socket takes; if not all of it, waits for the
+     * socket to drain.
+     *
+     * @return {@code true} if everything was written; {@code false} if blocked or dropped
+     */
+    private boolean write(Subscriber s, ByteBuffer buffer) {
+        try {
+            s.channel.write(buffer);
+        } catch (IOException e) {
+            drop(s);
+            return false;
+        }
+        if (buffer.hasRemaining()) {
+            s.blocked = true;
+            s.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            return false;
+        }
+        return true;
+    }
+
+    private void drop(Subscriber s) {
+        s.key.cancel();
+        try {
+            s.channel.close();
+        } catch (IOException ignored) {
+            //closing anyway
+        }
+        SpectatorStream stream = s.stream;
+        if (stream == null) {
+            return;
+        }
+        //swap-remove keeps the subscriber list dense without shifting
+        List<Subscriber> subscribers = stream.subscribers;
+        Subscriber last = subscribers.remove(subscribers.size() - 1);
+        if (last != s) {
+            subscribers.set(s.index, last);
+            last.index = s.index;
+        }
+        if (subscribers.isEmpty()) {
+            watched.remove(stream);
+        }
+        s.stream = null;
+        spectators--;
+    }
+
+    /**
+     * Stops the server thread and disconnects every spectator.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        if (thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            server.close();
+        } catch (IOException ignored) {
+            //nothing left to release
+        }
+    }
+
+    /** A spectator's connection and its place in its stream; server thread only. */
+    static final class Subscriber {
+
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(SpectatorProtocol.SUBSCRIBE_FRAME);
+        private SelectionKey key;
+
+        private SpectatorStream stream;
+        /** Read-only view of the stream's ring, positioned per write. */
+        private ByteBuffer view;
+        /** Stream offset of the next frame to send from the ring; always a frame boundary. */
+        private long cursor;
+        /** Rest of a frame the socket only took part of, sent before anything else. */
+        private ByteBuffer pending;
+        /** Index in the stream's subscriber list. */
+        private int index;
+        /** Waiting for the socket to drain before sending more. */
+        private boolean blocked;
+
+        Subscriber(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
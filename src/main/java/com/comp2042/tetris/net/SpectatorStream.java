@@ -0,0 +1,237 @@
+package com.comp2042.tetris.net;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One match as seen by spectators, opened with {@link SpectatorServer#openStream}.
+ * <p>
+ * The match's host reports locks and brick moves; each report is serialised once, into
+ * a ring buffer owned by the stream, and every spectator is sent the same bytes from it
+ * through its own read-only view. A lock is sent as the cells it changed (or the whole
+ * board when that is smaller), a move as the brick's pose, and every
+ * {@link #setKeyframeInterval(int) few locks} the whole state again, so spectators that
+ * join late or fall behind can start from there.
+ * </p>
+ * <p>
+ * The publishing methods must be called from one thread at a time. Spectators are
+ * served by the server's thread, which only reads the ring.
+ * </p>
+ */
+public final class SpectatorStream {
+
+    /** Locks between keyframes unless configured otherwise. */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+
+    private final SpectatorServer server;
+    private final int id;
+    private final int players;
+    private final int rows;
+    private final int cols;
+
+    //shared with the server thread
+    final ByteBuffer ring;
+    final int capacity;
+    /** Total bytes published; the ring holds the last {@link #capacity} of them. */
+    volatile long head;
+    /** Stream offset of the latest keyframe. */
+    volatile long keyframeAt;
+    /** Bytes of the largest frame, a keyframe. */
+    final int maxFrame;
+
+    //publishing thread only
+    private final byte[][] cells;
+    private final int[][] poses;
+    private final short[] changed;
+    private final ByteBuffer staging;
+    private int keyframeInterval = DEFAULT_KEYFRAME_INTERVAL;
+    private int locksSinceKeyframe;
+    private int sequence;
+    private long keyframes;
+
+    //server thread only
+    final List<SpectatorServer.Subscriber> subscribers = new ArrayList<>();
+
+    SpectatorStream(SpectatorServer server, int id, int players, int rows, int cols, int capacity) {
+        this.server = server;
+        this.id = id;
+        this.players = players;
+        this.rows = rows;
+        this.cols = cols;
+        this.capacity = capacity;
+        this.ring = ByteBuffer.allocateDirect(capacity);
+        this.cells = new byte[players][rows * cols];
+        this.poses = new int[players][4];
+        this.changed = new short[rows * cols];
+        this.maxFrame = SpectatorProtocol.keyframeSize(players, rows, cols);
+        this.staging = ByteBuffer.allocate(maxFrame);
+        keyframe();
+    }
+
+    /** @return number spectators subscribe with */
+    public int getId() {
+        return id;
+    }
+
+    /** @return frames published so far */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /** @return bytes published so far, each sent to every spectator */
+    public long getBytesPublished() {
+        return head;
+    }
+
+    /** @return keyframes published so far, including the first */
+    public long getKeyframes() {
+        return keyframes;
+    }
+
+    /**
+     * Sets how many locks may pass between keyframes. Keyframes are also sent early when
+     * the changes since the last one fill a quarter of the ring.
+     *
+     * @param locks at least 1
+     */
+    public void setKeyframeInterval(int locks) {
+        if (locks < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be positive: " + locks);
+        }
+        this.keyframeInterval = locks;
+    }
+
+    /**
+     * Publishes a player's board after a lock.
+     *
+     * @param player the player's index
+     * @param matrix the background matrix, {@code [row][col]}, of the stream's size
+     */
+    public void publishLock(int player, int[][] matrix) {
+        byte[] board = cells[player];
+        int count = 0;
+        for (int r = 0; r < rows; r++) {
+            int[] row = matrix[r];
+            for (int c = 0; c < cols; c++) {
+                byte value = (byte) row[c];
+                int index = r * cols + c;
+                if (board[index] != value) {
+                    board[index] = value;
+                    changed[count++] = (short) index;
+                }
+            }
+        }
+        if (++locksSinceKeyframe >= keyframeInterval || head - keyframeAt > capacity / 4) {
+            keyframe();
+            return;
+        }
+        if (count == 0) {
+            return;
+        }
+        ByteBuffer out = staging.clear();
+        if (4 + 3 * count < 2 + board.length) {
+            out.putShort((short) (4 + 3 * count)).put(SpectatorProtocol.DELTA).put((byte) player)
+                    .putShort((short) count);
+            for (int i = 0; i < count; i++) {
+                out.putShort(changed[i]).put(board[changed[i]]);
+            }
+        } else {
+            out.putShort((short) (2 + board.length)).put(SpectatorProtocol.BOARD).put((byte) player).put(board);
+        }
+        commit();
+    }
+
+    /**
+     * Publishes where a player's active brick is; nothing is sent if it has not moved.
+     *
+     * @param player   the player's index
+     * @param brickId  the brick's id, or 0 for none
+     * @param rotation its rotation index
+     * @param x        column of its matrix's left edge
+     * @param y        row of its matrix's top edge
+     */
+    public void publishPose(int player, int brickId, int rotation, int x, int y) {
+        int[] pose = poses[player];
+        if (pose[0] == brickId && pose[1] == rotation && pose[2] == x && pose[3] == y) {
+            return;
+        }
+        pose[0] = brickId;
+        pose[1] = rotation;
+        pose[2] = x;
+        pose[3] = y;
+        if (head - keyframeAt > capacity / 4) {
+            keyframe();
+            return;
+        }
+        staging.clear().putShort((short) 6).put(SpectatorProtocol.POSE).put((byte) player)
+                .put((byte) brickId).put((byte) rotation).put((byte) x).put((byte) y);
+        commit();
+    }
+
+    /**
+     * Publishes the full state of every player.
+     *
+     * @return the keyframe's sequence number
+     */
+    public int keyframe() {
+        int frame = sequence;
+        ByteBuffer out = staging.clear();
+        out.putShort((short) (staging.capacity() - 2)).put(SpectatorProtocol.KEYFRAME)
+                .putInt(frame).put((byte) players).put((byte) rows).put((byte) cols);
+        for (int p = 0; p < players; p++) {
+            int[] pose = poses[p];
+            out.put((byte) pose[0]).put((byte) pose[1]).put((byte) pose[2]).put((byte) pose[3]).put(cells[p]);
+        }
+        long start = head;
+        commit();
+        keyframeAt = start;
+        locksSinceKeyframe = 0;
+        keyframes++;
+        return frame;
+    }
+
+    /** Copies the staged frame into the ring, then makes it visible to the server thread. */
+    private void commit() {
+        int length = staging.position();
+        int at = (int) (head % capacity);
+        int first = Math.min(length, capacity - at);
+        ring.put(at, staging, 0, first);
+        if (first < length) {
+            ring.put(0, staging, first, length - first);
+        }
+        sequence++;
+        head += length;
+        server.wakeup();
+    }
+
+    /**
+     * Returns the length of the frame that starts at stream offset {@code at}, which must
+     * still be in the ring.
+     */
+    int frameLength(long at) {
+        int hi = ring.get((int) (at % capacity)) & 0xFF;
+        int lo = ring.get((int) ((at + 1) % capacity)) & 0xFF;
+        return (hi << 8 | lo) + 2;
+    }
+
+    /**
+     * Appends {@code length} bytes of the stream, from offset {@code from}, to
+     * {@code target}; the bytes must still be in the ring.
+     */
+    void copy(long from, int length, ByteBuffer target) {
+        int at = (int) (from % capacity);
+        int first = Math.min(length, capacity - at);
+        int position = target.position();
+        target.put(position, ring, at, first);
+        if (first < length) {
+            target.put(position + first, ring, 0, length - first);
+        }
+        target.position(position + length);
+    }
+
+    @Override
+    public String toString() {
+        return "SpectatorStream{" + id + ", " + players + " players, " + rows + "x" + cols + "}";
+    }
+}
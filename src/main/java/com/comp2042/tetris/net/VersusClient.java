@@ -0,0 +1,217 @@
+package com.comp2042.tetris.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Blocking client for {@link VersusServer}, one per player.
+ * <p>
+ * {@link #receive()} reads the next message and keeps its fields until the following
+ * call; buffers are reused, so a client does not allocate per message either. Not
+ * thread-safe: use one thread per client, or one thread that alternates sending and
+ * receiving.
+ * </p>
+ */
+public final class VersusClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(8 * VersusProtocol.MAX_FRAME);
+    private final ByteBuffer out = ByteBuffer.allocate(VersusProtocol.MAX_FRAME);
+
+    private int match;
+    private int player;
+    private int players;
+    private long seed;
+
+    private int from;
+    private int linesRemoved;
+    private boolean toppedOut;
+    private int rows;
+    private final int[] rowMasks = new int[VersusProtocol.MAX_ROWS];
+    private int garbageLines;
+    private int holeColumn;
+    private int winner;
+
+    private VersusClient(SocketChannel channel) {
+        this.channel = channel;
+        in.flip();
+    }
+
+    /**
+     * Connects to a server.
+     *
+     * @param address the server's address
+     * @return the connected client
+     * @throws IOException if the connection fails
+     */
+    public static VersusClient connect(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.connect(address);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new VersusClient(channel);
+    }
+
+    /**
+     * Queues for the next match; the server answers with {@link VersusProtocol#START}
+     * once enough players are waiting.
+     *
+     * @throws IOException if the connection fails
+     */
+    public void join() throws IOException {
+        VersusProtocol.putJoin(out.clear());
+        write();
+    }
+
+    /**
+     * Reports a lock.
+     *
+     * @param matrix       background matrix after the lock, {@code [row][col]}
+     * @param linesRemoved rows the lock cleared
+     * @param toppedOut    whether the player has lost
+     * @throws IOException if the connection fails
+     */
+    public void sendLock(int[][] matrix, int linesRemoved, boolean toppedOut) throws IOException {
+        VersusProtocol.putLock(out.clear(), matrix, linesRemoved, toppedOut);
+        write();
+    }
+
+    private void write() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+    }
+
+    /**
+     * Reads the next message, blocking until it arrives.
+     *
+     * @return its type; its fields are readable through the getters until the next call
+     * @throws EOFException if the server closed the connection
+     * @throws IOException  if the connection fails or the message is malformed
+     */
+    public byte receive() throws IOException {
+        int length;
+        while ((length = VersusProtocol.frameLength(in)) == VersusProtocol.INCOMPLETE) {
+            in.compact();
+            int n = channel.read(in);
+            in.flip();
+            if (n < 0) {
+                throw new EOFException("Server closed the connection");
+            }
+        }
+        if (length == VersusProtocol.MALFORMED) {
+            throw new IOException("Bad frame length " + (in.getShort(in.position()) & 0xFFFF));
+        }
+        int offset = in.position();
+        in.position(offset + VersusProtocol.HEADER);
+        byte type = VersusProtocol.type(in, offset);
+        switch (type) {
+            case VersusProtocol.START -> {
+                match = in.getInt();
+                player = in.get();
+                players = in.get();
+                seed = in.getLong();
+            }
+            case VersusProtocol.BOARD -> {
+                from = in.get();
+                linesRemoved = in.get();
+                toppedOut = in.get() != 0;
+                rows = in.get() & 0xFF;
+                for (int r = 0; r < rows; r++) {
+                    rowMasks[r] = in.getInt();
+                }
+            }
+            case VersusProtocol.GARBAGE -> {
+                from = in.get();
+                garbageLines = in.get();
+                holeColumn = in.get();
+            }
+            case VersusProtocol.END -> winner = in.get();
+            default -> throw new IOException("Unknown message type " + type);
+        }
+        in.position(offset + length);
+        return type;
+    }
+
+    /** @return match number from the last {@link VersusProtocol#START} */
+    public int getMatch() {
+        return match;
+    }
+
+    /** @return this client's index in the current match */
+    public int getPlayer() {
+        return player;
+    }
+
+    /** @return players in the current match */
+    public int getPlayers() {
+        return players;
+    }
+
+    /** @return brick seed of the current match */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** @return sender of the last {@link VersusProtocol#BOARD} or {@link VersusProtocol#GARBAGE} */
+    public int getFrom() {
+        return from;
+    }
+
+    /** @return rows cleared by the lock of the last {@link VersusProtocol#BOARD} */
+    public int getLinesRemoved() {
+        return linesRemoved;
+    }
+
+    /** @return whether the last {@link VersusProtocol#BOARD} reported a top out */
+    public boolean isToppedOut() {
+        return toppedOut;
+    }
+
+    /** @return rows of the last {@link VersusProtocol#BOARD} */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns one row of the last {@link VersusProtocol#BOARD}.
+     *
+     * @param row row index, top row first
+     * @return bit {@code c} set for a filled cell in column {@code c}
+     */
+    public int getRowMask(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        }
+        return rowMasks[row];
+    }
+
+    /** @return rows of the last {@link VersusProtocol#GARBAGE} */
+    public int getGarbageLines() {
+        return garbageLines;
+    }
+
+    /** @return hole column of the last {@link VersusProtocol#GARBAGE} */
+    public int getHoleColumn() {
+        return holeColumn;
+    }
+
+    /** @return winner from the last {@link VersusProtocol#END}, or -1 */
+    public int getWinner() {
+        return winner;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,567 @@
+package com.comp2042.tetris.net;
+
+import com.comp2042.tetris.ai.AiPlayer;
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load tool for {@link VersusServer}: simulated players on virtual threads, each playing
+ * two-player matches over the real wire protocol with {@link VersusClient}.
+ * <p>
+ * Every bot runs on two virtual threads. The player thread places one brick per
+ * interval with a greedy {@link AiPlayer} on its own {@link HeadlessGame}, applies the
+ * garbage it was sent and reports each lock; it concedes after a fixed number of bricks
+ * so matches keep finishing, then joins the next one. The reader thread blocks in
+ * {@link VersusClient#receive()}. Message latency is measured from a player sending its
+ * {@link VersusProtocol#LOCK} to the opponent's reader receiving the relayed
+ * {@link VersusProtocol#BOARD}; both ends are in this process, so one clock serves both.
+ * </p>
+ * <p>
+ * {@link #ramp(int, long)} grows the bot population to a target, waits until all of
+ * them are connected, and then measures a window. Matches only finish once their bots
+ * have placed their bricks, so windows should be longer than a match. Server CPU is the
+ * CPU time of the server's {@code versus-} loop threads in this JVM, so it is only
+ * reported when the server runs in the same process (as with {@link #main}); process CPU
+ * covers server and bots together. Each bot holds one socket, and an in-process server
+ * one more, so large runs need a raised open-file limit and enough ephemeral ports.
+ * </p>
+ */
+public final class VersusLoadGenerator implements AutoCloseable {
+
+    /** Header line of {@link #writeTable}. */
+    public static final String TABLE_HEADER = "clients\tconnected\tmatches_per_s\tlocks_per_s\tlatency_p50_us"
+            + "\tlatency_p90_us\tlatency_p99_us\tlatency_p999_us\tlatency_max_us\tserver_cpu\tprocess_cpu\terrors";
+
+    /** Default time between two bricks of one bot. */
+    public static final int DEFAULT_PIECE_INTERVAL_MS = 500;
+
+    /** Default bricks a bot places before conceding. */
+    public static final int DEFAULT_PIECES_PER_GAME = 20;
+
+    /** Most bots connecting at once, which keeps the server's accept backlog from overflowing. */
+    private static final int CONNECTING = 256;
+
+    private static final int ROWS = 25;
+
+    private final InetSocketAddress address;
+    private volatile int pieceIntervalMs = DEFAULT_PIECE_INTERVAL_MS;
+    private volatile int piecesPerGame = DEFAULT_PIECES_PER_GAME;
+    private volatile boolean running = true;
+
+    private final List<Bot> bots = new ArrayList<>();
+    private final Semaphore connecting = new Semaphore(CONNECTING);
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger settled = new AtomicInteger();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder locks = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Histogram latency = new Histogram();
+
+    /** Send times of the locks in flight, per running match. */
+    private final Map<Integer, MatchClock> clocks = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a generator; no bots run until {@link #ramp(int, long)}.
+     *
+     * @param address the server's address
+     */
+    public VersusLoadGenerator(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    /**
+     * Sets how fast bots play.
+     *
+     * @param pieceIntervalMs milliseconds between two bricks of one bot, at least 1
+     */
+    public void setPieceIntervalMillis(int pieceIntervalMs) {
+        if (pieceIntervalMs < 1) {
+            throw new IllegalArgumentException("Piece interval must be positive: " + pieceIntervalMs);
+        }
+        this.pieceIntervalMs = pieceIntervalMs;
+    }
+
+    /**
+     * Sets how long matches last.
+     *
+     * @param piecesPerGame bricks a bot places before conceding, at least 1
+     */
+    public void setPiecesPerGame(int piecesPerGame) {
+        if (piecesPerGame < 1) {
+            throw new IllegalArgumentException("Pieces per game must be positive: " + piecesPerGame);
+        }
+        this.piecesPerGame = piecesPerGame;
+    }
+
+    /** @return bots started so far */
+    public int getClients() {
+        return bots.size();
+    }
+
+    /**
+     * Starts bots until {@code clients} are running, waits until every bot has connected
+     * (or failed to), and measures the next {@code measureMillis}.
+     *
+     * @param clients       bots to run, an even number not below the current count
+     * @param measureMillis length of the measured window
+     * @return what the window measured
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Step ramp(int clients, long measureMillis) throws InterruptedException {
+        if (clients < bots.size() || clients % 2 != 0) {
+            throw new IllegalArgumentException("Clients must be even and at least " + bots.size() + ": " + clients);
+        }
+        while (bots.size() < clients) {
+            Bot bot = new Bot();
+            bots.add(bot);
+            bot.player = Thread.ofVirtual().name("bot-" + bots.size()).start(bot);
+        }
+        while (settled.get() < clients) {
+            Thread.sleep(10);
+        }
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long[] histogram = latency.snapshot();
+        long matchesBefore = matches.sum();
+        long locksBefore = locks.sum();
+        long errorsBefore = errors.sum();
+        long serverBefore = serverCpu();
+        long processBefore = os.getProcessCpuTime();
+        long start = System.nanoTime();
+        Thread.sleep(measureMillis);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long serverAfter = serverCpu();
+        long[] window = latency.snapshot();
+        for (int i = 0; i < window.length; i++) {
+            window[i] -= histogram[i];
+        }
+        double serverCpu = serverBefore < 0 ? -1 : (serverAfter - serverBefore) / 1e9 / seconds;
+        return new Step(clients, connected.get(), (matches.sum() - matchesBefore) / seconds,
+                (locks.sum() - locksBefore) / seconds, window, serverCpu,
+                (os.getProcessCpuTime() - processBefore) / 1e9 / seconds, errors.sum() - errorsBefore);
+    }
+
+    /** @return summed CPU nanoseconds of the server loop threads in this JVM, or -1 if there are none */
+    private static long serverCpu() {
+        long cpu = -1;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("versus-")) {
+                cpu = Math.max(cpu, 0) + ManagementFactory.getThreadMXBean().getThreadCpuTime(t.threadId());
+            }
+        }
+        return cpu;
+    }
+
+    /**
+     * Stops every bot and closes its connection.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Bot bot : bots) {
+            bot.close();
+        }
+        for (Bot bot : bots) {
+            try {
+                bot.player.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes steps as a tab-separated table, {@link #TABLE_HEADER} first. Unknown server
+     * CPU is written as {@code -}.
+     *
+     * @param steps the steps
+     * @param out   where to write
+     * @throws UncheckedIOException if writing fails
+     */
+    public static void writeTable(List<Step> steps, Appendable out) {
+        try {
+            out.append(TABLE_HEADER).append('\n');
+            for (Step s : steps) {
+                out.append(String.format(Locale.ROOT, "%d\t%d\t%.1f\t%.0f\t%d\t%d\t%d\t%d\t%d\t%s\t%.2f\t%d%n",
+                        s.getClients(), s.getConnected(), s.getMatchesPerSecond(), s.getLocksPerSecond(),
+                        s.getLatencyMicros(50), s.getLatencyMicros(90), s.getLatencyMicros(99),
+                        s.getLatencyMicros(99.9), s.getLatencyMicros(100),
+                        s.getServerCpu() < 0 ? "-" : String.format(Locale.ROOT, "%.2f", s.getServerCpu()),
+                        s.getProcessCpu(), s.getErrors()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ramps bots against a server, started in this process unless an address is given.
+     * <p>
+     * Arguments: {@code [clients,clients,...] [seconds per step] [host:port]}, by default
+     * {@code 1000,2000,5000,10000,20000 30}. Windows should be longer than a match
+     * (20 bricks at 2 per second by default) for the match rate to settle.
+     * </p>
+     *
+     * @param args see above
+     * @throws Exception if the server cannot start or the run is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        String[] ramp = (args.length > 0 ? args[0] : "1000,2000,5000,10000,20000").split(",");
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 30;
+        VersusServer server = null;
+        InetSocketAddress address;
+        if (args.length > 2) {
+            int colon = args[2].lastIndexOf(':');
+            address = new InetSocketAddress(args[2].substring(0, colon), Integer.parseInt(args[2].substring(colon + 1)));
+        } else {
+            server = new VersusServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+        }
+        List<Step> steps = new ArrayList<>();
+        try (VersusLoadGenerator generator = new VersusLoadGenerator(address)) {
+            for (String clients : ramp) {
+                steps.add(generator.ramp(Integer.parseInt(clients.trim()), seconds * 1000));
+                System.err.println(steps.getLast());
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+        writeTable(steps, System.out);
+    }
+
+    /**
+     * One simulated player: the player thread runs {@link #run()}, the reader thread
+     * {@link #read()}.
+     */
+    private final class Bot implements Runnable {
+
+        private Thread player;
+        private volatile VersusClient client;
+
+        //written by the reader, read by the player
+        private final Semaphore started = new Semaphore(0);
+        private final Semaphore ended = new Semaphore(0);
+        private final Queue<int[]> garbage = new ConcurrentLinkedQueue<>();
+        private volatile boolean over;
+        private volatile int match;
+        private volatile int seat;
+        private volatile long seed;
+        private volatile MatchClock clock;
+
+        @Override
+        public void run() {
+            try {
+                connecting.acquire();
+                try {
+                    client = VersusClient.connect(address);
+                    connected.incrementAndGet();
+                } finally {
+                    connecting.release();
+                    settled.incrementAndGet();
+                }
+                Thread reader = Thread.ofVirtual().start(this::read);
+                GameBoard board = new GameBoard(ROWS, VersusProtocol.COLS, new RandomBrickGenerator());
+                HeadlessGame game = new HeadlessGame(board);
+                AiPlayer ai = new AiPlayer(board);
+                ai.setEventListener(game);
+                while (running) {
+                    over = false;
+                    client.join();
+                    started.acquire();
+                    play(board, game, ai);
+                    ended.acquire();
+                    if (clock.release()) {
+                        matches.increment();
+                    } else {
+                        clocks.remove(match);
+                    }
+                }
+                reader.join();
+            } catch (IOException e) {
+                if (running) {
+                    errors.increment();
+                }
+            } catch (InterruptedException e) {
+                //closing
+            } finally {
+                close();
+            }
+        }
+
+        private void play(GameBoard board, HeadlessGame game, AiPlayer ai) throws IOException,
+                InterruptedException {
+            game.newGame(seed);
+            int interval = pieceIntervalMs;
+            //spread the bots over the interval so they do not all lock at once
+            Thread.sleep(ThreadLocalRandom.current().nextInt(interval));
+            int pieces = piecesPerGame;
+            for (int piece = 0; piece < pieces && running && !over; piece++) {
+                for (int[] g = garbage.poll(); g != null; g = garbage.poll()) {
+                    game.receiveGarbage(g[0], g[1]);
+                }
+                int lines = game.getLines();
+                ai.playPiece();
+                boolean toppedOut = game.isGameOver() || piece == pieces - 1;
+                clock.sent(seat, System.nanoTime());
+                client.sendLock(board.getBoardMatrix(), game.getLines() - lines, toppedOut);
+                locks.increment();
+                if (toppedOut) {
+                    return;
+                }
+                Thread.sleep(interval);
+            }
+        }
+
+        private void read() {
+            VersusClient c = client;
+            try {
+                while (running) {
+                    switch (c.receive()) {
+                        case VersusProtocol.START -> {
+                            if (c.getPlayers() != 2) {
+                                throw new IOException("Load generator needs two-player matches: " + c.getPlayers());
+                            }
+                            match = c.getMatch();
+                            seat = c.getPlayer();
+                            seed = c.getSeed();
+                            garbage.clear();
+                            clock = clocks.computeIfAbsent(match, id -> new MatchClock());
+                            started.release();
+                        }
+                        case VersusProtocol.BOARD -> {
+                            long sent = clock.received(c.getFrom());
+                            if (sent != 0) {
+                                latency.record((System.nanoTime() - sent) / 1000);
+                            }
+                        }
+                        case VersusProtocol.GARBAGE -> garbage.add(new int[]{c.getGarbageLines(), c.getHoleColumn()});
+                        case VersusProtocol.END -> {
+                            over = true;
+                            ended.release();
+                        }
+                        default -> {
+                            //nothing else is sent to players
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    errors.increment();
+                }
+            } finally {
+                close();
+            }
+        }
+
+        private void close() {
+            VersusClient c = client;
+            if (c != null) {
+                try {
+                    c.close();
+                } catch (IOException e) {
+                    //already broken
+                }
+            }
+            if (player != null && Thread.currentThread() != player) {
+                player.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Send times of the locks of one match that the opponent has not received yet, per
+     * player. Relaying keeps each player's locks in order, so the oldest one is the one
+     * a {@link VersusProtocol#BOARD} answers.
+     */
+    private static final class MatchClock {
+
+        private static final int IN_FLIGHT = 64;
+
+        private final long[][] sent = new long[2][IN_FLIGHT];
+        private final int[] head = new int[2];
+        private final int[] tail = new int[2];
+        private int players = 2;
+
+        synchronized void sent(int player, long nanos) {
+            if (tail[player] - head[player] == IN_FLIGHT) {
+                head[player]++;
+            }
+            sent[player][tail[player]++ % IN_FLIGHT] = nanos;
+        }
+
+        /** @return send time of the oldest lock of {@code player} in flight, or 0 */
+        synchronized long received(int player) {
+            if (player < 0 || player > 1 || head[player] == tail[player]) {
+                return 0;
+            }
+            return sent[player][head[player]++ % IN_FLIGHT];
+        }
+
+        /** @return {@code true} for the first of the two players to finish, {@code false} for the second */
+        synchronized boolean release() {
+            return --players == 1;
+        }
+    }
+
+    /**
+     * Concurrent latency histogram in microseconds: exact below 64, then 32 buckets per
+     * power of two (about 3% resolution).
+     */
+    private static final class Histogram {
+
+        private static final int SUB = 32;
+        private final AtomicLongArray counts = new AtomicLongArray(64 + 58 * SUB);
+
+        void record(long micros) {
+            counts.incrementAndGet(index(Math.max(0, micros)));
+        }
+
+        long[] snapshot() {
+            long[] copy = new long[counts.length()];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = counts.get(i);
+            }
+            return copy;
+        }
+
+        static int index(long v) {
+            if (v < 64) {
+                return (int) v;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(v);
+            return 64 + (exponent - 6) * SUB + (int) ((v >>> (exponent - 5)) & (SUB - 1));
+        }
+
+        /** @return the largest value that falls into bucket {@code i} */
+        static long upper(int i) {
+            if (i < 64) {
+                return i;
+            }
+            int exponent = 6 + (i - 64) / SUB;
+            long sub = (i - 64) % SUB;
+            return ((SUB + sub + 1) << (exponent - 5)) - 1;
+        }
+    }
+
+    /**
+     * What one measured window of {@link #ramp(int, long)} saw.
+     */
+    public static final class Step {
+
+        private final int clients;
+        private final int connected;
+        private final double matchesPerSecond;
+        private final double locksPerSecond;
+        private final long[] latency;
+        private final long samples;
+        private final double serverCpu;
+        private final double processCpu;
+        private final long errors;
+
+        Step(int clients, int connected, double matchesPerSecond, double locksPerSecond, long[] latency,
+             double serverCpu, double processCpu, long errors) {
+            this.clients = clients;
+            this.connected = connected;
+            this.matchesPerSecond = matchesPerSecond;
+            this.locksPerSecond = locksPerSecond;
+            this.latency = latency;
+            long n = 0;
+            for (long c : latency) {
+                n += c;
+            }
+            this.samples = n;
+            this.serverCpu = serverCpu;
+            this.processCpu = processCpu;
+            this.errors = errors;
+        }
+
+        /** @return bots running */
+        public int getClients() {
+            return clients;
+        }
+
+        /** @return bots that managed to connect so far */
+        public int getConnected() {
+            return connected;
+        }
+
+        /** @return matches finished per second */
+        public double getMatchesPerSecond() {
+            return matchesPerSecond;
+        }
+
+        /** @return locks sent per second */
+        public double getLocksPerSecond() {
+            return locksPerSecond;
+        }
+
+        /** @return latencies measured in the window */
+        public long getLatencySamples() {
+            return samples;
+        }
+
+        /**
+         * @param percentile in {@code [0, 100]}
+         * @return the nearest-rank percentile of the lock-to-board latency in microseconds,
+         *         rounded up to its histogram bucket, or 0 without samples
+         */
+        public long getLatencyMicros(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be in [0, 100]: " + percentile);
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * samples));
+            long seen = 0;
+            for (int i = 0; i < latency.length; i++) {
+                seen += latency[i];
+                if (seen >= rank) {
+                    return Histogram.upper(i);
+                }
+            }
+            return 0;
+        }
+
+        /** @return cores' worth of CPU the server loops used, or -1 if the server is not in this JVM */
+        public double getServerCpu() {
+            return serverCpu;
+        }
+
+        /** @return cores' worth of CPU this whole process used */
+        public double getProcessCpu() {
+            return processCpu;
+        }
+
+        /** @return connections that failed in the window */
+        public long getErrors() {
+            return errors;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Step{%d clients, %.1f matches/s, %.0f locks/s, p50 %d us, p99 %d us,"
+                            + " server cpu %.2f, process cpu %.2f, %d errors}", clients, matchesPerSecond,
+                    locksPerSecond, getLatencyMicros(50), getLatencyMicros(99), serverCpu, processCpu, errors);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.comp2042.tetris.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary framing shared by {@link VersusServer} and {@link VersusClient}.
+ * <p>
+ * Every frame is {@code short length, byte type, byte[length - 1] payload}, big-endian,
+ * like {@link com.comp2042.tetris.bot.BotProtocol} but with a short length because no
+ * message is larger than {@link #MAX_FRAME}. Frames are written into and parsed from
+ * caller-owned {@link ByteBuffer}s, so neither side allocates per message.
+ * </p>
+ * <p>
+ * <b>Messages from a client:</b>
+ * </p>
+ * <ul>
+ *     <li>{@link #JOIN}: no payload; queue for the next match</li>
+ *     <li>{@link #LOCK}: {@code byte linesRemoved, byte toppedOut, byte rows}, then
+ *     {@code int[rows]} row masks (bit {@code c} for a filled cell in column {@code c},
+ *     top row first); sent after every lock, and once more with {@code toppedOut} set
+ *     when the player loses</li>
+ * </ul>
+ * <p>
+ * <b>Messages from the server:</b>
+ * </p>
+ * <ul>
+ *     <li>{@link #START}: {@code int match, byte player, byte players, long seed}; every
+ *     player of a match gets the same brick seed</li>
+ *     <li>{@link #BOARD}: {@code byte player}, then that player's {@link #LOCK} payload
+ *     as it was received</li>
+ *     <li>{@link #GARBAGE}: {@code byte from, byte lines, byte holeColumn}</li>
+ *     <li>{@link #END}: {@code byte winner}, or -1 if nobody was left</li>
+ * </ul>
+ */
+public final class VersusProtocol {
+
+    /** Client to server: queue for a match. */
+    public static final byte JOIN = 1;
+    /** Client to server: the board after a lock. */
+    public static final byte LOCK = 2;
+
+    /** Server to client: a match started. */
+    public static final byte START = 64;
+    /** Server to client: an opponent's board after a lock. */
+    public static final byte BOARD = 65;
+    /** Server to client: garbage sent by an opponent. */
+    public static final byte GARBAGE = 66;
+    /** Server to client: the match is over. */
+    public static final byte END = 67;
+
+    /** Most rows a {@link #LOCK} may carry. */
+    public static final int MAX_ROWS = 64;
+
+    /** Columns of the boards being played; garbage holes are below this. */
+    public static final int COLS = 10;
+
+    /** Bytes before the payload: length and type. */
+    public static final int HEADER = 3;
+
+    /** Largest frame either side sends, header included ({@link #BOARD} with {@link #MAX_ROWS} rows). */
+    public static final int MAX_FRAME = HEADER + 4 + 4 * MAX_ROWS;
+
+    /** Returned by {@link #frameLength(ByteBuffer)} for a frame that can never be valid. */
+    public static final int MALFORMED = -2;
+
+    /** Returned by {@link #frameLength(ByteBuffer)} while a frame is still incomplete. */
+    public static final int INCOMPLETE = -1;
+
+    private VersusProtocol() {
+    }
+
+    /**
+     * Checks for a whole frame at the buffer's position.
+     *
+     * @param in buffer in read mode
+     * @return length of the frame including its header, {@link #INCOMPLETE} or {@link #MALFORMED}
+     */
+    public static int frameLength(ByteBuffer in) {
+        if (in.remaining() < 2) {
+            return INCOMPLETE;
+        }
+        int length = in.getShort(in.position()) & 0xFFFF;
+        if (length < 1 || length + 2 > MAX_FRAME) {
+            return MALFORMED;
+        }
+        return in.remaining() < length + 2 ? INCOMPLETE : length + 2;
+    }
+
+    /**
+     * Returns the message type of the frame at {@code offset}.
+     *
+     * @param in     buffer holding the frame
+     * @param offset index of the frame's first byte
+     * @return the message type
+     */
+    public static byte type(ByteBuffer in, int offset) {
+        return in.get(offset + 2);
+    }
+
+    /** @return bytes of a {@link #LOCK} payload with {@code rows} rows */
+    public static int lockPayload(int rows) {
+        return 3 + 4 * rows;
+    }
+
+    /**
+     * Appends a {@link #JOIN}.
+     *
+     * @param out buffer in write mode
+     */
+    public static void putJoin(ByteBuffer out) {
+        out.putShort((short) 1).put(JOIN);
+    }
+
+    /**
+     * Appends a {@link #LOCK} describing {@code matrix}.
+     *
+     * @param out          buffer in write mode
+     * @param matrix       background matrix, {@code [row][col]}, at most {@link #MAX_ROWS} rows
+     * @param linesRemoved rows the lock cleared
+     * @param toppedOut    whether the player has lost
+     */
+    public static void putLock(ByteBuffer out, int[][] matrix, int linesRemoved, boolean toppedOut) {
+        int rows = matrix.length;
+        if (rows > MAX_ROWS) {
+            throw new IllegalArgumentException("Too many rows: " + rows);
+        }
+        out.putShort((short) (1 + lockPayload(rows))).put(LOCK)
+                .put((byte) linesRemoved).put((byte) (toppedOut ? 1 : 0)).put((byte) rows);
+        for (int[] row : matrix) {
+            int mask = 0;
+            for (int c = 0; c < row.length; c++) {
+                if (row[c] != 0) {
+                    mask |= 1 << c;
+                }
+            }
+            out.putInt(mask);
+        }
+    }
+
+    /**
+     * Appends a {@link #START}.
+     *
+     * @param out     buffer in write mode
+     * @param match   match number
+     * @param player  the receiver's index within the match
+     * @param players players in the match
+     * @param seed    brick seed shared by all players
+     */
+    public static void putStart(ByteBuffer out, int match, int player, int players, long seed) {
+        out.putShort((short) 15).put(START).putInt(match).put((byte) player).put((byte) players).putLong(seed);
+    }
+
+    /**
+     * Appends a {@link #GARBAGE}.
+     *
+     * @param out        buffer in write mode
+     * @param from       index of the sender
+     * @param lines      garbage rows
+     * @param holeColumn empty column of those rows
+     */
+    public static void putGarbage(ByteBuffer out, int from, int lines, int holeColumn) {
+        out.putShort((short) 4).put(GARBAGE).put((byte) from).put((byte) lines).put((byte) holeColumn);
+    }
+
+    /**
+     * Appends an {@link #END}.
+     *
+     * @param out    buffer in write mode
+     * @param winner index of the winner, or -1
+     */
+    public static void putEnd(ByteBuffer out, int winner) {
+        out.putShort((short) 2).put(END).put((byte) winner);
+    }
+}
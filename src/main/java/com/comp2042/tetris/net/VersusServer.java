@@ -0,0 +1,604 @@
+package com.comp2042.tetris.net;
+
+import com.comp2042.tetris.model.rules.GarbageRules;
+import com.comp2042.tetris.util.SplitMix64;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Local multiplayer versus server on non-blocking NIO.
+ * <p>
+ * Runs one selector loop per thread (by default one per core). Loop 0 is also the lobby:
+ * it accepts connections and queues players that {@link VersusProtocol#JOIN}. Once a
+ * match is full, all of its connections are handed to one loop together (matches are
+ * dealt out round-robin) and stay there until the match ends; joining again goes back
+ * through the lobby. A match therefore never spans threads, so relaying needs no locks:
+ * a {@link VersusProtocol#LOCK}
+ * is copied straight from the sender's read buffer into each opponent's write buffer as
+ * a {@link VersusProtocol#BOARD}, and the clear's attack ({@link GarbageRules}) goes to
+ * the next opponent still alive as {@link VersusProtocol#GARBAGE}.
+ * </p>
+ * <p>
+ * Every connection owns a preallocated direct read and write buffer, so the steady state
+ * does not allocate per message; only accepting a connection and starting a match do.
+ * Write buffers are flushed once per select round. A client that falls so far behind
+ * that its write buffer fills up is disconnected, which counts as topping out.
+ * </p>
+ */
+public final class VersusServer implements AutoCloseable {
+
+    /** Players per match unless configured otherwise. */
+    public static final int DEFAULT_PLAYERS = 2;
+
+    /** Bytes of pending output a client may fall behind by before it is dropped. */
+    public static final int WRITE_BUFFER = 64 * 1024;
+
+    /** Bytes of each connection's read buffer. */
+    private static final int READ_BUFFER = 8 * VersusProtocol.MAX_FRAME;
+
+    private final ServerSocketChannel server;
+    private final int playersPerMatch;
+    private final Loop[] loops;
+    private final AtomicInteger matchIds = new AtomicInteger();
+    private final long seed = System.nanoTime();
+    private volatile boolean running = true;
+
+    /** Loop that receives the next match; lobby thread only. */
+    private int nextLoop;
+
+    /**
+     * Starts a server for two-player matches with one loop per core.
+     *
+     * @param address address to listen on; port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     */
+    public VersusServer(InetSocketAddress address) throws IOException {
+        this(address, DEFAULT_PLAYERS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param address         address to listen on; port 0 picks a free port
+     * @param playersPerMatch players in every match, at least 2
+     * @param threads         selector loops, at least 1
+     * @throws IOException if the address cannot be bound
+     */
+    public VersusServer(InetSocketAddress address, int playersPerMatch, int threads) throws IOException {
+        if (playersPerMatch < 2 || playersPerMatch > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Players per match must be in [2, 127]: " + playersPerMatch);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        this.playersPerMatch = playersPerMatch;
+        this.server = ServerSocketChannel.open();
+        this.loops = new Loop[threads];
+        try {
+            server.bind(address, 1024);
+            server.configureBlocking(false);
+            for (int i = 0; i < threads; i++) {
+                loops[i] = new Loop(i);
+            }
+            server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        for (Loop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    /** @return the port the server listens on */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /** @return players in every match */
+    public int getPlayersPerMatch() {
+        return playersPerMatch;
+    }
+
+    /** @return matches started so far */
+    public long getMatchesStarted() {
+        long total = 0;
+        for (Loop loop : loops) {
+            total += loop == null ? 0 : loop.matchesStarted;
+        }
+        return total;
+    }
+
+    /** @return matches finished so far */
+    public long getMatchesFinished() {
+        long total = 0;
+        for (Loop loop : loops) {
+            total += loop == null ? 0 : loop.matchesFinished;
+        }
+        return total;
+    }
+
+    /** @return client messages handled so far */
+    public long getMessages() {
+        long total = 0;
+        for (Loop loop : loops) {
+            total += loop == null ? 0 : loop.messages;
+        }
+        return total;
+    }
+
+    /**
+     * Stops the loops and closes every connection.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Loop loop : loops) {
+            if (loop != null) {
+                loop.selector.wakeup();
+            }
+        }
+        for (Loop loop : loops) {
+            if (loop != null && loop.thread.isAlive() && loop.thread != Thread.currentThread()) {
+                try {
+                    loop.thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        try {
+            server.close();
+        } catch (IOException ignored) {
+            //nothing left to release
+        }
+    }
+
+    /** One selector thread with its connections; loop 0 also runs the lobby. */
+    private final class Loop implements Runnable {
+
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<Connection> incoming = new ConcurrentLinkedQueue<>();
+        private final Consumer<SelectionKey> handler = this::handle;
+
+        /** Connections waiting for a match, oldest first; lobby only. */
+        private final Connection[] waiting = new Connection[playersPerMatch];
+        private int waitingCount;
+
+        /** Connections with output to flush this round; reused across rounds. */
+        private final List<Connection> dirty = new ArrayList<>();
+
+        /** Connections to hand to another loop at the end of this round; reused across rounds. */
+        private final List<Connection> leaving = new ArrayList<>();
+
+        //written by this loop only
+        private volatile long matchesStarted;
+        private volatile long matchesFinished;
+        private volatile long messages;
+
+        Loop(int index) throws IOException {
+            selector = Selector.open();
+            thread = new Thread(this, "versus-" + index);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select(handler);
+                    handOver();
+                    Connection c;
+                    while ((c = incoming.poll()) != null) {
+                        adopt(c);
+                    }
+                    flush();
+                }
+            } catch (IOException e) {
+                //the selector itself failed; fall through and close this loop's connections
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    closeQuietly(key);
+                }
+                closeQuietly(selector);
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection c = (Connection) key.attachment();
+            if (key.isWritable()) {
+                markDirty(c);
+            }
+            if (key.isReadable()) {
+                read(c);
+            }
+        }
+
+        private void accept() {
+            try {
+                SocketChannel channel;
+                while ((channel = server.accept()) != null) {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    Connection c = new Connection(channel);
+                    c.key = channel.register(selector, SelectionKey.OP_READ, c);
+                }
+            } catch (IOException e) {
+                //a failed accept only loses that client
+            }
+        }
+
+        /**
+         * Takes over a connection handed over by another loop, then handles whatever it
+         * had already received but the other loop left unparsed.
+         */
+        private void adopt(Connection c) {
+            c.next = null;
+            try {
+                c.key = c.channel.register(selector, SelectionKey.OP_READ, c);
+            } catch (IOException e) {
+                closeQuietly(c.channel);
+                c.closed = true;
+                return;
+            }
+            if (c.out.position() > 0) {
+                markDirty(c);
+            }
+            if (c.rejoining) {
+                c.rejoining = false;
+                join(c);
+            }
+            parse(c);
+        }
+
+        /** Schedules {@code c} to move to {@code target} at the end of this round. */
+        private void leave(Connection c, Loop target) {
+            c.next = target;
+            leaving.add(c);
+        }
+
+        private void handOver() {
+            for (int i = 0; i < leaving.size(); i++) {
+                Connection c = leaving.get(i);
+                c.key.cancel();
+                if (c.dirty) {
+                    c.dirty = false;
+                    dirty.remove(c);
+                }
+                Loop target = c.next;
+                target.incoming.add(c);
+                target.selector.wakeup();
+            }
+            leaving.clear();
+        }
+
+        private void read(Connection c) {
+            if (c.next != null) {
+                //leaving this round; the next loop reads from where this one stopped
+                return;
+            }
+            int n;
+            try {
+                n = c.channel.read(c.in);
+            } catch (IOException e) {
+                n = -1;
+            }
+            if (n < 0) {
+                drop(c);
+                return;
+            }
+            parse(c);
+        }
+
+        private void parse(Connection c) {
+            ByteBuffer in = c.in;
+            in.flip();
+            while (!c.closed && c.next == null) {
+                int length = VersusProtocol.frameLength(in);
+                if (length == VersusProtocol.INCOMPLETE) {
+                    break;
+                }
+                if (length == VersusProtocol.MALFORMED) {
+                    drop(c);
+                    break;
+                }
+                int offset = in.position();
+                in.position(offset + length);
+                messages++;
+                switch (VersusProtocol.type(in, offset)) {
+                    case VersusProtocol.JOIN -> join(c);
+                    case VersusProtocol.LOCK -> lock(c, in, offset, length);
+                    default -> drop(c);
+                }
+            }
+            in.compact();
+        }
+
+        private void join(Connection c) {
+            if (c.match != null || c.queued) {
+                return;
+            }
+            Loop lobby = loops[0];
+            if (this != lobby) {
+                c.rejoining = true;
+                leave(c, lobby);
+                return;
+            }
+            c.queued = true;
+            waiting[waitingCount++] = c;
+            if (waitingCount < playersPerMatch) {
+                return;
+            }
+            int id = matchIds.incrementAndGet();
+            Match match = new Match(id, SplitMix64.mix(seed + id), waiting.clone());
+            Loop target = loops[nextLoop];
+            nextLoop = (nextLoop + 1) % loops.length;
+            for (int i = 0; i < playersPerMatch; i++) {
+                Connection p = waiting[i];
+                waiting[i] = null;
+                p.queued = false;
+                p.match = match;
+                p.player = i;
+                p.alive = true;
+                if (reserve(p, 18)) {
+                    VersusProtocol.putStart(p.out, id, i, playersPerMatch, match.seed);
+                }
+                if (target != this) {
+                    leave(p, target);
+                }
+            }
+            waitingCount = 0;
+            matchesStarted++;
+        }
+
+        private void lock(Connection c, ByteBuffer in, int offset, int length) {
+            Match match = c.match;
+            if (match == null || !c.alive) {
+                return;
+            }
+            int payload = length - VersusProtocol.HEADER;
+            int rows = payload < 3 ? -1 : in.get(offset + 5) & 0xFF;
+            if (rows > VersusProtocol.MAX_ROWS || payload != VersusProtocol.lockPayload(rows)) {
+                drop(c);
+                return;
+            }
+            int linesRemoved = in.get(offset + 3);
+            boolean toppedOut = in.get(offset + 4) != 0;
+            for (Connection p : match.players) {
+                if (p == c || p.closed || !reserve(p, length + 1)) {
+                    continue;
+                }
+                ByteBuffer out = p.out;
+                out.putShort((short) (payload + 2)).put(VersusProtocol.BOARD).put((byte) c.player);
+                out.put(out.position(), in, offset + VersusProtocol.HEADER, payload);
+                out.position(out.position() + payload);
+            }
+            int garbage = GarbageRules.linesToSend(linesRemoved);
+            if (garbage > 0 && !toppedOut) {
+                Connection target = match.nextTarget(c);
+                if (target != null && reserve(target, 6)) {
+                    VersusProtocol.putGarbage(target.out, c.player, garbage, match.nextHole());
+                }
+            }
+            if (toppedOut) {
+                eliminate(c);
+            }
+        }
+
+        private void eliminate(Connection c) {
+            Match match = c.match;
+            c.alive = false;
+            if (--match.alive > 1) {
+                return;
+            }
+            int winner = -1;
+            for (Connection p : match.players) {
+                if (p.alive) {
+                    winner = p.player;
+                }
+            }
+            for (Connection p : match.players) {
+                if (reserve(p, 4)) {
+                    VersusProtocol.putEnd(p.out, winner);
+                }
+                p.match = null;
+                p.alive = false;
+            }
+            matchesFinished++;
+        }
+
+        /**
+         * Makes room for {@code bytes} of output and schedules a flush.
+         *
+         * @return {@code false} if the connection is closed or too far behind
+         */
+        private boolean reserve(Connection c, int bytes) {
+            if (c.closed || c.overflowed) {
+                return false;
+            }
+            markDirty(c);
+            if (c.out.remaining() < bytes) {
+                //dropped in the next flush, not here, so matches are not torn down mid-relay
+                c.overflowed = true;
+                return false;
+            }
+            return true;
+        }
+
+        private void markDirty(Connection c) {
+            if (!c.dirty) {
+                c.dirty = true;
+                dirty.add(c);
+            }
+        }
+
+        private void flush() {
+            //dropping a client can queue END messages for others, so the list may grow here
+            for (int i = 0; i < dirty.size(); i++) {
+                Connection c = dirty.get(i);
+                c.dirty = false;
+                if (c.closed) {
+                    continue;
+                }
+                if (c.overflowed) {
+                    drop(c);
+                    continue;
+                }
+                ByteBuffer out = c.out;
+                out.flip();
+                try {
+                    c.channel.write(out);
+                } catch (IOException e) {
+                    out.clear();
+                    drop(c);
+                    continue;
+                }
+                out.compact();
+                int ops = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+                if (c.key.interestOps() != ops) {
+                    c.key.interestOps(ops);
+                }
+            }
+            dirty.clear();
+        }
+
+        private void drop(Connection c) {
+            if (c.closed) {
+                return;
+            }
+            c.closed = true;
+            closeQuietly(c.key);
+            if (c.next != null) {
+                //closed before it could leave
+                leaving.remove(c);
+                c.next = null;
+            }
+            if (c.queued) {
+                int i = 0;
+                while (waiting[i] != c) {
+                    i++;
+                }
+                System.arraycopy(waiting, i + 1, waiting, i, waitingCount - i - 1);
+                waiting[--waitingCount] = null;
+                c.queued = false;
+            }
+            if (c.match != null && c.alive) {
+                eliminate(c);
+            }
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        closeQuietly(key.channel());
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            //already closed or broken; nothing to do
+        }
+    }
+
+    /**
+     * A client and its buffers; only touched by the loop that owns it. Ownership passes
+     * through {@link Loop#incoming}, which orders the old owner's writes before the new
+     * owner's reads.
+     */
+    private static final class Connection {
+
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocateDirect(READ_BUFFER);
+        private final ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER);
+        private SelectionKey key;
+
+        private boolean queued;
+        private Match match;
+        private int player;
+        private boolean alive;
+
+        private boolean dirty;
+        private boolean overflowed;
+        private boolean closed;
+
+        /** Loop this connection moves to at the end of the round, or {@code null}. */
+        private Loop next;
+
+        /** Set when handed to the lobby because of a {@link VersusProtocol#JOIN}. */
+        private boolean rejoining;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /** Players of one match and its garbage state; only touched by the loop that owns it. */
+    private static final class Match {
+
+        private final int id;
+        private final long seed;
+        private final Connection[] players;
+
+        /** Per player, index where the search for its next garbage target starts. */
+        private final int[] cursor;
+        private int alive;
+        private long holes;
+
+        Match(int id, long seed, Connection[] players) {
+            this.id = id;
+            this.seed = seed;
+            this.players = players;
+            this.cursor = new int[players.length];
+            this.alive = players.length;
+            this.holes = seed;
+        }
+
+        /** @return the next opponent of {@code from} still alive, in turn, or {@code null} */
+        Connection nextTarget(Connection from) {
+            int n = players.length;
+            for (int k = 0; k < n; k++) {
+                int i = (cursor[from.player] + k) % n;
+                Connection p = players[i];
+                if (p != from && p.alive) {
+                    cursor[from.player] = (i + 1) % n;
+                    return p;
+                }
+            }
+            return null;
+        }
+
+        /** @return a hole column for the next garbage, from the match's own sequence */
+        int nextHole() {
+            holes += SplitMix64.GAMMA;
+            return (int) Long.remainderUnsigned(SplitMix64.mix(holes), VersusProtocol.COLS);
+        }
+
+        @Override
+        public String toString() {
+            return "Match{" + id + ", " + alive + "/" + players.length + " alive}";
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package com.comp2042.tetris.persistence;
+
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, crash-safe journal of an in-progress game.
+ * <p>
+ * The journal records every input event that reaches the game logic plus periodic
+ * {@link GameState} checkpoints. If the JVM dies mid-game, {@link JournalRecovery}
+ * restores the last checkpoint at the next launch and replays the inputs recorded
+ * after it.
+ * </p>
+ *
+ * <p><b>Threading:</b></p>
+ * <ul>
+ *   <li>{@link #record(MoveEvent)} and {@link #checkpoint(GameBoard)} are called by a single
+ *       producer thread (the JavaFX thread). Recording an input is a single byte store into a
+ *       preallocated ring buffer plus an ordered counter update: no locks, no allocation, no I/O.</li>
+ *   <li>A daemon writer thread wakes every {@code flushIntervalMs}, drains the ring into a direct
+ *       buffer, writes it to the file and calls {@link FileChannel#force(boolean)} once per batch.
+ *       An input is therefore durable at most one flush interval (plus the fsync) after it happened.</li>
+ *   <li>Checkpoints are copied into one of a few preallocated snapshot slots on the producer thread;
+ *       encoding and checksumming happen on the writer thread.</li>
+ * </ul>
+ *
+ * <p><b>Overload:</b> the producer never blocks. If the ring or all checkpoint slots are full the
+ * entry is dropped and counted; a gap marker is written so recovery never replays inputs across a hole.
+ * </p>
+ *
+ * <p><b>File format</b> (big-endian): a 4-byte magic header followed by records, each starting with a tag
+ * byte: {@code INPUT code}, {@code CHECKPOINT length crc32 payload}, {@code GAP} or {@code CLOSE}.
+ * A trailing {@code CLOSE} record marks a clean shutdown.</p>
+ */
+public final class GameJournal implements AutoCloseable {
+
+    /** File header ("CWJ1"). */
+    static final int MAGIC = 0x43574A31;
+
+    /** Record tag: one recorded input event follows. */
+    static final byte TAG_INPUT = 1;
+
+    /** Record tag: a checksummed {@link GameState} checkpoint follows. */
+    static final byte TAG_CHECKPOINT = 2;
+
+    /** Record tag: inputs were dropped before this point. */
+    static final byte TAG_GAP = 3;
+
+    /** Record tag: the journal was closed cleanly. */
+    static final byte TAG_CLOSE = 4;
+
+    /** Default maximum delay between an input and its fsync. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 50;
+
+    /** Ring capacity in entries (power of two). */
+    private static final int RING_CAPACITY = 1 << 16;
+
+    /** Ring index mask. */
+    private static final int RING_MASK = RING_CAPACITY - 1;
+
+    /** Ring entry meaning "take the next checkpoint slot". */
+    private static final byte CHECKPOINT_MARK = (byte) 0xFF;
+
+    /** Ring entry meaning "entries were dropped here". */
+    private static final byte GAP_MARK = (byte) 0xFE;
+
+    /** Number of preallocated checkpoint slots. */
+    private static final int CHECKPOINT_SLOTS = 4;
+
+    /** Size of the writer's direct output buffer. */
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    /** Journal file path. */
+    private final Path path;
+
+    /** Open channel to the journal file (writer thread only after construction). */
+    private final FileChannel channel;
+
+    /** Maximum time between flushes, in nanoseconds. */
+    private final long flushIntervalNanos;
+
+    /** Ring of pending entries (event codes or marks). */
+    private final byte[] ring = new byte[RING_CAPACITY];
+
+    /** Next ring sequence to write (producer thread only). */
+    private long head;
+
+    /** Producer's cached copy of {@link #consumed}, refreshed only when the ring looks full. */
+    private long consumedCache;
+
+    /** True when an entry was dropped and a gap mark must precede the next entry (producer only). */
+    private boolean gapPending;
+
+    /** Sequence up to which entries are visible to the writer. */
+    private final AtomicLong published = new AtomicLong();
+
+    /** Sequence up to which the writer has drained the ring. */
+    private final AtomicLong consumed = new AtomicLong();
+
+    /** Sequence up to which entries have been written and fsync'd. */
+    private final AtomicLong durable = new AtomicLong();
+
+    /** Preallocated checkpoint slots, used round-robin. */
+    private final GameState[] checkpointSlots = new GameState[CHECKPOINT_SLOTS];
+
+    /** Number of checkpoints handed to the writer (producer only). */
+    private long checkpointsProduced;
+
+    /** Number of checkpoint slots the writer has finished encoding. */
+    private final AtomicLong checkpointsReleased = new AtomicLong();
+
+    /** Number of input events dropped because the ring was full. */
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    /** Number of checkpoints dropped because every slot was busy. */
+    private final AtomicLong droppedCheckpoints = new AtomicLong();
+
+    /** Set once {@link #close()} has been requested. */
+    private volatile boolean closing;
+
+    /** First I/O failure seen by the writer; once set the journal stops accepting entries. */
+    private volatile IOException failure;
+
+    /** Background writer thread. */
+    private final Thread writer;
+
+    /**
+     * Creates a journal writing to {@code path}; see {@link #open(Path, long)}.
+     */
+    private GameJournal(Path path, FileChannel channel, long flushIntervalMs) {
+        this.path = path;
+        this.channel = channel;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.writer = new Thread(this::writerLoop, "game-journal-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Returns the default journal location in the user's home directory.
+     *
+     * @return the default journal path
+     */
+    public static Path defaultPath() {
+        return Path.of(System.getProperty("user.home"), ".cw2025", "game.journal");
+    }
+
+    /**
+     * Opens a fresh journal with the default flush interval.
+     *
+     * @param path journal file; any existing content is discarded
+     * @return the running journal
+     * @throws IOException if the file cannot be created
+     */
+    public static GameJournal open(Path path) throws IOException {
+        return open(path, DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    /**
+     * Opens a fresh journal and starts its writer thread.
+     * <p>
+     * Run {@link JournalRecovery#recover} on the old file first: opening truncates it.
+     * </p>
+     *
+     * @param path            journal file; any existing content is discarded
+     * @param flushIntervalMs maximum delay between recording an entry and its fsync
+     * @return the running journal
+     * @throws IOException if the file cannot be created
+     */
+    public static GameJournal open(Path path, long flushIntervalMs) throws IOException {
+        if (flushIntervalMs <= 0) {
+            throw new IllegalArgumentException("flushIntervalMs must be positive");
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(4).putInt(MAGIC).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(false);
+        GameJournal journal = new GameJournal(path, channel, flushIntervalMs);
+        journal.writer.start();
+        return journal;
+    }
+
+    /**
+     * Records an input event. Hot path: never blocks, allocates or performs I/O.
+     *
+     * @param event the event that was applied to the game
+     * @return {@code true} if recorded, {@code false} if dropped (ring full, closed or failed)
+     */
+    public boolean record(MoveEvent event) {
+        return offer((byte) event.toCode());
+    }
+
+    /**
+     * Captures a checkpoint of {@code board}. Only the state copy happens on the calling
+     * thread; encoding and I/O happen on the writer thread.
+     *
+     * @param board the board to capture
+     * @return {@code true} if queued, {@code false} if dropped because the writer is behind
+     */
+    public boolean checkpoint(GameBoard board) {
+        if (checkpointsProduced - checkpointsReleased.get() >= CHECKPOINT_SLOTS) {
+            droppedCheckpoints.incrementAndGet();
+            return false;
+        }
+        int slotIndex = (int) (checkpointsProduced % CHECKPOINT_SLOTS);
+        GameState slot = checkpointSlots[slotIndex];
+        int rows = board.getBoardMatrix().length;
+        int cols = board.getBoardMatrix()[0].length;
+        if (slot == null || slot.getRows() != rows || slot.getCols() != cols) {
+            slot = new GameState(rows, cols);
+            checkpointSlots[slotIndex] = slot;
+        }
+        board.saveState(slot);
+        if (!offer(CHECKPOINT_MARK)) {
+            droppedCheckpoints.incrementAndGet();
+            return false;
+        }
+        checkpointsProduced++;
+        return true;
+    }
+
+    /**
+     * Appends one entry to the ring (producer thread only).
+     *
+     * @param entry event code or mark
+     * @return {@code true} if the entry was published
+     */
+    private boolean offer(byte entry) {
+        if (closing || failure != null) {
+            return false;
+        }
+        long seq = head;
+        int needed = gapPending ? 2 : 1;
+        if (seq + needed - consumedCache > RING_CAPACITY) {
+            consumedCache = consumed.get();
+            if (seq + needed - consumedCache > RING_CAPACITY) {
+                if (entry != CHECKPOINT_MARK) {
+                    //a lost input makes every later input unreplayable until the next checkpoint
+                    droppedEvents.incrementAndGet();
+                    gapPending = true;
+                }
+                return false;
+            }
+        }
+        if (gapPending) {
+            ring[(int) seq++ & RING_MASK] = GAP_MARK;
+            gapPending = false;
+        }
+        ring[(int) seq++ & RING_MASK] = entry;
+        head = seq;
+        published.lazySet(seq);
+        return true;
+    }
+
+    /**
+     * Blocks until everything recorded so far has been written and fsync'd.
+     *
+     * @throws IOException if the writer failed
+     */
+    public void sync() throws IOException {
+        long target = published.get();
+        while (durable.get() < target) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (!writer.isAlive()) {
+                break;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(100_000);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Flushes pending entries, writes the clean-shutdown marker and stops the writer.
+     * A journal that ends with this marker is not recovered at the next launch.
+     *
+     * @throws IOException if the writer failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns the journal file.
+     *
+     * @return journal path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns how many input events were dropped because the writer fell behind.
+     *
+     * @return dropped event count
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Returns how many checkpoints were dropped because the writer fell behind.
+     *
+     * @return dropped checkpoint count
+     */
+    public long getDroppedCheckpoints() {
+        return droppedCheckpoints.get();
+    }
+
+    /**
+     * Writer thread body: drain, write and fsync once per flush interval until closed.
+     */
+    private void writerLoop() {
+        ByteBuffer out = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+        ByteBuffer scratch = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+        CRC32 crc = new CRC32();
+        try {
+            while (true) {
+                boolean stopping = closing;
+                long end = published.get();
+                long start = consumed.get();
+                for (long seq = start; seq < end; seq++) {
+                    byte entry = ring[(int) seq & RING_MASK];
+                    if (entry == CHECKPOINT_MARK) {
+                        writeCheckpoint(out, scratch, crc);
+                    } else if (entry == GAP_MARK) {
+                        ensureRoom(out, 1);
+                        out.put(TAG_GAP);
+                    } else {
+                        ensureRoom(out, 2);
+                        out.put(TAG_INPUT).put(entry);
+                    }
+                }
+                consumed.set(end);
+                if (stopping) {
+                    ensureRoom(out, 1);
+                    out.put(TAG_CLOSE);
+                }
+                if (out.position() > 0) {
+                    drain(out);
+                    channel.force(false);
+                }
+                durable.set(end);
+                if (stopping) {
+                    break;
+                }
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        } catch (IOException e) {
+            failure = e;
+            System.err.println("Game journal disabled after write failure: " + e.getMessage());
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                //nothing else to do; the failure (if any) is already recorded
+            }
+        }
+    }
+
+    /**
+     * Encodes the next checkpoint slot as a checksummed record and releases the slot.
+     */
+    private void writeCheckpoint(ByteBuffer out, ByteBuffer scratch, CRC32 crc) throws IOException {
+        long index = checkpointsReleased.get();
+        GameState slot = checkpointSlots[(int) (index % CHECKPOINT_SLOTS)];
+        scratch.clear();
+        slot.writeTo(scratch);
+        scratch.flip();
+        crc.reset();
+        crc.update(scratch.array(), 0, scratch.limit());
+        ensureRoom(out, 9 + scratch.limit());
+        out.put(TAG_CHECKPOINT).putInt(scratch.limit()).putInt((int) crc.getValue()).put(scratch);
+        checkpointsReleased.set(index + 1);
+    }
+
+    /**
+     * Writes buffered bytes out if fewer than {@code bytes} remain in the buffer.
+     */
+    private void ensureRoom(ByteBuffer out, int bytes) throws IOException {
+        if (out.remaining() < bytes) {
+            drain(out);
+        }
+    }
+
+    /**
+     * Writes the whole buffer to the channel and clears it.
+     */
+    private void drain(ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
@@ -0,0 +1,344 @@
+package com.comp2042.tetris.persistence;
+
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Static order-1 Huffman model for replay input streams.
+ * <p>
+ * Each input code (see {@link com.comp2042.tetris.events.MoveEvent#toCode()}) is coded
+ * with a canonical Huffman code chosen by the previous code, so typical patterns such as
+ * runs of gravity ticks or "rotate, shift, shift, hard drop" cost one or two bits per
+ * input. The model is static: it is built once (from {@link #defaultModel()} or
+ * {@link #train(byte[][])}) and shared by every replay in an archive, so no per-replay
+ * tables are stored and each replay can be decoded on its own.
+ * </p>
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ * </p>
+ */
+public final class InputCompressionModel {
+
+    /** Number of distinct input codes. */
+    static final int SYMBOLS = EventType.values().length * EventSource.values().length;
+
+    /** Number of contexts: one per previous code plus the start of a stream. */
+    static final int CONTEXTS = SYMBOLS + 1;
+
+    /** Context used for the first input of a stream. */
+    private static final int START = SYMBOLS;
+
+    /** Longest code length; {@code SYMBOLS} symbols can never need more. */
+    private static final int MAX_BITS = SYMBOLS;
+
+    /**
+     * Relative frequencies of typical play, one row per context (previous code) and one
+     * column per code: DOWN, LEFT, RIGHT, ROTATE, HARD_DROP, HOLD, each as USER then THREAD.
+     * Gravity ticks dominate; shifts come in runs; a piece usually ends with a hard drop.
+     * Zero entries are raised to one so every code stays encodable.
+     */
+    private static final int[][] TYPICAL_PLAY = {
+            //  D-u  D-t  L-u  L-t  R-u  R-t  Rot-u Rot-t HD-u HD-t  H-u  H-t
+            {  60,  10,  3,   0,   3,   0,   1,    0,    20,  0,    1,   0 }, //after DOWN user
+            {  4,   70,  8,   0,   8,   0,   6,    0,    3,   0,    1,   0 }, //after DOWN tick
+            {  2,   12,  45,  0,   3,   0,   8,    0,    28,  0,    1,   0 }, //after LEFT user
+            {  1,   1,   1,   0,   1,   0,   1,    0,    1,   0,    1,   0 }, //after LEFT tick (unused)
+            {  2,   12,  3,   0,   45,  0,   8,    0,    28,  0,    1,   0 }, //after RIGHT user
+            {  1,   1,   1,   0,   1,   0,   1,    0,    1,   0,    1,   0 }, //after RIGHT tick (unused)
+            {  2,   10,  25,  0,   25,  0,   20,   0,    16,  0,    1,   0 }, //after ROTATE user
+            {  1,   1,   1,   0,   1,   0,   1,    0,    1,   0,    1,   0 }, //after ROTATE tick (unused)
+            {  2,   25,  22,  0,   22,  0,   24,   0,    2,   0,    3,   0 }, //after HARD_DROP user
+            {  1,   1,   1,   0,   1,   0,   1,    0,    1,   0,    1,   0 }, //after HARD_DROP tick (unused)
+            {  2,   20,  22,  0,   22,  0,   24,   0,    8,   0,    1,   0 }, //after HOLD user
+            {  1,   1,   1,   0,   1,   0,   1,    0,    1,   0,    1,   0 }, //after HOLD tick (unused)
+            {  1,   20,  20,  0,   20,  0,   20,   0,    5,   0,    5,   0 }  //start of stream
+    };
+
+    /** Shared default model, built lazily from {@link #TYPICAL_PLAY}. */
+    private static InputCompressionModel defaultModel;
+
+    /** Frequencies the model was built from, kept so it can be stored and rebuilt. */
+    private final int[][] frequencies;
+
+    /** Code bits per context and symbol, right-aligned. */
+    private final int[][] codes;
+
+    /** Code length per context and symbol. */
+    private final byte[][] lengths;
+
+    /** Number of codes of each length, per context (canonical decoding). */
+    private final short[][] countByLength;
+
+    /** Symbols ordered by (code length, symbol), per context (canonical decoding). */
+    private final byte[][] sortedSymbols;
+
+    /**
+     * Builds a model from per-context frequencies.
+     *
+     * @param frequencies {@code CONTEXTS x SYMBOLS} counts; zero entries are raised to one
+     */
+    private InputCompressionModel(int[][] frequencies) {
+        if (frequencies.length != CONTEXTS) {
+            throw new IllegalArgumentException("Expected " + CONTEXTS + " contexts, got " + frequencies.length);
+        }
+        this.frequencies = new int[CONTEXTS][];
+        codes = new int[CONTEXTS][SYMBOLS];
+        lengths = new byte[CONTEXTS][SYMBOLS];
+        countByLength = new short[CONTEXTS][MAX_BITS + 1];
+        sortedSymbols = new byte[CONTEXTS][SYMBOLS];
+        for (int ctx = 0; ctx < CONTEXTS; ctx++) {
+            if (frequencies[ctx].length != SYMBOLS) {
+                throw new IllegalArgumentException("Expected " + SYMBOLS + " symbols in context " + ctx);
+            }
+            int[] f = new int[SYMBOLS];
+            for (int s = 0; s < SYMBOLS; s++) {
+                f[s] = Math.max(1, frequencies[ctx][s]);
+            }
+            this.frequencies[ctx] = f;
+            buildContext(ctx, f);
+        }
+    }
+
+    /**
+     * Returns the shared model trained on typical play.
+     *
+     * @return the default model
+     */
+    public static synchronized InputCompressionModel defaultModel() {
+        if (defaultModel == null) {
+            defaultModel = new InputCompressionModel(TYPICAL_PLAY);
+        }
+        return defaultModel;
+    }
+
+    /**
+     * Builds a model from recorded input streams.
+     *
+     * @param streams input code streams, e.g. {@link Replay#getInputs()}
+     * @return a model tuned to the given play
+     */
+    public static InputCompressionModel train(byte[][] streams) {
+        int[][] f = new int[CONTEXTS][SYMBOLS];
+        for (byte[] stream : streams) {
+            int ctx = START;
+            for (byte code : stream) {
+                f[ctx][code]++;
+                ctx = code;
+            }
+        }
+        return new InputCompressionModel(f);
+    }
+
+    /**
+     * Computes Huffman code lengths for one context and assigns canonical codes.
+     */
+    private void buildContext(int ctx, int[] f) {
+        //plain O(n^2) Huffman over 12 symbols; only runs when a model is built
+        long[] weight = new long[2 * SYMBOLS];
+        int[] parent = new int[2 * SYMBOLS];
+        boolean[] merged = new boolean[2 * SYMBOLS];
+        for (int s = 0; s < SYMBOLS; s++) {
+            weight[s] = f[s];
+        }
+        int nodes = SYMBOLS;
+        for (int round = 0; round < SYMBOLS - 1; round++) {
+            int a = -1;
+            int b = -1;
+            for (int n = 0; n < nodes; n++) {
+                if (merged[n]) continue;
+                if (a < 0 || weight[n] < weight[a]) {
+                    b = a;
+                    a = n;
+                } else if (b < 0 || weight[n] < weight[b]) {
+                    b = n;
+                }
+            }
+            merged[a] = true;
+            merged[b] = true;
+            weight[nodes] = weight[a] + weight[b];
+            parent[a] = nodes;
+            parent[b] = nodes;
+            nodes++;
+        }
+        int root = nodes - 1;
+        for (int s = 0; s < SYMBOLS; s++) {
+            int depth = 0;
+            for (int n = s; n != root; n = parent[n]) {
+                depth++;
+            }
+            lengths[ctx][s] = (byte) depth;
+            countByLength[ctx][depth]++;
+        }
+
+        //canonical order: shorter codes first, ties by symbol
+        int k = 0;
+        for (int len = 1; len <= MAX_BITS; len++) {
+            for (int s = 0; s < SYMBOLS; s++) {
+                if (lengths[ctx][s] == len) {
+                    sortedSymbols[ctx][k++] = (byte) s;
+                }
+            }
+        }
+        int code = 0;
+        k = 0;
+        for (int len = 1; len <= MAX_BITS; len++) {
+            for (int i = 0; i < countByLength[ctx][len]; i++) {
+                codes[ctx][sortedSymbols[ctx][k++]] = code++;
+            }
+            code <<= 1;
+        }
+    }
+
+    /**
+     * Returns the number of bytes {@link #encode} will produce for {@code inputs}.
+     *
+     * @param inputs input codes
+     * @return encoded size in bytes
+     */
+    public int encodedSize(byte[] inputs) {
+        long bits = 0;
+        int ctx = START;
+        for (byte code : inputs) {
+            bits += lengths[ctx][code];
+            ctx = code;
+        }
+        return (int) ((bits + 7) >>> 3);
+    }
+
+    /**
+     * Encodes an input stream into {@code out}, most significant bit first.
+     *
+     * @param inputs input codes
+     * @param out    destination with at least {@link #encodedSize(byte[])} bytes remaining
+     */
+    public void encode(byte[] inputs, ByteBuffer out) {
+        long acc = 0;
+        int bits = 0;
+        int ctx = START;
+        for (byte code : inputs) {
+            if (code < 0 || code >= SYMBOLS) {
+                throw new IllegalArgumentException("Unknown input code: " + code);
+            }
+            int len = lengths[ctx][code];
+            acc = (acc << len) | codes[ctx][code];
+            bits += len;
+            while (bits >= 8) {
+                bits -= 8;
+                out.put((byte) (acc >>> bits));
+            }
+            ctx = code;
+        }
+        if (bits > 0) {
+            out.put((byte) (acc << (8 - bits)));
+        }
+    }
+
+    /**
+     * Decodes {@code count} inputs from {@code in}.
+     *
+     * @param in    encoded stream, positioned at its first byte
+     * @param count number of inputs to decode
+     * @return the decoded input codes
+     * @throws IllegalArgumentException if the stream is truncated or corrupt
+     */
+    public byte[] decode(ByteBuffer in, int count) {
+        byte[] out = new byte[count];
+        int current = 0;
+        int bitsLeft = 0;
+        int ctx = START;
+        for (int i = 0; i < count; i++) {
+            //canonical decoding: walk lengths until the code falls inside that length's range
+            short[] counts = countByLength[ctx];
+            int code = 0;
+            int first = 0;
+            int index = 0;
+            int symbol = -1;
+            for (int len = 1; len <= MAX_BITS; len++) {
+                if (bitsLeft == 0) {
+                    if (!in.hasRemaining()) {
+                        throw new IllegalArgumentException("Truncated input stream");
+                    }
+                    current = in.get() & 0xFF;
+                    bitsLeft = 8;
+                }
+                code |= (current >>> --bitsLeft) & 1;
+                int n = counts[len];
+                if (code - first < n) {
+                    symbol = sortedSymbols[ctx][index + code - first];
+                    break;
+                }
+                index += n;
+                first = (first + n) << 1;
+                code <<= 1;
+            }
+            if (symbol < 0) {
+                throw new IllegalArgumentException("Corrupt input stream");
+            }
+            out[i] = (byte) symbol;
+            ctx = symbol;
+        }
+        return out;
+    }
+
+    /**
+     * Number of bytes {@link #writeTo(ByteBuffer)} produces.
+     *
+     * @return serialized size in bytes
+     */
+    public static int serializedSize() {
+        return CONTEXTS * SYMBOLS * Integer.BYTES;
+    }
+
+    /**
+     * Writes the model's frequency table, from which {@link #readFrom(ByteBuffer)} rebuilds it.
+     *
+     * @param out destination buffer
+     */
+    public void writeTo(ByteBuffer out) {
+        for (int[] row : frequencies) {
+            for (int f : row) {
+                out.putInt(f);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds a model written by {@link #writeTo(ByteBuffer)}.
+     *
+     * @param in source buffer
+     * @return the model
+     */
+    public static InputCompressionModel readFrom(ByteBuffer in) {
+        int[][] f = new int[CONTEXTS][SYMBOLS];
+        for (int[] row : f) {
+            for (int s = 0; s < SYMBOLS; s++) {
+                row[s] = in.getInt();
+            }
+        }
+        return new InputCompressionModel(f);
+    }
+
+    /**
+     * Two models are equal when they were built from the same frequencies.
+     *
+     * @param o the object to compare with
+     * @return {@code true} if both models encode identically
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof InputCompressionModel other && Arrays.deepEquals(frequencies, other.frequencies);
+    }
+
+    /**
+     * Hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.deepHashCode(frequencies);
+    }
+}
@@ -0,0 +1,158 @@
+package com.comp2042.tetris.persistence;
+
+import com.comp2042.tetris.events.InputEventListener;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Restores an unfinished game from a {@link GameJournal} left behind by a crash.
+ * <p>
+ * Recovery scans the journal once, keeping the last checkpoint whose checksum is valid
+ * and the input events recorded after it. A torn record at the end of the file (the
+ * crash happened mid-write) is ignored. Replay stops at a gap marker, because inputs
+ * after a dropped event cannot be applied reliably.
+ * </p>
+ *
+ * <p>
+ * Nothing is recovered when the journal ends with a clean-shutdown marker, contains no
+ * checkpoint, or the last checkpoint is already game over.
+ * </p>
+ */
+public final class JournalRecovery {
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private JournalRecovery() {
+
+    }
+
+    /**
+     * Restores the last checkpoint into {@code board} and replays the following inputs
+     * through {@code replayTarget} (normally the controller that owns the board, so the
+     * regular game rules, scoring and view updates apply).
+     * <p>
+     * {@code replayTarget} must not be journaling while recovery runs.
+     * </p>
+     *
+     * @param journalFile  the journal to recover from (a missing file recovers nothing)
+     * @param board        the board to restore into
+     * @param replayTarget listener that applies the replayed inputs to {@code board}
+     * @return {@code true} if a game was restored
+     * @throws IOException if the file exists but cannot be read
+     */
+    public static boolean recover(Path journalFile, GameBoard board, InputEventListener replayTarget) throws IOException {
+        if (!Files.isRegularFile(journalFile)) {
+            return false;
+        }
+        int rows = board.getBoardMatrix().length;
+        int cols = board.getBoardMatrix()[0].length;
+        Scan scan = scan(ByteBuffer.wrap(Files.readAllBytes(journalFile)), rows, cols);
+        if (scan == null || scan.cleanShutdown || scan.checkpoint == null || scan.checkpoint.isGameOver()) {
+            return false;
+        }
+        board.restoreState(scan.checkpoint);
+        for (int i = 0; i < scan.inputCount; i++) {
+            replayTarget.dispatch(MoveEvent.fromCode(scan.inputs[i]));
+        }
+        return true;
+    }
+
+    /**
+     * Parses a journal image.
+     *
+     * @param in   the journal bytes
+     * @param rows expected board rows
+     * @param cols expected board columns
+     * @return the scan result, or {@code null} if the header is missing or invalid
+     */
+    static Scan scan(ByteBuffer in, int rows, int cols) {
+        if (in.remaining() < 4 || in.getInt() != GameJournal.MAGIC) {
+            return null;
+        }
+        Scan scan = new Scan();
+        GameState candidate = new GameState(rows, cols);
+        CRC32 crc = new CRC32();
+        boolean replayable = false;
+        try {
+            while (in.hasRemaining()) {
+                byte tag = in.get();
+                scan.cleanShutdown = false;
+                switch (tag) {
+                    case GameJournal.TAG_INPUT -> {
+                        byte code = in.get();
+                        if (replayable) {
+                            scan.addInput(code);
+                        }
+                    }
+                    case GameJournal.TAG_CHECKPOINT -> {
+                        int length = in.getInt();
+                        int expectedCrc = in.getInt();
+                        if (length < 0 || length > in.remaining()) {
+                            return scan; //torn tail
+                        }
+                        crc.reset();
+                        crc.update(in.array(), in.arrayOffset() + in.position(), length);
+                        int next = in.position() + length;
+                        if ((int) crc.getValue() == expectedCrc) {
+                            candidate.readFrom(in);
+                            if (scan.checkpoint == null) {
+                                scan.checkpoint = new GameState(rows, cols);
+                            }
+                            scan.checkpoint.copyFrom(candidate);
+                            scan.inputCount = 0;
+                            replayable = true;
+                        }
+                        in.position(next);
+                    }
+                    case GameJournal.TAG_GAP -> replayable = false;
+                    case GameJournal.TAG_CLOSE -> scan.cleanShutdown = true;
+                    default -> {
+                        return scan; //garbage after a torn write
+                    }
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            //torn or corrupt tail: keep everything parsed before it
+            scan.cleanShutdown = false;
+        }
+        return scan;
+    }
+
+    /**
+     * Result of scanning a journal.
+     */
+    static final class Scan {
+
+        /** Last valid checkpoint, or {@code null} if none was found. */
+        GameState checkpoint;
+
+        /** Event codes recorded after {@link #checkpoint}. */
+        byte[] inputs = new byte[256];
+
+        /** Number of valid entries in {@link #inputs}. */
+        int inputCount;
+
+        /** True if the last record is a clean-shutdown marker. */
+        boolean cleanShutdown;
+
+        /**
+         * Appends one replayable input code.
+         */
+        void addInput(byte code) {
+            if (inputCount == inputs.length) {
+                inputs = Arrays.copyOf(inputs, inputs.length * 2);
+            }
+            inputs[inputCount++] = code;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.comp2042.tetris.persistence;
+
+import com.comp2042.tetris.events.MoveEvent;
+
+import java.util.Arrays;
+
+/**
+ * A recorded game: the brick seed plus every input event applied to the board.
+ * <p>
+ * Starting a {@link com.comp2042.tetris.model.GameBoard} with
+ * {@link com.comp2042.tetris.model.GameBoard#newGame(long)} using {@link #getSeed()}
+ * and dispatching {@link #getInputs()} in order (see {@link MoveEvent#fromCode(int)})
+ * reproduces the game exactly. Gravity ticks are recorded as
+ * {@link com.comp2042.tetris.events.EventSource#THREAD} events, so no timing is needed.
+ * </p>
+ */
+public final class Replay {
+
+    /** Archive-assigned id, or {@code -1} if the replay has not been archived yet. */
+    private final long id;
+
+    /** Seed passed to {@code GameBoard.newGame(long)}. */
+    private final long seed;
+
+    /** Id of the player who played the game. */
+    private final int playerId;
+
+    /** Wall-clock time the game started (epoch milliseconds). */
+    private final long recordedAt;
+
+    /** Length of the game in milliseconds. */
+    private final int durationMs;
+
+    /** Final score. */
+    private final int score;
+
+    /** Recorded input codes, see {@link MoveEvent#toCode()}. */
+    private final byte[] inputs;
+
+    /**
+     * Creates a replay.
+     *
+     * @param id         archive id, or {@code -1} if not archived yet
+     * @param seed       brick sequence seed
+     * @param playerId   id of the player
+     * @param recordedAt game start time (epoch milliseconds)
+     * @param durationMs game length in milliseconds
+     * @param score      final score
+     * @param inputs     recorded input codes (copied)
+     */
+    public Replay(long id, long seed, int playerId, long recordedAt, int durationMs, int score, byte[] inputs) {
+        this.id = id;
+        this.seed = seed;
+        this.playerId = playerId;
+        this.recordedAt = recordedAt;
+        this.durationMs = durationMs;
+        this.score = score;
+        this.inputs = inputs.clone();
+    }
+
+    /**
+     * Returns a copy of this replay carrying the given archive id.
+     *
+     * @param newId the archive id
+     * @return the re-identified replay
+     */
+    public Replay withId(long newId) {
+        return new Replay(newId, seed, playerId, recordedAt, durationMs, score, inputs);
+    }
+
+    /** @return archive id, or {@code -1} if not archived */
+    public long getId() {
+        return id;
+    }
+
+    /** @return brick sequence seed */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** @return id of the player */
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    /** @return game start time (epoch milliseconds) */
+    public long getRecordedAt() {
+        return recordedAt;
+    }
+
+    /** @return game length in milliseconds */
+    public int getDurationMs() {
+        return durationMs;
+    }
+
+    /** @return final score */
+    public int getScore() {
+        return score;
+    }
+
+    /** @return number of recorded inputs */
+    public int getInputCount() {
+        return inputs.length;
+    }
+
+    /**
+     * Returns a copy of the recorded input codes.
+     *
+     * @return input codes in play order
+     */
+    public byte[] getInputs() {
+        return inputs.clone();
+    }
+
+    /**
+     * Returns the input code at {@code index} without copying the stream.
+     *
+     * @param index input index
+     * @return the input code
+     */
+    public int getInput(int index) {
+        return inputs[index];
+    }
+
+    /**
+     * Compares all recorded fields.
+     *
+     * @param o the object to compare with
+     * @return {@code true} if both replays are identical
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Replay other)) return false;
+        return id == other.id && seed == other.seed && playerId == other.playerId
+                && recordedAt == other.recordedAt && durationMs == other.durationMs
+                && score == other.score && Arrays.equals(inputs, other.inputs);
+    }
+
+    /**
+     * Hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(id) + Long.hashCode(seed)) + Arrays.hashCode(inputs);
+    }
+}
@@ -0,0 +1,510 @@
+package com.comp2042.tetris.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Directory-based archive packing many {@link Replay}s into a few large files.
+ * <p>
+ * Layout of the archive directory:
+ * </p>
+ * <ul>
+ *   <li>{@code catalog.bin}: a header followed by one fixed-width entry per replay
+ *       (id, seed, recorded-at, score, duration, player, segment, offset, length,
+ *       input count). The catalog is memory-mapped, so listing or filtering replays by
+ *       score or date is a linear scan of a mapped buffer with no parsing or allocation
+ *       per entry.</li>
+ *   <li>{@code segment-NNNNN.dat}: append-only files holding the compressed input
+ *       streams back to back. A new segment is started once the current one reaches
+ *       the segment size limit.</li>
+ *   <li>{@code model.bin}: the {@link InputCompressionModel} shared by every replay in
+ *       the archive.</li>
+ * </ul>
+ * <p>
+ * A replay's data is written to its segment before its catalog entry is published by
+ * bumping the entry count, so a crash mid-append loses at most that replay.
+ * The archive is not thread-safe; confine each instance to one thread.
+ * </p>
+ */
+public final class ReplayArchive implements AutoCloseable {
+
+    /** Catalog magic number ("RPC1"). */
+    static final int CATALOG_MAGIC = 0x52504331;
+
+    /** Catalog format version. */
+    static final int VERSION = 1;
+
+    /** Catalog header size in bytes. */
+    static final int HEADER_BYTES = 32;
+
+    /** Size of one catalog entry in bytes. */
+    static final int ENTRY_BYTES = 56;
+
+    //header field offsets
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_COUNT = 8;
+    private static final int H_ENTRY_BYTES = 12;
+
+    //entry field offsets
+    private static final int E_ID = 0;
+    private static final int E_SEED = 8;
+    private static final int E_RECORDED_AT = 16;
+    private static final int E_SCORE = 24;
+    private static final int E_DURATION = 28;
+    private static final int E_PLAYER = 32;
+    private static final int E_SEGMENT = 36;
+    private static final int E_OFFSET = 40;
+    private static final int E_LENGTH = 48;
+    private static final int E_INPUTS = 52;
+
+    /** Per-record header in a segment file: replay id and payload length. */
+    private static final int RECORD_HEADER_BYTES = 12;
+
+    /** Default segment size limit (64 MiB). */
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    /** Catalog capacity (entries) of a new archive. */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Path directory;
+    private final long segmentLimit;
+    private final InputCompressionModel model;
+    private final FileChannel catalogChannel;
+
+    /** Mapping of the whole catalog file; replaced when the catalog grows. */
+    private MappedByteBuffer catalog;
+
+    /** Number of entries the current mapping can hold. */
+    private int capacity;
+
+    /** Number of published entries. */
+    private int count;
+
+    /** Open segment channels, indexed by segment number ({@code null} until first used). */
+    private final List<FileChannel> segments = new ArrayList<>();
+
+    /** Segment currently being appended to. */
+    private int activeSegment;
+
+    /** Reusable buffer for encoding and reading payloads. */
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+
+    private ReplayArchive(Path directory, long segmentLimit, InputCompressionModel model,
+                          FileChannel catalogChannel) {
+        this.directory = directory;
+        this.segmentLimit = segmentLimit;
+        this.model = model;
+        this.catalogChannel = catalogChannel;
+    }
+
+    /**
+     * Returns the default archive location in the user's home directory, next to the
+     * crash journal.
+     *
+     * @return the default archive directory
+     */
+    public static Path defaultPath() {
+        return Path.of(System.getProperty("user.home"), ".cw2025", "replays");
+    }
+
+    /**
+     * Opens (or creates) an archive using the default model and segment size.
+     *
+     * @param directory archive directory
+     * @return the open archive
+     * @throws IOException if the archive cannot be opened or is not a replay archive
+     */
+    public static ReplayArchive open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_BYTES, InputCompressionModel.defaultModel());
+    }
+
+    /**
+     * Opens an existing archive, or creates a new one.
+     * <p>
+     * {@code model} is only used when the archive is created; an existing archive always
+     * keeps the model it was created with.
+     * </p>
+     *
+     * @param directory    archive directory
+     * @param segmentLimit size at which a new segment file is started
+     * @param model        compression model for a new archive
+     * @return the open archive
+     * @throws IOException if the archive cannot be opened or is not a replay archive
+     */
+    public static ReplayArchive open(Path directory, long segmentLimit, InputCompressionModel model) throws IOException {
+        if (segmentLimit <= 0) {
+            throw new IllegalArgumentException("segmentLimit must be positive");
+        }
+        Files.createDirectories(directory);
+        Path modelFile = directory.resolve("model.bin");
+        if (Files.isRegularFile(modelFile)) {
+            model = InputCompressionModel.readFrom(ByteBuffer.wrap(Files.readAllBytes(modelFile)));
+        } else {
+            ByteBuffer buf = ByteBuffer.allocate(InputCompressionModel.serializedSize());
+            model.writeTo(buf);
+            Files.write(modelFile, buf.array());
+        }
+
+        FileChannel channel = FileChannel.open(directory.resolve("catalog.bin"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ReplayArchive archive = new ReplayArchive(directory, segmentLimit, model, channel);
+        try {
+            archive.mapCatalog();
+            archive.openSegments();
+        } catch (IOException | RuntimeException e) {
+            archive.close();
+            throw e;
+        }
+        return archive;
+    }
+
+    /**
+     * Maps the catalog, initializing the header of a new archive.
+     */
+    private void mapCatalog() throws IOException {
+        long size = catalogChannel.size();
+        if (size == 0) {
+            map(INITIAL_CAPACITY);
+            catalog.putInt(H_MAGIC, CATALOG_MAGIC);
+            catalog.putInt(H_VERSION, VERSION);
+            catalog.putInt(H_ENTRY_BYTES, ENTRY_BYTES);
+            catalog.putInt(H_COUNT, 0);
+            return;
+        }
+        if (size < HEADER_BYTES) {
+            throw new IOException("Truncated replay catalog");
+        }
+        map((int) Math.max(1, (size - HEADER_BYTES) / ENTRY_BYTES));
+        if (catalog.getInt(H_MAGIC) != CATALOG_MAGIC || catalog.getInt(H_VERSION) != VERSION
+                || catalog.getInt(H_ENTRY_BYTES) != ENTRY_BYTES) {
+            throw new IOException("Not a replay catalog: " + directory);
+        }
+        count = catalog.getInt(H_COUNT);
+        if (count < 0 || count > capacity) {
+            throw new IOException("Corrupt replay catalog: " + count + " entries");
+        }
+    }
+
+    /**
+     * (Re)maps the catalog file with room for {@code entries} entries.
+     */
+    private void map(int entries) throws IOException {
+        catalog = catalogChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) entries * ENTRY_BYTES);
+        capacity = entries;
+    }
+
+    /**
+     * Opens the existing segment files and picks the segment to append to.
+     */
+    private void openSegments() throws IOException {
+        int segment = 0;
+        while (Files.exists(segmentPath(segment))) {
+            segments.add(null);
+            segment++;
+        }
+        activeSegment = Math.max(0, segment - 1);
+        //bytes past the last published entry belong to an append that never finished
+        if (count > 0) {
+            int last = count - 1;
+            int lastSegment = catalog.getInt(entryOffset(last) + E_SEGMENT);
+            long end = catalog.getLong(entryOffset(last) + E_OFFSET) + RECORD_HEADER_BYTES
+                    + catalog.getInt(entryOffset(last) + E_LENGTH);
+            activeSegment = lastSegment;
+            segment(lastSegment).truncate(end);
+        } else if (!segments.isEmpty()) {
+            segment(0).truncate(0);
+        }
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("segment-%05d.dat", segment));
+    }
+
+    /**
+     * Returns the channel for a segment, opening it on first use.
+     */
+    private FileChannel segment(int segment) throws IOException {
+        while (segments.size() <= segment) {
+            segments.add(null);
+        }
+        FileChannel channel = segments.get(segment);
+        if (channel == null) {
+            channel = FileChannel.open(segmentPath(segment),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.set(segment, channel);
+        }
+        return channel;
+    }
+
+    private static int entryOffset(int index) {
+        return HEADER_BYTES + index * ENTRY_BYTES;
+    }
+
+    private ByteBuffer scratch(int bytes) {
+        if (scratch.capacity() < bytes) {
+            scratch = ByteBuffer.allocate(Math.max(bytes, scratch.capacity() * 2));
+        }
+        scratch.clear().limit(bytes);
+        return scratch;
+    }
+
+    /**
+     * Appends a replay to the archive.
+     * <p>
+     * The id stored in {@code replay} is ignored; the archive assigns the next sequential id.
+     * </p>
+     *
+     * @param replay the replay to store
+     * @return the id assigned to the replay
+     * @throws IOException if the replay cannot be written
+     */
+    public long append(Replay replay) throws IOException {
+        byte[] inputs = replay.getInputs();
+        int payload = model.encodedSize(inputs);
+        int recordBytes = RECORD_HEADER_BYTES + payload;
+        long id = count;
+
+        FileChannel channel = segment(activeSegment);
+        long offset = channel.size();
+        if (offset > 0 && offset + recordBytes > segmentLimit) {
+            activeSegment++;
+            channel = segment(activeSegment);
+            offset = channel.size();
+        }
+
+        ByteBuffer buf = scratch(recordBytes);
+        buf.putLong(id).putInt(payload);
+        model.encode(inputs, buf);
+        buf.flip();
+        long position = offset;
+        while (buf.hasRemaining()) {
+            position += channel.write(buf, position);
+        }
+
+        if (count == capacity) {
+            map(capacity * 2);
+        }
+        int e = entryOffset(count);
+        catalog.putLong(e + E_ID, id);
+        catalog.putLong(e + E_SEED, replay.getSeed());
+        catalog.putLong(e + E_RECORDED_AT, replay.getRecordedAt());
+        catalog.putInt(e + E_SCORE, replay.getScore());
+        catalog.putInt(e + E_DURATION, replay.getDurationMs());
+        catalog.putInt(e + E_PLAYER, replay.getPlayerId());
+        catalog.putInt(e + E_SEGMENT, activeSegment);
+        catalog.putLong(e + E_OFFSET, offset);
+        catalog.putInt(e + E_LENGTH, payload);
+        catalog.putInt(e + E_INPUTS, inputs.length);
+        //publish last, so a half-written entry is never counted
+        count++;
+        catalog.putInt(H_COUNT, count);
+        return id;
+    }
+
+    /**
+     * Reads a replay back from the archive.
+     *
+     * @param index catalog index, {@code 0 <= index < size()}
+     * @return the decoded replay
+     * @throws IOException if the segment cannot be read or is corrupt
+     */
+    public Replay read(int index) throws IOException {
+        int e = checkedEntry(index);
+        int length = catalog.getInt(e + E_LENGTH);
+        long offset = catalog.getLong(e + E_OFFSET);
+        FileChannel channel = segment(catalog.getInt(e + E_SEGMENT));
+        ByteBuffer buf = scratch(RECORD_HEADER_BYTES + length);
+        long position = offset;
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position);
+            if (n < 0) {
+                throw new IOException("Replay " + index + " is truncated");
+            }
+            position += n;
+        }
+        buf.flip();
+        long id = buf.getLong();
+        if (id != catalog.getLong(e + E_ID) || buf.getInt() != length) {
+            throw new IOException("Replay " + index + " does not match its catalog entry");
+        }
+        byte[] inputs;
+        try {
+            inputs = model.decode(buf, catalog.getInt(e + E_INPUTS));
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Replay " + index + " is corrupt", ex);
+        }
+        return new Replay(id, getSeed(index), getPlayerId(index), getRecordedAt(index),
+                getDurationMs(index), getScore(index), inputs);
+    }
+
+    private int checkedEntry(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Replay index " + index + " out of range [0, " + count + ")");
+        }
+        return entryOffset(index);
+    }
+
+    /** @return number of replays in the archive */
+    public int size() {
+        return count;
+    }
+
+    /** @return the model every replay in this archive is compressed with */
+    public InputCompressionModel getModel() {
+        return model;
+    }
+
+    /** @return id of the replay at {@code index} */
+    public long getId(int index) {
+        return catalog.getLong(checkedEntry(index) + E_ID);
+    }
+
+    /** @return brick seed of the replay at {@code index} */
+    public long getSeed(int index) {
+        return catalog.getLong(checkedEntry(index) + E_SEED);
+    }
+
+    /** @return start time (epoch milliseconds) of the replay at {@code index} */
+    public long getRecordedAt(int index) {
+        return catalog.getLong(checkedEntry(index) + E_RECORDED_AT);
+    }
+
+    /** @return final score of the replay at {@code index} */
+    public int getScore(int index) {
+        return catalog.getInt(checkedEntry(index) + E_SCORE);
+    }
+
+    /** @return duration in milliseconds of the replay at {@code index} */
+    public int getDurationMs(int index) {
+        return catalog.getInt(checkedEntry(index) + E_DURATION);
+    }
+
+    /** @return player id of the replay at {@code index} */
+    public int getPlayerId(int index) {
+        return catalog.getInt(checkedEntry(index) + E_PLAYER);
+    }
+
+    /** @return number of inputs in the replay at {@code index} */
+    public int getInputCount(int index) {
+        return catalog.getInt(checkedEntry(index) + E_INPUTS);
+    }
+
+    /** @return compressed size in bytes of the replay at {@code index} */
+    public int getCompressedBytes(int index) {
+        return catalog.getInt(checkedEntry(index) + E_LENGTH);
+    }
+
+    /**
+     * Finds replays whose score lies in {@code [minScore, maxScore]}.
+     *
+     * @param minScore lowest score (inclusive)
+     * @param maxScore highest score (inclusive)
+     * @return matching catalog indices in ascending order
+     */
+    public int[] findByScore(int minScore, int maxScore) {
+        int[] hits = new int[16];
+        int n = 0;
+        for (int i = 0, e = entryOffset(0) + E_SCORE; i < count; i++, e += ENTRY_BYTES) {
+            int score = catalog.getInt(e);
+            if (score >= minScore && score <= maxScore) {
+                if (n == hits.length) hits = Arrays.copyOf(hits, n * 2);
+                hits[n++] = i;
+            }
+        }
+        return Arrays.copyOf(hits, n);
+    }
+
+    /**
+     * Finds replays recorded in {@code [from, to)} (epoch milliseconds).
+     *
+     * @param from earliest start time (inclusive)
+     * @param to   latest start time (exclusive)
+     * @return matching catalog indices in ascending order
+     */
+    public int[] findByRecordedAt(long from, long to) {
+        int[] hits = new int[16];
+        int n = 0;
+        for (int i = 0, e = entryOffset(0) + E_RECORDED_AT; i < count; i++, e += ENTRY_BYTES) {
+            long at = catalog.getLong(e);
+            if (at >= from && at < to) {
+                if (n == hits.length) hits = Arrays.copyOf(hits, n * 2);
+                hits[n++] = i;
+            }
+        }
+        return Arrays.copyOf(hits, n);
+    }
+
+    /**
+     * Finds replays matching an arbitrary condition on the catalog index, e.g.
+     * {@code i -> archive.getPlayerId(i) == 7}.
+     *
+     * @param filter condition on catalog indices
+     * @return matching catalog indices in ascending order
+     */
+    public int[] select(IntPredicate filter) {
+        int[] hits = new int[16];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (filter.test(i)) {
+                if (n == hits.length) hits = Arrays.copyOf(hits, n * 2);
+                hits[n++] = i;
+            }
+        }
+        return Arrays.copyOf(hits, n);
+    }
+
+    /**
+     * Forces segment data and the catalog to disk.
+     *
+     * @throws IOException if syncing fails
+     */
+    public void flush() throws IOException {
+        for (FileChannel channel : segments) {
+            if (channel != null) {
+                channel.force(false);
+            }
+        }
+        catalog.force();
+    }
+
+    /**
+     * Flushes and closes the archive.
+     *
+     * @throws IOException if flushing or closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        try {
+            if (catalog != null) {
+                flush();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        for (FileChannel channel : segments) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    if (failure == null) failure = e;
+                }
+            }
+        }
+        segments.clear();
+        catalogChannel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.comp2042.tetris.persistence;
+
+import com.comp2042.tetris.events.MoveEvent;
+
+import java.util.Arrays;
+
+/**
+ * Collects the inputs of one game into a {@link Replay}.
+ * <p>
+ * Call {@link #begin(long, int)} with the seed passed to
+ * {@link com.comp2042.tetris.model.GameBoard#newGame(long)}, {@link #record(MoveEvent)}
+ * for every input applied to the board (including gravity ticks), then
+ * {@link #finish(int)} when the game ends. The input buffer is reused across games.
+ * </p>
+ */
+public final class ReplayRecorder {
+
+    /** Recorded input codes of the current game. */
+    private byte[] inputs = new byte[1024];
+
+    /** Number of valid entries in {@link #inputs}. */
+    private int length;
+
+    private long seed;
+    private int playerId;
+    private long startedAt;
+    private long startedNanos;
+    private boolean recording;
+
+    /**
+     * Starts recording a new game, discarding anything recorded before.
+     *
+     * @param seed     the seed the game was started with
+     * @param playerId id of the player
+     */
+    public void begin(long seed, int playerId) {
+        this.seed = seed;
+        this.playerId = playerId;
+        startedAt = System.currentTimeMillis();
+        startedNanos = System.nanoTime();
+        length = 0;
+        recording = true;
+    }
+
+    /**
+     * Records one input. Ignored when no game is being recorded.
+     *
+     * @param event the input applied to the board
+     */
+    public void record(MoveEvent event) {
+        if (!recording) {
+            return;
+        }
+        if (length == inputs.length) {
+            inputs = Arrays.copyOf(inputs, length * 2);
+        }
+        inputs[length++] = (byte) event.toCode();
+    }
+
+    /**
+     * Ends the current game and returns its replay.
+     *
+     * @param finalScore the score the game ended with
+     * @return the recorded replay (not yet archived, so its id is {@code -1})
+     * @throws IllegalStateException if {@link #begin(long, int)} was not called
+     */
+    public Replay finish(int finalScore) {
+        if (!recording) {
+            throw new IllegalStateException("No game is being recorded");
+        }
+        recording = false;
+        long elapsedMs = (System.nanoTime() - startedNanos) / 1_000_000L;
+        return new Replay(-1, seed, playerId, startedAt, (int) Math.min(Integer.MAX_VALUE, elapsedMs),
+                finalScore, Arrays.copyOf(inputs, length));
+    }
+
+    /** @return {@code true} between {@link #begin(long, int)} and {@link #finish(int)} */
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /** @return number of inputs recorded in the current game */
+    public int getInputCount() {
+        return length;
+    }
+}
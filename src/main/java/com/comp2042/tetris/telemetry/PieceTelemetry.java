@@ -0,0 +1,89 @@
+package com.comp2042.tetris.telemetry;
+
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+
+/**
+ * Tracks the active piece of a {@link GameBoard} and emits one {@link TelemetryExporter}
+ * record per locked piece.
+ * <p>
+ * The owner calls {@link #input(MoveEvent)} for every event, {@link #pieceLocked(GameBoard, int)}
+ * after the lock's rows are cleared and scored (before the next brick is spawned), and
+ * {@link #reset(GameBoard)} when a game starts. A piece is "active" from the previous lock
+ * (or the start of the game) until its own lock, so time spent on a held piece counts
+ * toward the piece that is eventually locked.
+ * </p>
+ */
+public final class PieceTelemetry {
+
+    private final TelemetryExporter exporter;
+
+    /** Time the current piece became active. */
+    private long activeSinceNanos;
+
+    /** Score when the current piece became active. */
+    private int scoreAtSpawn;
+
+    /** User inputs applied to the current piece. */
+    private int inputs;
+
+    /**
+     * Creates a tracker writing to {@code exporter}.
+     *
+     * @param exporter destination for piece records
+     */
+    public PieceTelemetry(TelemetryExporter exporter) {
+        this.exporter = exporter;
+        this.activeSinceNanos = System.nanoTime();
+    }
+
+    /**
+     * Starts tracking a fresh game (or a restored one).
+     *
+     * @param board the board being played
+     */
+    public void reset(GameBoard board) {
+        activeSinceNanos = System.nanoTime();
+        scoreAtSpawn = board.getScore().scoreProperty().get();
+        inputs = 0;
+    }
+
+    /**
+     * Counts one input event; gravity ticks are not counted.
+     *
+     * @param event the event applied to the board
+     */
+    public void input(MoveEvent event) {
+        if (event.getEventSource() == EventSource.USER) {
+            inputs++;
+        }
+    }
+
+    /**
+     * Emits the record for the piece that just locked and starts tracking the next one.
+     * Must be called before the next brick is spawned, while the board still reports the
+     * locked piece's position.
+     *
+     * @param board the board after merging and clearing rows
+     * @param lines number of lines the lock cleared
+     * @return {@code false} if the exporter dropped the record
+     */
+    public boolean pieceLocked(GameBoard board, int lines) {
+        long now = System.nanoTime();
+        int score = board.getScore().scoreProperty().get();
+        long micros = (now - activeSinceNanos) / 1_000L;
+        boolean queued = exporter.offer(board.getCurrentBrickId(), board.getCurrentRotation(),
+                board.getCurrentX(), board.getCurrentY() - GameBoard.SPAWN_Y, lines, score - scoreAtSpawn,
+                (int) Math.min(Integer.MAX_VALUE, micros), inputs);
+        activeSinceNanos = now;
+        scoreAtSpawn = score;
+        inputs = 0;
+        return queued;
+    }
+
+    /** @return the exporter records are written to */
+    public TelemetryExporter getExporter() {
+        return exporter;
+    }
+}
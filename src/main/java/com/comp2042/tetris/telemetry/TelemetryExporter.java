@@ -0,0 +1,324 @@
+package com.comp2042.tetris.telemetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams one fixed-width record per locked piece to a file.
+ * <p>
+ * Each record holds the piece type, rotation, column, drop distance, lines cleared,
+ * score delta, time the piece was active (microseconds) and number of user inputs.
+ * Records are written either as 16-byte big-endian binary records after an 8-byte
+ * header (see {@link Format#BINARY}) or as CSV lines.
+ * </p>
+ *
+ * <p><b>Threading:</b> {@link #offer} is called by a single producer thread (the game
+ * thread) and only copies eight ints into a preallocated ring: no locks, allocation or
+ * I/O. A daemon writer thread drains the ring every flush interval. When the ring is
+ * full the record is dropped and counted instead of stalling gameplay.</p>
+ */
+public final class TelemetryExporter implements AutoCloseable {
+
+    /**
+     * Output encoding.
+     */
+    public enum Format {
+        /**
+         * Header {@code int "CWT1", short recordBytes, short 0}, then per record: bytes piece,
+         * rotation, x (signed), drop, lines, 0; short inputs; int scoreDelta; int activeMicros.
+         */
+        BINARY,
+        /** A header line, then one comma-separated line per piece. */
+        CSV
+    }
+
+    /** Binary file header ("CWT1"). */
+    public static final int MAGIC = 0x43575431;
+
+    /** Size of one binary record in bytes. */
+    public static final int RECORD_BYTES = 16;
+
+    /** CSV header line. */
+    public static final String CSV_HEADER = "piece,rotation,x,drop,lines,score_delta,active_us,inputs\n";
+
+    /** Default ring capacity in records. */
+    public static final int DEFAULT_CAPACITY = 1 << 13;
+
+    /** Default delay between writer drains. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 200;
+
+    /** Ints per record in the ring. */
+    private static final int FIELDS = 8;
+
+    /** Size of the writer's direct output buffer. */
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    /** Longest CSV line: one number of at most 11 characters per field, each followed by a separator or the newline. */
+    private static final int MAX_CSV_LINE = FIELDS * 12;
+
+    private final Path path;
+    private final Format format;
+    private final FileChannel channel;
+    private final long flushIntervalNanos;
+
+    /** Ring of pending records, {@link #FIELDS} ints each. */
+    private final int[] ring;
+
+    /** Ring capacity in records (power of two). */
+    private final int capacity;
+
+    /** Next ring sequence to write (producer thread only). */
+    private long head;
+
+    /** Producer's cached copy of {@link #consumed}, refreshed only when the ring looks full. */
+    private long consumedCache;
+
+    /** Sequence up to which records are visible to the writer. */
+    private final AtomicLong published = new AtomicLong();
+
+    /** Sequence up to which the writer has drained the ring. */
+    private final AtomicLong consumed = new AtomicLong();
+
+    /** Records dropped because the ring was full. */
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean closing;
+    private volatile IOException failure;
+    private final Thread writer;
+
+    private TelemetryExporter(Path path, Format format, FileChannel channel, int capacity, long flushIntervalMs) {
+        this.path = path;
+        this.format = format;
+        this.channel = channel;
+        this.capacity = capacity;
+        this.ring = new int[capacity * FIELDS];
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.writer = new Thread(this::writerLoop, "telemetry-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Opens an exporter with the default capacity and flush interval. The format is CSV
+     * when the file name ends with {@code .csv}, binary otherwise.
+     *
+     * @param path output file; existing content is replaced
+     * @return the running exporter
+     * @throws IOException if the file cannot be created
+     */
+    public static TelemetryExporter open(Path path) throws IOException {
+        Format format = path.getFileName().toString().endsWith(".csv") ? Format.CSV : Format.BINARY;
+        return open(path, format, DEFAULT_CAPACITY, DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    /**
+     * Opens an exporter and starts its writer thread.
+     *
+     * @param path            output file; existing content is replaced
+     * @param format          output encoding
+     * @param capacity        ring capacity in records, rounded up to a power of two
+     * @param flushIntervalMs delay between writer drains
+     * @return the running exporter
+     * @throws IOException if the file cannot be created
+     */
+    public static TelemetryExporter open(Path path, Format format, int capacity, long flushIntervalMs) throws IOException {
+        if (capacity <= 0 || flushIntervalMs <= 0) {
+            throw new IllegalArgumentException("capacity and flushIntervalMs must be positive");
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = format == Format.BINARY
+                ? ByteBuffer.allocate(8).putInt(MAGIC).putShort((short) RECORD_BYTES).putShort((short) 0).flip()
+                : ByteBuffer.wrap(CSV_HEADER.getBytes(StandardCharsets.US_ASCII));
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        int rounded = Integer.highestOneBit(capacity);
+        if (rounded < capacity) {
+            rounded <<= 1;
+        }
+        TelemetryExporter exporter = new TelemetryExporter(path, format, channel, rounded, flushIntervalMs);
+        exporter.writer.start();
+        return exporter;
+    }
+
+    /**
+     * Queues one piece record. Hot path: never blocks, allocates or performs I/O.
+     *
+     * @param pieceType    brick id (1-7, see {@link com.comp2042.tetris.model.brick.Bricks})
+     * @param rotation     rotation index at lock
+     * @param x            column of the piece's top-left corner at lock
+     * @param dropDistance rows the piece fell from its spawn row
+     * @param lines        lines cleared by the lock
+     * @param scoreDelta   score gained while the piece was active
+     * @param activeMicros time from spawn to lock in microseconds
+     * @param inputs       user inputs applied while the piece was active
+     * @return {@code true} if queued, {@code false} if dropped (ring full, closed or failed)
+     */
+    public boolean offer(int pieceType, int rotation, int x, int dropDistance, int lines,
+                         int scoreDelta, int activeMicros, int inputs) {
+        if (closing || failure != null) {
+            return false;
+        }
+        long seq = head;
+        if (seq - consumedCache >= capacity) {
+            consumedCache = consumed.get();
+            if (seq - consumedCache >= capacity) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+        int i = (int) (seq & (capacity - 1)) * FIELDS;
+        ring[i] = pieceType;
+        ring[i + 1] = rotation;
+        ring[i + 2] = x;
+        ring[i + 3] = dropDistance;
+        ring[i + 4] = lines;
+        ring[i + 5] = scoreDelta;
+        ring[i + 6] = activeMicros;
+        ring[i + 7] = inputs;
+        head = seq + 1;
+        published.lazySet(seq + 1);
+        return true;
+    }
+
+    /**
+     * Writes pending records and stops the writer thread.
+     *
+     * @throws IOException if the writer failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /** @return the output file */
+    public Path getPath() {
+        return path;
+    }
+
+    /** @return the output encoding */
+    public Format getFormat() {
+        return format;
+    }
+
+    /** @return number of records dropped because the writer fell behind */
+    public long getDroppedRecords() {
+        return dropped.get();
+    }
+
+    /** @return number of records accepted by {@link #offer} */
+    public long getAcceptedRecords() {
+        return published.get();
+    }
+
+    /**
+     * Writer thread body: sleep one interval, then drain everything published.
+     */
+    private void writerLoop() {
+        ByteBuffer out = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+        try {
+            boolean stopping;
+            do {
+                LockSupport.parkNanos(flushIntervalNanos);
+                stopping = closing;
+                long end = published.get();
+                for (long seq = consumed.get(); seq < end; seq++) {
+                    if (out.remaining() < MAX_CSV_LINE) {
+                        drain(out);
+                    }
+                    encode(out, (int) (seq & (capacity - 1)) * FIELDS);
+                    //release each slot as soon as it is copied out
+                    consumed.lazySet(seq + 1);
+                }
+                drain(out);
+            } while (!stopping);
+        } catch (IOException e) {
+            failure = e;
+            System.err.println("Telemetry export disabled after write failure: " + e.getMessage());
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                //nothing else to do; the failure (if any) is already recorded
+            }
+        }
+    }
+
+    /**
+     * Encodes the ring record starting at int index {@code i}.
+     */
+    private void encode(ByteBuffer out, int i) {
+        if (format == Format.BINARY) {
+            out.put((byte) ring[i])
+                    .put((byte) ring[i + 1])
+                    .put((byte) ring[i + 2])
+                    .put((byte) Math.min(ring[i + 3], 255))
+                    .put((byte) ring[i + 4])
+                    .put((byte) 0)
+                    .putShort((short) Math.min(ring[i + 7], 0xFFFF))
+                    .putInt(ring[i + 5])
+                    .putInt(ring[i + 6]);
+            return;
+        }
+        for (int f = 0; f < FIELDS; f++) {
+            if (f > 0) {
+                out.put((byte) ',');
+            }
+            putDecimal(out, ring[i + f]);
+        }
+        out.put((byte) '\n');
+    }
+
+    /**
+     * Writes {@code value} as ASCII decimal without allocating a string.
+     */
+    private static void putDecimal(ByteBuffer out, int value) {
+        long v = value;
+        if (v < 0) {
+            out.put((byte) '-');
+            v = -v;
+        }
+        long div = 1;
+        while (div * 10 <= v) {
+            div *= 10;
+        }
+        for (; div > 0; div /= 10) {
+            out.put((byte) ('0' + (v / div) % 10));
+        }
+    }
+
+    /**
+     * Writes the whole buffer to the channel and clears it.
+     */
+    private void drain(ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
@@ -0,0 +1,323 @@
+package com.comp2042.tetris.util;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.brick.Bricks;
+
+import java.util.Arrays;
+
+/**
+ * Compact encoding of a board position, in the spirit of fumen strings.
+ * <p>
+ * A position is the background matrix, the active piece (id, rotation, offset), the
+ * hold slot and the next queue, read from and written to a {@link GameState}
+ * (use {@link com.comp2042.tetris.model.GameBoard#saveState(GameState)} and
+ * {@link com.comp2042.tetris.model.GameBoard#restoreState(GameState)} to go to and from a
+ * live board). Score, game-over flag and random state are not part of a position: decoding
+ * leaves them untouched, and two states with the same position always encode to the same
+ * bytes, so encodings can be used directly as dedup keys.
+ * </p>
+ *
+ * <p><b>Binary layout</b> (one byte each unless noted):</p>
+ * <ol>
+ *   <li>rows, columns</li>
+ *   <li>piece id (bits 0-2), rotation (bits 3-4), hold used (bit 5)</li>
+ *   <li>piece x (signed), piece y</li>
+ *   <li>held id (bits 0-2), queue length (bits 3-7)</li>
+ *   <li>queue ids, two per byte (low nibble first)</li>
+ *   <li>cells in row-major order, run-length coded: each byte is
+ *       {@code value << 4 | (runLength - 1)} with cell values up to
+ *       {@link GameBoard#GARBAGE_CELL} and runs of 1 to 16 equal cells</li>
+ * </ol>
+ * <p>
+ * Piece and queue ids are brick ids ({@code 1..}{@link Bricks#COUNT}; {@code 0} for no
+ * active or held piece). Decoding checks every field before it writes anything, so a
+ * malformed encoding leaves the target snapshot unchanged.
+ * </p>
+ * <p>
+ * The text form is {@value #TEXT_PREFIX} followed by the bytes in unpadded URL-safe
+ * base64, so it can be pasted into chats, URLs and test fixtures.
+ * </p>
+ *
+ * <p>
+ * The static binary methods never allocate. The text methods reuse this instance's
+ * scratch buffer, so keep one instance per thread.
+ * </p>
+ */
+public final class BoardNotation {
+
+    /** Prefix of the text form, carrying the format version. */
+    public static final String TEXT_PREFIX = "cw2@";
+
+    /** Bytes before the queue: rows, cols, piece, x, y, held/queue length. */
+    private static final int HEADER_BYTES = 6;
+
+    /** Longest run a single cell byte can describe. */
+    private static final int MAX_RUN = 16;
+
+    /** Highest cell value; values are stored in 4 bits. */
+    private static final int MAX_CELL = GameBoard.GARBAGE_CELL;
+
+    private static final char[] BASE64 =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+    private static final byte[] BASE64_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(BASE64_VALUES, (byte) -1);
+        for (int i = 0; i < BASE64.length; i++) {
+            BASE64_VALUES[BASE64[i]] = (byte) i;
+        }
+    }
+
+    /** Scratch buffer for the text methods, grown on demand. */
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Returns an upper bound on the binary encoding size for a board.
+     *
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return maximum number of bytes {@link #encode} writes
+     */
+    public static int maxEncodedSize(int rows, int cols) {
+        return HEADER_BYTES + GameState.QUEUE_CAPACITY / 2 + rows * cols;
+    }
+
+    /**
+     * Encodes the position held in {@code state}.
+     *
+     * @param state  the position
+     * @param out    destination array
+     * @param offset index of the first byte to write
+     * @return number of bytes written
+     * @throws IllegalArgumentException if a field does not fit the format
+     * @throws ArrayIndexOutOfBoundsException if {@code out} is too small
+     *         (see {@link #maxEncodedSize(int, int)})
+     */
+    public static int encode(GameState state, byte[] out, int offset) {
+        int rows = state.getRows();
+        int cols = state.getCols();
+        int queueLength = state.getQueueLength();
+        if (rows > 255 || cols > 255) {
+            throw new IllegalArgumentException("Board too large for notation: " + rows + "x" + cols);
+        }
+        int p = offset;
+        out[p++] = (byte) rows;
+        out[p++] = (byte) cols;
+        out[p++] = (byte) (piece(state.getBrickId()) | (state.getRotation() & 3) << 3
+                | (state.isHoldUsed() ? 1 << 5 : 0));
+        out[p++] = (byte) state.getX();
+        out[p++] = (byte) state.getY();
+        out[p++] = (byte) (piece(state.getHeldId()) | queueLength << 3);
+        int[] queue = state.queue();
+        for (int i = 0; i < queueLength; i += 2) {
+            int high = i + 1 < queueLength ? queueId(queue[i + 1]) : 0;
+            out[p++] = (byte) (queueId(queue[i]) | high << 4);
+        }
+
+        int[] cells = state.cells();
+        int i = 0;
+        while (i < cells.length) {
+            int value = cells[i];
+            if (value < 0 || value > MAX_CELL) {
+                throw new IllegalArgumentException("Cell value out of range: " + value);
+            }
+            int run = 1;
+            while (run < MAX_RUN && i + run < cells.length && cells[i + run] == value) {
+                run++;
+            }
+            out[p++] = (byte) (value << 4 | (run - 1));
+            i += run;
+        }
+        return p - offset;
+    }
+
+    /**
+     * Validates a piece id (0 = none).
+     */
+    private static int piece(int id) {
+        if (id < 0 || id > Bricks.COUNT) {
+            throw new IllegalArgumentException("Piece id out of range: " + id);
+        }
+        return id;
+    }
+
+    /**
+     * Validates a queue id (never empty).
+     */
+    private static int queueId(int id) {
+        if (id < 1 || id > Bricks.COUNT) {
+            throw new IllegalArgumentException("Queue id out of range: " + id);
+        }
+        return id;
+    }
+
+    /**
+     * Decodes a position into {@code target}. Fields that are not part of a position
+     * (score, game-over flag, random state) are left untouched.
+     *
+     * @param in     source array
+     * @param offset index of the first byte
+     * @param length number of bytes available
+     * @param target snapshot to fill; must match the encoded board size
+     * @return number of bytes consumed
+     * @throws IllegalArgumentException if the encoding is malformed or the size differs
+     */
+    public static int decode(byte[] in, int offset, int length, GameState target) {
+        int end = offset + length;
+        if (length < HEADER_BYTES) {
+            throw new IllegalArgumentException("Truncated board notation");
+        }
+        int p = offset;
+        int rows = in[p++] & 0xFF;
+        int cols = in[p++] & 0xFF;
+        if (rows != target.getRows() || cols != target.getCols()) {
+            throw new IllegalArgumentException("Board notation is " + rows + "x" + cols + ", expected "
+                    + target.getRows() + "x" + target.getCols());
+        }
+        int piece = in[p++];
+        int x = in[p++];
+        int y = in[p++] & 0xFF;
+        int held = in[p++] & 0xFF;
+        int queueLength = held >>> 3;
+        if (queueLength > GameState.QUEUE_CAPACITY || p + (queueLength + 1) / 2 > end) {
+            throw new IllegalArgumentException("Malformed queue in board notation");
+        }
+        int queueStart = p;
+        for (int i = 0; i < queueLength; i += 2) {
+            int b = in[p++];
+            queueId(b & 0x0F);
+            if (i + 1 < queueLength) {
+                queueId((b >>> 4) & 0x0F);
+            }
+        }
+
+        //check the cell runs before writing, so a bad encoding leaves target unchanged
+        int cellStart = p;
+        int cellCount = target.cells().length;
+        int i = 0;
+        while (i < cellCount) {
+            if (p >= end) {
+                throw new IllegalArgumentException("Truncated board notation");
+            }
+            int b = in[p++] & 0xFF;
+            if (b >>> 4 > MAX_CELL) {
+                throw new IllegalArgumentException("Cell value out of range: " + (b >>> 4));
+            }
+            i += (b & (MAX_RUN - 1)) + 1;
+            if (i > cellCount) {
+                throw new IllegalArgumentException("Cell run past the end of the board");
+            }
+        }
+
+        int[] queue = target.queue();
+        for (int k = 0, q = queueStart; k < queueLength; k += 2) {
+            int b = in[q++];
+            queue[k] = b & 0x0F;
+            if (k + 1 < queueLength) {
+                queue[k + 1] = (b >>> 4) & 0x0F;
+            }
+        }
+        int[] cells = target.cells();
+        for (int k = 0, q = cellStart; k < cellCount; ) {
+            int b = in[q++] & 0xFF;
+            int run = (b & (MAX_RUN - 1)) + 1;
+            Arrays.fill(cells, k, k + run, b >>> 4);
+            k += run;
+        }
+
+        target.setBrickId(piece & 7);
+        target.setRotation((piece >>> 3) & 3);
+        target.setHoldUsed((piece & 1 << 5) != 0);
+        target.setX(x);
+        target.setY(y);
+        target.setHeldId(held & 7);
+        target.setQueueLength(queueLength);
+        return p - offset;
+    }
+
+    /**
+     * Encodes the position as text.
+     *
+     * @param state the position
+     * @return the text form, starting with {@value #TEXT_PREFIX}
+     */
+    public String toText(GameState state) {
+        StringBuilder sb = new StringBuilder(TEXT_PREFIX.length() + 2 * HEADER_BYTES + 32);
+        appendText(state, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the text form of the position to {@code sb}.
+     *
+     * @param state the position
+     * @param sb    destination
+     */
+    public void appendText(GameState state, StringBuilder sb) {
+        int length = encode(state, scratch(maxEncodedSize(state.getRows(), state.getCols())), 0);
+        sb.append(TEXT_PREFIX);
+        int i = 0;
+        for (; i + 3 <= length; i += 3) {
+            int v = (scratch[i] & 0xFF) << 16 | (scratch[i + 1] & 0xFF) << 8 | (scratch[i + 2] & 0xFF);
+            sb.append(BASE64[v >>> 18]).append(BASE64[(v >>> 12) & 63])
+                    .append(BASE64[(v >>> 6) & 63]).append(BASE64[v & 63]);
+        }
+        int rest = length - i;
+        if (rest == 1) {
+            int v = scratch[i] & 0xFF;
+            sb.append(BASE64[v >>> 2]).append(BASE64[(v & 3) << 4]);
+        } else if (rest == 2) {
+            int v = (scratch[i] & 0xFF) << 8 | (scratch[i + 1] & 0xFF);
+            sb.append(BASE64[v >>> 10]).append(BASE64[(v >>> 4) & 63]).append(BASE64[(v & 15) << 2]);
+        }
+    }
+
+    /**
+     * Decodes a text position into {@code target}.
+     *
+     * @param text   the text form, starting with {@value #TEXT_PREFIX}
+     * @param target snapshot to fill; must match the encoded board size
+     * @throws IllegalArgumentException if the text is malformed or the size differs
+     */
+    public void fromText(CharSequence text, GameState target) {
+        int prefix = TEXT_PREFIX.length();
+        boolean prefixed = text.length() >= prefix;
+        for (int i = 0; prefixed && i < prefix; i++) {
+            prefixed = text.charAt(i) == TEXT_PREFIX.charAt(i);
+        }
+        if (!prefixed) {
+            throw new IllegalArgumentException("Not a board notation: missing " + TEXT_PREFIX);
+        }
+        int chars = text.length() - prefix;
+        if (chars % 4 == 1) {
+            throw new IllegalArgumentException("Malformed board notation length");
+        }
+        byte[] buf = scratch(chars * 3 / 4);
+        int n = 0;
+        int acc = 0;
+        int bits = 0;
+        for (int i = prefix; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int v = c < 128 ? BASE64_VALUES[c] : -1;
+            if (v < 0) {
+                throw new IllegalArgumentException("Invalid character in board notation: " + c);
+            }
+            acc = acc << 6 | v;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                buf[n++] = (byte) (acc >>> bits);
+            }
+        }
+        decode(buf, 0, n, target);
+    }
+
+    private byte[] scratch(int size) {
+        if (scratch.length < size) {
+            scratch = new byte[Math.max(size, scratch.length * 2)];
+        }
+        return scratch;
+    }
+}
@@ -0,0 +1,52 @@
+package com.comp2042.tetris.util;
+
+/**
+ * The SplitMix64 generator, shared by every seeded stream in the game (brick sequences,
+ * Zobrist keys, garbage holes, simulated lag, tuning and self-play).
+ * <p>
+ * A stream is a {@code long} state advanced by {@link #GAMMA}; each output is the
+ * {@link #mix(long) finaliser} applied to the new state, so
+ * {@code mix(state += GAMMA)} is the next value. The finaliser also turns any counter
+ * or seed into well-spread bits on its own. Callers keep the state in their own field,
+ * so saving and restoring a stream is copying one {@code long}.
+ * </p>
+ *
+ * <p>
+ * This class is non-instantiable and contains only static methods.
+ * </p>
+ */
+public final class SplitMix64 {
+
+    /** State increment between outputs (the 64-bit golden ratio). */
+    public static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private SplitMix64() {
+    }
+
+    /**
+     * The SplitMix64 finaliser.
+     *
+     * @param z the state (or any value to scramble)
+     * @return the mixed value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Maps a mixed value into {@code [0, bound)} by multiply-shift on its high 32 bits,
+     * which avoids a division and is unbiased enough for small bounds.
+     *
+     * @param z     a mixed value
+     * @param bound exclusive upper bound, positive
+     * @return an index in {@code [0, bound)}
+     */
+    public static int index(long z, int bound) {
+        return (int) (((z >>> 32) * bound) >>> 32);
+    }
+}
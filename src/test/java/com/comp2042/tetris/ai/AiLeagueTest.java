@@ -0,0 +1,82 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.MoveEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiLeagueTest {
+
+    private static final MoveEvent DROP = new MoveEvent(EventType.HARD_DROP, EventSource.USER);
+
+    private static List<AiLeague.Standing> play(int threads) {
+        try (AiLeague league = new AiLeague(100, 6, 150, threads)) {
+            league.registerAiPlayer("greedy", Heuristic.DEFAULT, 0, 1);
+            //drops every brick where it spawns
+            league.register("drop", (board, game) -> () -> game.onHardDropEvent(DROP));
+            assertEquals(List.of("greedy", "drop"), league.getPolicies());
+            return league.run();
+        }
+    }
+
+    @Test
+    void results_dependOnlyOnTheSuite_notOnThreads() {
+        List<AiLeague.Standing> one = play(1);
+        List<AiLeague.Standing> three = play(3);
+        for (int p = 0; p < 2; p++) {
+            for (int game = 0; game < 6; game++) {
+                assertEquals(one.get(p).getScore(game), three.get(p).getScore(game));
+                assertEquals(one.get(p).getLines(game), three.get(p).getLines(game));
+                assertEquals(one.get(p).getPieces(game), three.get(p).getPieces(game));
+            }
+        }
+        AiLeague.Standing greedy = one.get(0);
+        AiLeague.Standing drop = one.get(1);
+        assertEquals(150, greedy.getPiecesPerGame(), 1e-9);
+        assertEquals(0, greedy.getToppedOut());
+        assertTrue(greedy.getLinesPerGame() > 40, greedy.toString());
+        assertEquals(6, drop.getToppedOut());
+        assertTrue(drop.getPiecesPerGame() < 20, drop.toString());
+        assertTrue(greedy.getMeanScore() > drop.getMeanScore());
+        assertTrue(greedy.getPiecesPerSecond() > 0);
+    }
+
+    @Test
+    void percentiles_useNearestRank() {
+        AiLeague.Standing s = new AiLeague.Standing("p", new int[]{50, 10, 40, 30, 20}, new int[5], new int[]{1, 1, 1,
+                1, 1}, new long[5], 1);
+        assertEquals(10, s.getScorePercentile(0));
+        assertEquals(10, s.getScorePercentile(10));
+        assertEquals(30, s.getScorePercentile(50));
+        assertEquals(50, s.getScorePercentile(90));
+        assertEquals(50, s.getScorePercentile(100));
+        assertEquals(30, s.getMeanScore(), 1e-9);
+    }
+
+    @Test
+    void table_hasHeaderAndOneRowPerPolicy() {
+        StringBuilder out = new StringBuilder();
+        AiLeague.writeTable(play(2), out);
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(AiLeague.TABLE_HEADER, lines[0]);
+        int columns = lines[0].split("\t").length;
+        assertTrue(lines[1].startsWith("greedy\t6\t"), lines[1]);
+        assertTrue(lines[2].startsWith("drop\t6\t"), lines[2]);
+        assertEquals(columns, lines[1].split("\t").length);
+        assertEquals(columns, lines[2].split("\t").length);
+    }
+
+    @Test
+    void duplicateOrBadNames_areRejected() {
+        try (AiLeague league = new AiLeague(1, 1, 1, 1)) {
+            league.registerAiPlayer("greedy", Heuristic.DEFAULT, 0, 1);
+            assertThrows(IllegalArgumentException.class, () -> league.registerAiPlayer("greedy", Heuristic.DEFAULT, 0, 1));
+            assertThrows(IllegalArgumentException.class, () -> league.register("a\tb", (board, game) -> () -> { }));
+        }
+    }
+}
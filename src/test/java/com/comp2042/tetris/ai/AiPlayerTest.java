@@ -0,0 +1,169 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiPlayerTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    private static GameBoard newBoard(long seed) {
+        GameBoard board = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+        board.newGame(seed);
+        return board;
+    }
+
+    private static void assertSameOccupancy(int[][] matrix, SearchBoard board) {
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                assertEquals(matrix[r][c] != 0, board.isFilled(r, c), "cell " + r + "," + c);
+            }
+        }
+    }
+
+    @Test
+    void emptyBoard_enumeratesEveryRotationAndColumnOnce() {
+        //distinct (rotation, column) placements of each brick on an empty 10-wide board
+        int[] expected = {0, 17, 34, 34, 9, 17, 34, 17};
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        PlacementSearch search = new PlacementSearch();
+        for (int id = 1; id <= 7; id++) {
+            Set<Integer> seen = new HashSet<>();
+            int count = search.enumerate(board, id, 0, 4, 0,
+                    (k, rot, x, y) -> assertTrue(seen.add(rot * 100 + x + 10)));
+            assertEquals(expected[id], count, "brick " + id);
+        }
+    }
+
+    @Test
+    void placements_matchGameBoardWhenPlayedWithInputs() {
+        //random legal placements, played on a real board through the listener, must leave
+        //the same cells and clear the same rows as the search board predicts
+        Random random = new Random(31);
+        GameBoard board = newBoard(31);
+        HeadlessGame game = new HeadlessGame(board);
+        SearchBoard predicted = new SearchBoard(ROWS, COLS);
+        PlacementSearch search = new PlacementSearch();
+        List<int[]> candidates = new ArrayList<>();
+        int checked = 0;
+        for (int piece = 0; piece < 400; piece++) {
+            if (game.isGameOver()) {
+                game.createNewGame();
+            }
+            int id = board.getCurrentBrickId();
+            int x0 = board.getCurrentX();
+            predicted.load(board.getBoardMatrix());
+            candidates.clear();
+            search.enumerate(predicted, id, board.getCurrentRotation(), x0, board.getCurrentY(),
+                    (k, rot, x, y) -> candidates.add(new int[]{k, rot, x, y}));
+            int[] pick = candidates.get(random.nextInt(candidates.size()));
+
+            for (int k = 0; k < pick[0]; k++) game.onRotateEvent(new MoveEvent(EventType.ROTATE, EventSource.USER));
+            for (int x = x0; x > pick[2]; x--) game.onLeftEvent(new MoveEvent(EventType.LEFT, EventSource.USER));
+            for (int x = x0; x < pick[2]; x++) game.onRightEvent(new MoveEvent(EventType.RIGHT, EventSource.USER));
+            assertEquals(pick[1], board.getCurrentRotation());
+            assertEquals(pick[2], board.getCurrentX());
+
+            int linesBefore = game.getLines();
+            int expectedLines = predicted.place(id, pick[1], pick[2], pick[3]);
+            game.onHardDropEvent(new MoveEvent(EventType.HARD_DROP, EventSource.USER));
+            assertEquals(expectedLines, game.getLines() - linesBefore);
+            if (!game.isGameOver()) {
+                assertSameOccupancy(board.getBoardMatrix(), predicted);
+                checked++;
+            }
+        }
+        assertTrue(checked > 300);
+    }
+
+    @Test
+    void heuristic_countsHeightHolesAndBumpiness() {
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        int[][] matrix = new int[ROWS][COLS];
+        //column 0 height 3 with a hole at the bottom, column 1 height 1
+        matrix[ROWS - 3][0] = 1;
+        matrix[ROWS - 2][0] = 1;
+        matrix[ROWS - 1][1] = 1;
+        board.load(matrix);
+        assertEquals(4.0, new Heuristic(1, 0, 0, 0).evaluate(board, 0));
+        assertEquals(1.0, new Heuristic(0, 0, 1, 0).evaluate(board, 0));
+        //|3-1| + |1-0|
+        assertEquals(3.0, new Heuristic(0, 0, 0, 1).evaluate(board, 0));
+        assertEquals(2.0, new Heuristic(0, 1, 0, 0).evaluate(board, 2));
+    }
+
+    @Test
+    void nextMove_handsOutThePlanAndEndsWithHardDrop() {
+        GameBoard board = newBoard(7);
+        HeadlessGame game = new HeadlessGame(board);
+        AiPlayer ai = new AiPlayer(board);
+        int x0 = board.getCurrentX();
+        MoveEvent move;
+        int shift = 0;
+        int rotations = 0;
+        while ((move = ai.nextMove()).getEventType() != EventType.HARD_DROP) {
+            switch (move.getEventType()) {
+                case ROTATE -> rotations++;
+                case LEFT -> shift--;
+                case RIGHT -> shift++;
+                default -> fail("unexpected " + move.getEventType());
+            }
+            game.dispatch(move);
+        }
+        assertEquals(ai.getPlan().getRotations(), rotations);
+        assertEquals(ai.getPlan().getX(), x0 + shift);
+        game.dispatch(move);
+        assertEquals(1, game.getPieces());
+    }
+
+    @Test
+    void nextMove_replansAfterGarbageAndRestore() {
+        GameBoard board = newBoard(7);
+        AiPlayer ai = new AiPlayer(board);
+        GameState empty = new GameState(ROWS, COLS);
+        board.saveState(empty);
+        ai.nextMove();
+        String onEmpty = ai.getPlan().toString();
+
+        //garbage and restores rewrite the matrix in place, so the plan must not survive them
+        board.addGarbage(4, 0);
+        ai.nextMove();
+        AiPlayer fresh = new AiPlayer(board);
+        assertTrue(fresh.plan());
+        assertEquals(fresh.getPlan().toString(), ai.getPlan().toString());
+        assertNotEquals(onEmpty, ai.getPlan().toString());
+
+        board.restoreState(empty);
+        ai.nextMove();
+        assertEquals(onEmpty, ai.getPlan().toString());
+    }
+
+    @Test
+    void aiPlayer_survivesAndClearsLines() {
+        GameBoard board = newBoard(2025);
+        HeadlessGame game = new HeadlessGame(board);
+        AiPlayer ai = new AiPlayer(board);
+        ai.setEventListener(game);
+        for (int i = 0; i < 1000 && !game.isGameOver(); i++) {
+            assertTrue(ai.playPiece());
+        }
+        assertFalse(game.isGameOver());
+        assertEquals(1000, game.getPieces());
+        assertTrue(game.getLines() > 300, "lines " + game.getLines());
+    }
+}
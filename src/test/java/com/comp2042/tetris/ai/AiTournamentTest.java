@@ -0,0 +1,164 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.MoveEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiTournamentTest {
+
+    private static final MoveEvent DROP = new MoveEvent(EventType.HARD_DROP, EventSource.USER);
+
+    private static void register(AiTournament tournament, int drops) {
+        tournament.registerAiPlayer("greedy", Heuristic.DEFAULT, 0, 1);
+        double[] weights = Heuristic.DEFAULT.toArray();
+        weights[1] *= 0.5;
+        tournament.registerAiPlayer("greedy-half", Heuristic.of(weights), 0, 1);
+        for (int i = 0; i < drops; i++) {
+            //drops every brick where it spawns
+            tournament.register("drop" + i, (board, game) -> () -> game.onHardDropEvent(DROP));
+        }
+    }
+
+    private static List<AiTournament.Standing> roundRobin(int threads) throws IOException {
+        try (AiTournament tournament = AiTournament.roundRobin(7, 2, 3, 60, threads)) {
+            register(tournament, 1);
+            return tournament.run();
+        }
+    }
+
+    @Test
+    void roundRobin_dependsOnlyOnTheSeed_notOnThreads() throws IOException {
+        List<AiTournament.Standing> one = roundRobin(1);
+        List<AiTournament.Standing> three = roundRobin(3);
+        assertEquals(one.toString(), three.toString());
+
+        //3 players, 2 cycles, 3 games per pairing: 12 games each
+        double elo = 0;
+        for (AiTournament.Standing s : one) {
+            assertEquals(12, s.getGames(), s.toString());
+            assertEquals(s.getWins() + s.getDraws() / 2.0, s.getPoints(), 1e-9);
+            assertTrue(s.getGlickoDeviation() < AiTournament.INITIAL_RD);
+            elo += s.getElo();
+        }
+        assertEquals(3 * AiTournament.INITIAL_RATING, elo, 1e-6);
+        AiTournament.Standing last = one.get(2);
+        assertEquals("drop0", last.getPolicy());
+        assertEquals(12, last.getLosses());
+        assertTrue(last.getElo() < AiTournament.INITIAL_RATING && last.getGlicko() < AiTournament.INITIAL_RATING);
+        assertTrue(one.get(0).getGlicko() > AiTournament.INITIAL_RATING);
+    }
+
+    @Test
+    void swiss_givesOneByePerRoundAndAvoidsRematches() throws IOException {
+        List<AiTournament.GameResult> results = new ArrayList<>();
+        try (AiTournament tournament = AiTournament.swiss(3, 5, 2, 40, 2)) {
+            register(tournament, 3);
+            tournament.setListener(results::add);
+            List<AiTournament.Standing> standings = tournament.run();
+            assertEquals(20, tournament.getGamesApplied());
+
+            //5 players: two pairings and a bye per round, and nobody sits out twice
+            double points = 0;
+            int games = 0;
+            for (AiTournament.Standing s : standings) {
+                points += s.getPoints();
+                games += s.getGames();
+                assertEquals(8, s.getGames(), s.toString());
+            }
+            assertEquals(40, games);
+            assertEquals(20 + 5 * 2, points, 1e-9);
+            assertTrue(standings.get(0).getPolicy().startsWith("greedy"), standings.toString());
+        }
+        Set<String> pairings = new HashSet<>();
+        for (int i = 0; i < results.size(); i++) {
+            AiTournament.GameResult r = results.get(i);
+            assertEquals(i, r.getIndex());
+            assertEquals(i / 4, r.getRound());
+            if (i % 2 == 0 && r.getRound() < 3) {
+                //the first rounds leave enough fresh opponents to pair without a rematch
+                String a = r.getFirst().compareTo(r.getSecond()) < 0 ? r.getFirst() : r.getSecond();
+                String b = a.equals(r.getFirst()) ? r.getSecond() : r.getFirst();
+                assertTrue(pairings.add(a + "-" + b), "rematch " + a + " vs " + b);
+            }
+        }
+    }
+
+    @Test
+    void interruptedRun_resumesFromCheckpoint(@TempDir Path dir) throws IOException {
+        List<AiTournament.Standing> uninterrupted;
+        try (AiTournament tournament = AiTournament.swiss(11, 3, 3, 50, 2)) {
+            register(tournament, 2);
+            uninterrupted = tournament.run();
+        }
+
+        Path checkpoint = dir.resolve("tournament.bin");
+        try (AiTournament tournament = AiTournament.swiss(11, 3, 3, 50, 2)) {
+            register(tournament, 2);
+            tournament.setCheckpoint(checkpoint, 2);
+            tournament.setListener(r -> {
+                if (r.getIndex() == 9) {
+                    throw new IllegalStateException("stop");
+                }
+            });
+            assertThrows(IllegalStateException.class, tournament::run);
+        }
+        assertTrue(Files.isRegularFile(checkpoint));
+
+        List<Integer> played = new ArrayList<>();
+        try (AiTournament tournament = AiTournament.swiss(11, 3, 3, 50, 1)) {
+            register(tournament, 2);
+            tournament.setCheckpoint(checkpoint, 2);
+            tournament.setListener(r -> played.add(r.getIndex()));
+            assertEquals(uninterrupted.toString(), tournament.run().toString());
+            assertEquals(18, tournament.getGamesApplied());
+        }
+        assertFalse(played.isEmpty());
+        assertTrue(played.get(0) >= 8, "replayed games were played again: " + played);
+        assertEquals(17, (int) played.get(played.size() - 1));
+
+        //other settings must not pick up the file
+        try (AiTournament tournament = AiTournament.swiss(12, 3, 3, 50, 1)) {
+            register(tournament, 2);
+            tournament.setCheckpoint(checkpoint, 2);
+            assertThrows(IOException.class, tournament::run);
+        }
+    }
+
+    @Test
+    void table_hasHeaderAndOneRowPerPolicy() throws IOException {
+        StringBuilder out = new StringBuilder();
+        AiTournament.writeTable(roundRobin(2), out);
+        String[] lines = out.toString().split("\n");
+        assertEquals(4, lines.length);
+        assertEquals(AiTournament.TABLE_HEADER, lines[0]);
+        int columns = lines[0].split("\t").length;
+        for (int i = 1; i < lines.length; i++) {
+            assertTrue(lines[i].startsWith(i + "\t"), lines[i]);
+            assertEquals(columns, lines[i].split("\t").length);
+        }
+        assertTrue(lines[3].startsWith("3\tdrop0\t12\t"), lines[3]);
+    }
+
+    @Test
+    void badSetup_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> AiTournament.swiss(1, 0, 1, 1, 1));
+        try (AiTournament tournament = AiTournament.roundRobin(1, 1, 1, 1, 1)) {
+            tournament.registerAiPlayer("greedy", Heuristic.DEFAULT, 0, 1);
+            assertThrows(IllegalArgumentException.class, () -> tournament.registerAiPlayer("greedy", Heuristic.DEFAULT, 0, 1));
+            assertThrows(IllegalArgumentException.class, () -> tournament.register("a\nb", (board, game) -> () -> { }));
+            assertThrows(IllegalStateException.class, tournament::run);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.LevelService;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeamSearchTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    private static GameBoard newBoard(long seed) {
+        GameBoard board = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+        board.newGame(seed);
+        return board;
+    }
+
+    /** Random mid-game board: a ragged stack with a few holes. */
+    private static SearchBoard randomBoard(Random random) {
+        int[][] matrix = new int[ROWS][COLS];
+        for (int c = 0; c < COLS; c++) {
+            int height = random.nextInt(8);
+            for (int r = ROWS - height; r < ROWS; r++) {
+                matrix[r][c] = random.nextInt(6) == 0 ? 0 : 1;
+            }
+        }
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        board.load(matrix);
+        return board;
+    }
+
+    @Test
+    void previews_matchTheBricksThatSpawnLater() {
+        GameBoard board = newBoard(99);
+        int[] previews = new int[8];
+        assertEquals(8, board.getPreviewIds(previews, 8));
+        for (int i = 0; i < 8; i++) {
+            while (board.moveBrickDown()) { }
+            board.mergeBrickToBackground();
+            board.clearRows();
+            board.createNewBrick();
+            assertEquals(previews[i], board.getCurrentBrickId(), "preview " + i);
+        }
+        //peeking ahead does not change the sequence of a board with the same seed
+        GameBoard plain = newBoard(99);
+        for (int i = 0; i < 8; i++) {
+            while (plain.moveBrickDown()) { }
+            plain.mergeBrickToBackground();
+            plain.clearRows();
+            plain.createNewBrick();
+            assertEquals(previews[i], plain.getCurrentBrickId());
+        }
+    }
+
+    @Test
+    void depthOneWithoutHold_agreesWithPlacementSearch() {
+        Random random = new Random(4);
+        BeamSearch beam = new BeamSearch(8, 1);
+        PlacementSearch search = new PlacementSearch();
+        Placement expected = new Placement();
+        Placement actual = new Placement();
+        for (int n = 0; n < 200; n++) {
+            SearchBoard board = randomBoard(random);
+            int id = 1 + random.nextInt(7);
+            boolean found = search.best(board, id, 0, 4, 0, Heuristic.DEFAULT, expected);
+            assertEquals(found, beam.search(board, new int[]{id}, 1, 0, 4, 0, 0, true, Heuristic.DEFAULT, actual));
+            if (found) {
+                assertFalse(actual.isHold());
+                assertEquals(expected.getRotation(), actual.getRotation());
+                assertEquals(expected.getX(), actual.getX());
+                assertEquals(expected.getY(), actual.getY());
+                assertEquals(expected.getScore(), actual.getScore(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void result_doesNotDependOnThreadCount() {
+        Random random = new Random(8);
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            BeamSearch a = new BeamSearch(24, 4, single);
+            BeamSearch b = new BeamSearch(24, 4, many);
+            Placement pa = new Placement();
+            Placement pb = new Placement();
+            int[] pieces = new int[5];
+            for (int n = 0; n < 50; n++) {
+                SearchBoard board = randomBoard(random);
+                for (int i = 0; i < pieces.length; i++) pieces[i] = 1 + random.nextInt(7);
+                int held = random.nextInt(8);
+                assertTrue(a.search(board, pieces, pieces.length, 0, 4, 0, held, false, Heuristic.DEFAULT, pa));
+                assertTrue(b.search(board, pieces, pieces.length, 0, 4, 0, held, false, Heuristic.DEFAULT, pb));
+                assertEquals(pa.toString(), pb.toString());
+            }
+            assertTrue(a.getNodesEvaluated() > 0);
+            assertEquals(a.getNodesEvaluated(), b.getNodesEvaluated());
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    @Test
+    void lookahead_playsLongerAndUsesHold() {
+        GameBoard board = newBoard(2025);
+        HeadlessGame game = new HeadlessGame(board);
+        AiPlayer ai = new AiPlayer(board);
+        ai.setEventListener(game);
+        ai.setBeamSearch(new BeamSearch(16, 3));
+        int holds = 0;
+        for (int i = 0; i < 3000 && !game.isGameOver(); i++) {
+            ai.playPiece();
+            if (ai.getPlan().isHold()) holds++;
+        }
+        assertFalse(game.isGameOver());
+        assertTrue(holds > 0);
+        assertTrue(game.getLines() > 1000, "lines " + game.getLines());
+    }
+
+    @Test
+    void expiredDeadline_answersFromTheFirstLayer() {
+        Random random = new Random(39);
+        BeamSearch timed = new BeamSearch(16, 4);
+        BeamSearch shallow = new BeamSearch(16, 1);
+        Placement cut = new Placement();
+        Placement expected = new Placement();
+        int[] pieces = new int[4];
+        for (int n = 0; n < 50; n++) {
+            SearchBoard board = randomBoard(random);
+            for (int i = 0; i < pieces.length; i++) pieces[i] = 1 + random.nextInt(7);
+            //a deadline already in the past still gets a move: the first layer always completes
+            assertTrue(timed.search(board, pieces, 4, 0, 4, 0, 0, false, Heuristic.DEFAULT, cut,
+                    System.nanoTime() - 1));
+            assertEquals(1, timed.getLastDepth());
+            assertTrue(shallow.search(board, pieces, 4, 0, 4, 0, 0, false, Heuristic.DEFAULT, expected));
+            assertEquals(expected.toString(), cut.toString());
+        }
+        assertEquals(50, timed.getSearches());
+        assertEquals(50, timed.getCutoffs());
+    }
+
+    @Test
+    void distantDeadline_searchesTheFullDepth() {
+        Random random = new Random(40);
+        BeamSearch timed = new BeamSearch(16, 3);
+        BeamSearch untimed = new BeamSearch(16, 3);
+        Placement a = new Placement();
+        Placement b = new Placement();
+        //one brick more than the depth, since holding into an empty slot uses up the next one
+        int[] pieces = new int[4];
+        for (int n = 0; n < 20; n++) {
+            SearchBoard board = randomBoard(random);
+            for (int i = 0; i < pieces.length; i++) pieces[i] = 1 + random.nextInt(7);
+            assertTrue(timed.search(board, pieces, 4, 0, 4, 0, 0, false, Heuristic.DEFAULT, a,
+                    System.nanoTime() + 60_000_000_000L));
+            assertTrue(untimed.search(board, pieces, 4, 0, 4, 0, 0, false, Heuristic.DEFAULT, b));
+            assertEquals(3, timed.getLastDepth());
+            assertEquals(b.toString(), a.toString());
+        }
+        assertEquals(0, timed.getCutoffs());
+    }
+
+    @Test
+    void deadlineInsideALayer_answersFromTheLastCompletedLayer() {
+        Random random = new Random(41);
+        BeamSearch timed = new BeamSearch(64, 5);
+        Placement cut = new Placement();
+        Placement expected = new Placement();
+        int[] pieces = new int[6];
+        for (int n = 0; n < 20; n++) {
+            SearchBoard board = randomBoard(random);
+            for (int i = 0; i < pieces.length; i++) pieces[i] = 1 + random.nextInt(7);
+            //wherever the deadline falls, the answer matches an untimed search of the completed depth
+            assertTrue(timed.search(board, pieces, 6, 0, 4, 0, 0, false, Heuristic.DEFAULT, cut,
+                    System.nanoTime() + 200_000L * n));
+            int reached = timed.getLastDepth();
+            assertTrue(reached >= 1 && reached <= 5);
+            BeamSearch untimed = new BeamSearch(64, reached);
+            assertTrue(untimed.search(board, pieces, 6, 0, 4, 0, 0, false, Heuristic.DEFAULT, expected));
+            assertEquals(expected.toString(), cut.toString());
+        }
+    }
+
+    @Test
+    void gravityBudget_boundsThinkingTimePerBrick() {
+        GameBoard board = newBoard(12);
+        HeadlessGame game = new HeadlessGame(board);
+        AiPlayer ai = new AiPlayer(board);
+        ai.setEventListener(game);
+        //far too deep to finish in time: every plan is cut short but still plays a move
+        BeamSearch beam = new BeamSearch(512, 12);
+        ai.setBeamSearch(beam);
+        ai.setGravityMs(new LevelService().gravityMsForScore(1_000_000));
+        assertEquals(30_000_000L, ai.getPlanBudgetNanos());
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            ai.playPiece();
+            assertTrue(System.nanoTime() - start < 1_000_000_000L, "plan ran far past its budget");
+        }
+        assertEquals(10, game.getPieces());
+        assertTrue(beam.getCutoffs() > 0);
+        assertTrue(beam.getLastDepth() < 12);
+    }
+}
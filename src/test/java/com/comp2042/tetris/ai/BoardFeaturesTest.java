@@ -0,0 +1,206 @@
+package com.comp2042.tetris.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardFeaturesTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    /** Brute-force features, cell by cell, straight from the definitions. */
+    private static int[] reference(SearchBoard board) {
+        int rows = board.getRows();
+        int cols = board.getCols();
+        int[] out = new int[BoardFeatures.COUNT];
+        int[] heights = new int[cols];
+        for (int c = 0; c < cols; c++) {
+            int top = 0;
+            while (top < rows && !board.isFilled(top, c)) {
+                top++;
+            }
+            heights[c] = rows - top;
+            out[BoardFeatures.AGGREGATE_HEIGHT] += heights[c];
+            int lowestHole = -1;
+            for (int r = top; r < rows; r++) {
+                if (!board.isFilled(r, c)) {
+                    out[BoardFeatures.HOLES]++;
+                    lowestHole = r;
+                }
+            }
+            for (int r = top; r < lowestHole; r++) {
+                if (board.isFilled(r, c)) {
+                    out[BoardFeatures.COVERED_CELLS]++;
+                }
+            }
+            boolean above = false;
+            for (int r = 0; r <= rows; r++) {
+                boolean here = r == rows || board.isFilled(r, c);
+                if (r > 0 && here != above) {
+                    out[BoardFeatures.COLUMN_TRANSITIONS]++;
+                }
+                above = here;
+            }
+        }
+        for (int c = 0; c < cols; c++) {
+            int left = c == 0 ? rows : heights[c - 1];
+            int right = c == cols - 1 ? rows : heights[c + 1];
+            out[BoardFeatures.WELL_DEPTHS] += Math.max(0, Math.min(left, right) - heights[c]);
+            if (c + 1 < cols) {
+                out[BoardFeatures.BUMPINESS] += Math.abs(heights[c] - heights[c + 1]);
+            }
+        }
+        for (int r = 0; r < rows; r++) {
+            boolean last = true;
+            for (int c = 0; c <= cols; c++) {
+                boolean here = c == cols || board.isFilled(r, c);
+                if (here != last) {
+                    out[BoardFeatures.ROW_TRANSITIONS]++;
+                }
+                last = here;
+            }
+        }
+        return out;
+    }
+
+    private static int[] vector(BoardFeatures features) {
+        int[] out = new int[BoardFeatures.COUNT];
+        features.copyTo(out, 0);
+        return out;
+    }
+
+    /** Bottom rows filled except for one well column, so vertical I drops clear lines. */
+    private static int fillNearlyFullRows(SearchBoard board, Random random, int count) {
+        int well = random.nextInt(COLS);
+        int[][] matrix = new int[ROWS][COLS];
+        for (int r = ROWS - count; r < ROWS; r++) {
+            Arrays.fill(matrix[r], 1);
+            matrix[r][well] = 0;
+        }
+        board.load(matrix);
+        return well;
+    }
+
+    @Test
+    void emptyBoard_hasOnlyWallTransitions() {
+        BoardFeatures features = new BoardFeatures(ROWS, COLS);
+        assertArrayEquals(reference(new SearchBoard(ROWS, COLS)), vector(features));
+        assertEquals(2 * ROWS, features.get(BoardFeatures.ROW_TRANSITIONS));
+        assertEquals(COLS, features.get(BoardFeatures.COLUMN_TRANSITIONS));
+        assertEquals(0, features.get(BoardFeatures.HOLES));
+    }
+
+    @Test
+    void smallBoard_matchesHandCountedFeatures() {
+        //4x4, top row first:
+        //. . . .
+        //. X . .
+        //. . . .
+        //X X . X
+        BoardFeatures features = new BoardFeatures(4, 4);
+        features.load(new int[][]{{0, 0, 0, 0}, {0, 1, 0, 0}, {0, 0, 0, 0}, {1, 1, 0, 1}});
+        assertEquals(1 + 3 + 0 + 1, features.get(BoardFeatures.AGGREGATE_HEIGHT));
+        assertEquals(2 + 3 + 1, features.get(BoardFeatures.BUMPINESS));
+        assertEquals(1, features.get(BoardFeatures.HOLES));
+        assertEquals(1, features.get(BoardFeatures.COVERED_CELLS));
+        //column 0 under the wall and column 1, column 2 between 3 and 1
+        assertEquals(2 + 0 + 1 + 0, features.get(BoardFeatures.WELL_DEPTHS));
+        assertEquals(2 + 4 + 2 + 2, features.get(BoardFeatures.ROW_TRANSITIONS));
+        assertEquals(1 + 3 + 1 + 1, features.get(BoardFeatures.COLUMN_TRANSITIONS));
+    }
+
+    @Test
+    void randomPlacements_matchBruteForceAfterEveryLockAndClear() {
+        Random random = new Random(40);
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        BoardFeatures features = new BoardFeatures(ROWS, COLS);
+        int placed = 0;
+        int clears = 0;
+        int multiClears = 0;
+        for (int game = 0; game < 60; game++) {
+            int well = fillNearlyFullRows(board, random, random.nextInt(12));
+            features.load(board);
+            assertArrayEquals(reference(board), vector(features));
+            while (true) {
+                int id = 1 + random.nextInt(7);
+                int rotation = random.nextInt(PieceTable.rotations(id));
+                //start anywhere that fits, so bricks also land under overhangs and fill holes
+                int x = -1 + random.nextInt(COLS + 1);
+                int y = -1 + random.nextInt(ROWS);
+                if (random.nextInt(3) == 0) {
+                    //a vertical I down the well
+                    id = 1;
+                    rotation = 1;
+                    x = well - PieceTable.minCol(1, 1);
+                    y = 0;
+                }
+                if (!board.fits(id, rotation, x, y)) {
+                    if (!board.fits(id, rotation, 3, 0)) {
+                        break;
+                    }
+                    x = 3;
+                    y = 0;
+                }
+                y = board.dropY(id, rotation, x, y);
+                int lines = board.place(id, rotation, x, y);
+                assertEquals(lines, features.place(id, rotation, x, y));
+                for (int r = 0; r < ROWS; r++) {
+                    assertEquals(board.rowMask(r), features.rowMask(r));
+                }
+                assertArrayEquals(reference(board), vector(features), "after placement " + placed);
+                placed++;
+                clears += lines > 0 ? 1 : 0;
+                multiClears += lines > 1 ? 1 : 0;
+            }
+        }
+        assertTrue(placed > 1000, "placements: " + placed);
+        assertTrue(clears > 50, "clears: " + clears);
+        assertTrue(multiClears > 5, "multi-line clears: " + multiClears);
+    }
+
+    @Test
+    void copyFrom_continuesIndependently() {
+        Random random = new Random(41);
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        int well = fillNearlyFullRows(board, random, 6);
+        BoardFeatures original = new BoardFeatures(ROWS, COLS);
+        original.load(board);
+        BoardFeatures copy = new BoardFeatures(ROWS, COLS);
+        copy.copyFrom(original);
+        assertArrayEquals(vector(original), vector(copy));
+
+        int before = original.get(BoardFeatures.AGGREGATE_HEIGHT);
+        int x = well - PieceTable.minCol(1, 1);
+        int y = board.dropY(1, 1, x, 0);
+        assertEquals(4, board.place(1, 1, x, y));
+        assertEquals(4, copy.place(1, 1, x, y));
+        assertArrayEquals(reference(board), vector(copy));
+        assertEquals(before, original.get(BoardFeatures.AGGREGATE_HEIGHT));
+    }
+
+    @Test
+    void heuristic_scoresTrackedFeaturesLikeTheBoard() {
+        Random random = new Random(42);
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        BoardFeatures features = new BoardFeatures(ROWS, COLS);
+        Heuristic heuristic = Heuristic.DEFAULT;
+        for (int i = 0; i < 300; i++) {
+            int id = 1 + random.nextInt(7);
+            int rotation = random.nextInt(PieceTable.rotations(id));
+            int x = random.nextInt(COLS - 2);
+            if (!board.fits(id, rotation, x, 0)) {
+                board.clear();
+                features.clear();
+                continue;
+            }
+            int y = board.dropY(id, rotation, x, 0);
+            int lines = board.place(id, rotation, x, y);
+            assertEquals(lines, features.place(id, rotation, x, y));
+            assertEquals(heuristic.evaluate(board, lines), heuristic.evaluate(features, lines), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import com.comp2042.tetris.persistence.Replay;
+import com.comp2042.tetris.persistence.ReplayArchive;
+import com.comp2042.tetris.persistence.ReplayRecorder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FinesseAnalyzerTest {
+
+    private static final MoveEvent LEFT = new MoveEvent(EventType.LEFT, EventSource.USER);
+    private static final MoveEvent RIGHT = new MoveEvent(EventType.RIGHT, EventSource.USER);
+    private static final MoveEvent GRAVITY = new MoveEvent(EventType.DOWN, EventSource.THREAD);
+
+    /**
+     * Records an AI game; with {@code wasteful} every brick first gets a pointless LEFT,
+     * RIGHT pair, and every few bricks a gravity tick happens before the brick moves.
+     */
+    private static Replay record(long seed, int player, boolean wasteful) {
+        GameBoard board = new GameBoard(25, 10, new RandomBrickGenerator());
+        board.newGame(seed);
+        HeadlessGame game = new HeadlessGame(board);
+        AiPlayer ai = new AiPlayer(board);
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.begin(seed, player);
+        int started = -1;
+        while (!game.isGameOver() && game.getPieces() < 120) {
+            if (game.getPieces() != started) {
+                started = game.getPieces();
+                List<MoveEvent> extra = wasteful ? List.of(LEFT, RIGHT) : List.of();
+                if (started % 5 == 0) {
+                    extra = wasteful ? List.of(LEFT, GRAVITY, RIGHT) : List.of(GRAVITY);
+                }
+                for (MoveEvent e : extra) {
+                    recorder.record(e);
+                    game.dispatch(e);
+                }
+            }
+            MoveEvent move = ai.nextMove();
+            recorder.record(move);
+            game.dispatch(move);
+        }
+        return recorder.finish(board.getScore().scoreProperty().get());
+    }
+
+    @Test
+    void wastedInputs_areCountedAsFaultsPerPlayer(@TempDir Path dir) throws IOException {
+        Path first = dir.resolve("a");
+        Path second = dir.resolve("b");
+        try (ReplayArchive a = ReplayArchive.open(first); ReplayArchive b = ReplayArchive.open(second)) {
+            for (long seed = 1; seed <= 4; seed++) {
+                a.append(record(seed, 1, false));
+                b.append(record(seed, 2, true));
+            }
+            a.append(record(9, 2, true));
+        }
+        FinesseAnalyzer.Report report;
+        try (FinesseAnalyzer analyzer = new FinesseAnalyzer(3)) {
+            report = analyzer.analyze(List.of(first, second));
+        }
+        assertArrayEquals(new int[]{1, 2}, report.getPlayers());
+        assertEquals(4, report.getGames(1));
+        assertEquals(5, report.getGames(2));
+        assertEquals(4 * 120, report.getPieces(1));
+        assertEquals(5 * 120, report.getPieces(2));
+        assertEquals(0, report.getUnmatched(1));
+        assertEquals(0, report.getUnmatched(2));
+
+        //the AI plays near-minimal inputs; the wasteful player faults on every brick
+        assertTrue(report.getErrorRate(1) < 0.2, "error rate " + report.getErrorRate(1));
+        assertEquals(1.0, report.getErrorRate(2), 1e-9);
+        assertTrue(report.getExtraInputs(2) >= 2 * report.getPieces(2));
+
+        StringBuilder table = new StringBuilder();
+        report.writeTable(table);
+        String[] lines = table.toString().split("\n");
+        assertEquals(FinesseAnalyzer.TABLE_HEADER, lines[0]);
+        assertTrue(lines[1].startsWith("1\t4\t480\t"), lines[1]);
+        assertTrue(lines[2].startsWith("2\t5\t600\t600\t1.0000\t"), lines[2]);
+    }
+
+    @Test
+    void fewestInputs_ignoreDrops_unlikeTheShortestPath() {
+        String[] rows = {
+                ".#..#..##.",
+                ".......##.",
+                "###......#",
+                ".##.....#.",
+                ".#.####...",
+                "#......##.",
+                "#.#..###..",
+                ".#...##..#",
+                "#.#......#",
+                "##..###...",
+                "#....####.",
+        };
+        int[][] matrix = new int[25][10];
+        for (int r = 0; r < rows.length; r++) {
+            for (int c = 0; c < 10; c++) {
+                matrix[25 - rows.length + r][c] = rows[r].charAt(c) == '#' ? 1 : 0;
+            }
+        }
+        SearchBoard board = new SearchBoard(25, 10);
+        board.load(matrix);
+        int id = 3;
+
+        //the shortest path overall shifts and rotates seven times on its way to this lock
+        PathFinder finder = new PathFinder();
+        int locks = finder.search(board, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y);
+        int lock = 0;
+        while (finder.getRotation(lock) != 3 || finder.getX(lock) != 2 || finder.getY(lock) != 15) {
+            lock++;
+            assertTrue(lock < locks, "lock not reachable");
+        }
+        EventType[] path = new EventType[finder.getInputCount(lock)];
+        int moves = 0;
+        for (int k = finder.getInputs(lock, path) - 1; k >= 0; k--) {
+            if (path[k] == EventType.LEFT || path[k] == EventType.RIGHT || path[k] == EventType.ROTATE) {
+                moves++;
+            }
+        }
+        assertEquals(7, moves);
+
+        //soft-dropping further first gets there with five
+        FinesseAnalyzer.FewestInputs fewest = new FinesseAnalyzer.FewestInputs();
+        assertEquals(5, fewest.search(board, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, 3, 2, 15));
+        assertEquals(0, fewest.search(board, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, 0, GameBoard.SPAWN_X,
+                board.dropY(id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y)));
+        assertEquals(-1, fewest.search(board, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, 0, 0, 24));
+    }
+
+    @Test
+    void analysis_doesNotDependOnThreadCount(@TempDir Path dir) throws IOException {
+        try (ReplayArchive archive = ReplayArchive.open(dir)) {
+            for (long seed = 1; seed <= 6; seed++) {
+                archive.append(record(seed, (int) seed % 3, seed % 2 == 0));
+            }
+        }
+        StringBuilder one = new StringBuilder();
+        StringBuilder four = new StringBuilder();
+        try (FinesseAnalyzer analyzer = new FinesseAnalyzer(1)) {
+            analyzer.analyze(List.of(dir)).writeTable(one);
+        }
+        try (FinesseAnalyzer analyzer = new FinesseAnalyzer(4)) {
+            analyzer.analyze(List.of(dir)).writeTable(four);
+        }
+        assertEquals(one.toString(), four.toString());
+    }
+}
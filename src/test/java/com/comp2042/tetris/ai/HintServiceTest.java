@@ -0,0 +1,114 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HintServiceTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    private static GameBoard newBoard(long seed) {
+        GameBoard board = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+        board.newGame(seed);
+        return board;
+    }
+
+    /** Waits for the hint answering the latest request, skipping superseded ones. */
+    private static Hint awaitCurrent(HintService service, BlockingQueue<Hint> hints) throws InterruptedException {
+        while (true) {
+            Hint hint = hints.poll(10, TimeUnit.SECONDS);
+            assertNotNull(hint, "no hint published");
+            if (service.isCurrent(hint)) {
+                return hint;
+            }
+        }
+    }
+
+    @Test
+    void hint_matchesSearchOnTheSameBoardAndArrivesOnSearchThread() throws InterruptedException {
+        GameBoard board = newBoard(7);
+        BlockingQueue<Hint> hints = new LinkedBlockingQueue<>();
+        AtomicReference<Thread> publisher = new AtomicReference<>();
+        try (HintService service = new HintService(board, new BeamSearch(16, 2))) {
+            service.setListener(hint -> {
+                publisher.set(Thread.currentThread());
+                hints.add(hint);
+            });
+            assertTrue(service.request());
+            Hint hint = awaitCurrent(service, hints);
+            assertTrue(publisher.get() != Thread.currentThread(), "hint published on the caller's thread");
+
+            SearchBoard searchBoard = new SearchBoard(ROWS, COLS);
+            searchBoard.load(board.getBoardMatrix());
+            int[] preview = new int[1];
+            assertEquals(1, board.getPreviewIds(preview, 1));
+            int[] pieces = {board.getCurrentBrickId(), preview[0]};
+            Placement expected = new Placement();
+            assertTrue(new BeamSearch(16, 2).search(searchBoard, pieces, 2, board.getCurrentRotation(),
+                    board.getCurrentX(), board.getCurrentY(), board.getHeldBrickId(), board.isHoldUsed(),
+                    Heuristic.DEFAULT, expected));
+            assertEquals(expected.getRotation(), hint.getRotation());
+            assertEquals(expected.getX(), hint.getX());
+            assertEquals(expected.getY(), hint.getY());
+            assertEquals(expected.isHold(), hint.isHold());
+
+            //same position again: nothing new to search
+            assertFalse(service.request());
+        }
+    }
+
+    @Test
+    void movedPiece_supersedesEarlierRequests() throws InterruptedException {
+        GameBoard board = newBoard(11);
+        BlockingQueue<Hint> hints = new LinkedBlockingQueue<>();
+        try (HintService service = new HintService(board, new BeamSearch(64, 4))) {
+            service.setListener(hints::add);
+            assertTrue(service.request());
+            assertTrue(board.moveBrickLeft());
+            assertTrue(service.request());
+            assertTrue(board.moveBrickDown());
+            assertTrue(service.request());
+            Hint hint = awaitCurrent(service, hints);
+            assertEquals(3, hint.getRequest());
+            //anything else published answers an older request
+            for (Hint other : hints) {
+                assertTrue(other.getRequest() < 3);
+            }
+
+            //requests reuse one scratch snapshot: an unchanged position still compares equal
+            //to the last one searched, and a changed one is still noticed
+            assertFalse(service.request());
+            assertTrue(board.moveBrickRight());
+            assertTrue(service.request());
+            assertFalse(service.request());
+            assertEquals(4, awaitCurrent(service, hints).getRequest());
+        }
+    }
+
+    @Test
+    void cancel_makesPendingHintsStale() throws InterruptedException {
+        GameBoard board = newBoard(5);
+        BlockingQueue<Hint> hints = new LinkedBlockingQueue<>();
+        try (HintService service = new HintService(board, new BeamSearch(64, 4))) {
+            service.setListener(hints::add);
+            assertTrue(service.request());
+            service.cancel();
+            Hint late = hints.poll(300, TimeUnit.MILLISECONDS);
+            if (late != null) {
+                assertFalse(service.isCurrent(late));
+            }
+            //a cancel forgets the last position, so the same position is searched again
+            assertTrue(service.request());
+            assertNotNull(awaitCurrent(service, hints));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathFinderTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    /** Random lower stack full of holes and overhangs. */
+    private static int[][] randomMatrix(Random random) {
+        int[][] matrix = new int[ROWS][COLS];
+        for (int r = ROWS - 8; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                matrix[r][c] = random.nextInt(3) == 0 ? 1 : 0;
+            }
+        }
+        return matrix;
+    }
+
+    /** Puts brick {@code id} at the spawn point of a board holding {@code matrix}. */
+    private static GameBoard boardWith(int[][] matrix, int id) {
+        GameBoard board = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+        board.newGame(1);
+        GameState state = new GameState(ROWS, COLS);
+        board.saveState(state);
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                state.setCell(r, c, matrix[r][c]);
+            }
+        }
+        state.setBrickId(id);
+        state.setRotation(0);
+        state.setX(GameBoard.SPAWN_X);
+        state.setY(GameBoard.SPAWN_Y);
+        board.restoreState(state);
+        return board;
+    }
+
+    @Test
+    void everyPath_replaysOnGameBoardToItsLockPosition() {
+        Random random = new Random(36);
+        PathFinder finder = new PathFinder();
+        SearchBoard searchBoard = new SearchBoard(ROWS, COLS);
+        EventType[] inputs = new EventType[256];
+        int locks = 0;
+        for (int round = 0; round < 20; round++) {
+            int[][] matrix = randomMatrix(random);
+            searchBoard.load(matrix);
+            for (int id = 1; id <= 7; id++) {
+                int count = finder.search(searchBoard, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y);
+                for (int lock = 0; lock < count; lock++) {
+                    GameBoard board = boardWith(matrix, id);
+                    int length = finder.getInputs(lock, inputs);
+                    assertEquals(EventType.HARD_DROP, inputs[length - 1]);
+                    for (int i = 0; i < length - 1; i++) {
+                        boolean moved = switch (inputs[i]) {
+                            case LEFT -> board.moveBrickLeft();
+                            case RIGHT -> board.moveBrickRight();
+                            case ROTATE -> board.rotateLeftBrick();
+                            case DOWN -> board.moveBrickDown();
+                            default -> false;
+                        };
+                        assertTrue(moved, "input " + i + " of lock " + lock + " was blocked");
+                    }
+                    while (board.moveBrickDown()) { }
+                    assertEquals(finder.getRotation(lock), board.getCurrentRotation());
+                    assertEquals(finder.getX(lock), board.getCurrentX());
+                    assertEquals(finder.getY(lock), board.getCurrentY());
+                    locks++;
+                }
+            }
+        }
+        assertTrue(locks > 1000);
+    }
+
+    @Test
+    void hardDropPlacements_areFoundWithNoMoreInputs() {
+        Random random = new Random(7);
+        PathFinder finder = new PathFinder();
+        PlacementSearch search = new PlacementSearch();
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        for (int round = 0; round < 50; round++) {
+            board.load(randomMatrix(random));
+            for (int id = 1; id <= 7; id++) {
+                int count = finder.search(board, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y);
+                Map<Integer, Integer> inputsByLock = new HashMap<>();
+                for (int lock = 0; lock < count; lock++) {
+                    int key = (finder.getRotation(lock) * 100 + finder.getY(lock)) * 100 + finder.getX(lock) + 10;
+                    assertNull(inputsByLock.put(key, finder.getInputCount(lock)), "lock reported twice");
+                }
+                search.enumerate(board, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, (k, rot, x, y) -> {
+                    Integer inputs = inputsByLock.get((rot * 100 + y) * 100 + x + 10);
+                    assertNotNull(inputs, "hard-drop placement not found");
+                    assertTrue(inputs <= k + Math.abs(x - GameBoard.SPAWN_X) + 1);
+                });
+            }
+        }
+    }
+
+    @Test
+    void tuckUnderOverhang_isReachedBySlidingAlongTheFloor() {
+        //a roof over the four left cells of the bottom row
+        int[][] matrix = new int[ROWS][COLS];
+        for (int c = 0; c < 4; c++) {
+            matrix[ROWS - 2][c] = 1;
+        }
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        board.load(matrix);
+        int iBrick = 1;
+        PathFinder finder = new PathFinder();
+        int count = finder.search(board, iBrick, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y);
+        int tuck = -1;
+        for (int lock = 0; lock < count; lock++) {
+            if (finder.getRotation(lock) == 0 && finder.getX(lock) == 0 && finder.getY(lock) == ROWS - 2) {
+                tuck = lock;
+            }
+        }
+        assertTrue(tuck >= 0, "tuck under the roof not found");
+        //down to the floor, four steps left, drop
+        assertEquals(ROWS - 2 + 4 + 1, finder.getInputCount(tuck));
+
+        new PlacementSearch().enumerate(board, iBrick, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y,
+                (k, rot, x, y) -> assertFalse(rot == 0 && x == 0 && y == ROWS - 2));
+    }
+
+    @Test
+    void blockedStart_findsNothing() {
+        int[][] matrix = new int[ROWS][COLS];
+        for (int c = 0; c < COLS; c++) {
+            matrix[0][c] = 1;
+            matrix[1][c] = 1;
+        }
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        board.load(matrix);
+        assertEquals(0, new PathFinder().search(board, 6, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y));
+    }
+}
@@ -0,0 +1,53 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfectClearServiceTest {
+
+    @Test
+    void analysis_matchesTheSolverAndIsPublishedOnce() throws InterruptedException {
+        GameBoard board = new GameBoard(25, 10, new RandomBrickGenerator());
+        board.newGame(5);
+        BlockingQueue<PerfectClearService.Analysis> analyses = new LinkedBlockingQueue<>();
+        try (PerfectClearService service = new PerfectClearService(board, new PerfectClearSolver(1 << 16))) {
+            service.setListener(analyses::add);
+            service.setTimeoutMillis(5000);
+            service.setMaxPieces(5);
+            assertTrue(service.request());
+            PerfectClearService.Analysis analysis = analyses.poll(10, TimeUnit.SECONDS);
+            assertNotNull(analysis, "no analysis published");
+            assertTrue(service.isCurrent(analysis));
+            assertFalse(analysis.isTimedOut());
+
+            int[] pieces = new int[5];
+            pieces[0] = board.getCurrentBrickId();
+            int[] queue = new int[4];
+            assertEquals(4, board.getPreviewIds(queue, 4));
+            System.arraycopy(queue, 0, pieces, 1, 4);
+            SearchBoard searchBoard = new SearchBoard(25, 10);
+            PerfectClearSolver solver = new PerfectClearSolver(1 << 16);
+            int length = solver.solve(searchBoard, pieces, 5, board.getCurrentRotation(), board.getCurrentX(),
+                    board.getCurrentY(), 0, false, 5);
+            assertEquals(Math.max(length, 0), analysis.getMoves().size());
+            for (int i = 0; i < length; i++) {
+                Hint move = analysis.getMoves().get(i);
+                assertEquals(solver.getBrickId(i), move.getBrickId());
+                assertEquals(solver.getPlacement(i).getX(), move.getX());
+                assertEquals(solver.getPlacement(i).getY(), move.getY());
+            }
+
+            //same position again: nothing new to solve
+            assertFalse(service.request());
+            service.cancel();
+            assertFalse(service.isCurrent(analysis));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfectClearSolverTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+    private static final int O = 4;
+
+    /** Plays the solution on a copy of {@code start} and checks every move is legal and the board ends empty. */
+    private static void assertClears(SearchBoard start, int[] pieces, int held, int length, PerfectClearSolver solver) {
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        board.copyFrom(start);
+        PlacementSearch search = new PlacementSearch();
+        int next = 0;
+        for (int move = 0; move < length; move++) {
+            Placement p = solver.getPlacement(move);
+            int id = pieces[next];
+            if (p.isHold()) {
+                //the held brick comes in, or the next one when the slot is empty
+                id = held != 0 ? held : pieces[++next];
+                held = pieces[held != 0 ? next : next - 1];
+            }
+            next++;
+            assertEquals(id, solver.getBrickId(move), "brick of move " + move);
+            boolean[] reachable = new boolean[1];
+            search.enumerate(board, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, (k, rotation, x, y) ->
+                    reachable[0] |= k == p.getRotations() && rotation == p.getRotation() && x == p.getX()
+                            && y == p.getY());
+            assertTrue(reachable[0], "move " + move + " is not reachable: " + p);
+            board.place(id, p.getRotation(), p.getX(), p.getY());
+        }
+        for (int r = 0; r < ROWS; r++) {
+            assertEquals(0, board.rowMask(r), "row " + r + " not cleared");
+        }
+    }
+
+    /** Exhaustive search without pruning or memo, for perfect clears of exactly {@code height} rows. */
+    private static boolean reference(SearchBoard board, int[] pieces, int count, int next, int held, int height,
+                                     int empty) {
+        if (empty == 0) {
+            return true;
+        }
+        if (next >= count) {
+            return false;
+        }
+        boolean[] found = new boolean[1];
+        int[] options = {pieces[next], held != 0 ? held : next + 1 < count ? pieces[next + 1] : 0};
+        for (int option = 0; option < 2 && !found[0]; option++) {
+            int id = options[option];
+            if (id == 0) {
+                continue;
+            }
+            boolean hold = option == 1;
+            int childNext = hold && held == 0 ? next + 2 : next + 1;
+            int childHeld = hold ? pieces[next] : held;
+            new PlacementSearch().enumerate(board, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, (k, rot, x, y) -> {
+                if (found[0]) {
+                    return;
+                }
+                int top = 0;
+                while (PieceTable.rowMask(id, rot, top) == 0) {
+                    top++;
+                }
+                if (y + top < ROWS - height) {
+                    return;
+                }
+                SearchBoard child = new SearchBoard(ROWS, COLS);
+                child.copyFrom(board);
+                int lines = child.place(id, rot, x, y);
+                found[0] = reference(child, pieces, count, childNext, childHeld, height - lines, empty - 4);
+            });
+        }
+        return found[0];
+    }
+
+    @Test
+    void fiveOs_clearTwoRows() {
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        int[] pieces = {O, O, O, O, O, O};
+        PerfectClearSolver solver = new PerfectClearSolver(1 << 12);
+        int length = solver.solve(board, pieces, pieces.length, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, 0, false, 10);
+        assertEquals(5, length);
+        assertClears(board, pieces, 0, length, solver);
+    }
+
+    @Test
+    void tooFewBricks_hasNoPerfectClear() {
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        int[] pieces = {O, O, O, O, O, O};
+        PerfectClearSolver solver = new PerfectClearSolver(1 << 12);
+        assertEquals(0, solver.solve(board, pieces, 4, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, 0, false, 10));
+        assertEquals(0, solver.solve(board, pieces, pieces.length, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, 0,
+                false, 4));
+    }
+
+    @Test
+    void randomQueues_agreeWithExhaustiveSearchAndReplay() {
+        PerfectClearSolver solver = new PerfectClearSolver(1 << 16);
+        solver.setMaxHeight(2);
+        int found = 0;
+        for (long seed = 1; seed <= 40; seed++) {
+            RandomBrickGenerator generator = new RandomBrickGenerator(seed);
+            int[] pieces = new int[7];
+            generator.peekIds(pieces, pieces.length);
+            SearchBoard board = new SearchBoard(ROWS, COLS);
+            int length = solver.solve(board, pieces, pieces.length, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, 0,
+                    false, 5);
+            boolean expected = reference(board, pieces, pieces.length, 0, 0, 2, 20);
+            assertEquals(expected, length > 0, "seed " + seed);
+            if (length > 0) {
+                assertEquals(5, length);
+                assertClears(board, pieces, 0, length, solver);
+                found++;
+            }
+        }
+        assertTrue(found > 0, "no two-row perfect clear in 40 queues");
+    }
+
+    @Test
+    void expiredDeadline_timesOut() {
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        RandomBrickGenerator generator = new RandomBrickGenerator(3);
+        int[] pieces = new int[PerfectClearSolver.MAX_PIECES];
+        generator.peekIds(pieces, pieces.length);
+        PerfectClearSolver solver = new PerfectClearSolver(1 << 16);
+        solver.setMaxHeight(6);
+        int length = solver.solve(board, pieces, pieces.length, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, 0, false,
+                pieces.length, System.nanoTime());
+        //a quick two-row clear may still be found before the first deadline check
+        assertTrue(length == PerfectClearSolver.TIMED_OUT || length > 0, "length " + length);
+        if (length > 0) {
+            assertClears(board, pieces, 0, length, solver);
+        }
+    }
+}
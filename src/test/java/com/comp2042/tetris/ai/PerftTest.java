@@ -0,0 +1,84 @@
+package com.comp2042.tetris.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Known-good perft counts. A change to the move rules, {@link SearchBoard} or
+ * {@link PathFinder} that alters any of these numbers is a bug (or a rules change that
+ * must update them on purpose).
+ */
+class PerftTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    /** The ragged board the mid-game counts were taken on. */
+    private static SearchBoard raggedBoard() {
+        int[][] matrix = new int[ROWS][COLS];
+        Random random = new Random(37);
+        for (int r = ROWS - 8; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                matrix[r][c] = random.nextInt(3) == 0 ? 1 : 0;
+            }
+        }
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        board.load(matrix);
+        return board;
+    }
+
+    @Test
+    void emptyBoard_depthOne_matchesPlacementCounts() {
+        long[] expected = {0, 17, 34, 34, 9, 17, 34, 17};
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        for (int id = 1; id <= 7; id++) {
+            assertEquals(expected[id], new Perft().run(board, new int[]{id}, 1, false).getNodes(1), "brick " + id);
+        }
+    }
+
+    @Test
+    void emptyBoard_tios_depthFour() {
+        Perft.Result result = new Perft().run(new SearchBoard(ROWS, COLS), new int[]{6, 1, 4, 5}, 4, true);
+        assertArrayEquals(new long[]{34, 596, 5542, 99315},
+                new long[]{result.getNodes(1), result.getNodes(2), result.getNodes(3), result.getNodes(4)});
+        //line clears make a few sequences end on the same board
+        assertEquals(5542, result.getDistinct(3));
+        assertEquals(99281, result.getDistinct(4));
+    }
+
+    @Test
+    void raggedBoard_tio_depthThree() {
+        Perft.Result result = new Perft().run(raggedBoard(), new int[]{6, 1, 4}, 3, false);
+        assertEquals(41, result.getNodes(1));
+        assertEquals(774, result.getNodes(2));
+        assertEquals(7104, result.getNodes(3));
+        assertEquals(-1, result.getDistinct(3));
+    }
+
+    @Test
+    void parallelCounts_matchSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int[] pieces = {7, 2, 3, 6};
+            Perft.Result sequential = new Perft().run(raggedBoard(), pieces, 4, true);
+            Perft.Result parallel = new Perft(pool).run(raggedBoard(), pieces, 4, true);
+            for (int level = 1; level <= 4; level++) {
+                assertEquals(sequential.getNodes(level), parallel.getNodes(level), "level " + level);
+                assertEquals(sequential.getDistinct(level), parallel.getDistinct(level), "level " + level);
+            }
+            assertEquals(sequential.getTotalNodes(), parallel.getTotalNodes());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void run_rejectsDepthBeyondQueue() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Perft().run(new SearchBoard(ROWS, COLS), new int[]{1, 2}, 3, false));
+    }
+}
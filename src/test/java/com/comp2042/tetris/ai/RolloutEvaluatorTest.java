@@ -0,0 +1,82 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RolloutEvaluatorTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    private static GameBoard newBoard(long seed) {
+        GameBoard board = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+        board.newGame(seed);
+        return board;
+    }
+
+    @Test
+    void evaluate_runsEveryRolloutAndLeavesLiveBoardAlone() {
+        GameBoard board = newBoard(38);
+        GameState before = new GameState(ROWS, COLS);
+        board.saveState(before);
+        List<Placement> candidates = RolloutEvaluator.candidates(board);
+        assertFalse(candidates.isEmpty());
+        try (RolloutEvaluator evaluator = new RolloutEvaluator(ROWS, COLS, 12, 2)) {
+            RolloutEvaluator.Result result = evaluator.evaluate(board, candidates, 8, TimeUnit.MINUTES.toNanos(1));
+            assertEquals(candidates.size(), result.size());
+            assertEquals(8L * candidates.size(), result.getTotalRollouts());
+            for (int i = 0; i < result.size(); i++) {
+                assertEquals(8, result.getRollouts(i));
+                assertTrue(result.getMean(i) >= 0);
+            }
+            assertTrue(result.getBest() >= 0);
+        }
+        GameState after = new GameState(ROWS, COLS);
+        board.saveState(after);
+        assertEquals(before, after);
+    }
+
+    @Test
+    void estimates_doNotDependOnThreadCount() {
+        GameBoard board = newBoard(5);
+        List<Placement> candidates = RolloutEvaluator.candidates(board);
+        RolloutEvaluator.Result one;
+        RolloutEvaluator.Result three;
+        try (RolloutEvaluator evaluator = new RolloutEvaluator(ROWS, COLS, 15, 1)) {
+            one = evaluator.evaluate(board, candidates, 6, TimeUnit.MINUTES.toNanos(1));
+        }
+        try (RolloutEvaluator evaluator = new RolloutEvaluator(ROWS, COLS, 15, 3)) {
+            three = evaluator.evaluate(board, candidates, 6, TimeUnit.MINUTES.toNanos(1));
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            assertEquals(one.getMean(i), three.getMean(i), 1e-9, "candidate " + i);
+        }
+        assertEquals(one.getBest(), three.getBest());
+    }
+
+    @Test
+    void deadline_returnsTheEstimateSoFar() {
+        GameBoard board = newBoard(9);
+        List<Placement> candidates = RolloutEvaluator.candidates(board);
+        try (RolloutEvaluator evaluator = new RolloutEvaluator(ROWS, COLS, 200, 2)) {
+            long start = System.nanoTime();
+            RolloutEvaluator.Result result = evaluator.evaluate(board, candidates, 1_000_000,
+                    TimeUnit.MILLISECONDS.toNanos(100));
+            long elapsed = System.nanoTime() - start;
+            assertTrue(elapsed < TimeUnit.SECONDS.toNanos(5), "ran past the deadline");
+            assertTrue(result.getTotalRollouts() < 1_000_000L * candidates.size());
+
+            RolloutEvaluator.Result none = evaluator.evaluate(board, candidates, 10, 0);
+            assertEquals(0, none.getTotalRollouts());
+            assertEquals(-1, none.getBest());
+            assertTrue(Double.isNaN(none.getMean(0)));
+        }
+    }
+}
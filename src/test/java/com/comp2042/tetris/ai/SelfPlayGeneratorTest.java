@@ -0,0 +1,235 @@
+package com.comp2042.tetris.ai;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.Bricks;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelfPlayGeneratorTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+    private static final int PREVIEWS = 5;
+    /** Offset of the brick id: four board words and the game index. */
+    private static final int ID = 4 * 8 + 4;
+    /** Offset of the placement flags. */
+    private static final int FLAGS = ID + 2 + PREVIEWS;
+
+    /** Reads every published shard, checking its header; returns the records in file order. */
+    private static List<ByteBuffer> readShards(Path dir, int recordBytes, List<Long> counts) throws IOException {
+        List<Path> shards;
+        try (Stream<Path> files = Files.list(dir)) {
+            shards = files.sorted().toList();
+        }
+        List<ByteBuffer> records = new ArrayList<>();
+        for (Path shard : shards) {
+            assertTrue(shard.getFileName().toString().matches("shard-\\d{5}\\.bin"), "unexpected file " + shard);
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(shard));
+            assertEquals(SelfPlayGenerator.MAGIC, in.getInt());
+            assertEquals(SelfPlayGenerator.VERSION, in.getShort());
+            assertEquals(recordBytes, in.getShort());
+            assertEquals(ROWS, in.getShort());
+            assertEquals(COLS, in.getShort());
+            assertEquals(PREVIEWS, in.getShort());
+            in.getShort();
+            long count = in.getLong();
+            assertEquals(SelfPlayGenerator.HEADER_BYTES + count * recordBytes, in.capacity());
+            counts.add(count);
+            for (long i = 0; i < count; i++) {
+                records.add(in.slice(in.position(), recordBytes));
+                in.position(in.position() + recordBytes);
+            }
+        }
+        return records;
+    }
+
+    @Test
+    void records_replayUnderTheGameRules(@TempDir Path dir) throws IOException {
+        SelfPlayGenerator generator = new SelfPlayGenerator(dir, ROWS, COLS, 1);
+        generator.setMaxPieces(400);
+        generator.setExploration(0.05);
+        SelfPlayGenerator.Result result = generator.run(1000, 4);
+        assertEquals(4, result.getGames());
+
+        List<ByteBuffer> records = readShards(dir, generator.getRecordBytes(), new ArrayList<>());
+        assertEquals(result.getRecords(), records.size());
+        Map<Integer, List<ByteBuffer>> byGame = new HashMap<>();
+        for (ByteBuffer record : records) {
+            byGame.computeIfAbsent(record.getInt(32), g -> new ArrayList<>()).add(record);
+        }
+        assertEquals(4, byGame.size());
+        int holds = 0;
+        int topOuts = 0;
+        for (Map.Entry<Integer, List<ByteBuffer>> entry : byGame.entrySet()) {
+            List<ByteBuffer> game = entry.getValue();
+            RandomBrickGenerator bricks = new RandomBrickGenerator(1000 + entry.getKey());
+            SearchBoard board = new SearchBoard(ROWS, COLS);
+            int[] queue = new int[PREVIEWS];
+            int id = Bricks.idOf(bricks.getBrick());
+            int held = 0;
+            int lines = 0;
+            for (ByteBuffer record : game) {
+                for (int r = 0; r < ROWS; r++) {
+                    for (int c = 0; c < COLS; c++) {
+                        int bit = r * COLS + c;
+                        boolean filled = (record.getLong(8 * (bit >>> 6)) >>> (bit & 63) & 1) != 0;
+                        assertEquals(board.isFilled(r, c), filled);
+                    }
+                }
+                assertEquals(id, record.get(ID));
+                assertEquals(held, record.get(ID + 1));
+                bricks.peekIds(queue, PREVIEWS);
+                for (int i = 0; i < PREVIEWS; i++) {
+                    assertEquals(queue[i], record.get(ID + 2 + i));
+                }
+                if ((record.get(FLAGS) & 1) != 0) {
+                    holds++;
+                    if (held == 0) {
+                        held = id;
+                        id = Bricks.idOf(bricks.getBrick());
+                    } else {
+                        int t = held;
+                        held = id;
+                        id = t;
+                    }
+                }
+                int rotation = record.get(FLAGS + 1);
+                int x = record.get(FLAGS + 2);
+                int y = record.get(FLAGS + 3);
+                assertTrue(board.fits(id, rotation, x, GameBoard.SPAWN_Y));
+                assertEquals(board.dropY(id, rotation, x, GameBoard.SPAWN_Y), y);
+                assertEquals(board.place(id, rotation, x, y), record.get(FLAGS + 4));
+                id = Bricks.idOf(bricks.getBrick());
+            }
+            //outcomes count down to the last brick
+            for (int i = game.size() - 1; i >= 0; i--) {
+                ByteBuffer record = game.get(i);
+                lines += record.get(FLAGS + 4);
+                assertEquals(lines, record.getInt(FLAGS + 5));
+                assertEquals(game.size() - i, record.getInt(FLAGS + 9));
+            }
+            boolean toppedOut = (game.getFirst().get(FLAGS) & 2) != 0;
+            if (toppedOut) {
+                topOuts++;
+                assertFalse(board.fits(id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y));
+            } else {
+                assertEquals(400, game.size());
+            }
+        }
+        assertTrue(holds > 0, "the policy never held");
+        assertTrue(topOuts < 4);
+    }
+
+    @Test
+    void threadsAndSmallBuffers_writeTheSameRecordsInFullShards(@TempDir Path dir) throws IOException {
+        Path single = dir.resolve("single");
+        SelfPlayGenerator one = new SelfPlayGenerator(single, ROWS, COLS, 1);
+        one.setMaxPieces(150);
+        one.setExploration(0.2);
+        SelfPlayGenerator.Result expected = one.run(7, 12);
+
+        Path multi = dir.resolve("multi");
+        SelfPlayGenerator three = new SelfPlayGenerator(multi, ROWS, COLS, 3);
+        three.setMaxPieces(150);
+        three.setExploration(0.2);
+        three.setRecordsPerShard(100);
+        //three buffers of seven records: the workers keep waiting on the writer
+        three.setBuffers(3, 7 * three.getRecordBytes());
+        SelfPlayGenerator.Result actual = three.run(7, 12);
+
+        assertEquals(expected.getGames(), actual.getGames());
+        assertEquals(expected.getRecords(), actual.getRecords());
+        List<Long> counts = new ArrayList<>();
+        List<ByteBuffer> records = readShards(multi, three.getRecordBytes(), counts);
+        assertEquals(actual.getShards(), counts.size());
+        for (int i = 0; i + 1 < counts.size(); i++) {
+            assertEquals(100L, (long) counts.get(i));
+        }
+        assertTrue(counts.getLast() >= 1 && counts.getLast() <= 100);
+        assertEquals(sorted(readShards(single, one.getRecordBytes(), new ArrayList<>())), sorted(records));
+    }
+
+    @Test
+    void secondRun_addsShardsAfterExistingOnes(@TempDir Path dir) throws IOException {
+        SelfPlayGenerator first = new SelfPlayGenerator(dir, ROWS, COLS, 1);
+        first.setMaxPieces(50);
+        first.setRecordsPerShard(40);
+        SelfPlayGenerator.Result before = first.run(1, 2);
+        byte[] firstShard = Files.readAllBytes(dir.resolve("shard-00000.bin"));
+
+        //a new generator, as a second command line run would create
+        SelfPlayGenerator second = new SelfPlayGenerator(dir, ROWS, COLS, 1);
+        second.setMaxPieces(50);
+        second.setRecordsPerShard(40);
+        SelfPlayGenerator.Result after = second.run(100, 2);
+
+        assertArrayEquals(firstShard, Files.readAllBytes(dir.resolve("shard-00000.bin")));
+        List<Long> counts = new ArrayList<>();
+        List<ByteBuffer> records = readShards(dir, second.getRecordBytes(), counts);
+        assertEquals(before.getShards() + after.getShards(), counts.size());
+        assertEquals(before.getRecords() + after.getRecords(), records.size());
+        assertTrue(Files.exists(dir.resolve(String.format("shard-%05d.bin", counts.size() - 1))));
+    }
+
+    private static List<String> sorted(List<ByteBuffer> records) {
+        List<String> list = new ArrayList<>(records.size());
+        for (ByteBuffer record : records) {
+            byte[] bytes = new byte[record.remaining()];
+            record.duplicate().get(bytes);
+            list.add(Arrays.toString(bytes));
+        }
+        list.sort(null);
+        return list;
+    }
+
+    @Test
+    void stop_endsAnUnboundedRunWithCompleteShards(@TempDir Path dir) throws Exception {
+        SelfPlayGenerator generator = new SelfPlayGenerator(dir, ROWS, COLS, 2);
+        generator.setMaxPieces(200);
+        generator.setRecordsPerShard(5000);
+        AtomicReference<Object> outcome = new AtomicReference<>();
+        Thread runner = new Thread(() -> {
+            try {
+                outcome.set(generator.run(0, Long.MAX_VALUE));
+            } catch (Throwable t) {
+                outcome.set(t);
+            }
+        });
+        runner.start();
+        Thread.sleep(300);
+        generator.stop();
+        runner.join(10_000);
+        assertFalse(runner.isAlive());
+        assertTrue(outcome.get() instanceof SelfPlayGenerator.Result, "run failed: " + outcome.get());
+        SelfPlayGenerator.Result result = (SelfPlayGenerator.Result) outcome.get();
+        assertTrue(result.getGames() > 0);
+        List<ByteBuffer> records = readShards(dir, generator.getRecordBytes(), new ArrayList<>());
+        assertEquals(result.getRecords(), records.size());
+        //only whole games are written: each game's bricks-to-go count down to 1
+        Map<Integer, List<ByteBuffer>> byGame = new HashMap<>();
+        for (ByteBuffer record : records) {
+            byGame.computeIfAbsent(record.getInt(32), g -> new ArrayList<>()).add(record);
+        }
+        assertEquals(result.getGames(), byGame.size());
+        for (List<ByteBuffer> game : byGame.values()) {
+            for (int i = 0; i < game.size(); i++) {
+                assertEquals(game.size() - i, game.get(i).getInt(FLAGS + 9));
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.comp2042.tetris.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    @Test
+    void incrementalHash_matchesFullRehash() {
+        Random random = new Random(33);
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        SearchBoard check = new SearchBoard(ROWS, COLS);
+        PlacementSearch search = new PlacementSearch();
+        Placement placement = new Placement();
+        int[][] matrix = new int[ROWS][COLS];
+        int clears = 0;
+        for (int n = 0; n < 3000; n++) {
+            int id = 1 + random.nextInt(7);
+            //mostly good placements so rows actually clear
+            if (!search.best(board, id, 0, 4, 0, Heuristic.DEFAULT, placement)) {
+                board.clear();
+                continue;
+            }
+            clears += board.place(id, placement.getRotation(), placement.getX(), placement.getY());
+            for (int r = 0; r < ROWS; r++) {
+                for (int c = 0; c < COLS; c++) matrix[r][c] = board.isFilled(r, c) ? 1 : 0;
+            }
+            check.load(matrix);
+            assertEquals(check.hash(), board.hash(), "after piece " + n);
+        }
+        assertTrue(clears > 100);
+        board.clear();
+        assertEquals(0, board.hash());
+    }
+
+    @Test
+    void putIfLower_keepsTheLowestValuePerGeneration() {
+        TranspositionTable table = new TranspositionTable(1024);
+        assertEquals(TranspositionTable.ABSENT, table.get(42));
+        assertEquals(7, table.putIfLower(42, 7));
+        assertEquals(7, table.putIfLower(42, 9));
+        assertEquals(3, table.putIfLower(42, 3));
+        assertEquals(3, table.get(42));
+        assertEquals(2, table.getHits());
+
+        table.newGeneration();
+        assertEquals(TranspositionTable.ABSENT, table.get(42));
+        assertEquals(9, table.putIfLower(42, 9));
+        assertEquals(1024 * Long.BYTES, table.getMemoryBytes());
+    }
+
+    @Test
+    void fullBucket_dropsStoresInsteadOfEvictingCurrentEntries() {
+        TranspositionTable table = new TranspositionTable(TranspositionTable.BUCKET);
+        for (int i = 0; i < TranspositionTable.BUCKET + 2; i++) {
+            table.putIfLower((long) (i + 1) << 32, i);
+        }
+        assertEquals(2, table.getOverflows());
+        for (int i = 0; i < TranspositionTable.BUCKET; i++) {
+            assertEquals(i, table.get((long) (i + 1) << 32));
+        }
+        //stale entries are replaced again
+        table.newGeneration();
+        assertEquals(5, table.putIfLower(99L << 32, 5));
+        assertEquals(5, table.get(99L << 32));
+    }
+
+    @Test
+    void generationWrap_forgetsOldEntries() {
+        TranspositionTable table = new TranspositionTable(64);
+        table.putIfLower(5, 1);
+        for (int i = 0; i < 255; i++) table.newGeneration();
+        assertEquals(TranspositionTable.ABSENT, table.get(5));
+    }
+
+    @Test
+    void concurrentInserts_convergeOnTheMinimum() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1 << 16);
+        int keys = 4000;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                Random random = new Random(thread);
+                for (int n = 0; n < 40_000; n++) {
+                    int k = random.nextInt(keys);
+                    table.putIfLower(mix(k), k * 8 + 1 + random.nextInt(7));
+                }
+                //every thread also offers each key's minimum once
+                for (int k = 0; k < keys; k++) table.putIfLower(mix(k), k * 8);
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        for (int k = 0; k < keys; k++) {
+            assertEquals(k * 8, table.get(mix(k)));
+        }
+        assertEquals(0, table.getOverflows());
+        //the first probe of each key misses, and lost races are not counted again
+        assertTrue(table.getHits() <= table.getProbes() - keys);
+        assertTrue(table.getHitRate() > 0.5);
+    }
+
+    private static long mix(long k) {
+        long z = k * 0x9E3779B97F4A7C15L;
+        return z ^ (z >>> 29);
+    }
+
+    @Test
+    void beamSearch_dropsDuplicatePositions() {
+        BeamSearch beam = new BeamSearch(64, 3);
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        Placement out = new Placement();
+        //O then O reaches the same boards in either order
+        assertTrue(beam.search(board, new int[]{4, 4, 4}, 3, 0, 4, 0, 0, true, Heuristic.DEFAULT, out));
+        assertTrue(beam.getTranspositionTable().getHits() > 0);
+    }
+}
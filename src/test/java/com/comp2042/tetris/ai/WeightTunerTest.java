@@ -0,0 +1,74 @@
+package com.comp2042.tetris.ai;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightTunerTest {
+
+    private static final int POPULATION = 6;
+    private static final int GAMES = 2;
+    private static final int PIECES = 60;
+
+    @Test
+    void heuristic_roundTripsThroughWeightArray() {
+        double[] weights = Heuristic.DEFAULT.toArray();
+        assertEquals(Heuristic.WEIGHT_COUNT, weights.length);
+        assertEquals(Heuristic.DEFAULT.toString(), Heuristic.of(weights).toString());
+        assertThrows(IllegalArgumentException.class, () -> Heuristic.of(new double[3]));
+    }
+
+    @Test
+    void runGeneration_writesCheckpointAndTracksBest(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("tuner.bin");
+        try (WeightTuner tuner = WeightTuner.open(file, POPULATION, GAMES, PIECES, 2)) {
+            assertNull(tuner.getBest());
+            double fitness = tuner.runGeneration();
+            assertEquals(1, tuner.getGeneration());
+            assertTrue(Files.isRegularFile(file));
+            assertEquals(fitness, tuner.getBestFitness());
+            assertNotNull(tuner.getBest());
+            assertTrue(tuner.getGenerationsPerHour() > 0);
+            double norm = 0;
+            for (double w : tuner.getMean().toArray()) {
+                norm += w * w;
+            }
+            assertEquals(1.0, norm, 1e-9);
+        }
+    }
+
+    @Test
+    void resumedRun_matchesUninterruptedRun(@TempDir Path dir) throws IOException {
+        Path straight = dir.resolve("straight.bin");
+        try (WeightTuner tuner = WeightTuner.open(straight, POPULATION, GAMES, PIECES, 3)) {
+            for (int i = 0; i < 3; i++) {
+                tuner.runGeneration();
+            }
+        }
+
+        //same run, stopped after one generation and resumed with different settings and threads;
+        //the checkpointed settings win and the result is identical
+        Path resumed = dir.resolve("resumed.bin");
+        try (WeightTuner tuner = WeightTuner.open(resumed, POPULATION, GAMES, PIECES, 1)) {
+            tuner.runGeneration();
+        }
+        try (WeightTuner tuner = WeightTuner.open(resumed, 99, 99, 99, 2)) {
+            assertEquals(1, tuner.getGeneration());
+            tuner.runGeneration();
+            tuner.runGeneration();
+        }
+        assertArrayEquals(Files.readAllBytes(straight), Files.readAllBytes(resumed));
+    }
+
+    @Test
+    void open_rejectsForeignFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("junk.bin");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> WeightTuner.open(file, POPULATION, GAMES, PIECES, 1));
+    }
+}
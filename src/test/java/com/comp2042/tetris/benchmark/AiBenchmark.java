@@ -0,0 +1,42 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.ai.AiPlayer;
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+
+/**
+ * Measures how many pieces per second {@link AiPlayer} places on a headless board,
+ * single-threaded, including applying its inputs through {@link HeadlessGame}.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.AiBenchmark}.
+ * </p>
+ */
+public final class AiBenchmark {
+
+    private AiBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        GameBoard board = new GameBoard(25, 10, new RandomBrickGenerator());
+        board.newGame(1);
+        HeadlessGame game = new HeadlessGame(board);
+        AiPlayer ai = new AiPlayer(board);
+        ai.setEventListener(game);
+        int n = 200_000;
+        for (int round = 0; round < 5; round++) {
+            int gamesOver = 0;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                ai.playPiece();
+                if (game.isGameOver()) {
+                    gamesOver++;
+                    game.createNewGame();
+                }
+            }
+            long t1 = System.nanoTime();
+            System.out.printf("round %d: %.0f pieces/s (%d lines, %d game overs)%n",
+                    round, n / ((t1 - t0) / 1e9), game.getLines(), gamesOver);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.ai.AiPlayer;
+import com.comp2042.tetris.ai.BeamSearch;
+import com.comp2042.tetris.ai.Heuristic;
+import com.comp2042.tetris.ai.Placement;
+import com.comp2042.tetris.ai.SearchBoard;
+import com.comp2042.tetris.ai.TranspositionTable;
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.LevelService;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures {@link BeamSearch} throughput (scored nodes per second) on mid-game positions
+ * for fork/join pools of 1, 2, 4, ... threads up to the number of available cores, and
+ * reports the hit rate and size of its {@link TranspositionTable}. It then plays games
+ * with the plan budget of the fastest gravity and reports how often the deadline cut the
+ * search short.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.BeamSearchBenchmark [beamWidth] [depth]}.
+ * </p>
+ */
+public final class BeamSearchBenchmark {
+
+    /** Gravity interval of the highest levels (120 ms), in milliseconds. */
+    private static final int FASTEST_GRAVITY_MS = new LevelService().gravityMsForScore(Integer.MAX_VALUE);
+
+    /** Pieces played per budgeted game. */
+    private static final int BUDGET_PIECES = 500;
+
+    private BeamSearchBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int beamWidth = args.length > 0 ? Integer.parseInt(args[0]) : 128;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        //positions taken from a game played by the one-piece AI
+        int count = 32;
+        SearchBoard[] boards = new SearchBoard[count];
+        int[][] pieces = new int[count][depth + 1];
+        int[] held = new int[count];
+        GameBoard board = new GameBoard(25, 10, new RandomBrickGenerator());
+        board.newGame(3);
+        HeadlessGame game = new HeadlessGame(board);
+        AiPlayer ai = new AiPlayer(board);
+        ai.setEventListener(game);
+        int[] previews = new int[depth];
+        for (int i = 0; i < count; i++) {
+            for (int k = 0; k < 7; k++) {
+                ai.playPiece();
+            }
+            boards[i] = new SearchBoard(25, 10);
+            boards[i].load(board.getBoardMatrix());
+            pieces[i][0] = board.getCurrentBrickId();
+            board.getPreviewIds(previews, depth);
+            System.arraycopy(previews, 0, pieces[i], 1, depth);
+            held[i] = 1 + i % 7;
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        Placement out = new Placement();
+        for (int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            BeamSearch search = new BeamSearch(beamWidth, depth, pool);
+            double best = 0;
+            for (int round = 0; round < 5; round++) {
+                long nodes = search.getNodesEvaluated();
+                long t0 = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    search.search(boards[i], pieces[i], depth + 1, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y,
+                            held[i], false, Heuristic.DEFAULT, out);
+                }
+                long t1 = System.nanoTime();
+                best = Math.max(best, (search.getNodesEvaluated() - nodes) / ((t1 - t0) / 1e9));
+            }
+            pool.shutdown();
+            System.out.printf("threads %d: %.2f M nodes/s (beam %d, depth %d)%n", threads, best / 1e6, beamWidth, depth);
+            System.out.println("  " + search.getTranspositionTable());
+            if (threads == cores) {
+                break;
+            }
+        }
+
+        //the game's own auto-play planner, then the one measured above
+        budgeted(BeamSearch.DEFAULT_BEAM_WIDTH, 2);
+        budgeted(beamWidth, depth);
+    }
+
+    private static void budgeted(int beamWidth, int depth) {
+        GameBoard board = new GameBoard(25, 10, new RandomBrickGenerator());
+        board.newGame(7);
+        HeadlessGame game = new HeadlessGame(board);
+        AiPlayer ai = new AiPlayer(board);
+        ai.setEventListener(game);
+        ai.setBeamSearch(new BeamSearch(beamWidth, depth));
+        ai.setGravityMs(FASTEST_GRAVITY_MS);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < BUDGET_PIECES && !game.isGameOver(); i++) {
+            ai.playPiece();
+        }
+        long nanos = System.nanoTime() - t0;
+        System.out.printf("%d ms gravity (budget %.0f ms), beam %d, depth %d: %d of %d searches cut short"
+                        + " (%.1f%%), %.2f ms per piece%n",
+                FASTEST_GRAVITY_MS, ai.getPlanBudgetNanos() / 1e6, beamWidth, depth, ai.getBeamCutoffs(),
+                ai.getBeamSearches(), 100.0 * ai.getBeamCutoffs() / Math.max(1, ai.getBeamSearches()),
+                nanos / 1e6 / Math.max(1, game.getPieces()));
+    }
+}
@@ -0,0 +1,149 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.ai.BoardFeatures;
+import com.comp2042.tetris.ai.Heuristic;
+import com.comp2042.tetris.ai.PieceTable;
+import com.comp2042.tetris.ai.PlacementSearch;
+import com.comp2042.tetris.ai.SearchBoard;
+import com.comp2042.tetris.model.GameBoard;
+
+import java.util.Random;
+
+/**
+ * Compares keeping {@link BoardFeatures} up to date incrementally with recomputing them
+ * from the whole board after every placement, over the same recorded placements (random
+ * drops on boards with a well, so rows clear regularly).
+ * <p>
+ * It also times the way a search would use the tracker: scoring every placement of a
+ * brick from one parent board, either by copying a {@link SearchBoard} and rescanning it
+ * with {@link Heuristic#evaluate(SearchBoard, int)} or by copying a {@link BoardFeatures}
+ * and reading {@link Heuristic#evaluate(BoardFeatures, int)}.
+ * </p>
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.BoardFeaturesBenchmark}.
+ * </p>
+ */
+public final class BoardFeaturesBenchmark {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    /** Recorded boards kept as parents for the search comparison. */
+    private static final int PARENTS = 2_000;
+
+    private BoardFeaturesBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        //record placements as id, rotation, x, y; a negative id restarts from an empty board
+        int n = 1_000_000;
+        int[] moves = new int[4 * n];
+        Random random = new Random(40);
+        SearchBoard board = new SearchBoard(ROWS, COLS);
+        int well = random.nextInt(COLS);
+        SearchBoard[] parents = new SearchBoard[PARENTS];
+        for (int i = 0; i < n; i++) {
+            if (i % (n / PARENTS) == 0) {
+                parents[i / (n / PARENTS)] = new SearchBoard(ROWS, COLS);
+                parents[i / (n / PARENTS)].copyFrom(board);
+            }
+            int id = 1 + random.nextInt(7);
+            int rotation = random.nextInt(PieceTable.rotations(id));
+            int x = random.nextInt(COLS - 2);
+            if (random.nextInt(4) == 0) {
+                id = 1;
+                rotation = 1;
+                x = well - PieceTable.minCol(1, 1);
+            }
+            if (!board.fits(id, rotation, x, 0)) {
+                board.clear();
+                well = random.nextInt(COLS);
+                moves[4 * i] = -1;
+                continue;
+            }
+            int y = board.dropY(id, rotation, x, 0);
+            board.place(id, rotation, x, y);
+            moves[4 * i] = id;
+            moves[4 * i + 1] = rotation;
+            moves[4 * i + 2] = x;
+            moves[4 * i + 3] = y;
+        }
+
+        BoardFeatures features = new BoardFeatures(ROWS, COLS);
+        SearchBoard plain = new SearchBoard(ROWS, COLS);
+        BoardFeatures recomputed = new BoardFeatures(ROWS, COLS);
+        for (int round = 0; round < 5; round++) {
+            long check = 0;
+            long t0 = System.nanoTime();
+            features.clear();
+            for (int i = 0; i < n; i++) {
+                int k = 4 * i;
+                if (moves[k] < 0) {
+                    features.clear();
+                    continue;
+                }
+                features.place(moves[k], moves[k + 1], moves[k + 2], moves[k + 3]);
+                check += features.get(BoardFeatures.HOLES);
+            }
+            long t1 = System.nanoTime();
+            plain.clear();
+            for (int i = 0; i < n; i++) {
+                int k = 4 * i;
+                if (moves[k] < 0) {
+                    plain.clear();
+                    continue;
+                }
+                plain.place(moves[k], moves[k + 1], moves[k + 2], moves[k + 3]);
+                recomputed.load(plain);
+                check -= recomputed.get(BoardFeatures.HOLES);
+            }
+            long t2 = System.nanoTime();
+            System.out.printf("round %d: incremental %.1f ns/placement, full recompute %.1f ns/placement (check %d)%n",
+                    round, (t1 - t0) / (double) n, (t2 - t1) / (double) n, check);
+        }
+        searchScoring(parents);
+    }
+
+    /** Scores every placement of every brick from each parent, both ways. */
+    private static void searchScoring(SearchBoard[] parents) {
+        PlacementSearch placements = new PlacementSearch();
+        SearchBoard child = new SearchBoard(ROWS, COLS);
+        BoardFeatures parentFeatures = new BoardFeatures(ROWS, COLS);
+        BoardFeatures childFeatures = new BoardFeatures(ROWS, COLS);
+        double[] sums = new double[2];
+        for (int round = 0; round < 5; round++) {
+            sums[0] = 0;
+            sums[1] = 0;
+            long count = 0;
+            long t0 = System.nanoTime();
+            for (SearchBoard parent : parents) {
+                for (int id = 1; id <= 7; id++) {
+                    int piece = id;
+                    count += placements.enumerate(parent, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y,
+                            (rotations, rotation, x, y) -> {
+                                child.copyFrom(parent);
+                                int lines = child.place(piece, rotation, x, y);
+                                sums[0] += Heuristic.DEFAULT.evaluate(child, lines);
+                            });
+                }
+            }
+            long t1 = System.nanoTime();
+            for (SearchBoard parent : parents) {
+                parentFeatures.load(parent);
+                for (int id = 1; id <= 7; id++) {
+                    int piece = id;
+                    placements.enumerate(parent, id, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y,
+                            (rotations, rotation, x, y) -> {
+                                childFeatures.copyFrom(parentFeatures);
+                                int lines = childFeatures.place(piece, rotation, x, y);
+                                sums[1] += Heuristic.DEFAULT.evaluate(childFeatures, lines);
+                            });
+                }
+            }
+            long t2 = System.nanoTime();
+            System.out.printf("round %d: search scoring by rescan %.1f ns/placement, by tracker %.1f ns/placement"
+                            + " (same scores: %b)%n",
+                    round, (t1 - t0) / (double) count, (t2 - t1) / (double) count, sums[0] == sums[1]);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import com.comp2042.tetris.util.BoardNotation;
+
+import java.util.Random;
+
+/**
+ * Measures {@link BoardNotation} binary and text throughput on mid-game positions.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.BoardNotationBenchmark}.
+ * </p>
+ */
+public final class BoardNotationBenchmark {
+
+    private BoardNotationBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        //a handful of realistic positions: random drops into a seeded game
+        GameState[] positions = new GameState[64];
+        GameBoard board = new GameBoard(25, 10, new RandomBrickGenerator());
+        board.newGame(5);
+        Random random = new Random(5);
+        for (int i = 0; i < positions.length; i++) {
+            for (int k = 0; k < 3; k++) {
+                for (int m = random.nextInt(5); m > 0; m--) {
+                    if (random.nextBoolean()) board.moveBrickLeft(); else board.moveBrickRight();
+                }
+                while (board.moveBrickDown()) { }
+                board.mergeBrickToBackground();
+                board.clearRows();
+                if (board.createNewBrick()) board.newGame();
+            }
+            positions[i] = new GameState(25, 10);
+            board.saveState(positions[i]);
+        }
+
+        byte[] buf = new byte[BoardNotation.maxEncodedSize(25, 10)];
+        GameState target = new GameState(25, 10);
+        BoardNotation notation = new BoardNotation();
+        StringBuilder sb = new StringBuilder(512);
+        int n = 2_000_000;
+        long sink = 0;
+        for (int round = 0; round < 5; round++) {
+            long t0 = System.nanoTime();
+            long bytes = 0;
+            for (int i = 0; i < n; i++) {
+                bytes += BoardNotation.encode(positions[i & 63], buf, 0);
+            }
+            long t1 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                int len = BoardNotation.encode(positions[i & 63], buf, 0);
+                sink += BoardNotation.decode(buf, 0, len, target);
+            }
+            long t2 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                sb.setLength(0);
+                notation.appendText(positions[i & 63], sb);
+                notation.fromText(sb, target);
+            }
+            long t3 = System.nanoTime();
+            System.out.printf("round %d: encode %.1f M/s (avg %d bytes), encode+decode %.1f M/s, text round trip %.1f M/s%n",
+                    round, n / ((t1 - t0) / 1e3), bytes / n, n / ((t2 - t1) / 1e3), n / ((t3 - t2) / 1e3));
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+}
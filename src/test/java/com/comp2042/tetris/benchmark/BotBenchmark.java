@@ -0,0 +1,72 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.bot.BotConnection;
+import com.comp2042.tetris.bot.BotPlayer;
+import com.comp2042.tetris.bot.ReferenceBot;
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the per-piece cost of playing through {@link BotConnection}: the reference bot
+ * in a child process, asked for one move per request and for eight. Both do the same
+ * search per piece, so the gap between them is roughly the round-trip overhead saved by
+ * batching.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.BotBenchmark}.
+ * </p>
+ */
+public final class BotBenchmark {
+
+    private static final int PIECES = 2000;
+
+    private BotBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (ManagementFactory.getRuntimeMXBean().getInputArguments().contains("--enable-preview")) {
+            command.add("--enable-preview");
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ReferenceBot.class.getName());
+        try (BotConnection bot = BotConnection.launch(command, 25, 10)) {
+            for (int round = 0; round < 5; round++) {
+                for (int batch : new int[]{1, 8}) {
+                    long start = System.nanoTime();
+                    long[] played = play(bot, round, batch);
+                    long nanos = System.nanoTime() - start;
+                    System.out.printf("round %d batch %d: %d pieces, %d requests, %.1f us/piece, %.1f us/request%n",
+                            round, batch, played[0], played[1], nanos / 1e3 / played[0], nanos / 1e3 / played[1]);
+                }
+            }
+        }
+    }
+
+    private static long[] play(BotConnection bot, long seed, int batch) throws IOException {
+        long pieces = 0;
+        long requests = 0;
+        while (pieces < PIECES) {
+            GameBoard board = new GameBoard(25, 10, new RandomBrickGenerator());
+            board.newGame(seed++ * 7919);
+            HeadlessGame game = new HeadlessGame(board);
+            BotPlayer player = new BotPlayer(board, bot);
+            player.setEventListener(game);
+            player.setBatch(batch);
+            while (!game.isGameOver() && pieces + game.getPieces() < PIECES) {
+                player.playPiece();
+            }
+            pieces += game.getPieces();
+            requests += player.getRequests();
+        }
+        return new long[]{pieces, requests};
+    }
+}
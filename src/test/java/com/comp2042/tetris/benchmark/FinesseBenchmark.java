@@ -0,0 +1,76 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.ai.AiPlayer;
+import com.comp2042.tetris.ai.FinesseAnalyzer;
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import com.comp2042.tetris.persistence.ReplayArchive;
+import com.comp2042.tetris.persistence.ReplayRecorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Measures {@link FinesseAnalyzer} throughput (bricks analysed per second) with one
+ * worker per core, on an archive of recorded AI games in a temporary directory that is
+ * deleted afterwards.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.FinesseBenchmark}.
+ * </p>
+ */
+public final class FinesseBenchmark {
+
+    private static final int GAMES = 200;
+    private static final int PIECES = 500;
+
+    private FinesseBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("finesse");
+        try {
+            try (ReplayArchive archive = ReplayArchive.open(dir)) {
+                GameBoard board = new GameBoard(25, 10, new RandomBrickGenerator());
+                HeadlessGame game = new HeadlessGame(board);
+                AiPlayer ai = new AiPlayer(board);
+                ReplayRecorder recorder = new ReplayRecorder();
+                for (int i = 0; i < GAMES; i++) {
+                    game.newGame(i);
+                    recorder.begin(i, i % 8);
+                    while (!game.isGameOver() && game.getPieces() < PIECES) {
+                        MoveEvent move = ai.nextMove();
+                        recorder.record(move);
+                        game.dispatch(move);
+                    }
+                    archive.append(recorder.finish(board.getScore().scoreProperty().get()));
+                }
+            }
+            int threads = Runtime.getRuntime().availableProcessors();
+            try (FinesseAnalyzer analyzer = new FinesseAnalyzer(threads)) {
+                for (int round = 0; round < 5; round++) {
+                    long start = System.nanoTime();
+                    FinesseAnalyzer.Report report = analyzer.analyze(List.of(dir));
+                    long nanos = System.nanoTime() - start;
+                    long pieces = 0;
+                    for (int player : report.getPlayers()) {
+                        pieces += report.getPieces(player);
+                    }
+                    System.out.printf("round %d: %d bricks in %.2f s, %.0f bricks/s (%d threads)%n",
+                            round, pieces, nanos / 1e9, pieces * 1e9 / nanos, threads);
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(p);
+                }
+            }
+        }
+    }
+}
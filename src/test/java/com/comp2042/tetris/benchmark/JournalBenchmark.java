@@ -0,0 +1,55 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.persistence.GameJournal;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures the producer-side cost of {@link GameJournal#record(MoveEvent)}.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.JournalBenchmark}.
+ * Inputs are issued in bursts well below the ring capacity with a pause between bursts,
+ * like a (very fast) human player, so the figure is the hot-path cost rather than
+ * the disk throughput.
+ * </p>
+ */
+public final class JournalBenchmark {
+
+    private JournalBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path file = Files.createTempFile("journal-bench", ".journal");
+        MoveEvent[] events = {
+                new MoveEvent(EventType.LEFT, EventSource.USER),
+                new MoveEvent(EventType.ROTATE, EventSource.USER),
+                new MoveEvent(EventType.DOWN, EventSource.THREAD),
+                new MoveEvent(EventType.HARD_DROP, EventSource.USER)
+        };
+        try (GameJournal journal = GameJournal.open(file, 10)) {
+            int burst = 10_000;
+            for (int round = 0; round < 3; round++) {
+                long total = 0;
+                int recorded = 0;
+                for (int b = 0; b < 50; b++) {
+                    long t0 = System.nanoTime();
+                    for (int i = 0; i < burst; i++) {
+                        if (journal.record(events[i & 3])) {
+                            recorded++;
+                        }
+                    }
+                    total += System.nanoTime() - t0;
+                    Thread.sleep(15);
+                }
+                System.out.printf("round %d: %.1f ns per record (%d recorded, %d dropped)%n",
+                        round, (double) total / (50L * burst), recorded, journal.getDroppedEvents());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.leaderboard.Leaderboard;
+
+import java.util.Random;
+
+/**
+ * Inserts millions of results into a {@link Leaderboard} and times rank, percentile
+ * and best-per-day queries.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.LeaderboardBenchmark [results]}.
+ * </p>
+ */
+public final class LeaderboardBenchmark {
+
+    private LeaderboardBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int results = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        Random random = new Random(7);
+        Leaderboard board = new Leaderboard();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < results; i++) {
+            board.submit(random.nextInt(200_000), random.nextInt(4), 19_000 + random.nextInt(365), random.nextInt(100_000));
+        }
+        long insertNanos = System.nanoTime() - t0;
+        System.out.printf("insert: %d results in %.0f ms (%.0f ns per insert)%n",
+                results, insertNanos / 1e6, (double) insertNanos / results);
+
+        int queries = 1_000_000;
+        int[] probes = new int[queries];
+        for (int i = 0; i < queries; i++) {
+            probes[i] = random.nextInt(200_000);
+        }
+        long sink = 0;
+        for (int round = 0; round < 5; round++) {
+            long r0 = System.nanoTime();
+            for (int q : probes) sink += board.rank(q);
+            long r1 = System.nanoTime();
+            for (int q : probes) sink += (long) board.percentileInMode(q & 3, q);
+            long r2 = System.nanoTime();
+            for (int q : probes) sink += board.bestOfModeAndDay(q & 3, 19_000 + q % 365);
+            long r3 = System.nanoTime();
+            //insert while querying: the cost a live game pays when it submits its score
+            for (int i = 0; i < 10_000; i++) board.submit(probes[i], i & 3, 19_365, 1);
+            long r4 = System.nanoTime();
+            System.out.printf("round %d: rank %.2f us, percentile-in-mode %.2f us, best mode/day %.2f us, insert %.2f us%n",
+                    round, (r1 - r0) / 1e3 / queries, (r2 - r1) / 1e3 / queries, (r3 - r2) / 1e3 / queries, (r4 - r3) / 1e3 / 10_000);
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+}
@@ -0,0 +1,49 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.ai.PathFinder;
+import com.comp2042.tetris.ai.SearchBoard;
+import com.comp2042.tetris.model.GameBoard;
+
+import java.util.Random;
+
+/**
+ * Measures the time of one full {@link PathFinder} search (every lock position of a brick
+ * with its shortest inputs) on ragged mid-game boards, single-threaded.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.PathFinderBenchmark}.
+ * </p>
+ */
+public final class PathFinderBenchmark {
+
+    private PathFinderBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int rows = 25;
+        int cols = 10;
+        Random random = new Random(42);
+        SearchBoard[] boards = new SearchBoard[64];
+        for (int b = 0; b < boards.length; b++) {
+            int[][] matrix = new int[rows][cols];
+            for (int r = rows - 8; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    matrix[r][c] = random.nextInt(3) == 0 ? 1 : 0;
+                }
+            }
+            boards[b] = new SearchBoard(rows, cols);
+            boards[b].load(matrix);
+        }
+        PathFinder finder = new PathFinder();
+        int n = 200_000;
+        for (int round = 0; round < 5; round++) {
+            long locks = 0;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                locks += finder.search(boards[i & 63], 1 + i % 7, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y);
+            }
+            long t1 = System.nanoTime();
+            System.out.printf("round %d: %.2f us/search (%.1f lock positions each)%n",
+                    round, (t1 - t0) / 1e3 / n, (double) locks / n);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.ai.PerfectClearSolver;
+import com.comp2042.tetris.ai.SearchBoard;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PerfectClearSolver} solve times on opening positions: an empty board
+ * with the first eleven bricks of a seeded game in view (the current brick and ten
+ * previews), looking for a perfect clear of up to four rows with at most ten bricks.
+ * Each solve has a one second timeout; the median and worst times are printed along with
+ * how many openings have a perfect clear.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.PerfectClearBenchmark}.
+ * </p>
+ */
+public final class PerfectClearBenchmark {
+
+    private static final int OPENINGS = 50;
+
+    private PerfectClearBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        PerfectClearSolver solver = new PerfectClearSolver();
+        SearchBoard board = new SearchBoard(25, 10);
+        int[] pieces = new int[11];
+        for (int round = 0; round < 3; round++) {
+            long[] times = new long[OPENINGS];
+            int found = 0;
+            int timedOut = 0;
+            long nodes = 0;
+            long memoHits = 0;
+            for (int i = 0; i < OPENINGS; i++) {
+                new RandomBrickGenerator(i + 1).peekIds(pieces, pieces.length);
+                int length = solver.solve(board, pieces, pieces.length, 0, GameBoard.SPAWN_X, GameBoard.SPAWN_Y, 0,
+                        false, 10, System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+                times[i] = solver.getNanos();
+                nodes += solver.getNodes();
+                memoHits += solver.getMemoHits();
+                if (length > 0) {
+                    found++;
+                } else if (length == PerfectClearSolver.TIMED_OUT) {
+                    timedOut++;
+                }
+            }
+            Arrays.sort(times);
+            System.out.printf("round %d: %d/%d with a perfect clear, %d timed out, median %.2f ms, worst %.2f ms,"
+                            + " %.0f nodes/solve, %.0f memo hits/solve%n", round, found, OPENINGS, timedOut,
+                    times[OPENINGS / 2] / 1e6, times[OPENINGS - 1] / 1e6, (double) nodes / OPENINGS,
+                    (double) memoHits / OPENINGS);
+        }
+    }
+}
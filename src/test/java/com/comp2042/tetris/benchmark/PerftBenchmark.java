@@ -0,0 +1,32 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.ai.Perft;
+import com.comp2042.tetris.ai.SearchBoard;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Reports {@link Perft} nodes per second on an empty board for the queue Z J L T I,
+ * single-threaded and on one thread per core.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.PerftBenchmark [depth=5]}.
+ * </p>
+ */
+public final class PerftBenchmark {
+
+    private PerftBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int[] pieces = {7, 2, 3, 6, 1, 4, 5};
+        SearchBoard board = new SearchBoard(25, 10);
+        int cores = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(cores);
+        for (int round = 0; round < 3; round++) {
+            System.out.println("sequential: " + new Perft().run(board, pieces, depth, false));
+            System.out.println(cores + " threads:  " + new Perft(pool).run(board, pieces, depth, false));
+        }
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,61 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.persistence.Replay;
+import com.comp2042.tetris.persistence.ReplayArchive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Fills a {@link ReplayArchive} with a million replays and times catalog scans.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.ReplayArchiveBenchmark [count]}.
+ * </p>
+ */
+public final class ReplayArchiveBenchmark {
+
+    private ReplayArchiveBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = Files.createTempDirectory("replay-bench");
+        Random random = new Random(1);
+        //a short but typical stream: shifts, a rotation, gravity ticks, hard drop
+        byte[] inputs = {6, 2, 2, 1, 1, 8, 4, 4, 4, 1, 8, 6, 6, 2, 1, 8};
+        try (ReplayArchive archive = ReplayArchive.open(dir)) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                archive.append(new Replay(-1, random.nextLong(), random.nextInt(1000),
+                        1_700_000_000_000L + i * 1000L, 60_000 + random.nextInt(600_000),
+                        random.nextInt(100_000), inputs));
+            }
+            archive.flush();
+            System.out.printf("append: %.0f replays/s%n", count / ((System.nanoTime() - t0) / 1e9));
+
+            for (int round = 0; round < 5; round++) {
+                long s0 = System.nanoTime();
+                int byScore = archive.findByScore(90_000, 100_000).length;
+                long s1 = System.nanoTime();
+                int byDate = archive.findByRecordedAt(1_700_000_000_000L, 1_700_000_000_000L + count * 500L).length;
+                long s2 = System.nanoTime();
+                System.out.printf("round %d: score scan %.1f ms (%d hits), date scan %.1f ms (%d hits)%n",
+                        round, (s1 - s0) / 1e6, byScore, (s2 - s1) / 1e6, byDate);
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.ai.AiPlayer;
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import com.comp2042.tetris.net.LagSimulator;
+import com.comp2042.tetris.net.RollbackSession;
+
+import java.util.List;
+
+/**
+ * Measures the cost of rollback netcode: saving and restoring a {@link HeadlessGame}
+ * through {@link HeadlessGame.Checkpoint}, and whole {@link RollbackSession} matches between
+ * two AI peers over a {@link LagSimulator} link at several latencies.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.RollbackBenchmark}.
+ * Latency is in ticks (one tick per 60 Hz frame); the worst rollback should stay well
+ * inside the 16.7 ms frame budget.
+ * </p>
+ */
+public final class RollbackBenchmark {
+
+    private static final int TICKS = 20_000;
+
+    private RollbackBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 3; round++) {
+            saveAndLoad(round);
+        }
+        long[][] links = {{2, 1}, {4, 3}, {7, 1}, {7, 7}};
+        for (int round = 0; round < 2; round++) {
+            for (long[] link : links) {
+                match(round, link[0], link[1]);
+            }
+        }
+    }
+
+    private static void saveAndLoad(int round) {
+        //a mid-game position with some garbage queued
+        GameBoard board = new GameBoard(RollbackSession.ROWS, RollbackSession.COLS, new RandomBrickGenerator());
+        HeadlessGame game = new HeadlessGame(board);
+        game.newGame(7);
+        AiPlayer player = new AiPlayer(board);
+        player.setEventListener(game);
+        for (int i = 0; i < 30; i++) {
+            player.playPiece();
+        }
+        game.receiveGarbage(2, 4);
+        HeadlessGame.Checkpoint[] ring = new HeadlessGame.Checkpoint[16];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new HeadlessGame.Checkpoint(RollbackSession.ROWS, RollbackSession.COLS);
+            game.saveCheckpoint(ring[i]);
+        }
+        int n = 2_000_000;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            game.saveCheckpoint(ring[i & 15]);
+        }
+        long t1 = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            game.loadCheckpoint(ring[i & 15]);
+        }
+        long t2 = System.nanoTime();
+        System.out.printf("round %d: save %.0f ns, restore %.0f ns per game%n",
+                round, (t1 - t0) / (double) n, (t2 - t1) / (double) n);
+    }
+
+    private static void match(int round, long delay, long jitter) {
+        RollbackSession[] sessions = {new RollbackSession(0, round), new RollbackSession(1, round)};
+        AiPlayer[] ais = {new AiPlayer(sessions[0].getGame(0).getBoard()),
+                new AiPlayer(sessions[1].getGame(1).getBoard())};
+        List<LagSimulator<int[]>> links = List.of(new LagSimulator<>(delay, jitter, 1),
+                new LagSimulator<>(delay, jitter, 2));
+        int[] pending = {-1, -1};
+        long stalls = 0;
+        long worst = 0;
+        long rollbackNanos = 0;
+        long start = System.nanoTime();
+        for (long now = 0; sessions[0].getTick() < TICKS || sessions[1].getTick() < TICKS; now++) {
+            for (int p = 0; p < 2; p++) {
+                RollbackSession session = sessions[p];
+                for (int[] m = links.get(1 - p).poll(now); m != null; m = links.get(1 - p).poll(now)) {
+                    session.addRemoteInput(m[0], m[1]);
+                }
+                int tick = session.getTick();
+                if (tick == TICKS) {
+                    continue;
+                }
+                if (pending[p] < 0) {
+                    pending[p] = tick % 3 == 0 && !session.isOver() ? bits(ais[p].nextMove()) : 0;
+                }
+                long rollbacks = session.getRollbacks();
+                long t0 = System.nanoTime();
+                if (session.advance(pending[p])) {
+                    long t = System.nanoTime() - t0;
+                    if (session.getRollbacks() > rollbacks) {
+                        //a tick that rolled back: restore, re-simulate, then the new tick itself
+                        rollbackNanos += t;
+                        worst = Math.max(worst, t);
+                    }
+                    links.get(p).send(now, new int[]{tick, pending[p]});
+                    pending[p] = -1;
+                } else {
+                    stalls++;
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long rollbacks = sessions[0].getRollbacks() + sessions[1].getRollbacks();
+        long resimulated = sessions[0].getResimulatedTicks() + sessions[1].getResimulatedTicks();
+        System.out.printf("round %d, %d+-%d ticks: %.0f ticks/s, %d rollbacks re-simulating %.1f ticks on average"
+                        + " (longest %d) in %.1f us on average, worst %.0f us, %d stalls, %d pieces%n",
+                round, delay, jitter, 2.0 * TICKS / (nanos / 1e9), rollbacks,
+                resimulated / (double) Math.max(1, rollbacks),
+                Math.max(sessions[0].getLongestRollback(), sessions[1].getLongestRollback()),
+                rollbackNanos / 1e3 / Math.max(1, rollbacks), worst / 1e3, stalls,
+                sessions[0].getGame(0).getPieces() + sessions[0].getGame(1).getPieces());
+    }
+
+    private static int bits(MoveEvent move) {
+        return switch (move.getEventType()) {
+            case LEFT -> RollbackSession.LEFT;
+            case RIGHT -> RollbackSession.RIGHT;
+            case ROTATE -> RollbackSession.ROTATE;
+            case DOWN -> RollbackSession.SOFT_DROP;
+            case HARD_DROP -> RollbackSession.HARD_DROP;
+            case HOLD -> RollbackSession.HOLD;
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.ai.Placement;
+import com.comp2042.tetris.ai.RolloutEvaluator;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RolloutEvaluator} throughput: rollouts per second over every placement of
+ * the first brick, with a fixed time budget per evaluation and one worker per core.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.RolloutBenchmark
+ * [horizon=20] [budgetMs=500]}.
+ * </p>
+ */
+public final class RolloutBenchmark {
+
+    private RolloutBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int horizon = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        long budget = TimeUnit.MILLISECONDS.toNanos(args.length > 1 ? Long.parseLong(args[1]) : 500);
+        GameBoard board = new GameBoard(25, 10, new RandomBrickGenerator());
+        board.newGame(1);
+        List<Placement> candidates = RolloutEvaluator.candidates(board);
+        int threads = Runtime.getRuntime().availableProcessors();
+        try (RolloutEvaluator evaluator = new RolloutEvaluator(25, 10, horizon, threads)) {
+            for (int round = 0; round < 5; round++) {
+                RolloutEvaluator.Result result = evaluator.evaluate(board, candidates, Integer.MAX_VALUE / 64, budget);
+                System.out.printf("round %d: %.0f rollouts/s on %d threads, %s%n", round,
+                        result.getTotalRollouts() * 1e9 / result.getNanos(), threads, result);
+            }
+        }
+    }
+}
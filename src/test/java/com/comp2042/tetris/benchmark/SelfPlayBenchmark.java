@@ -0,0 +1,44 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.ai.SelfPlayGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Measures {@link SelfPlayGenerator} throughput (records per hour) with one worker per
+ * core, writing shards to a temporary directory that is deleted afterwards.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.SelfPlayBenchmark}.
+ * </p>
+ */
+public final class SelfPlayBenchmark {
+
+    private SelfPlayBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path dir = Files.createTempDirectory("self-play");
+        try {
+            SelfPlayGenerator generator = new SelfPlayGenerator(dir, 25, 10, threads);
+            generator.setMaxPieces(2000);
+            generator.setExploration(0.05);
+            for (int round = 0; round < 5; round++) {
+                SelfPlayGenerator.Result result = generator.run(round * 1000L, 40L * threads);
+                System.out.printf("round %d: %d records in %.2f s, %.0f M records/hour, %d stalls (%d threads)%n",
+                        round, result.getRecords(), result.getNanos() / 1e9, result.getRecordsPerHour() / 1e6,
+                        result.getStalls(), threads);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(p);
+                }
+            }
+        }
+    }
+}
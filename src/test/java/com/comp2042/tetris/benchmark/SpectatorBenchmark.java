@@ -0,0 +1,158 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.ai.AiPlayer;
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import com.comp2042.tetris.net.SpectatorClient;
+import com.comp2042.tetris.net.SpectatorServer;
+import com.comp2042.tetris.net.SpectatorStream;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Broadcasts a recorded two-player match to 1000 spectators over loopback through
+ * {@link SpectatorServer}. The match (two AI games, a brick pose when each brick spawns
+ * and the board after each lock) is played once up front, then published as fast as
+ * possible; every spectator runs on a virtual thread and must end with the exact final
+ * boards. Reports bytes per update against sending the full board every time, updates
+ * and delivered megabytes per second, the server thread's CPU per update, and how many
+ * spectators had to skip ahead.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.SpectatorBenchmark}.
+ * </p>
+ */
+public final class SpectatorBenchmark {
+
+    private static final int SPECTATORS = 1000;
+    private static final int PIECES = 400;
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    private SpectatorBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        //[player][piece] boards after each lock, and poses of the brick that spawned next
+        int[][][][] boards = new int[2][PIECES][][];
+        int[][][] poses = new int[2][PIECES + 1][];
+        int[][][] finals = new int[2][][];
+        for (int p = 0; p < 2; p++) {
+            GameBoard board = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+            HeadlessGame game = new HeadlessGame(board);
+            game.newGame(1000 + p);
+            AiPlayer player = new AiPlayer(board);
+            player.setEventListener(game);
+            poses[p][0] = pose(board);
+            for (int i = 0; i < PIECES; i++) {
+                player.playPiece();
+                boards[p][i] = copy(board.getBoardMatrix());
+                poses[p][i + 1] = pose(board);
+            }
+            finals[p] = copy(board.getBoardMatrix());
+        }
+        InetSocketAddress any = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (SpectatorServer server = new SpectatorServer(any)) {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+            for (int round = 0; round < 3; round++) {
+                round(server, address, round, boards, poses, finals);
+            }
+        }
+    }
+
+    private static void round(SpectatorServer server, InetSocketAddress address, int round, int[][][][] boards,
+                              int[][][] poses, int[][][] finals) throws Exception {
+        SpectatorStream stream = server.openStream(2, ROWS, COLS);
+        AtomicInteger last = new AtomicInteger(-1);
+        AtomicInteger inSync = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<Thread> spectators = new ArrayList<>();
+        int connectedBefore = server.getSpectators();
+        for (int i = 0; i < SPECTATORS; i++) {
+            spectators.add(Thread.ofVirtual().start(() -> {
+                try (SpectatorClient client = SpectatorClient.connect(address, stream.getId())) {
+                    int target;
+                    while ((target = last.get()) < 0 || client.getKeyframes() == 0 || client.getSequence() < target) {
+                        client.receive();
+                    }
+                    if (matches(client, finals)) {
+                        inSync.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                }
+            }));
+        }
+        while (server.getSpectators() < connectedBefore + SPECTATORS && failed.get() == 0) {
+            Thread.sleep(10);
+        }
+        long resyncs = server.getResyncs();
+        long cpu = serverCpu();
+        long start = System.nanoTime();
+        for (int i = 0; i < PIECES; i++) {
+            for (int p = 0; p < 2; p++) {
+                int[] pose = poses[p][i];
+                stream.publishPose(p, pose[0], pose[1], pose[2], pose[3]);
+                stream.publishLock(p, boards[p][i]);
+            }
+        }
+        for (int p = 0; p < 2; p++) {
+            int[] pose = poses[p][PIECES];
+            stream.publishPose(p, pose[0], pose[1], pose[2], pose[3]);
+        }
+        last.set(stream.keyframe());
+        for (Thread t : spectators) {
+            t.join();
+        }
+        long nanos = System.nanoTime() - start;
+        cpu = serverCpu() - cpu;
+        int updates = stream.getSequence();
+        long bytes = stream.getBytesPublished();
+        System.out.printf("round %d: %d spectators, %d updates, %.1f bytes/update (full board %d), "
+                        + "%.0f updates/s, %.1f MB/s delivered, server %.2f us cpu/update, %d skipped ahead, "
+                        + "%d in sync, %d failed%n",
+                round, SPECTATORS, updates, bytes / (double) updates, 4 + ROWS * COLS, updates / (nanos / 1e9),
+                bytes * (double) SPECTATORS / (nanos / 1e3), cpu / 1e3 / updates, server.getResyncs() - resyncs,
+                inSync.get(), failed.get());
+    }
+
+    private static boolean matches(SpectatorClient client, int[][][] finals) {
+        for (int p = 0; p < finals.length; p++) {
+            for (int r = 0; r < ROWS; r++) {
+                for (int c = 0; c < COLS; c++) {
+                    if (client.getCell(p, r, c) != finals[p][r][c]) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int[] pose(GameBoard board) {
+        return new int[]{board.getCurrentBrickId(), board.getCurrentRotation(), board.getCurrentX(),
+                board.getCurrentY()};
+    }
+
+    private static int[][] copy(int[][] matrix) {
+        int[][] copy = new int[matrix.length][];
+        for (int r = 0; r < matrix.length; r++) {
+            copy[r] = matrix[r].clone();
+        }
+        return copy;
+    }
+
+    private static long serverCpu() {
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().equals("spectators")) {
+                return ManagementFactory.getThreadMXBean().getThreadCpuTime(t.threadId());
+            }
+        }
+        return 0;
+    }
+}
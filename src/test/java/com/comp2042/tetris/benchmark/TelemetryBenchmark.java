@@ -0,0 +1,48 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.telemetry.TelemetryExporter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures the producer-side cost of {@link TelemetryExporter#offer} and the drop rate
+ * when pieces lock far faster than a person could play.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.TelemetryBenchmark}.
+ * </p>
+ */
+public final class TelemetryBenchmark {
+
+    private TelemetryBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (TelemetryExporter.Format format : TelemetryExporter.Format.values()) {
+            Path file = Files.createTempFile("telemetry-bench", format == TelemetryExporter.Format.CSV ? ".csv" : ".bin");
+            try {
+                int burst = 4_000;
+                long total = 0;
+                long accepted;
+                long dropped;
+                try (TelemetryExporter exporter = TelemetryExporter.open(file, format, TelemetryExporter.DEFAULT_CAPACITY, 5)) {
+                    for (int b = 0; b < 500; b++) {
+                        long t0 = System.nanoTime();
+                        for (int i = 0; i < burst; i++) {
+                            exporter.offer(1 + i % 7, i & 3, i % 10, 18, i % 5 == 0 ? 1 : 0, 36, 850_000, 4);
+                        }
+                        total += System.nanoTime() - t0;
+                        Thread.sleep(2);
+                    }
+                    accepted = exporter.getAcceptedRecords();
+                    dropped = exporter.getDroppedRecords();
+                }
+                //the file is complete once the exporter is closed
+                System.out.printf("%s: %.1f ns per record, %d written, %d dropped, %d bytes%n", format,
+                        (double) total / (500L * burst), accepted, dropped, Files.size(file));
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
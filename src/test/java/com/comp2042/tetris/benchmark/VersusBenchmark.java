@@ -0,0 +1,122 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.net.VersusClient;
+import com.comp2042.tetris.net.VersusProtocol;
+import com.comp2042.tetris.net.VersusServer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Plays hundreds of concurrent two-player matches against {@link VersusServer} over
+ * loopback. The two players of a match take turns: each waits for the opponent's
+ * {@link VersusProtocol#BOARD} before sending its own {@link VersusProtocol#LOCK}, so
+ * every exchange is one relay round trip. Reports messages per second, the mean round
+ * trip, and the CPU time and heap allocation of the server's loop threads per message.
+ * <p>
+ * The server's own code does not allocate per message; what allocation remains comes
+ * from the JDK's epoll selector, which boxes file descriptors above 127 when it maps
+ * ready events back to keys.
+ * </p>
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.VersusBenchmark}.
+ * </p>
+ */
+public final class VersusBenchmark {
+
+    private static final int MATCHES = 300;
+    private static final int EXCHANGES = 500;
+    private static final int ROWS = 25;
+
+    private VersusBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        InetSocketAddress any = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (VersusServer server = new VersusServer(any)) {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+            for (int round = 0; round < 3; round++) {
+                long[] before = serverThreads();
+                long messagesBefore = server.getMessages();
+                long start = System.nanoTime();
+                run(address);
+                long nanos = System.nanoTime() - start;
+                long[] after = serverThreads();
+                long messages = server.getMessages() - messagesBefore;
+                System.out.printf("round %d: %d matches, %d messages in %.2f s, %.0f msg/s, %.1f us/exchange, "
+                                + "server %.2f us cpu/msg, %.1f bytes allocated/msg%n",
+                        round, MATCHES, messages, nanos / 1e9, messages / (nanos / 1e9),
+                        nanos / 1e3 / EXCHANGES, (after[0] - before[0]) / 1e3 / messages,
+                        (after[1] - before[1]) / (double) messages);
+            }
+        }
+    }
+
+    private static void run(InetSocketAddress address) throws Exception {
+        CountDownLatch done = new CountDownLatch(2 * MATCHES);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 2 * MATCHES; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    play(address);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        done.await();
+        for (Thread t : threads) {
+            t.join();
+        }
+    }
+
+    private static void play(InetSocketAddress address) throws IOException {
+        int[][] matrix = new int[ROWS][VersusProtocol.COLS];
+        matrix[ROWS - 1][0] = 1;
+        try (VersusClient client = VersusClient.connect(address)) {
+            client.join();
+            client.receive();
+            boolean first = client.getPlayer() == 0;
+            for (int k = 0; k < EXCHANGES; k++) {
+                if (first || k > 0) {
+                    client.sendLock(matrix, k % 3, false);
+                }
+                //skip the garbage that a double or triple adds before the board
+                while (client.receive() != VersusProtocol.BOARD) {
+                    //drain
+                }
+            }
+            if (first) {
+                client.sendLock(matrix, 0, true);
+            } else {
+                client.sendLock(matrix, 0, false);
+            }
+            while (client.receive() != VersusProtocol.END) {
+                //drain
+            }
+        }
+    }
+
+    /** @return total CPU nanoseconds and allocated bytes of the server's loop threads */
+    private static long[] serverThreads() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long cpu = 0;
+        long allocated = 0;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("versus-")) {
+                cpu += bean.getThreadCpuTime(t.threadId());
+                allocated += bean.getThreadAllocatedBytes(t.threadId());
+            }
+        }
+        return new long[]{cpu, allocated};
+    }
+}
@@ -0,0 +1,41 @@
+package com.comp2042.tetris.benchmark;
+
+import com.comp2042.tetris.ai.WeightTuner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures {@link WeightTuner} throughput in generations per hour with one worker thread
+ * and with one per core, from a fresh checkpoint each time.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.comp2042.tetris.benchmark.WeightTunerBenchmark
+ * [population=16] [games=4] [maxPieces=500]}.
+ * </p>
+ */
+public final class WeightTunerBenchmark {
+
+    private WeightTunerBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int population = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int pieces = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : cores > 1 ? new int[]{1, cores} : new int[]{1}) {
+            Path file = Files.createTempFile("tuner", ".bin");
+            Files.delete(file);
+            try (WeightTuner tuner = WeightTuner.open(file, population, games, pieces, threads)) {
+                for (int i = 0; i < 5; i++) {
+                    double fitness = tuner.runGeneration();
+                    System.out.printf("threads %d, generation %d: best %.1f lines, %.0f generations/hour%n",
+                            threads, tuner.getGeneration(), fitness, tuner.getGenerationsPerHour());
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.comp2042.tetris.bot;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotConnectionTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    /** Runs a reference bot on a thread of this JVM, connected through pipes. */
+    private static BotConnection inProcess(boolean inputs) throws IOException {
+        PipedInputStream botIn = new PipedInputStream(1 << 16);
+        PipedOutputStream toBot = new PipedOutputStream(botIn);
+        PipedInputStream fromBot = new PipedInputStream(1 << 16);
+        PipedOutputStream botOut = new PipedOutputStream(fromBot);
+        Thread bot = new Thread(() -> {
+            try {
+                new ReferenceBot(inputs).serve(botIn, botOut);
+                botOut.close();
+            } catch (IOException ignored) {
+                //the game side closed the pipes
+            }
+        }, "reference-bot");
+        bot.setDaemon(true);
+        bot.start();
+        return BotConnection.connect(fromBot, toBot, ROWS, COLS);
+    }
+
+    /** Command line starting the reference bot in a child JVM with this test's classpath. */
+    static List<String> referenceBotCommand(String... args) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (ManagementFactory.getRuntimeMXBean().getInputArguments().contains("--enable-preview")) {
+            command.add("--enable-preview");
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ReferenceBot.class.getName());
+        command.addAll(Arrays.asList(args));
+        return command;
+    }
+
+    /** Plays up to {@code pieces} bricks of game {@code seed}; returns the pieces locked and lines cleared. */
+    private static int[] play(BotConnection bot, long seed, int batch, int pieces, long[] requests) throws IOException {
+        GameBoard board = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+        board.newGame(seed);
+        HeadlessGame game = new HeadlessGame(board);
+        BotPlayer player = new BotPlayer(board, bot);
+        player.setEventListener(game);
+        player.setBatch(batch);
+        while (!game.isGameOver() && game.getPieces() < pieces) {
+            player.playPiece();
+        }
+        requests[0] = player.getRequests();
+        return new int[]{game.getPieces(), game.getLines()};
+    }
+
+    @Test
+    void childProcess_handshakesAndPlaysAGame() throws IOException {
+        try (BotConnection bot = BotConnection.launch(referenceBotCommand(), ROWS, COLS)) {
+            assertEquals(ReferenceBot.NAME, bot.getName());
+            long[] requests = new long[1];
+            int[] result = play(bot, 42, 1, 200, requests);
+            assertEquals(200, result[0]);
+            assertTrue(result[1] > 40, "lines: " + result[1]);
+            assertEquals(200, requests[0]);
+        }
+    }
+
+    @Test
+    void batchedMoves_playTheSameGameWithFewerRoundTrips() throws IOException {
+        try (BotConnection bot = inProcess(false)) {
+            long[] single = new long[1];
+            long[] batched = new long[1];
+            int[] one = play(bot, 7, 1, 300, single);
+            int[] eight = play(bot, 7, 8, 300, batched);
+            assertArrayEquals(one, eight);
+            assertEquals(300, single[0]);
+            assertTrue(batched[0] <= 300 / 8 + 2, "requests: " + batched[0]);
+        }
+    }
+
+    @Test
+    void inputSequences_areReplayedOnTheBoard() throws IOException {
+        try (BotConnection bot = inProcess(true)) {
+            long[] requests = new long[1];
+            int[] result = play(bot, 3, 1, 150, requests);
+            assertEquals(150, result[0]);
+            assertTrue(result[1] > 30, "lines: " + result[1]);
+            assertEquals(150, requests[0]);
+        }
+    }
+
+    @Test
+    void brokenBot_failsWithIOException() {
+        //a "bot" that answers the handshake with a frame of negative length
+        byte[] garbage = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0};
+        IOException e = assertThrows(IOException.class, () -> BotConnection.connect(
+                new ByteArrayInputStream(garbage), new ByteArrayOutputStream(), ROWS, COLS));
+        assertTrue(e.getMessage().contains("frame length"), e.getMessage());
+    }
+
+    @Test
+    void botRefusingTheBoardSize_failsTheHandshake() {
+        IOException e = assertThrows(IOException.class, () -> {
+            PipedInputStream botIn = new PipedInputStream();
+            PipedOutputStream toBot = new PipedOutputStream(botIn);
+            PipedInputStream fromBot = new PipedInputStream();
+            PipedOutputStream botOut = new PipedOutputStream(fromBot);
+            Thread bot = new Thread(() -> {
+                try {
+                    new ReferenceBot(false).serve(botIn, botOut);
+                } catch (IOException ignored) {
+                    //closed by the test
+                }
+            });
+            bot.setDaemon(true);
+            bot.start();
+            BotConnection.connect(fromBot, toBot, 25, 40).close();
+        });
+        assertTrue(e.getMessage().startsWith("Bot refused the session"), e.getMessage());
+    }
+}
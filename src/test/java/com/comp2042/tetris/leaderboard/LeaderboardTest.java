@@ -0,0 +1,137 @@
+package com.comp2042.tetris.leaderboard;
+
+import com.comp2042.tetris.model.LevelService;
+import com.comp2042.tetris.model.Score;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+
+    /** Enough results to force several merges of the insert buffer. */
+    private static final int RESULTS = 20_000;
+
+    private final Random random = new Random(1);
+    private final int[] scores = new int[RESULTS];
+    private final int[] modes = new int[RESULTS];
+    private final int[] days = new int[RESULTS];
+
+    private Leaderboard randomBoard() {
+        Leaderboard board = new Leaderboard();
+        for (int i = 0; i < RESULTS; i++) {
+            scores[i] = random.nextInt(5000);
+            modes[i] = random.nextInt(3);
+            days[i] = 19_000 + random.nextInt(30);
+            assertEquals(i, board.submit(scores[i], modes[i], days[i], i % 50));
+        }
+        return board;
+    }
+
+    @Test
+    void rankAndPercentile_matchBruteForce() {
+        Leaderboard board = randomBoard();
+        for (int q = 0; q < 300; q++) {
+            int s = random.nextInt(5200) - 100;
+            int higher = 0, lower = 0, equal = 0, higherInMode1 = 0;
+            for (int i = 0; i < RESULTS; i++) {
+                if (scores[i] > s) higher++;
+                else if (scores[i] < s) lower++;
+                else equal++;
+                if (modes[i] == 1 && scores[i] > s) higherInMode1++;
+            }
+            assertEquals(1 + higher, board.rank(s));
+            assertEquals(1 + higherInMode1, board.rankInMode(1, s));
+            assertEquals(100.0 * (lower + 0.5 * equal) / RESULTS, board.percentile(s), 1e-9);
+        }
+        assertEquals(1, board.rank(Integer.MAX_VALUE));
+        assertEquals(RESULTS + 1, board.rank(Integer.MIN_VALUE));
+    }
+
+    @Test
+    void top_isDescendingAcrossIndexAndInsertBuffer() {
+        Leaderboard board = randomBoard();
+        //recent inserts still sit in the insert buffer
+        for (int i = 0; i < 100; i++) board.submit(4990 + i % 20, 0, 19_000, 1);
+
+        int[] top = board.top(300);
+        assertEquals(300, top.length);
+        for (int i = 0; i < top.length; i++) {
+            int s = board.getScore(top[i]);
+            if (i > 0) assertTrue(board.getScore(top[i - 1]) >= s);
+            //every entry ranks at or above its position
+            assertTrue(board.rank(s) <= i + 1);
+        }
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < board.size(); i++) max = Math.max(max, board.getScore(i));
+        assertEquals(max, board.getScore(top[0]));
+    }
+
+    @Test
+    void bestPerModeAndDay_matchBruteForce() {
+        Leaderboard board = randomBoard();
+        for (int mode = 0; mode < 3; mode++) {
+            int best = -1;
+            for (int i = 0; i < RESULTS; i++) if (modes[i] == mode && (best < 0 || scores[i] > scores[best])) best = i;
+            assertEquals(scores[best], board.getScore(board.bestOfMode(mode)));
+
+            for (int day = 19_000; day < 19_030; day += 7) {
+                int bestDay = -1;
+                for (int i = 0; i < RESULTS; i++) {
+                    if (modes[i] == mode && days[i] == day && (bestDay < 0 || scores[i] > scores[bestDay])) bestDay = i;
+                }
+                int row = board.bestOfModeAndDay(mode, day);
+                assertEquals(scores[bestDay], board.getScore(row));
+                assertEquals(day, board.getDay(row));
+            }
+
+            int bestWeek = -1;
+            for (int i = 0; i < RESULTS; i++) {
+                if (modes[i] == mode && days[i] >= 19_007 && days[i] <= 19_013
+                        && (bestWeek < 0 || scores[i] > scores[bestWeek])) bestWeek = i;
+            }
+            assertEquals(scores[bestWeek], board.getScore(board.bestOfModeBetween(mode, 19_007, 19_013)));
+        }
+        assertEquals(30, board.bestPerDay().length);
+        assertEquals(-1, board.bestOfMode(9));
+        assertEquals(-1, board.bestOfDay(1));
+    }
+
+    @Test
+    void bestOfModeBetween_spansDaysBeforeAndAfterTheEpoch() {
+        Leaderboard board = new Leaderboard();
+        board.submit(300, 0, -2, 1);
+        int best = board.submit(900, 0, -1, 1);
+        board.submit(500, 0, 0, 1);
+        board.submit(700, 0, 3, 1);
+        board.submit(1000, 0, 5, 1);
+        assertEquals(best, board.bestOfModeBetween(0, -1, 4));
+        assertEquals(900, board.getScore(board.bestOfModeBetween(0, -5, 0)));
+        assertEquals(700, board.getScore(board.bestOfModeBetween(0, 0, 3)));
+        assertEquals(-1, board.bestOfModeBetween(1, -5, 5));
+    }
+
+    @Test
+    void modeQueries_rejectUnknownModes() {
+        Leaderboard board = randomBoard();
+        assertThrows(IllegalArgumentException.class, () -> board.rankInMode(Leaderboard.MAX_MODES, 100));
+        assertThrows(IllegalArgumentException.class, () -> board.percentileInMode(-1, 100));
+        assertThrows(IllegalArgumentException.class, () -> board.topInMode(Leaderboard.MAX_MODES, 5));
+        assertThrows(IllegalArgumentException.class, () -> board.bestOfModeBetween(-1, 0, 1));
+        assertEquals(1, board.rankInMode(9, 100));
+    }
+
+    @Test
+    void submitFromScore_usesLevelService() {
+        Leaderboard board = new Leaderboard();
+        Score score = new Score();
+        score.add(2600);
+        int row = board.submit(score, Leaderboard.DEFAULT_MODE, LocalDate.of(2025, 11, 3), 4);
+        assertEquals(2600, board.getScore(row));
+        assertEquals(new LevelService().levelForScore(2600), board.getLevel(row));
+        assertEquals(LocalDate.of(2025, 11, 3), board.getDate(row));
+        assertEquals(50.0, board.percentile(2600), 1e-9);
+    }
+}
@@ -0,0 +1,65 @@
+package com.comp2042.tetris.model;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.rules.GarbageRules;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameBoardGarbageTest {
+
+    @Test
+    void addGarbage_pushesRowsUpAndLeavesHole() {
+        GameBoard board = new GameBoard(6, 4);
+        int[][] m = board.getBoardMatrix();
+        m[5][0] = 3;
+        assertFalse(board.addGarbage(2, 1));
+        m = board.getBoardMatrix();
+        assertEquals(3, m[3][0], "old bottom row moved up by two");
+        for (int r = 4; r < 6; r++) {
+            assertArrayEquals(new int[]{GameBoard.GARBAGE_CELL, 0, GameBoard.GARBAGE_CELL, GameBoard.GARBAGE_CELL}, m[r]);
+        }
+        assertFalse(board.isGameOver());
+    }
+
+    @Test
+    void addGarbage_overflowingTopEndsGame() {
+        GameBoard board = new GameBoard(4, 4);
+        board.getBoardMatrix()[1][2] = 5;
+        assertFalse(board.addGarbage(1, 0));
+        assertTrue(board.addGarbage(1, 0), "filled cell pushed off the top");
+        assertTrue(board.isGameOver());
+    }
+
+    @Test
+    void headlessGame_raisesQueuedGarbageAtLock() {
+        GameBoard board = new GameBoard(25, 10);
+        HeadlessGame game = new HeadlessGame(board);
+        game.newGame(7);
+        game.receiveGarbage(2, 3);
+        game.receiveGarbage(1, 6);
+        assertEquals(3, game.getPendingGarbage());
+        assertEquals(0, board.getBoardMatrix()[24][3], "nothing rises before the lock");
+        game.onHardDropEvent(new MoveEvent(EventType.HARD_DROP, EventSource.USER));
+        int[][] m = board.getBoardMatrix();
+        assertEquals(0, game.getPendingGarbage());
+        assertEquals(0, m[24][6]);
+        assertEquals(GameBoard.GARBAGE_CELL, m[24][3]);
+        assertEquals(0, m[23][3]);
+        assertEquals(0, m[22][3]);
+        assertFalse(game.isGameOver());
+    }
+
+    @Test
+    void attackTable() {
+        assertEquals(0, GarbageRules.linesToSend(0));
+        assertEquals(0, GarbageRules.linesToSend(1));
+        assertEquals(1, GarbageRules.linesToSend(2));
+        assertEquals(2, GarbageRules.linesToSend(3));
+        assertEquals(4, GarbageRules.linesToSend(4));
+        assertEquals(0, GarbageRules.linesToSend((ClearRow) null));
+    }
+}
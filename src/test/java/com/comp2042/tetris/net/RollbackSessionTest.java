@@ -0,0 +1,156 @@
+package com.comp2042.tetris.net;
+
+import com.comp2042.tetris.ai.AiPlayer;
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollbackSessionTest {
+
+    private static final int TICKS = 3000;
+
+    /** One side of the match: an AI choosing inputs from what its session shows, every third tick. */
+    private static final class Peer {
+
+        final RollbackSession session;
+        final AiPlayer ai;
+        final int[] inputs = new int[TICKS];
+        int decided = -1;
+
+        Peer(RollbackSession session) {
+            this.session = session;
+            this.ai = new AiPlayer(session.getGame(session.getLocalPlayer()).getBoard());
+        }
+
+        void step(LagSimulator<int[]> link, long now) {
+            int tick = session.getTick();
+            if (tick == TICKS) {
+                return;
+            }
+            //decide once per tick, even if the session stalls and the tick is retried
+            if (decided < tick) {
+                decided = tick;
+                inputs[tick] = tick % 3 == 0 && !session.isOver() ? bits(ai.nextMove()) : 0;
+            }
+            if (session.advance(inputs[tick])) {
+                link.send(now, new int[]{tick, inputs[tick]});
+            }
+        }
+
+        private static int bits(MoveEvent move) {
+            return switch (move.getEventType()) {
+                case LEFT -> RollbackSession.LEFT;
+                case RIGHT -> RollbackSession.RIGHT;
+                case ROTATE -> RollbackSession.ROTATE;
+                case DOWN -> RollbackSession.SOFT_DROP;
+                case HARD_DROP -> RollbackSession.HARD_DROP;
+                case HOLD -> RollbackSession.HOLD;
+            };
+        }
+    }
+
+    private static void assertSameGames(RollbackSession expected, RollbackSession actual) {
+        for (int p = 0; p < 2; p++) {
+            HeadlessGame e = expected.getGame(p);
+            HeadlessGame a = actual.getGame(p);
+            GameState es = new GameState(RollbackSession.ROWS, RollbackSession.COLS);
+            GameState as = new GameState(RollbackSession.ROWS, RollbackSession.COLS);
+            e.getBoard().saveState(es);
+            a.getBoard().saveState(as);
+            assertEquals(es, as, "board of player " + p);
+            assertEquals(e.getPieces(), a.getPieces(), "pieces of player " + p);
+            assertEquals(e.getLines(), a.getLines(), "lines of player " + p);
+            assertEquals(e.getPendingGarbage(), a.getPendingGarbage(), "garbage of player " + p);
+            assertEquals(e.isGameOver(), a.isGameOver(), "game over of player " + p);
+        }
+    }
+
+    private static void deliver(LagSimulator<int[]> link, long now, RollbackSession session) {
+        for (int[] m = link.poll(now); m != null; m = link.poll(now)) {
+            session.addRemoteInput(m[0], m[1]);
+        }
+    }
+
+    @Test
+    void lateAndReorderedInputs_endInLockstepState() {
+        long seed = 42;
+        Peer a = new Peer(new RollbackSession(0, seed));
+        Peer b = new Peer(new RollbackSession(1, seed));
+        LagSimulator<int[]> aToB = new LagSimulator<>(4, 3, 7);
+        LagSimulator<int[]> bToA = new LagSimulator<>(4, 3, 8);
+        for (long now = 0; a.session.getTick() < TICKS || b.session.getTick() < TICKS
+                || aToB.getInFlight() > 0 || bToA.getInFlight() > 0; now++) {
+            deliver(aToB, now, b.session);
+            deliver(bToA, now, a.session);
+            a.step(aToB, now);
+            b.step(bToA, now);
+        }
+        a.session.synchronize();
+        b.session.synchronize();
+
+        //reference: every remote input known before its tick, so nothing is ever predicted
+        RollbackSession reference = new RollbackSession(0, seed);
+        for (int t = 0; t < TICKS; t++) {
+            reference.addRemoteInput(t, b.inputs[t]);
+            assertTrue(reference.advance(a.inputs[t]));
+        }
+        assertEquals(0, reference.getRollbacks());
+
+        assertTrue(a.session.getRollbacks() > 0 && b.session.getRollbacks() > 0, "no rollbacks happened");
+        assertTrue(a.session.getLongestRollback() <= a.session.getMaxRollback());
+        for (int p = 0; p < 2; p++) {
+            assertTrue(reference.getGame(p).getLines() > 10, "player " + p + " hardly cleared anything");
+        }
+        assertSameGames(reference, a.session);
+        assertSameGames(reference, b.session);
+    }
+
+    @Test
+    void advance_stallsAtMaxRollback() {
+        RollbackSession session = new RollbackSession(1, 5, 4);
+        for (int t = 0; t < 4; t++) {
+            assertTrue(session.advance(0));
+        }
+        assertFalse(session.advance(0));
+        assertEquals(4, session.getTick());
+        session.addRemoteInput(1, RollbackSession.LEFT);
+        assertEquals(0, session.getConfirmedTick(), "tick 0 is still missing");
+        session.addRemoteInput(0, 0);
+        assertEquals(2, session.getConfirmedTick());
+        assertTrue(session.advance(0));
+        assertEquals(1, session.getRollbacks(), "tick 1 was predicted as idle");
+        assertEquals(3, session.getResimulatedTicks());
+        assertThrows(IllegalArgumentException.class, () -> session.addRemoteInput(100, 0));
+    }
+
+    @Test
+    void checkpoint_restoresCountersAndQueuedGarbage() {
+        RollbackSession session = new RollbackSession(0, 9);
+        HeadlessGame game = session.getGame(0);
+        MoveEvent drop = new MoveEvent(EventType.HARD_DROP, EventSource.USER);
+        game.onHardDropEvent(drop);
+        game.receiveGarbage(2, 3);
+        HeadlessGame.Checkpoint checkpoint = new HeadlessGame.Checkpoint(RollbackSession.ROWS, RollbackSession.COLS);
+        game.saveCheckpoint(checkpoint);
+        GameState before = new GameState(RollbackSession.ROWS, RollbackSession.COLS);
+        game.getBoard().saveState(before);
+
+        game.onHardDropEvent(drop);
+        game.onHardDropEvent(drop);
+        assertEquals(3, game.getPieces());
+        assertEquals(0, game.getPendingGarbage());
+
+        game.loadCheckpoint(checkpoint);
+        GameState after = new GameState(RollbackSession.ROWS, RollbackSession.COLS);
+        game.getBoard().saveState(after);
+        assertEquals(before, after);
+        assertEquals(1, game.getPieces());
+        assertEquals(2, game.getPendingGarbage());
+        assertEquals(1, checkpoint.getPieces());
+    }
+}
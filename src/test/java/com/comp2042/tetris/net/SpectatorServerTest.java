@@ -0,0 +1,150 @@
+package com.comp2042.tetris.net;
+
+import com.comp2042.tetris.ai.AiPlayer;
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpectatorServerTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    private static InetSocketAddress loopback(SpectatorServer server) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    private static InetSocketAddress anyPort() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    /** Reads until the spectator has applied frame {@code sequence}. */
+    private static void catchUp(SpectatorClient client, int sequence) throws Exception {
+        while (client.getKeyframes() == 0 || client.getSequence() < sequence) {
+            client.receive();
+        }
+        assertEquals(sequence, client.getSequence());
+    }
+
+    private static void assertMirrors(GameBoard[] boards, SpectatorClient client) {
+        for (int p = 0; p < boards.length; p++) {
+            int[][] m = boards[p].getBoardMatrix();
+            for (int r = 0; r < ROWS; r++) {
+                for (int c = 0; c < COLS; c++) {
+                    assertEquals(m[r][c], client.getCell(p, r, c), "player " + p + " cell " + r + "," + c);
+                }
+            }
+            assertEquals(boards[p].getCurrentBrickId(), client.getBrickId(p));
+            assertEquals(boards[p].getCurrentRotation(), client.getRotation(p));
+            assertEquals(boards[p].getCurrentX(), client.getX(p));
+            assertEquals(boards[p].getCurrentY(), client.getY(p));
+        }
+    }
+
+    @Test
+    void spectators_mirrorTwoAiGames_withDeltas() throws Exception {
+        try (SpectatorServer server = new SpectatorServer(anyPort())) {
+            SpectatorStream stream = server.openStream(2, ROWS, COLS);
+            stream.setKeyframeInterval(40);
+            GameBoard[] boards = new GameBoard[2];
+            HeadlessGame[] games = new HeadlessGame[2];
+            AiPlayer[] players = new AiPlayer[2];
+            for (int p = 0; p < 2; p++) {
+                boards[p] = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+                games[p] = new HeadlessGame(boards[p]);
+                games[p].newGame(11 + p);
+                players[p] = new AiPlayer(boards[p]);
+                players[p].setEventListener(games[p]);
+            }
+            try (SpectatorClient early = SpectatorClient.connect(loopback(server), stream.getId())) {
+                while (server.getSpectators() == 0) {
+                    Thread.sleep(1);
+                }
+                SpectatorClient late = null;
+                for (int piece = 0; piece < 120; piece++) {
+                    for (int p = 0; p < 2; p++) {
+                        GameBoard b = boards[p];
+                        stream.publishPose(p, b.getCurrentBrickId(), b.getCurrentRotation(), b.getCurrentX(),
+                                b.getCurrentY());
+                        players[p].playPiece();
+                        stream.publishLock(p, b.getBoardMatrix());
+                        stream.publishPose(p, b.getCurrentBrickId(), b.getCurrentRotation(), b.getCurrentX(),
+                                b.getCurrentY());
+                    }
+                    if (piece == 70) {
+                        late = SpectatorClient.connect(loopback(server), stream.getId());
+                    }
+                }
+                int last = stream.getSequence() - 1;
+                catchUp(early, last);
+                catchUp(late, last);
+                assertMirrors(boards, early);
+                assertMirrors(boards, late);
+                assertEquals(stream.getKeyframes(), early.getKeyframes(), "the early spectator saw every keyframe");
+                assertEquals(early.getBytes(), stream.getBytesPublished());
+                assertTrue(late.getBytes() < early.getBytes());
+                //a full board per lock would be over 250 bytes
+                assertTrue(stream.getBytesPublished() / (4.0 * 120) < 100,
+                        stream.getBytesPublished() + " bytes for 480 updates");
+                assertEquals(2, server.getSpectators());
+                late.close();
+            }
+        }
+    }
+
+    @Test
+    void unknownStream_isRefused() throws Exception {
+        try (SpectatorServer server = new SpectatorServer(anyPort());
+             SpectatorClient client = SpectatorClient.connect(loopback(server), 7)) {
+            assertThrows(java.io.EOFException.class, client::receive);
+        }
+    }
+
+    @Test
+    void slowSpectator_skipsAheadToKeyframe() throws Exception {
+        try (SpectatorServer server = new SpectatorServer(anyPort(), 64 * 1024)) {
+            SpectatorStream stream = server.openStream(1, ROWS, COLS);
+            SocketChannel channel = SocketChannel.open();
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+            try (SpectatorClient client = SpectatorClient.connect(channel, loopback(server), stream.getId())) {
+                while (server.getSpectators() == 0) {
+                    Thread.sleep(1);
+                }
+                //far more than the socket buffers hold while the spectator is not reading
+                int[][] board = new int[ROWS][COLS];
+                for (int i = 0; i < 400_000; i++) {
+                    stream.publishPose(0, 1 + i % 7, i % 4, i % 8, i % 20);
+                    if (i % 1000 == 0) {
+                        board[ROWS - 1 - i / 20_000][i / 1000 % COLS] = 3;
+                        stream.publishLock(0, board);
+                    }
+                    if (i % 100 == 0) {
+                        //a real host publishes a few frames per tick; never a whole ring while the
+                        //server is mid-write, which would tear the stream and drop the spectator
+                        Thread.sleep(0, 100_000);
+                    }
+                }
+                int last = stream.keyframe();
+                catchUp(client, last);
+                assertTrue(server.getResyncs() > 0, "spectator never fell behind");
+                assertEquals(0, server.getTorn());
+                for (int r = 0; r < ROWS; r++) {
+                    for (int c = 0; c < COLS; c++) {
+                        assertEquals(board[r][c], client.getCell(0, r, c));
+                    }
+                }
+                int i = 399_999;
+                assertEquals(1 + i % 7, client.getBrickId(0));
+                assertEquals(i % 8, client.getX(0));
+            }
+        }
+    }
+}
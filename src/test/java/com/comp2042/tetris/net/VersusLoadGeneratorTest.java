@@ -0,0 +1,49 @@
+package com.comp2042.tetris.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersusLoadGeneratorTest {
+
+    @Test
+    void ramp_playsMatchesAndMeasuresLatency() throws Exception {
+        try (VersusServer server = new VersusServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+            VersusLoadGenerator.Step small;
+            VersusLoadGenerator.Step large;
+            try (VersusLoadGenerator generator = new VersusLoadGenerator(address)) {
+                generator.setPieceIntervalMillis(5);
+                generator.setPiecesPerGame(10);
+                small = generator.ramp(20, 500);
+                large = generator.ramp(100, 500);
+                assertEquals(100, generator.getClients());
+                assertThrows(IllegalArgumentException.class, () -> generator.ramp(50, 10));
+                assertThrows(IllegalArgumentException.class, () -> generator.ramp(101, 10));
+            }
+            for (VersusLoadGenerator.Step step : List.of(small, large)) {
+                assertEquals(step.getClients(), step.getConnected());
+                assertEquals(0, step.getErrors());
+                assertTrue(step.getMatchesPerSecond() > 0, step.toString());
+                assertTrue(step.getLocksPerSecond() > 0, step.toString());
+                assertTrue(step.getLatencySamples() > 0, step.toString());
+                assertTrue(step.getLatencyMicros(50) <= step.getLatencyMicros(99));
+                assertTrue(step.getLatencyMicros(99) <= step.getLatencyMicros(100));
+                assertTrue(step.getServerCpu() >= 0, "server runs in this JVM");
+            }
+            assertTrue(large.getLocksPerSecond() > small.getLocksPerSecond(), small + " vs " + large);
+            assertTrue(server.getMatchesFinished() > 0);
+
+            StringBuilder table = new StringBuilder();
+            VersusLoadGenerator.writeTable(List.of(small, large), table);
+            String[] lines = table.toString().split("\n");
+            assertEquals(VersusLoadGenerator.TABLE_HEADER, lines[0]);
+            assertEquals(3, lines.length);
+            assertTrue(lines[2].startsWith("100\t100\t"), lines[2]);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.comp2042.tetris.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersusServerTest {
+
+    private static final int ROWS = 25;
+
+    private static InetSocketAddress loopback(VersusServer server) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    private static InetSocketAddress anyPort() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    @Test
+    void twoPlayers_relayBoardsGarbageAndResult() throws Exception {
+        try (VersusServer server = new VersusServer(anyPort(), 2, 2);
+             VersusClient a = VersusClient.connect(loopback(server));
+             VersusClient b = VersusClient.connect(loopback(server))) {
+            a.join();
+            b.join();
+            assertEquals(VersusProtocol.START, a.receive());
+            assertEquals(VersusProtocol.START, b.receive());
+            assertEquals(a.getMatch(), b.getMatch());
+            assertEquals(a.getSeed(), b.getSeed());
+            assertEquals(2, a.getPlayers());
+            assertEquals(1, a.getPlayer() + b.getPlayer());
+
+            int[][] matrix = new int[ROWS][10];
+            matrix[24][0] = 1;
+            matrix[24][9] = 8;
+            a.sendLock(matrix, 4, false);
+            assertEquals(VersusProtocol.BOARD, b.receive());
+            assertEquals(a.getPlayer(), b.getFrom());
+            assertEquals(4, b.getLinesRemoved());
+            assertEquals(ROWS, b.getRows());
+            assertEquals(1 | 1 << 9, b.getRowMask(24));
+            assertEquals(0, b.getRowMask(0));
+            assertEquals(VersusProtocol.GARBAGE, b.receive());
+            assertEquals(4, b.getGarbageLines());
+            assertTrue(b.getHoleColumn() >= 0 && b.getHoleColumn() < VersusProtocol.COLS);
+
+            //a single sends a board but no garbage
+            b.sendLock(matrix, 1, false);
+            assertEquals(VersusProtocol.BOARD, a.receive());
+            a.sendLock(matrix, 0, true);
+            assertEquals(VersusProtocol.END, a.receive());
+            assertEquals(b.getPlayer(), a.getWinner());
+            assertEquals(VersusProtocol.BOARD, b.receive());
+            assertTrue(b.isToppedOut());
+            assertEquals(VersusProtocol.END, b.receive());
+            assertEquals(b.getPlayer(), b.getWinner());
+
+            //both can queue again
+            a.join();
+            b.join();
+            assertEquals(VersusProtocol.START, a.receive());
+            assertEquals(VersusProtocol.START, b.receive());
+            assertEquals(2, server.getMatchesStarted());
+            assertEquals(1, server.getMatchesFinished());
+        }
+    }
+
+    @Test
+    void threePlayers_garbageRotatesAndDisconnectCountsAsTopOut() throws Exception {
+        try (VersusServer server = new VersusServer(anyPort(), 3, 1)) {
+            VersusClient[] clients = new VersusClient[3];
+            for (int i = 0; i < 3; i++) {
+                clients[i] = VersusClient.connect(loopback(server));
+                clients[i].join();
+            }
+            VersusClient[] byPlayer = new VersusClient[3];
+            for (VersusClient c : clients) {
+                assertEquals(VersusProtocol.START, c.receive());
+                byPlayer[c.getPlayer()] = c;
+            }
+            int[][] matrix = new int[ROWS][10];
+            byPlayer[0].sendLock(matrix, 2, false);
+            byPlayer[0].sendLock(matrix, 2, false);
+            //each opponent gets the two boards and one of the two attacks
+            for (int p = 1; p < 3; p++) {
+                int boards = 0;
+                int garbage = 0;
+                for (int k = 0; k < 3; k++) {
+                    byte type = byPlayer[p].receive();
+                    boards += type == VersusProtocol.BOARD ? 1 : 0;
+                    garbage += type == VersusProtocol.GARBAGE ? byPlayer[p].getGarbageLines() : 0;
+                }
+                assertEquals(2, boards);
+                assertEquals(1, garbage);
+            }
+            byPlayer[1].close();
+            byPlayer[2].sendLock(matrix, 0, true);
+            assertEquals(VersusProtocol.BOARD, byPlayer[0].receive());
+            assertEquals(VersusProtocol.END, byPlayer[0].receive());
+            assertEquals(0, byPlayer[0].getWinner());
+            byPlayer[0].close();
+            byPlayer[2].close();
+        }
+    }
+
+    @Test
+    void manyConcurrentMatches_allFinish() throws Exception {
+        int matches = 100;
+        int locks = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(2 * matches);
+        try (VersusServer server = new VersusServer(anyPort(), 2, 2)) {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int i = 0; i < 2 * matches; i++) {
+                results.add(pool.submit(() -> {
+                    try (VersusClient c = VersusClient.connect(loopback(server))) {
+                        c.join();
+                        assertEquals(VersusProtocol.START, c.receive());
+                        boolean loser = c.getPlayer() == 0;
+                        int[][] matrix = new int[ROWS][10];
+                        for (int k = 0; k < locks; k++) {
+                            c.sendLock(matrix, 2, false);
+                        }
+                        if (loser) {
+                            c.sendLock(matrix, 0, true);
+                        }
+                        int boards = 0;
+                        int garbage = 0;
+                        byte type;
+                        while ((type = c.receive()) != VersusProtocol.END) {
+                            boards += type == VersusProtocol.BOARD ? 1 : 0;
+                            garbage += type == VersusProtocol.GARBAGE ? c.getGarbageLines() : 0;
+                        }
+                        return new int[]{loser ? 1 : 0, boards, garbage, c.getWinner()};
+                    }
+                }));
+            }
+            for (Future<int[]> result : results) {
+                int[] r = result.get();
+                assertEquals(1, r[3], "player 1 wins every match");
+                if (r[0] == 0) {
+                    //player 0 sent everything before topping out, so its opponent saw all of it
+                    assertEquals(locks + 1, r[1]);
+                    assertEquals(locks, r[2]);
+                }
+            }
+            assertEquals(matches, server.getMatchesFinished());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.comp2042.tetris.persistence;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.InputEventListener;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private static GameBoard seededBoard(long seed) {
+        GameBoard b = new GameBoard(25, 10, new RandomBrickGenerator(seed));
+        b.newGame();
+        return b;
+    }
+
+    private static GameState stateOf(GameBoard b) {
+        GameState s = new GameState(25, 10);
+        b.saveState(s);
+        return s;
+    }
+
+    private static void play(InputEventListener game, int events, long seed) {
+        Random r = new Random(seed);
+        EventType[] types = EventType.values();
+        for (int i = 0; i < events; i++) {
+            EventType t = types[r.nextInt(types.length)];
+            EventSource src = r.nextInt(4) == 0 ? EventSource.THREAD : EventSource.USER;
+            game.dispatch(new MoveEvent(t, src));
+        }
+    }
+
+    /** Copies the journal as it is on disk right now, i.e. what survives if the JVM dies. */
+    private Path crashCopy(GameJournal journal) throws Exception {
+        journal.sync();
+        Path copy = dir.resolve("crashed.journal");
+        Files.copy(journal.getPath(), copy, StandardCopyOption.REPLACE_EXISTING);
+        return copy;
+    }
+
+    @Test
+    void moveEventCodes_roundTrip() {
+        for (EventType t : EventType.values()) {
+            for (EventSource s : EventSource.values()) {
+                MoveEvent decoded = MoveEvent.fromCode(new MoveEvent(t, s).toCode());
+                assertEquals(t, decoded.getEventType());
+                assertEquals(s, decoded.getEventSource());
+            }
+        }
+    }
+
+    @Test
+    void gameState_roundTripsThroughBuffer() {
+        GameBoard board = seededBoard(3);
+        play(new HeadlessGame(board), 200, 11);
+        GameState original = stateOf(board);
+
+        ByteBuffer buf = ByteBuffer.allocate(original.encodedSize());
+        original.writeTo(buf);
+        assertEquals(original.encodedSize(), buf.position());
+        buf.flip();
+        GameState decoded = new GameState(25, 10);
+        decoded.readFrom(buf);
+        assertEquals(original, decoded);
+    }
+
+    @Test
+    void gameState_rejectsCorruptQueueLength() {
+        GameState original = stateOf(seededBoard(4));
+        ByteBuffer buf = ByteBuffer.allocate(original.encodedSize());
+        original.writeTo(buf);
+        //the queue length byte sits right before the queued ids at the end
+        buf.put(original.encodedSize() - 1 - original.getQueueLength(), (byte) 100);
+        buf.flip();
+        assertThrows(IllegalArgumentException.class, () -> new GameState(25, 10).readFrom(buf));
+    }
+
+    @Test
+    void restoreState_continuesIdentically() {
+        GameBoard a = seededBoard(5);
+        play(new HeadlessGame(a), 150, 1);
+        GameState mid = stateOf(a);
+
+        GameBoard b = seededBoard(6);
+        b.restoreState(mid);
+        assertEquals(mid, stateOf(b));
+
+        play(new HeadlessGame(a), 300, 2);
+        play(new HeadlessGame(b), 300, 2);
+        assertEquals(stateOf(a), stateOf(b), "restored board must evolve exactly like the original");
+    }
+
+    @Test
+    void crash_recoversCheckpointPlusReplayedInputs() throws Exception {
+        GameBoard live = seededBoard(42);
+        GameJournal journal = GameJournal.open(dir.resolve("game.journal"), 5);
+        journal.checkpoint(live);
+        play(new RecordingGame(new HeadlessGame(live), journal, null), 500, 7);
+        Path crashed = crashCopy(journal);
+        journal.close();
+
+        GameBoard recovered = seededBoard(999);
+        assertTrue(JournalRecovery.recover(crashed, recovered, new HeadlessGame(recovered)));
+        assertEquals(stateOf(live), stateOf(recovered));
+        assertEquals(0, journal.getDroppedEvents());
+    }
+
+    @Test
+    void cleanShutdown_isNotRecovered() throws Exception {
+        GameBoard live = seededBoard(1);
+        Path file = dir.resolve("game.journal");
+        GameJournal journal = GameJournal.open(file, 5);
+        journal.checkpoint(live);
+        play(new RecordingGame(new HeadlessGame(live), journal, null), 50, 3);
+        journal.close();
+
+        GameBoard other = seededBoard(2);
+        GameState before = stateOf(other);
+        assertFalse(JournalRecovery.recover(file, other, new HeadlessGame(other)));
+        assertEquals(before, stateOf(other));
+    }
+
+    @Test
+    void tornTail_isIgnored() throws Exception {
+        GameBoard live = seededBoard(77);
+        GameJournal journal = GameJournal.open(dir.resolve("game.journal"), 5);
+        journal.checkpoint(live);
+        play(new RecordingGame(new HeadlessGame(live), journal, null), 120, 9);
+        Path crashed = crashCopy(journal);
+        journal.close();
+
+        //simulate a checkpoint record cut off mid-write
+        Files.write(crashed, new byte[]{GameJournal.TAG_CHECKPOINT, 0, 0, 1, 0, 1, 2}, StandardOpenOption.APPEND);
+
+        GameBoard recovered = seededBoard(78);
+        assertTrue(JournalRecovery.recover(crashed, recovered, new HeadlessGame(recovered)));
+        assertEquals(stateOf(live), stateOf(recovered));
+    }
+
+    @Test
+    void missingJournal_recoversNothing() throws Exception {
+        GameBoard board = seededBoard(4);
+        assertFalse(JournalRecovery.recover(dir.resolve("absent.journal"), board, new HeadlessGame(board)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.comp2042.tetris.persistence;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.events.InputEventListener;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.DownData;
+import com.comp2042.tetris.model.ViewData;
+
+/**
+ * Plays a {@link HeadlessGame} while recording its inputs, like GameController does:
+ * every input goes to the journal and replay recorder (either may be {@code null}), with
+ * a journal checkpoint every few locks. Nothing is recorded once the game is over.
+ */
+final class RecordingGame implements InputEventListener {
+    private final HeadlessGame game;
+    private final GameJournal journal;
+    private final ReplayRecorder recorder;
+
+    RecordingGame(HeadlessGame game, GameJournal journal, ReplayRecorder recorder) {
+        this.game = game;
+        this.journal = journal;
+        this.recorder = recorder;
+    }
+
+    /** @return true once a spawn was blocked */
+    boolean isGameOver() {
+        return game.isGameOver();
+    }
+
+    private boolean record(MoveEvent e) {
+        if (game.isGameOver()) return false;
+        if (journal != null) journal.record(e);
+        if (recorder != null) recorder.record(e);
+        return true;
+    }
+
+    /** Checkpoints the journal every fifth lock, unless that lock ended the game. */
+    private void checkpoint(int piecesBefore) {
+        int pieces = game.getPieces();
+        if (journal != null && pieces != piecesBefore && pieces % 5 == 0 && !game.isGameOver()) {
+            journal.checkpoint(game.getBoard());
+        }
+    }
+
+    @Override public DownData onDownEvent(MoveEvent e) {
+        boolean recorded = record(e);
+        int pieces = game.getPieces();
+        DownData data = game.onDownEvent(e);
+        if (recorded) checkpoint(pieces);
+        return data;
+    }
+    @Override public ViewData onLeftEvent(MoveEvent e) { record(e); return game.onLeftEvent(e); }
+    @Override public ViewData onRightEvent(MoveEvent e) { record(e); return game.onRightEvent(e); }
+    @Override public ViewData onRotateEvent(MoveEvent e) { record(e); return game.onRotateEvent(e); }
+    @Override public DownData onHardDropEvent(MoveEvent e) {
+        boolean recorded = record(e);
+        int pieces = game.getPieces();
+        DownData data = game.onHardDropEvent(e);
+        if (recorded) checkpoint(pieces);
+        return data;
+    }
+    @Override public ViewData onHoldEvent(MoveEvent e) { record(e); return game.onHoldEvent(e); }
+    @Override public void createNewGame() { game.createNewGame(); }
+}
@@ -0,0 +1,187 @@
+package com.comp2042.tetris.persistence;
+
+import com.comp2042.tetris.controller.HeadlessGame;
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private static final MoveEvent TICK = new MoveEvent(EventType.DOWN, EventSource.THREAD);
+
+    /** Plays one game like a person would: rotate, shift, let gravity tick, hard drop. */
+    private static Replay playGame(long seed, int playerId, int pieces, ReplayRecorder recorder) {
+        GameBoard board = new GameBoard(25, 10, new RandomBrickGenerator());
+        board.newGame(seed);
+        recorder.begin(seed, playerId);
+        RecordingGame game = new RecordingGame(new HeadlessGame(board), null, recorder);
+        Random r = new Random(seed * 31 + playerId);
+        for (int p = 0; p < pieces && !game.isGameOver(); p++) {
+            for (int i = r.nextInt(4); i > 0; i--) game.dispatch(new MoveEvent(EventType.ROTATE, EventSource.USER));
+            EventType shift = r.nextBoolean() ? EventType.LEFT : EventType.RIGHT;
+            for (int i = r.nextInt(5); i > 0; i--) {
+                game.dispatch(new MoveEvent(shift, EventSource.USER));
+                if (r.nextInt(3) == 0) game.dispatch(TICK);
+            }
+            for (int i = r.nextInt(3); i > 0; i--) game.dispatch(TICK);
+            if (r.nextInt(20) == 0) game.dispatch(new MoveEvent(EventType.HOLD, EventSource.USER));
+            game.dispatch(new MoveEvent(EventType.HARD_DROP, EventSource.USER));
+        }
+        return recorder.finish(board.getScore().scoreProperty().get());
+    }
+
+    private static GameState replayToState(Replay replay) {
+        GameBoard board = new GameBoard(25, 10, new RandomBrickGenerator());
+        board.newGame(replay.getSeed());
+        HeadlessGame game = new HeadlessGame(board);
+        for (int i = 0; i < replay.getInputCount(); i++) {
+            game.dispatch(MoveEvent.fromCode(replay.getInput(i)));
+        }
+        GameState s = new GameState(25, 10);
+        board.saveState(s);
+        return s;
+    }
+
+    @Test
+    void compressionModel_roundTripsAndCompresses() {
+        InputCompressionModel model = InputCompressionModel.defaultModel();
+        ReplayRecorder recorder = new ReplayRecorder();
+        long raw = 0;
+        long packed = 0;
+        for (int g = 0; g < 20; g++) {
+            byte[] inputs = playGame(g, 1, 60, recorder).getInputs();
+            ByteBuffer buf = ByteBuffer.allocate(model.encodedSize(inputs));
+            model.encode(inputs, buf);
+            assertFalse(buf.hasRemaining(), "encodedSize must be exact");
+            buf.flip();
+            assertArrayEquals(inputs, model.decode(buf, inputs.length));
+            raw += inputs.length;
+            packed += buf.capacity();
+        }
+        assertTrue(packed * 3 < raw, "expected better than 3:1 on typical play, got " + raw + " -> " + packed);
+    }
+
+    @Test
+    void trainedModel_roundTripsEveryCode() {
+        byte[] all = new byte[InputCompressionModel.SYMBOLS * InputCompressionModel.SYMBOLS];
+        for (int i = 0; i < all.length; i++) all[i] = (byte) ((i * 7 + i / 12) % InputCompressionModel.SYMBOLS);
+        InputCompressionModel model = InputCompressionModel.train(new byte[][]{all, {1, 1, 1, 1}});
+        ByteBuffer buf = ByteBuffer.allocate(model.encodedSize(all));
+        model.encode(all, buf);
+        buf.flip();
+        assertArrayEquals(all, model.decode(buf, all.length));
+
+        ByteBuffer stored = ByteBuffer.allocate(InputCompressionModel.serializedSize());
+        model.writeTo(stored);
+        stored.flip();
+        assertEquals(model, InputCompressionModel.readFrom(stored));
+    }
+
+    @Test
+    void append_readBack_acrossSegmentsAndReopen() throws Exception {
+        ReplayRecorder recorder = new ReplayRecorder();
+        List<Replay> originals = new ArrayList<>();
+        //tiny segment limit forces many rollovers
+        try (ReplayArchive archive = ReplayArchive.open(dir, 200, InputCompressionModel.defaultModel())) {
+            for (int g = 0; g < 40; g++) {
+                Replay r = playGame(1000 + g, g % 3, 30, recorder);
+                assertEquals(g, archive.append(r));
+                originals.add(r.withId(g));
+            }
+        }
+        try (var files = Files.list(dir)) {
+            assertTrue(files.filter(p -> p.getFileName().toString().startsWith("segment-")).count() > 1);
+        }
+
+        try (ReplayArchive archive = ReplayArchive.open(dir)) {
+            assertEquals(originals.size(), archive.size());
+            for (int i = 0; i < originals.size(); i++) {
+                Replay expected = originals.get(i);
+                assertEquals(expected, archive.read(i));
+                assertEquals(expected.getScore(), archive.getScore(i));
+                assertEquals(expected.getSeed(), archive.getSeed(i));
+            }
+            //appending after reopen continues the id sequence
+            assertEquals(originals.size(), archive.append(playGame(7, 0, 5, recorder)));
+        }
+    }
+
+    @Test
+    void catalogGrowsPastInitialCapacity() throws Exception {
+        byte[] inputs = {8, 1, 1, 8};
+        try (ReplayArchive archive = ReplayArchive.open(dir)) {
+            for (int i = 0; i < 3000; i++) {
+                archive.append(new Replay(-1, i, 0, 1_000L * i, 100, i, inputs));
+            }
+            assertEquals(3000, archive.size());
+            assertEquals(2999, archive.getScore(2999));
+            assertArrayEquals(inputs, archive.read(2500).getInputs());
+        }
+    }
+
+    @Test
+    void filtersScanTheCatalog() throws Exception {
+        try (ReplayArchive archive = ReplayArchive.open(dir)) {
+            for (int i = 0; i < 100; i++) {
+                archive.append(new Replay(-1, i, i % 4, 10_000L + i * 60_000L, 1000, i * 10, new byte[]{8}));
+            }
+            assertArrayEquals(new int[]{50, 51, 52}, archive.findByScore(500, 520));
+            assertArrayEquals(new int[]{0, 1}, archive.findByRecordedAt(0, 10_000L + 2 * 60_000L));
+            assertEquals(25, archive.select(i -> archive.getPlayerId(i) == 3).length);
+            assertEquals(0, archive.findByScore(5000, Integer.MAX_VALUE).length);
+        }
+    }
+
+    @Test
+    void replayReproducesTheGame() throws Exception {
+        ReplayRecorder recorder = new ReplayRecorder();
+        GameBoard live = new GameBoard(25, 10, new RandomBrickGenerator());
+        live.newGame(123);
+        recorder.begin(123, 9);
+        RecordingGame game = new RecordingGame(new HeadlessGame(live), null, recorder);
+        Random r = new Random(5);
+        EventType[] types = EventType.values();
+        for (int i = 0; i < 400; i++) {
+            game.dispatch(new MoveEvent(types[r.nextInt(types.length)], r.nextBoolean() ? EventSource.USER : EventSource.THREAD));
+        }
+        Replay replay = recorder.finish(live.getScore().scoreProperty().get());
+        GameState expected = new GameState(25, 10);
+        live.saveState(expected);
+
+        try (ReplayArchive archive = ReplayArchive.open(dir)) {
+            archive.append(replay);
+            assertEquals(expected, replayToState(archive.read(0)));
+        }
+    }
+
+    @Test
+    void unfinishedAppendIsDiscardedOnReopen() throws Exception {
+        try (ReplayArchive archive = ReplayArchive.open(dir)) {
+            archive.append(new Replay(-1, 1, 0, 0, 0, 10, new byte[]{8, 8}));
+        }
+        //garbage left behind by an append that crashed before its catalog entry was published
+        Files.write(dir.resolve("segment-00000.dat"), new byte[]{1, 2, 3, 4, 5}, java.nio.file.StandardOpenOption.APPEND);
+        try (ReplayArchive archive = ReplayArchive.open(dir)) {
+            assertEquals(1, archive.size());
+            archive.append(new Replay(-1, 2, 0, 0, 0, 20, new byte[]{6, 2, 8}));
+            assertArrayEquals(new byte[]{6, 2, 8}, archive.read(1).getInputs());
+        }
+    }
+}
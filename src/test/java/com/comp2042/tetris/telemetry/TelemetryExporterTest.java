@@ -0,0 +1,130 @@
+package com.comp2042.tetris.telemetry;
+
+import com.comp2042.tetris.events.EventSource;
+import com.comp2042.tetris.events.EventType;
+import com.comp2042.tetris.events.MoveEvent;
+import com.comp2042.tetris.model.ClearRow;
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryExporterTest {
+
+    @TempDir
+    Path dir;
+
+    /** Plays {@code pieces} pieces (shift left twice, hard drop) and returns the expected records. */
+    private static List<int[]> play(GameBoard board, PieceTelemetry telemetry, int pieces) {
+        MoveEvent left = new MoveEvent(EventType.LEFT, EventSource.USER);
+        MoveEvent tick = new MoveEvent(EventType.DOWN, EventSource.THREAD);
+        List<int[]> expected = new ArrayList<>();
+        for (int p = 0; p < pieces; p++) {
+            telemetry.input(left);
+            board.moveBrickLeft();
+            telemetry.input(tick);
+            board.moveBrickDown();
+            telemetry.input(left);
+            board.moveBrickLeft();
+            int before = board.getScore().scoreProperty().get();
+            int dropped = 0;
+            while (board.moveBrickDown()) dropped++;
+            board.getScore().add(dropped * 2);
+            board.mergeBrickToBackground();
+            ClearRow clearRow = board.clearRows();
+            board.getScore().add(clearRow.getScoreBonus());
+            expected.add(new int[]{board.getCurrentBrickId(), board.getCurrentRotation(), board.getCurrentX(),
+                    board.getCurrentY(), clearRow.getLinesRemoved(), board.getScore().scoreProperty().get() - before, 2});
+            telemetry.pieceLocked(board, clearRow.getLinesRemoved());
+            if (board.createNewBrick()) {
+                board.newGame();
+                telemetry.reset(board);
+            }
+        }
+        return expected;
+    }
+
+    private static GameBoard newBoard() {
+        GameBoard board = new GameBoard(25, 10, new RandomBrickGenerator());
+        board.newGame(17);
+        return board;
+    }
+
+    @Test
+    void binaryRecords_matchLockedPieces() throws Exception {
+        Path file = dir.resolve("pieces.bin");
+        GameBoard board = newBoard();
+        List<int[]> expected;
+        try (TelemetryExporter exporter = TelemetryExporter.open(file)) {
+            assertEquals(TelemetryExporter.Format.BINARY, exporter.getFormat());
+            PieceTelemetry telemetry = new PieceTelemetry(exporter);
+            telemetry.reset(board);
+            expected = play(board, telemetry, 30);
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(TelemetryExporter.MAGIC, in.getInt());
+        assertEquals(TelemetryExporter.RECORD_BYTES, in.getShort());
+        in.getShort();
+        assertEquals(expected.size() * TelemetryExporter.RECORD_BYTES, in.remaining());
+        for (int[] e : expected) {
+            assertEquals(e[0], in.get(), "piece");
+            assertEquals(e[1], in.get(), "rotation");
+            assertEquals(e[2], in.get(), "x");
+            assertEquals(e[3], in.get() & 0xFF, "drop");
+            assertEquals(e[4], in.get(), "lines");
+            in.get();
+            assertEquals(e[6], in.getShort(), "inputs (gravity ticks excluded)");
+            assertEquals(e[5], in.getInt(), "score delta");
+            assertTrue(in.getInt() >= 0, "active time");
+        }
+    }
+
+    @Test
+    void csvRecords_haveHeaderAndOneLinePerPiece() throws Exception {
+        Path file = dir.resolve("pieces.csv");
+        GameBoard board = newBoard();
+        List<int[]> expected;
+        try (TelemetryExporter exporter = TelemetryExporter.open(file)) {
+            PieceTelemetry telemetry = new PieceTelemetry(exporter);
+            telemetry.reset(board);
+            expected = play(board, telemetry, 20);
+        }
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(TelemetryExporter.CSV_HEADER.trim(), lines.get(0));
+        assertEquals(expected.size() + 1, lines.size());
+        for (int i = 0; i < expected.size(); i++) {
+            String[] f = lines.get(i + 1).split(",");
+            int[] e = expected.get(i);
+            assertEquals(8, f.length);
+            assertEquals(e[0], Integer.parseInt(f[0]));
+            assertEquals(e[2], Integer.parseInt(f[2]));
+            assertEquals(e[3], Integer.parseInt(f[3]));
+            assertEquals(e[5], Integer.parseInt(f[5]));
+            assertEquals(e[6], Integer.parseInt(f[7]));
+        }
+    }
+
+    @Test
+    void fullRing_dropsInsteadOfBlocking() throws Exception {
+        Path file = dir.resolve("drops.bin");
+        //the writer sleeps for an hour before its first drain, so only the ring's capacity fits
+        try (TelemetryExporter exporter = TelemetryExporter.open(file, TelemetryExporter.Format.BINARY, 8, 3_600_000)) {
+            int accepted = 0;
+            for (int i = 0; i < 100; i++) {
+                if (exporter.offer(1, 0, i % 10, 20, 0, 40, 1000, 3)) accepted++;
+            }
+            assertEquals(8, accepted);
+            assertEquals(92, exporter.getDroppedRecords());
+            assertEquals(8, exporter.getAcceptedRecords());
+        }
+        assertEquals(8 + 8 * TelemetryExporter.RECORD_BYTES, Files.size(file));
+    }
+}
@@ -0,0 +1,208 @@
+package com.comp2042.tetris.util;
+
+import com.comp2042.tetris.model.GameBoard;
+import com.comp2042.tetris.model.GameState;
+import com.comp2042.tetris.model.brick.RandomBrickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardNotationTest {
+
+    private static final int ROWS = 25;
+    private static final int COLS = 10;
+
+    private final Random random = new Random(2042);
+    private final BoardNotation notation = new BoardNotation();
+
+    /** Random position: a stack of random height with random holes, piece, hold and queue. */
+    private GameState randomPosition() {
+        GameState s = new GameState(ROWS, COLS);
+        int stackTop = random.nextInt(ROWS + 1);
+        for (int r = stackTop; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                s.setCell(r, c, random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(GameBoard.GARBAGE_CELL));
+            }
+        }
+        s.setBrickId(random.nextInt(8));
+        s.setRotation(random.nextInt(4));
+        s.setX(random.nextInt(13) - 2);
+        s.setY(random.nextInt(ROWS));
+        s.setHeldId(random.nextInt(8));
+        s.setHoldUsed(random.nextBoolean());
+        int queueLength = random.nextInt(GameState.QUEUE_CAPACITY + 1);
+        for (int i = 0; i < queueLength; i++) s.queue()[i] = 1 + random.nextInt(7);
+        s.setQueueLength(queueLength);
+        //not part of a position
+        s.setScore(random.nextInt(100_000));
+        s.setRandomState(random.nextLong());
+        return s;
+    }
+
+    /** A decoded position only carries the position fields; copy the rest so equals() applies. */
+    private static void copyNonPositionFields(GameState from, GameState to) {
+        to.setScore(from.getScore());
+        to.setRandomState(from.getRandomState());
+        to.setGameOver(from.isGameOver());
+    }
+
+    @Test
+    void binary_roundTripsRandomPositions() {
+        byte[] buf = new byte[BoardNotation.maxEncodedSize(ROWS, COLS) + 3];
+        GameState decoded = new GameState(ROWS, COLS);
+        for (int n = 0; n < 2000; n++) {
+            GameState original = randomPosition();
+            int length = BoardNotation.encode(original, buf, 3);
+            assertTrue(length <= BoardNotation.maxEncodedSize(ROWS, COLS));
+            assertEquals(length, BoardNotation.decode(buf, 3, length, decoded));
+            copyNonPositionFields(original, decoded);
+            assertEquals(original, decoded);
+        }
+    }
+
+    @Test
+    void text_roundTripsRandomPositions() {
+        GameState decoded = new GameState(ROWS, COLS);
+        for (int n = 0; n < 2000; n++) {
+            GameState original = randomPosition();
+            String text = notation.toText(original);
+            assertTrue(text.startsWith(BoardNotation.TEXT_PREFIX));
+            assertTrue(text.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '@'), text);
+            notation.fromText(text, decoded);
+            copyNonPositionFields(original, decoded);
+            assertEquals(original, decoded);
+        }
+    }
+
+    @Test
+    void encoding_isCanonical_andDistinguishesPositions() {
+        byte[] a = new byte[BoardNotation.maxEncodedSize(ROWS, COLS)];
+        byte[] b = new byte[a.length];
+        for (int n = 0; n < 500; n++) {
+            GameState s = randomPosition();
+            GameState copy = new GameState(ROWS, COLS);
+            copy.copyFrom(s);
+            copy.setScore(s.getScore() + 1);
+            copy.setRandomState(~s.getRandomState());
+            int la = BoardNotation.encode(s, a, 0);
+            assertArrayEquals(Arrays.copyOf(a, la), Arrays.copyOf(b, BoardNotation.encode(copy, b, 0)),
+                    "score and random state must not affect the key");
+
+            int r = random.nextInt(ROWS);
+            int c = random.nextInt(COLS);
+            copy.setCell(r, c, (s.getCell(r, c) + 1) % (GameBoard.GARBAGE_CELL + 1));
+            assertFalse(Arrays.equals(a, 0, la, b, 0, BoardNotation.encode(copy, b, 0)), "one cell changed");
+        }
+    }
+
+    @Test
+    void emptyBoard_isTiny() {
+        GameState s = new GameState(ROWS, COLS);
+        byte[] buf = new byte[BoardNotation.maxEncodedSize(ROWS, COLS)];
+        //250 empty cells in runs of 16
+        assertEquals(6 + 16, BoardNotation.encode(s, buf, 0));
+    }
+
+    @Test
+    void gameBoard_roundTripsThroughText() {
+        GameBoard live = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+        live.newGame(99);
+        for (int piece = 0; piece < 40; piece++) {
+            for (int i = random.nextInt(4); i > 0; i--) live.rotateLeftBrick();
+            for (int i = random.nextInt(5); i > 0; i--) {
+                if (random.nextBoolean()) live.moveBrickLeft(); else live.moveBrickRight();
+            }
+            if (piece % 9 == 4) live.holdCurrentBrick();
+            if (piece % 5 == 0) {
+                //snapshot mid-fall as well as at spawn
+                live.moveBrickDown();
+            } else {
+                while (live.moveBrickDown()) { }
+                live.mergeBrickToBackground();
+                live.clearRows();
+                if (live.createNewBrick()) live.newGame();
+            }
+            GameState expected = new GameState(ROWS, COLS);
+            live.saveState(expected);
+
+            GameState decoded = new GameState(ROWS, COLS);
+            notation.fromText(notation.toText(expected), decoded);
+            GameBoard copy = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+            copy.newGame(1);
+            copyNonPositionFields(expected, decoded);
+            copy.restoreState(decoded);
+            GameState actual = new GameState(ROWS, COLS);
+            copy.saveState(actual);
+            assertEquals(expected, actual);
+            assertArrayEquals(live.getBoardMatrix()[ROWS - 1], copy.getBoardMatrix()[ROWS - 1]);
+        }
+    }
+
+    @Test
+    void garbageRows_roundTripThroughText() {
+        GameBoard live = new GameBoard(ROWS, COLS, new RandomBrickGenerator());
+        live.newGame(5);
+        while (live.moveBrickDown()) { }
+        live.mergeBrickToBackground();
+        live.addGarbage(3, 7);
+        live.createNewBrick();
+        GameState expected = new GameState(ROWS, COLS);
+        live.saveState(expected);
+        assertEquals(GameBoard.GARBAGE_CELL, expected.getCell(ROWS - 1, 0));
+
+        GameState decoded = new GameState(ROWS, COLS);
+        notation.fromText(notation.toText(expected), decoded);
+        copyNonPositionFields(expected, decoded);
+        assertEquals(expected, decoded);
+        assertEquals(0, decoded.getCell(ROWS - 1, 7));
+    }
+
+    @Test
+    void malformedInput_isRejected() {
+        GameState target = new GameState(ROWS, COLS);
+        assertThrows(IllegalArgumentException.class, () -> notation.fromText("v115@vhAAgH", target));
+        assertThrows(IllegalArgumentException.class, () -> notation.fromText(BoardNotation.TEXT_PREFIX + "!!!!", target));
+        String valid = notation.toText(randomPosition());
+        assertThrows(IllegalArgumentException.class, () -> notation.fromText(valid.substring(0, valid.length() - 4), target));
+        assertThrows(IllegalArgumentException.class, () -> notation.fromText(valid, new GameState(20, 10)));
+
+        GameState bad = new GameState(ROWS, COLS);
+        bad.setCell(0, 0, GameBoard.GARBAGE_CELL + 1);
+        assertThrows(IllegalArgumentException.class, () -> notation.toText(bad));
+        GameState badQueue = new GameState(ROWS, COLS);
+        badQueue.setQueueLength(1);
+        assertThrows(IllegalArgumentException.class, () -> notation.toText(badQueue));
+    }
+
+    @Test
+    void outOfRangeIds_andCells_areRejected_withoutTouchingTheTarget() {
+        GameState position = randomPosition();
+        position.setQueueLength(2);
+        position.queue()[0] = 3;
+        position.queue()[1] = 5;
+        byte[] valid = new byte[BoardNotation.maxEncodedSize(ROWS, COLS)];
+        int length = BoardNotation.encode(position, valid, 0);
+        GameState target = randomPosition();
+        GameState before = new GameState(ROWS, COLS);
+        before.copyFrom(target);
+
+        //queue byte follows the 6 header bytes; the first cell byte follows the queue
+        int[][] corruptions = {{6, 0x9F}, {6, 0x30}, {6, 0x83}, {7, 0x90}, {7, 0xF0}};
+        for (int[] c : corruptions) {
+            byte[] in = valid.clone();
+            in[c[0]] = (byte) c[1];
+            assertThrows(IllegalArgumentException.class, () -> BoardNotation.decode(in, 0, length, target),
+                    "byte " + c[0] + " = " + Integer.toHexString(c[1]));
+            assertEquals(before, target);
+        }
+        //the last cell byte goes bad after the queue and most cells have parsed
+        byte[] in = valid.clone();
+        in[length - 1] = (byte) ((GameBoard.GARBAGE_CELL + 1) << 4 | (in[length - 1] & 0x0F));
+        assertThrows(IllegalArgumentException.class, () -> BoardNotation.decode(in, 0, length, target));
+        assertEquals(before, target);
+        assertArrayEquals(before.cells(), target.cells());
+    }
+}
@@ -0,0 +1,31 @@
+package com.comp2042.tetris.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SplitMix64Test {
+
+    @Test
+    void stream_matchesTheReferenceOutputs() {
+        //first outputs of the reference splitmix64 seeded with 0
+        long state = 0;
+        assertEquals(0xE220A8397B1DCDAFL, SplitMix64.mix(state += SplitMix64.GAMMA));
+        assertEquals(0x6E789E6AA1B965F4L, SplitMix64.mix(state += SplitMix64.GAMMA));
+        assertEquals(0x06C45D188009454FL, SplitMix64.mix(state += SplitMix64.GAMMA));
+    }
+
+    @Test
+    void index_staysInBoundsAndCoversIt() {
+        int[] counts = new int[7];
+        long state = 42;
+        for (int i = 0; i < 70_000; i++) {
+            counts[SplitMix64.index(SplitMix64.mix(state += SplitMix64.GAMMA), 7)]++;
+        }
+        for (int c : counts) {
+            assertTrue(c > 9_000 && c < 11_000, "count " + c);
+        }
+        assertEquals(0, SplitMix64.index(0, 7));
+        assertEquals(6, SplitMix64.index(-1L, 7));
+    }
+}